@@ -0,0 +1,84 @@
+#!/bin/bash
+# Bearer token authentication overhead per request
+# Lists the demo user's bookings REQUESTS times without a token and REQUESTS times with a signed
+# token for the same user, CONCURRENCY at a time over kept-alive connections, and compares
+# throughput and latency. The token is verified once and then served from the verified-token
+# cache, so authenticated throughput should stay within a few percent of the baseline.
+# Needs the app's JWT secret (JWT_SECRET, or the dev profile's secret); leave AUTH_REQUIRED
+# unset so the unauthenticated baseline is served too.
+#
+# Usage: ./auth-benchmark.sh [requests] [concurrency]
+
+REQUESTS=${1:-2000}
+CONCURRENCY=${2:-20}
+SECRET=${JWT_SECRET:-local-development-secret-change-me-in-production}
+BASE="http://localhost:8080/api"
+URL="$BASE/v1/bookings?limit=1"
+RESULTS=$(mktemp)
+CONFIG=$(mktemp)
+
+metric() {
+    curl -s "$BASE/actuator/metrics/$1${2:+?tag=$2}" | jq -r ".measurements[] | select(.statistic == \"${3:-COUNT}\") | .value // 0"
+}
+
+b64url() {
+    openssl base64 -A | tr '+/' '-_' | tr -d '='
+}
+
+token() {
+    local now header payload signature
+    now=$(date +%s)
+    header=$(printf '{"alg":"HS256","typ":"JWT"}' | b64url)
+    payload=$(printf '{"sub":"test@example.com","iat":%s,"exp":%s}' "$now" $((now + 3600)) | b64url)
+    signature=$(printf '%s.%s' "$header" "$payload" | openssl dgst -sha256 -hmac "$SECRET" -binary | b64url)
+    printf '%s.%s.%s' "$header" "$payload" "$signature"
+}
+
+# Runs REQUESTS requests; prints "<requests per second> <mean seconds> <non-200 count>"
+run() {
+    : > "$RESULTS"
+    START=$(date +%s%N)
+    curl -s --parallel --parallel-max "$CONCURRENCY" -K "$CONFIG" "$@" \
+        -w "%{http_code} %{time_total}\n" >> "$RESULTS"
+    END=$(date +%s%N)
+    awk -v ms=$(( (END - START) / 1000000 )) '
+        { n++; total += $2; if ($1 != 200) failed++ }
+        END { printf "%.0f %.5f %d\n", n * 1000 / ms, total / n, failed }' "$RESULTS"
+}
+
+for i in $(seq 1 "$REQUESTS"); do
+    printf 'url = "%s"\noutput = /dev/null\n' "$URL" >> "$CONFIG"
+done
+TOKEN=$(token)
+
+echo "🔐 AUTH OVERHEAD BENCHMARK"
+echo "══════════════════════════════════════════════════════════════"
+echo "Requests per run: $REQUESTS   Concurrency: $CONCURRENCY"
+
+# Warm up both paths (creates the demo user, fills the user and token caches)
+run > /dev/null
+run -H "Authorization: Bearer $TOKEN" > /dev/null
+
+HITS_BEFORE=$(metric flightbooking.auth.token.cache result:hit)
+read -r BASE_RPS BASE_MEAN BASE_FAILED <<< "$(run)"
+read -r AUTH_RPS AUTH_MEAN AUTH_FAILED <<< "$(run -H "Authorization: Bearer $TOKEN")"
+HITS=$(echo "$(metric flightbooking.auth.token.cache result:hit) - ${HITS_BEFORE:-0}" | bc)
+VERIFIES=$(metric flightbooking.auth.token.verify)
+VERIFY_TIME=$(metric flightbooking.auth.token.verify "" TOTAL_TIME)
+
+echo ""
+echo "══════════════════════════════════════════════════════════════"
+echo "                     📊 AUTH BENCHMARK RESULTS"
+echo "══════════════════════════════════════════════════════════════"
+printf "%-16s %10s %14s %8s\n" "" "req/s" "mean latency" "non-200"
+printf "%-16s %10s %11.2f ms %8s\n" "No token" "$BASE_RPS" "$(echo "$BASE_MEAN * 1000" | bc -l)" "$BASE_FAILED"
+printf "%-16s %10s %11.2f ms %8s\n" "Bearer token" "$AUTH_RPS" "$(echo "$AUTH_MEAN * 1000" | bc -l)" "$AUTH_FAILED"
+echo ""
+echo "Throughput change:         $(echo "scale=1; ($AUTH_RPS - $BASE_RPS) * 100 / $BASE_RPS" | bc)%"
+echo "Added latency per request: $(echo "scale=3; ($AUTH_MEAN - $BASE_MEAN) * 1000" | bc) ms"
+echo "Token cache hits (run):    ${HITS%.*} / $REQUESTS"
+if [ -n "$VERIFIES" ] && [ "${VERIFIES%.*}" -gt 0 ]; then
+    echo "Signature checks (total):  ${VERIFIES%.*}, mean $(awk -v t="$VERIFY_TIME" -v n="$VERIFIES" 'BEGIN { printf "%.3f", t * 1000 / n }') ms"
+fi
+
+rm -f "$RESULTS" "$CONFIG"
@@ -0,0 +1,98 @@
+-- Flight Booking Aggregator - Base schema
+-- The tables the application maps, as they stood before the later scripts reshaped them
+-- (sequence ids, segments, version columns, monthly partitions...). The schema is owned by these
+-- scripts: the application runs with spring.jpa.hibernate.ddl-auto=none and never creates or
+-- drops tables itself.
+-- Enum columns are plain VARCHARs so new enum values need no migration.
+-- Safe to re-run.
+
+CREATE TABLE IF NOT EXISTS user_profiles (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    date_of_birth VARCHAR(255),
+    passport_number VARCHAR(255),
+    nationality VARCHAR(255),
+    address VARCHAR(255),
+    city VARCHAR(255),
+    country VARCHAR(255),
+    CONSTRAINT uk_user_profiles_user UNIQUE (user_id)
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email VARCHAR(255) NOT NULL UNIQUE,
+    phone VARCHAR(255) NOT NULL UNIQUE,
+    password_hash VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    profile_id BIGINT UNIQUE REFERENCES user_profiles(id),
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    updated_at TIMESTAMP
+);
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'fk_user_profiles_user') THEN
+        ALTER TABLE user_profiles ADD CONSTRAINT fk_user_profiles_user FOREIGN KEY (user_id) REFERENCES users(id);
+    END IF;
+END;
+$$;
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    booking_reference VARCHAR(255) NOT NULL UNIQUE,
+    airline_code VARCHAR(255),
+    airline_pnr VARCHAR(255),
+    airline_booking_id VARCHAR(255),
+    flight_number VARCHAR(255),
+    origin_airport VARCHAR(255),
+    destination_airport VARCHAR(255),
+    departure_date DATE,
+    status VARCHAR(255) NOT NULL,
+    total_amount NUMERIC(10,2) NOT NULL,
+    currency VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS passengers (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    booking_id BIGINT NOT NULL REFERENCES bookings(id),
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    age INTEGER NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    passport_number VARCHAR(255),
+    nationality VARCHAR(255),
+    seat_number VARCHAR(255),
+    meal_preference VARCHAR(255),
+    special_requests VARCHAR(255),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS payments (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    booking_id BIGINT NOT NULL UNIQUE REFERENCES bookings(id),
+    amount NUMERIC(10,2) NOT NULL,
+    currency VARCHAR(255) NOT NULL,
+    method VARCHAR(255) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    transaction_id VARCHAR(255),
+    gateway_response VARCHAR(255),
+    gateway_name VARCHAR(255),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS payment_transactions (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    payment_id BIGINT NOT NULL REFERENCES payments(id),
+    status VARCHAR(255) NOT NULL,
+    gateway_response VARCHAR(255),
+    error_message VARCHAR(255),
+    transaction_reference VARCHAR(255),
+    processed_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,25 @@
+-- Flight Booking Aggregator - Sequence-based IDs
+-- Bookings, passengers, payments and payment transactions take their ids from pooled
+-- sequences (allocationSize = 50, pooled-lo optimizer) instead of IDENTITY columns,
+-- so Hibernate can batch their inserts (hibernate.jdbc.batch_size).
+-- Safe to re-run; existing ids are kept and each sequence starts after the current max id.
+
+-- Bookings
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE bookings ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('bookings_seq', COALESCE((SELECT MAX(id) FROM bookings), 0) + 1, false);
+
+-- Passengers
+CREATE SEQUENCE IF NOT EXISTS passengers_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE passengers ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('passengers_seq', COALESCE((SELECT MAX(id) FROM passengers), 0) + 1, false);
+
+-- Payments
+CREATE SEQUENCE IF NOT EXISTS payments_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE payments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('payments_seq', COALESCE((SELECT MAX(id) FROM payments), 0) + 1, false);
+
+-- Payment transactions
+CREATE SEQUENCE IF NOT EXISTS payment_transactions_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE payment_transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('payment_transactions_seq', COALESCE((SELECT MAX(id) FROM payment_transactions), 0) + 1, false);
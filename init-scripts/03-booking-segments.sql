@@ -0,0 +1,33 @@
+-- Flight Booking Aggregator - Booking segments
+-- One row per flight of a booking (round trip / multi-city), each with its own airline PNR.
+-- The flight columns on bookings keep mirroring the first segment.
+-- Safe to re-run; existing single-flight bookings are backfilled as segment 0.
+
+CREATE SEQUENCE IF NOT EXISTS booking_segments_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS booking_segments (
+    id BIGINT PRIMARY KEY DEFAULT nextval('booking_segments_seq'),
+    booking_id BIGINT NOT NULL REFERENCES bookings(id),
+    segment_index INTEGER NOT NULL,
+    flight_id VARCHAR(255),
+    airline_code VARCHAR(255) NOT NULL,
+    flight_number VARCHAR(255),
+    origin_airport VARCHAR(255),
+    destination_airport VARCHAR(255),
+    departure_date DATE,
+    price NUMERIC(10,2) NOT NULL,
+    airline_pnr VARCHAR(255),
+    airline_booking_id VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    updated_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_booking_segments_booking ON booking_segments (booking_id);
+
+INSERT INTO booking_segments (booking_id, segment_index, airline_code, flight_number, origin_airport,
+                              destination_airport, departure_date, price, airline_pnr, airline_booking_id,
+                              created_at, updated_at)
+SELECT b.id, 0, b.airline_code, b.flight_number, b.origin_airport, b.destination_airport,
+       b.departure_date, b.total_amount, b.airline_pnr, b.airline_booking_id, b.created_at, b.updated_at
+FROM bookings b
+WHERE NOT EXISTS (SELECT 1 FROM booking_segments s WHERE s.booking_id = b.id);
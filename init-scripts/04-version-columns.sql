@@ -0,0 +1,6 @@
+-- Flight Booking Aggregator - Optimistic locking
+-- Version counters checked on every booking/payment update (JPA @Version).
+-- Safe to re-run; existing rows start at version 0.
+
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE payments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
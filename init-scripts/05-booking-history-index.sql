@@ -0,0 +1,6 @@
+-- Flight Booking Aggregator - Booking history index
+-- Keyset pagination of a user's bookings (newest first) reads one index range per page.
+-- Safe to re-run. Supersedes idx_bookings_user, which is its prefix.
+
+CREATE INDEX IF NOT EXISTS idx_bookings_user_created ON bookings (user_id, created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_bookings_user;
@@ -0,0 +1,5 @@
+-- Flight Booking Aggregator - Airline status sync index
+-- The sync worker walks upcoming segments in (departure_date, id) keyset order.
+-- Safe to re-run.
+
+CREATE INDEX IF NOT EXISTS idx_booking_segments_departure ON booking_segments (departure_date, id);
@@ -0,0 +1,6 @@
+-- Flight Booking Aggregator - Bulk cancellation index
+-- Bulk cancellation looks up the bookings on a disrupted flight by airline, flight number and date.
+-- Safe to re-run.
+
+CREATE INDEX IF NOT EXISTS idx_booking_segments_flight
+    ON booking_segments (airline_code, flight_number, departure_date);
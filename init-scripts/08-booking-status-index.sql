@@ -0,0 +1,5 @@
+-- Flight Booking Aggregator - Stale booking reaper index
+-- The reaper claims PENDING bookings older than the cutoff, oldest first.
+-- Safe to re-run.
+
+CREATE INDEX IF NOT EXISTS idx_bookings_status_created ON bookings (status, created_at);
@@ -0,0 +1,94 @@
+-- Flight Booking Aggregator - Monthly partitions for bookings, passengers, payments and payment transactions
+-- Each table is range-partitioned by month of its creation time (payment transactions: processed_at).
+-- The application creates upcoming partitions and archives expired ones (BookingPartitionManager,
+-- BookingArchiveService); run with spring.jpa.hibernate.ddl-auto=validate or none so the
+-- partitioned tables are not recreated on startup.
+-- Safe to re-run; tables that are already partitioned are left alone.
+--
+-- Unique and primary keys of a partitioned table must include the partition key, so:
+--   * primary keys become (id, <partition column>)
+--   * foreign keys into these tables are dropped (ids still come from the sequences)
+--   * booking references stay globally unique through booking_references, filled by a trigger,
+--     which also points archived references at their archive file
+
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, first_month DATE, last_month DATE)
+RETURNS VOID AS $$
+DECLARE
+    month DATE := date_trunc('month', first_month);
+BEGIN
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       parent || '_p' || to_char(month, 'YYYY_MM'), parent,
+                       month, (month + INTERVAL '1 month')::DATE);
+        month := (month + INTERVAL '1 month')::DATE;
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION partition_by_month(parent TEXT, partition_column TEXT)
+RETURNS VOID AS $$
+DECLARE
+    old_table TEXT := parent || '_unpartitioned';
+    first_month DATE;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid
+               WHERE c.relname = parent) THEN
+        RETURN;
+    END IF;
+
+    EXECUTE format('ALTER TABLE %I RENAME TO %I', parent, old_table);
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS) PARTITION BY RANGE (%I)',
+                   parent, old_table, partition_column);
+    EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id, %I)', parent, partition_column);
+
+    EXECUTE format('SELECT min(%I)::DATE FROM %I', partition_column, old_table) INTO first_month;
+    PERFORM create_monthly_partitions(parent, COALESCE(first_month, current_date),
+                                      (current_date + INTERVAL '3 months')::DATE);
+
+    EXECUTE format('INSERT INTO %I SELECT * FROM %I', parent, old_table);
+    -- Also drops the foreign keys that referenced the old table
+    EXECUTE format('DROP TABLE %I CASCADE', old_table);
+END;
+$$ LANGUAGE plpgsql;
+
+SELECT partition_by_month('bookings', 'created_at');
+SELECT partition_by_month('passengers', 'created_at');
+SELECT partition_by_month('payments', 'created_at');
+SELECT partition_by_month('payment_transactions', 'processed_at');
+
+-- Indexes are declared on the parent; every partition, including future ones, gets its own copy
+CREATE INDEX IF NOT EXISTS idx_bookings_user_created ON bookings (user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_created ON bookings (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_bookings_reference ON bookings (booking_reference);
+CREATE INDEX IF NOT EXISTS idx_bookings_airline_pnr ON bookings (airline_pnr);
+CREATE INDEX IF NOT EXISTS idx_passengers_booking ON passengers (booking_id);
+CREATE INDEX IF NOT EXISTS idx_payments_booking ON payments (booking_id);
+CREATE INDEX IF NOT EXISTS idx_payments_transaction ON payments (transaction_id);
+CREATE INDEX IF NOT EXISTS idx_payment_transactions_payment ON payment_transactions (payment_id);
+
+-- Global booking reference registry; archive_file is set once the booking has been archived
+CREATE TABLE IF NOT EXISTS booking_references (
+    booking_reference VARCHAR(255) PRIMARY KEY,
+    booking_id BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    archive_file VARCHAR(255)
+);
+
+INSERT INTO booking_references (booking_reference, booking_id, created_at)
+SELECT booking_reference, id, created_at FROM bookings
+ON CONFLICT (booking_reference) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION register_booking_reference()
+RETURNS TRIGGER AS $$
+BEGIN
+    -- A duplicate reference fails the booking insert, as the old unique constraint did
+    INSERT INTO booking_references (booking_reference, booking_id, created_at)
+    VALUES (NEW.booking_reference, NEW.id, NEW.created_at);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_register_booking_reference ON bookings;
+CREATE TRIGGER trg_register_booking_reference
+    BEFORE INSERT ON bookings
+    FOR EACH ROW EXECUTE FUNCTION register_booking_reference();
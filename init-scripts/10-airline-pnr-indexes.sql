@@ -0,0 +1,7 @@
+-- Flight Booking Aggregator - Airline PNR lookup indexes
+-- Airline webhooks and support look bookings up by PNR: the first segment's PNR is on the booking
+-- (idx_bookings_airline_pnr, created in 01), later segments' on the segment.
+-- Safe to re-run.
+
+CREATE INDEX IF NOT EXISTS idx_bookings_airline_pnr ON bookings (airline_pnr);
+CREATE INDEX IF NOT EXISTS idx_booking_segments_airline_pnr ON booking_segments (airline_pnr);
@@ -0,0 +1,24 @@
+-- Flight Booking Aggregator - Append-only booking status log
+-- One row per status change of a booking (created, airline-confirmed, paid, cancelled, synced...),
+-- appended in the transaction that makes the change (BookingEventLog). Rows are never updated.
+-- Range-partitioned by month of occurred_at like the booking tables (09), so a month's log is
+-- archived and dropped together with its bookings; no foreign key to bookings for the same reason.
+-- Safe to re-run.
+
+CREATE TABLE IF NOT EXISTS booking_status_events (
+    id BIGSERIAL,
+    booking_id BIGINT NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    from_status VARCHAR(32),
+    to_status VARCHAR(32),
+    detail VARCHAR(500),
+    occurred_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (id, occurred_at)
+) PARTITION BY RANGE (occurred_at);
+
+SELECT create_monthly_partitions('booking_status_events', current_date, (current_date + INTERVAL '3 months')::DATE);
+
+-- Timeline of one booking
+CREATE INDEX IF NOT EXISTS idx_booking_status_events_booking ON booking_status_events (booking_id, occurred_at);
+-- Range scans by time; rows arrive in occurred_at order, so a BRIN index stays tiny
+CREATE INDEX IF NOT EXISTS idx_booking_status_events_occurred ON booking_status_events USING BRIN (occurred_at);
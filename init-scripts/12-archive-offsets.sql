@@ -0,0 +1,8 @@
+-- Flight Booking Aggregator - Archive block offsets
+-- Archive files are written as a series of gzip members of a few bookings each
+-- (BookingArchiveService); archive_offset is the byte offset of the member holding the booking,
+-- so a lookup decompresses one block instead of the whole month.
+-- NULL for bookings archived before offsets were recorded: their file is scanned from the start.
+-- Safe to re-run.
+
+ALTER TABLE booking_references ADD COLUMN IF NOT EXISTS archive_offset BIGINT;
@@ -0,0 +1,23 @@
+-- Flight Booking Aggregator - Transactional outbox
+-- Booking events are inserted here in the transaction that changes the booking (OutboxService)
+-- and relayed to listeners by OutboxRelay, which locks due PENDING rows with FOR UPDATE SKIP LOCKED.
+-- No foreign key: bookings is partitioned (09) and the event must not block archiving its booking.
+-- Safe to re-run.
+
+CREATE TABLE IF NOT EXISTS booking_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    booking_id BIGINT NOT NULL,
+    event_type VARCHAR(32) NOT NULL,
+    status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+    attempts INTEGER NOT NULL DEFAULT 0,
+    -- Not picked up before this time (claim lease or retry backoff)
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(255),
+    -- Comma-separated listeners that already handled the event; retries skip them
+    delivered_listeners VARCHAR(500),
+    created_at TIMESTAMP NOT NULL,
+    published_at TIMESTAMP
+);
+
+-- Relay batch: due PENDING rows
+CREATE INDEX IF NOT EXISTS idx_booking_outbox_pending ON booking_outbox (status, next_attempt_at);
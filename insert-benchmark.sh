@@ -0,0 +1,59 @@
+#!/bin/bash
+# Insert round trips per booking
+# Creates BOOKINGS bookings with PASSENGERS passengers each and reports, per booking, how many
+# JDBC statements Hibernate prepared and how many entities it inserted (hibernate.* metrics).
+# With IDENTITY ids every insert is its own statement; with pooled sequence ids the passenger
+# inserts of a booking go out as one JDBC batch.
+# Start the app with HIBERNATE_STATISTICS=true; run once per build to compare before/after.
+#
+# Usage: ./insert-benchmark.sh [bookings] [passengers]
+
+BOOKINGS=${1:-20}
+PASSENGERS=${2:-9}
+BASE="http://localhost:8080/api"
+SEARCH_URL="$BASE/v1/flights/search?origin=DEL&destination=BOM&departureDate=2025-12-15&passengers=$PASSENGERS"
+
+metric() {
+    curl -s "$BASE/actuator/metrics/$1${2:+?tag=$2}" | jq -r '.measurements[0].value // 0' | cut -d. -f1
+}
+
+passengers_json() {
+    for i in $(seq 1 "$PASSENGERS"); do
+        [ "$i" -gt 1 ] && printf ','
+        printf '{"firstName":"Passenger","lastName":"No%s","age":30,"type":"ADULT"}' "$i"
+    done
+}
+
+echo "📦 INSERT BENCHMARK"
+echo "══════════════════════════════════════════════════════════════"
+echo "Bookings: $BOOKINGS   Passengers per booking: $PASSENGERS"
+
+if [ "$(curl -s "$BASE/actuator/metrics/hibernate.statements" | jq -r '.name // empty')" = "" ]; then
+    echo "❌ hibernate.* metrics not found - start the app with HIBERNATE_STATISTICS=true"
+    exit 1
+fi
+
+STATEMENTS_BEFORE=$(metric hibernate.statements status:prepared)
+INSERTS_BEFORE=$(metric hibernate.entities.inserts)
+CREATED=0
+
+for i in $(seq 1 "$BOOKINGS"); do
+    FLIGHT_ID=$(curl -s "$SEARCH_URL" | jq -r '.flights[0].flightId')
+    STATUS=$(curl -s -o /dev/null -w "%{http_code}" -X POST "$BASE/v1/bookings" \
+        -H "Content-Type: application/json" \
+        -d "{\"flightIds\":[\"$FLIGHT_ID\"],\"passengerCount\":$PASSENGERS,\"passengers\":[$(passengers_json)],\"paymentMethod\":\"CREDIT_CARD\"}")
+    [ "$STATUS" = "201" ] && CREATED=$((CREATED + 1))
+done
+
+STATEMENTS=$(( $(metric hibernate.statements status:prepared) - STATEMENTS_BEFORE ))
+INSERTS=$(( $(metric hibernate.entities.inserts) - INSERTS_BEFORE ))
+
+echo ""
+echo "══════════════════════════════════════════════════════════════"
+echo "                     📊 INSERT BENCHMARK RESULTS"
+echo "══════════════════════════════════════════════════════════════"
+echo "Bookings created:              $CREATED / $BOOKINGS"
+if [ "$CREATED" -gt 0 ]; then
+    echo "Entities inserted per booking: $(echo "scale=1; $INSERTS / $CREATED" | bc)"
+    echo "Statements per booking:        $(echo "scale=1; $STATEMENTS / $CREATED" | bc)"
+fi
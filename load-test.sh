@@ -0,0 +1,67 @@
+#!/bin/bash
+# Concurrent flight search load test
+# Fires CONCURRENCY searches at once and samples in-flight searches vs busy Tomcat threads.
+# With async search handling, in-flight searches can exceed the Tomcat thread count.
+# Compare against a small worker pool, e.g. start the app with SERVER_TOMCAT_THREADS_MAX=20
+#
+# Usage: ./load-test.sh [concurrency] [rounds]
+
+CONCURRENCY=${1:-200}
+ROUNDS=${2:-3}
+BASE="http://localhost:8080/api"
+SEARCH_URL="$BASE/v1/flights/search?origin=DEL&destination=BOM&departureDate=2025-12-15&passengers=1"
+RESULTS=$(mktemp)
+
+metric() {
+    curl -s "$BASE/actuator/metrics/$1" | jq -r '.measurements[0].value // 0' | cut -d. -f1
+}
+
+echo "🚀 FLIGHT SEARCH LOAD TEST"
+echo "══════════════════════════════════════════════════════════════"
+echo "Concurrency: $CONCURRENCY   Rounds: $ROUNDS"
+echo "Tomcat max threads: $(metric tomcat.threads.config.max)"
+echo ""
+
+PEAK_INFLIGHT=0
+PEAK_BUSY=0
+
+for round in $(seq 1 "$ROUNDS"); do
+    echo "✅ ROUND $round: firing $CONCURRENCY concurrent searches"
+    START=$(date +%s%N)
+
+    for i in $(seq 1 "$CONCURRENCY"); do
+        curl -s -o /dev/null -w "%{http_code} %{time_total}\n" "$SEARCH_URL" >> "$RESULTS" &
+    done
+
+    # Sample while requests are in flight
+    while [ "$(jobs -r | wc -l)" -gt 0 ]; do
+        INFLIGHT=$(metric flightbooking.search.inflight)
+        BUSY=$(metric tomcat.threads.busy)
+        [ "$INFLIGHT" -gt "$PEAK_INFLIGHT" ] && PEAK_INFLIGHT=$INFLIGHT
+        [ "$BUSY" -gt "$PEAK_BUSY" ] && PEAK_BUSY=$BUSY
+        echo "   in-flight searches: $INFLIGHT   busy tomcat threads: $BUSY"
+        sleep 0.2
+    done
+    wait
+
+    END=$(date +%s%N)
+    echo "   round took $(( (END - START) / 1000000 )) ms"
+    echo ""
+done
+
+echo "══════════════════════════════════════════════════════════════"
+echo "                     📊 LOAD TEST RESULTS"
+echo "══════════════════════════════════════════════════════════════"
+echo "Peak in-flight searches:   $PEAK_INFLIGHT"
+echo "Peak busy Tomcat threads:  $PEAK_BUSY"
+echo "Status codes:"
+awk '{print $1}' "$RESULTS" | sort | uniq -c | sed 's/^/   /'
+echo "Latency (s):"
+awk '{print $2}' "$RESULTS" | sort -n | awk '
+    { v[NR] = $1 }
+    END {
+        printf "   p50=%s  p95=%s  p99=%s  max=%s\n",
+            v[int(NR * 0.50) + 1], v[int(NR * 0.95) + 1], v[int(NR * 0.99) + 1], v[NR]
+    }'
+
+rm -f "$RESULTS"
@@ -1,23 +1,77 @@
 package com.mmt.flightbooking.config;
 
+import com.mmt.flightbooking.service.auth.CachingJwtDecoder;
+import com.mmt.flightbooking.service.auth.LocalKeyJwtDecoders;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Granted for tokens whose scope claim includes "admin"
+    public static final String ADMIN_AUTHORITY = "SCOPE_admin";
+
+    // Without it requests carrying no bearer token act as the demo user
+    @Value("${flightbooking.security.auth-required:false}")
+    private boolean authRequired = false;
+
+    // An RSA public key (PEM) takes precedence over the shared secret
+    @Value("${flightbooking.security.jwt.public-key:}")
+    private String publicKey = "";
+
+    @Value("${flightbooking.security.jwt.secret:}")
+    private String secret = "";
+
+    // Claim holding the user's email
+    @Value("${flightbooking.security.jwt.principal-claim:sub}")
+    private String principalClaim = "sub";
+
+    @Value("${flightbooking.security.jwt.cache.max-entries:100000}")
+    private int cacheMaxEntries = 100000;
+
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtDecoder jwtDecoder) throws Exception {
+        JwtAuthenticationConverter authenticationConverter = new JwtAuthenticationConverter();
+        authenticationConverter.setPrincipalClaimName(principalClaim);
+
         http
-            .authorizeHttpRequests(authz -> authz
-                .anyRequest().permitAll()
-            )
-            .csrf().disable();
-        
+            .authorizeHttpRequests(authz -> {
+                // Operational endpoints expose and cancel any booking: always admin only
+                authz.requestMatchers("/v1/admin/**").hasAuthority(ADMIN_AUTHORITY);
+                if (authRequired) {
+                    authz.requestMatchers("/v1/bookings/**", "/v1/holds/**").authenticated();
+                }
+                authz.anyRequest().permitAll();
+            })
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .oauth2ResourceServer(oauth2 -> oauth2
+                .jwt(jwt -> jwt.decoder(jwtDecoder).jwtAuthenticationConverter(authenticationConverter))
+            );
+
         return http.build();
     }
+
+    @Bean
+    public JwtDecoder jwtDecoder(MeterRegistry registry) {
+        JwtDecoder decoder;
+        if (!publicKey.isBlank()) {
+            decoder = LocalKeyJwtDecoders.rsa(publicKey);
+        } else if (!secret.isBlank()) {
+            decoder = LocalKeyJwtDecoders.hmac(secret);
+        } else {
+            throw new IllegalStateException(
+                "Set flightbooking.security.jwt.secret (JWT_SECRET) or flightbooking.security.jwt.public-key (JWT_PUBLIC_KEY)");
+        }
+        return new CachingJwtDecoder(decoder, registry, cacheMaxEntries);
+    }
 }
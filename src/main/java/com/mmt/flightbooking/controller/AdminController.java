@@ -0,0 +1,149 @@
+package com.mmt.flightbooking.controller;
+
+import com.mmt.flightbooking.dto.AirlineTimeoutStats;
+import com.mmt.flightbooking.dto.BookingDetailsResponse;
+import com.mmt.flightbooking.dto.BookingTimelineEntry;
+import com.mmt.flightbooking.dto.BulkCancellationRequest;
+import com.mmt.flightbooking.dto.BulkCancellationStatus;
+import com.mmt.flightbooking.service.airline.AirlineLatencyTracker;
+import com.mmt.flightbooking.service.airline.adapter.AirlineAdapter;
+import com.mmt.flightbooking.service.airline.adapter.AirlineAdapterFactory;
+import com.mmt.flightbooking.service.archive.BookingArchiveService;
+import com.mmt.flightbooking.service.cancellation.BulkCancellationService;
+import com.mmt.flightbooking.service.history.BookingEventLog;
+import com.mmt.flightbooking.service.readmodel.BookingLookupService;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/v1/admin")
+@Tag(name = "Operations", description = "Operational insight APIs")
+public class AdminController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
+    
+    @Autowired
+    private AirlineLatencyTracker latencyTracker;
+    
+    @Autowired
+    private AirlineAdapterFactory adapterFactory;
+    
+    @Autowired
+    private BulkCancellationService bulkCancellationService;
+    
+    @Autowired
+    private BookingArchiveService bookingArchiveService;
+    
+    @Autowired
+    private BookingLookupService bookingLookup;
+    
+    @Autowired
+    private BookingReadModelService bookingReadModel;
+    
+    @Autowired
+    private BookingEventLog bookingEventLog;
+    
+    @GetMapping("/airlines/timeouts")
+    @Operation(summary = "Airline search timeouts", 
+               description = "Observed search latency percentiles and the adaptive timeout applied to each airline")
+    public ResponseEntity<List<AirlineTimeoutStats>> getAirlineTimeouts() {
+        List<AirlineTimeoutStats> stats = adapterFactory.getAllAdapters().stream()
+            .map(AirlineAdapter::getAirlineCode)
+            .map(latencyTracker::getStats)
+            .toList();
+        return ResponseEntity.ok(stats);
+    }
+    
+    @PostMapping("/bulk-cancellations")
+    @Operation(summary = "Bulk cancel bookings",
+               description = "Cancel every CONFIRMED booking on a flight (airlineCode, flightNumber, departureDate) " +
+                             "or in a list of booking references, in the background; poll the returned job for progress")
+    public ResponseEntity<BulkCancellationStatus> startBulkCancellation(
+            @Valid @RequestBody BulkCancellationRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(bulkCancellationService.startJob(request));
+        } catch (IllegalArgumentException e) {
+            logger.info("Bulk cancellation rejected: {}", e.getMessage());
+            BulkCancellationStatus errorResponse = new BulkCancellationStatus();
+            errorResponse.setState("REJECTED");
+            errorResponse.setError(e.getMessage());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+    }
+    
+    @GetMapping("/bulk-cancellations/{jobId}")
+    @Operation(summary = "Bulk cancellation progress",
+               description = "Progress and throughput of a bulk cancellation job started on any node")
+    public ResponseEntity<BulkCancellationStatus> getBulkCancellation(@PathVariable String jobId) {
+        BulkCancellationStatus status = bulkCancellationService.getJob(jobId);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+    
+    @GetMapping("/bookings/by-reference/{bookingReference}")
+    @Operation(summary = "Find booking by reference",
+               description = "Details of any user's booking by its booking reference, for support")
+    public ResponseEntity<BookingDetailsResponse> findBookingByReference(@PathVariable String bookingReference) {
+        return bookingDetails(bookingLookup.findIdByReference(bookingReference));
+    }
+    
+    @GetMapping("/bookings/by-pnr/{airlinePnr}")
+    @Operation(summary = "Find booking by airline PNR",
+               description = "Details of the booking holding an airline PNR on any of its segments")
+    public ResponseEntity<BookingDetailsResponse> findBookingByAirlinePnr(@PathVariable String airlinePnr) {
+        return bookingDetails(bookingLookup.findIdByAirlinePnr(airlinePnr));
+    }
+    
+    @GetMapping("/bookings/{bookingId}/timeline")
+    @Operation(summary = "Booking status timeline",
+               description = "Every status change of a booking, oldest first, from the append-only status log")
+    public ResponseEntity<List<BookingTimelineEntry>> getBookingTimeline(@PathVariable Long bookingId) {
+        List<BookingTimelineEntry> timeline = bookingEventLog.getTimeline(bookingId);
+        if (timeline.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(timeline);
+    }
+    
+    @GetMapping("/archive/bookings/{bookingReference}")
+    @Operation(summary = "Archived booking",
+               description = "Booking, segments, passengers and payments of a booking moved to cold storage")
+    public ResponseEntity<Map<String, Object>> getArchivedBooking(@PathVariable String bookingReference) {
+        try {
+            Map<String, Object> archived = bookingArchiveService.findArchivedBooking(bookingReference);
+            if (archived == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(archived);
+        } catch (Exception e) {
+            logger.error("Could not read archived booking {}", bookingReference, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    private ResponseEntity<BookingDetailsResponse> bookingDetails(Long bookingId) {
+        if (bookingId == null) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            return ResponseEntity.ok(bookingReadModel.getBookingView(bookingId).getDetails());
+        } catch (Exception e) {
+            // Indexed, but since archived
+            logger.info("Booking {} not readable: {}", bookingId, e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
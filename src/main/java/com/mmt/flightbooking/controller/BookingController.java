@@ -1,25 +1,38 @@
 package com.mmt.flightbooking.controller;
 
+import com.mmt.flightbooking.dto.BookingDetailsResponse;
+import com.mmt.flightbooking.dto.BookingHistoryPage;
 import com.mmt.flightbooking.dto.BookingResponse;
 import com.mmt.flightbooking.dto.CreateBookingRequest;
 import com.mmt.flightbooking.entity.Booking;
 import com.mmt.flightbooking.entity.User;
-import com.mmt.flightbooking.service.airline.AirlineBookingService;
+import com.mmt.flightbooking.service.BookingIdempotencyService;
 import com.mmt.flightbooking.service.BookingService;
-import com.mmt.flightbooking.service.UserService;
+import com.mmt.flightbooking.service.IdempotencyConflictException;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.execution.IoKind;
+import com.mmt.flightbooking.service.readmodel.BookingDetailsAssembler;
+import com.mmt.flightbooking.service.readmodel.BookingLookupService;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
+import com.mmt.flightbooking.service.readmodel.BookingView;
+import com.mmt.flightbooking.service.user.CurrentUserResolver;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/v1/bookings")
@@ -28,80 +41,163 @@ public class BookingController {
     
     private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
     
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String NEXT_CURSOR_HEADER = "Next-Cursor";
+    
     @Autowired
     private BookingService bookingService;
     
     @Autowired
-    private UserService userService;
+    private CurrentUserResolver currentUserResolver;
+    
+    @Autowired
+    private BookingReadModelService bookingReadModel;
+    
+    @Autowired
+    private BookingLookupService bookingLookup;
+    
+    @Autowired
+    private BookingIdempotencyService idempotencyService;
     
     @Autowired
-    private AirlineBookingService airlineBookingService;
+    private BlockingIoExecutor ioExecutor;
     
     @PostMapping
-    @Operation(summary = "Create booking", description = "Create a new flight booking")
-    public ResponseEntity<BookingResponse> createBooking(
+    @Operation(summary = "Create booking", description = "Create a new flight booking; retries with the same Idempotency-Key return the original booking")
+    public CompletableFuture<ResponseEntity<BookingResponse>> createBooking(
             @Valid @RequestBody CreateBookingRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             Authentication authentication) {
         
-        logger.info("Creating booking for user: {}", getCurrentUser(authentication).getEmail());
+        // The booking flow (DB + airline + payment) runs on the I/O executor, not on the servlet thread
+        return ioExecutor.supplyAsync(IoKind.BOOKING_FLOW, () -> {
+                User user = getCurrentUser(authentication);
+                logger.info("Creating booking for user: {}", user.getEmail());
+                if (idempotencyKey == null) {
+                    return new BookingIdempotencyService.Outcome(bookingService.createBooking(request, user), false);
+                }
+                return idempotencyService.execute(idempotencyKey, user, request,
+                                                  () -> bookingService.createBooking(request, user));
+            })
+            .thenApply(outcome -> {
+                BookingResponse response = outcome.getResponse();
+                if (response.isSuccess()) {
+                    logger.info("Booking created successfully: {}", response.getBookingReference());
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                        .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(outcome.isReplayed()))
+                        .body(response);
+                } else {
+                    logger.warn("Booking creation failed: {}", response.getMessage());
+                    return ResponseEntity.badRequest().body(response);
+                }
+            })
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                BookingResponse errorResponse = new BookingResponse();
+                errorResponse.setSuccess(false);
+                
+                if (cause instanceof IdempotencyConflictException conflict) {
+                    logger.warn("Idempotency conflict: {}", conflict.getMessage());
+                    errorResponse.setMessage(conflict.getMessage());
+                    return ResponseEntity.status(conflict.isInProgress() ? HttpStatus.CONFLICT : HttpStatus.UNPROCESSABLE_ENTITY)
+                        .body(errorResponse);
+                }
+                if (cause instanceof IllegalArgumentException) {
+                    errorResponse.setMessage(cause.getMessage());
+                    return ResponseEntity.badRequest().body(errorResponse);
+                }
+                
+                logger.error("Booking creation error", cause);
+                errorResponse.setMessage("Booking creation failed: " + cause.getMessage());
+                return ResponseEntity.internalServerError().body(errorResponse);
+            });
+    }
+    
+    @GetMapping("/{bookingId}")
+    @Operation(summary = "Get booking details",
+               description = "Get details of a specific booking; send the ETag back in If-None-Match to get 304 while it is unchanged")
+    public ResponseEntity<BookingDetailsResponse> getBookingDetails(
+            @PathVariable Long bookingId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication authentication) {
+        
+        logger.debug("Getting booking details for ID: {}", bookingId);
         
         try {
             User user = getCurrentUser(authentication);
-            BookingResponse response = bookingService.createBooking(request, user);
+            // Served from the read model cache; the database is read only when the booking changed
+            BookingView view = bookingReadModel.getBookingView(bookingId, user);
             
-            if (response.isSuccess()) {
-                logger.info("Booking created successfully: {}", response.getBookingReference());
-                return ResponseEntity.status(HttpStatus.CREATED).body(response);
-            } else {
-                logger.warn("Booking creation failed: {}", response.getMessage());
-                return ResponseEntity.badRequest().body(response);
+            if (etagMatches(ifNoneMatch, view.getEtag())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(view.getEtag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
             }
+            return ResponseEntity.ok()
+                .eTag(view.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(view.getDetails());
             
         } catch (Exception e) {
-            logger.error("Booking creation error", e);
-            BookingResponse errorResponse = new BookingResponse();
-            errorResponse.setSuccess(false);
-            errorResponse.setMessage("Booking creation failed: " + e.getMessage());
-            return ResponseEntity.internalServerError().body(errorResponse);
+            logger.error("Error getting booking details", e);
+            return ResponseEntity.notFound().build();
         }
     }
     
-    @GetMapping("/{bookingId}")
-    @Operation(summary = "Get booking details", description = "Get details of a specific booking")
-    public ResponseEntity<BookingDetailsResponse> getBookingDetails(
-            @PathVariable Long bookingId,
+    @GetMapping("/by-reference/{bookingReference}")
+    @Operation(summary = "Get booking by reference",
+               description = "Get details of one of the current user's bookings by its booking reference")
+    public ResponseEntity<BookingDetailsResponse> getBookingByReference(
+            @PathVariable String bookingReference,
             Authentication authentication) {
         
-        logger.info("Getting booking details for ID: {}", bookingId);
-        
         try {
+            Long bookingId = bookingLookup.findIdByReference(bookingReference);
+            if (bookingId == null) {
+                return ResponseEntity.notFound().build();
+            }
             User user = getCurrentUser(authentication);
-            Booking booking = bookingService.getBookingById(bookingId, user);
-            
-            BookingDetailsResponse response = buildBookingDetailsResponse(booking);
-            return ResponseEntity.ok(response);
+            BookingView view = bookingReadModel.getBookingView(bookingId, user);
+            return ResponseEntity.ok()
+                .eTag(view.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(view.getDetails());
             
         } catch (Exception e) {
-            logger.error("Error getting booking details", e);
+            logger.error("Error getting booking {}", bookingReference, e);
             return ResponseEntity.notFound().build();
         }
     }
     
     @GetMapping
-    @Operation(summary = "Get user bookings", description = "Get all bookings for the current user")
-    public ResponseEntity<List<BookingDetailsResponse>> getUserBookings(Authentication authentication) {
-        logger.info("Getting bookings for user: {}", getCurrentUser(authentication).getEmail());
+    @Operation(summary = "Get user bookings",
+               description = "Get the current user's bookings, newest first, one page at a time; " +
+                             "pass the " + NEXT_CURSOR_HEADER + " response header as cursor to get the next page")
+    public ResponseEntity<List<BookingDetailsResponse>> getUserBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            Authentication authentication) {
         
         try {
             User user = getCurrentUser(authentication);
-            List<Booking> bookings = bookingService.getUserBookings(user);
+            logger.info("Getting bookings for user: {}", user.getEmail());
+            BookingHistoryPage page = bookingService.getUserBookingHistory(user, cursor, limit);
             
-            List<BookingDetailsResponse> responses = bookings.stream()
-                .map(this::buildBookingDetailsResponse)
+            List<BookingDetailsResponse> responses = page.getBookings().stream()
+                .map(BookingDetailsAssembler::fromSummary)
                 .toList();
             
-            return ResponseEntity.ok(responses);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                builder.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return builder.body(responses);
             
+        } catch (IllegalArgumentException e) {
+            logger.info("Invalid booking history request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Error getting user bookings", e);
             return ResponseEntity.internalServerError().build();
@@ -118,30 +214,25 @@ public class BookingController {
         
         try {
             User user = getCurrentUser(authentication);
-            Booking booking = bookingService.getBookingById(bookingId, user);
-            
-            // Cancel with airline first (AGGREGATOR PATTERN)
-            boolean airlineCancelled = airlineBookingService.cancelBookingWithAirline(
-                booking.getAirlineCode(), 
-                booking.getAirlinePnr()
-            );
-            
-            if (!airlineCancelled) {
-                logger.warn("Airline cancellation failed for PNR: {}", booking.getAirlinePnr());
-                // Continue anyway for demo purposes
-            }
             
-            // Update booking status to cancelled
-            booking.setStatus(com.mmt.flightbooking.entity.BookingStatus.CANCELLED);
+            // Airline cancellation is delivered from the outbox once this commits
+            Booking booking = bookingService.cancelBooking(bookingId, user);
             
             BookingResponse response = new BookingResponse();
             response.setBookingId(booking.getId());
             response.setBookingReference(booking.getBookingReference());
             response.setStatus(booking.getStatus().toString());
-            response.setMessage("Booking cancelled successfully with " + booking.getAirlineCode());
+            response.setMessage("Booking cancelled; cancellation with " + booking.getAirlineCode() + " is in progress");
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            // Not cancellable in its current status, or still contended after retrying
+            logger.info("Booking {} not cancelled: {}", bookingId, e.getMessage());
+            BookingResponse errorResponse = new BookingResponse();
+            errorResponse.setSuccess(false);
+            errorResponse.setMessage("Booking cancellation failed: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
         } catch (Exception e) {
             logger.error("Error cancelling booking", e);
             BookingResponse errorResponse = new BookingResponse();
@@ -152,48 +243,22 @@ public class BookingController {
     }
     
     private User getCurrentUser(Authentication authentication) {
-        // In a real implementation, you would extract user from JWT token
-        // For now, use UserService to get/create test user
-        return userService.getOrCreateTestUser();
+        return currentUserResolver.resolve(authentication);
     }
     
-    private BookingDetailsResponse buildBookingDetailsResponse(Booking booking) {
-        BookingDetailsResponse response = new BookingDetailsResponse();
-        response.setBookingId(booking.getId());
-        response.setBookingReference(booking.getBookingReference());
-        response.setStatus(booking.getStatus().toString());
-        response.setTotalAmount(booking.getTotalAmount());
-        response.setCurrency(booking.getCurrency());
-        response.setCreatedAt(booking.getCreatedAt());
-        response.setUpdatedAt(booking.getUpdatedAt());
-        
-        // Add flight details (cached in booking for aggregator model)
-        List<BookingDetailsResponse.FlightInfo> flights = new ArrayList<>();
-        BookingDetailsResponse.FlightInfo flightInfo = new BookingDetailsResponse.FlightInfo();
-        flightInfo.setFlightNumber(booking.getFlightNumber());
-        flightInfo.setAirline(booking.getAirlineCode()); // Store airline code
-        flightInfo.setOrigin(booking.getOriginAirport());
-        flightInfo.setDestination(booking.getDestinationAirport());
-        flightInfo.setDepartureTime(booking.getDepartureDate().atStartOfDay()); // Use date
-        flightInfo.setArrivalTime(booking.getDepartureDate().atStartOfDay()); // Same day for simplicity
-        flightInfo.setSeatClass("ECONOMY"); // Default
-        flightInfo.setPrice(booking.getTotalAmount());
-        flights.add(flightInfo);
-        response.setFlights(flights);
-        
-        // Add passenger details
-        response.setPassengers(booking.getPassengers().stream()
-            .map(p -> {
-                BookingDetailsResponse.PassengerInfo passengerInfo = new BookingDetailsResponse.PassengerInfo();
-                passengerInfo.setFirstName(p.getFirstName());
-                passengerInfo.setLastName(p.getLastName());
-                passengerInfo.setAge(p.getAge());
-                passengerInfo.setType(p.getType().toString());
-                passengerInfo.setSeatNumber(p.getSeatNumber());
-                return passengerInfo;
-            })
-            .toList());
-        
-        return response;
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
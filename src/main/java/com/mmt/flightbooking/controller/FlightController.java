@@ -3,14 +3,17 @@ package com.mmt.flightbooking.controller;
 import com.mmt.flightbooking.dto.FlightSearchRequest;
 import com.mmt.flightbooking.dto.FlightSearchResponse;
 import com.mmt.flightbooking.service.FlightSearchService;
+import com.mmt.flightbooking.service.search.SearchScope;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 @RestController
 @RequestMapping("/v1/flights")
@@ -19,34 +22,53 @@ public class FlightController {
     
     private static final Logger logger = LoggerFactory.getLogger(FlightController.class);
     
+    /** Optional client deadline in milliseconds; capped by flightbooking.search.timeout-ms */
+    public static final String REQUEST_TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+    
     @Autowired
     private FlightSearchService flightSearchService;
     
     @GetMapping("/search")
     @Operation(summary = "Search flights", description = "Search for flights between two airports on a specific date")
-    public ResponseEntity<FlightSearchResponse> searchFlights(@Valid FlightSearchRequest request) {
+    public DeferredResult<ResponseEntity<FlightSearchResponse>> searchFlights(
+            @Valid FlightSearchRequest request,
+            @RequestHeader(value = REQUEST_TIMEOUT_HEADER, required = false) Long requestTimeoutMs) {
         logger.info("Flight search request: {} to {} on {}", 
                    request.getOrigin(), request.getDestination(), request.getDepartureDate());
         
-        try {
-            FlightSearchResponse response = flightSearchService.searchFlights(request);
-            
-            if (response.isSuccess()) {
-                logger.info("Flight search completed successfully. Found {} flights", 
-                           response.getTotalCount());
-                return ResponseEntity.ok(response);
-            } else {
-                logger.warn("Flight search failed: {}", response.getMessage());
-                return ResponseEntity.badRequest().body(response);
-            }
-            
-        } catch (Exception e) {
-            logger.error("Flight search error", e);
-            FlightSearchResponse errorResponse = new FlightSearchResponse();
-            errorResponse.setSuccess(false);
-            errorResponse.setMessage("Flight search failed: " + e.getMessage());
-            return ResponseEntity.internalServerError().body(errorResponse);
-        }
+        SearchScope scope = flightSearchService.openScope(requestTimeoutMs);
+        DeferredResult<ResponseEntity<FlightSearchResponse>> result = new DeferredResult<>();
+        
+        // Stop the airline fan-out when nobody is waiting for the answer any more
+        result.onTimeout(() -> {
+            scope.cancel(SearchScope.REQUEST_TIMEOUT);
+            result.setErrorResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(errorResponse("Flight search timed out")));
+        });
+        result.onError(error -> {
+            logger.info("Client disconnected during search {}: {}", scope.getSearchId(), error.toString());
+            scope.cancel(SearchScope.CLIENT_DISCONNECT);
+        });
+        
+        // The servlet thread is released here; the response is written when the airline fan-out completes
+        flightSearchService.searchFlightsAsync(request, scope)
+            .thenApply(response -> {
+                if (response.isSuccess()) {
+                    logger.info("Flight search completed successfully. Found {} flights", 
+                               response.getTotalCount());
+                    return ResponseEntity.ok(response);
+                } else {
+                    logger.warn("Flight search failed: {}", response.getMessage());
+                    return ResponseEntity.badRequest().body(response);
+                }
+            })
+            .exceptionally(e -> {
+                logger.error("Flight search error", e);
+                return ResponseEntity.internalServerError().body(errorResponse("Flight search failed: " + e.getMessage()));
+            })
+            .thenAccept(result::setResult);
+        
+        return result;
     }
     
     @GetMapping("/health")
@@ -54,4 +76,11 @@ public class FlightController {
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("Flight search service is running");
     }
+    
+    private FlightSearchResponse errorResponse(String message) {
+        FlightSearchResponse errorResponse = new FlightSearchResponse();
+        errorResponse.setSuccess(false);
+        errorResponse.setMessage(message);
+        return errorResponse;
+    }
 }
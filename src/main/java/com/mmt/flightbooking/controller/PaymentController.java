@@ -9,6 +9,7 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -45,6 +46,13 @@ public class PaymentController {
                 return ResponseEntity.badRequest().body(response);
             }
             
+        } catch (IllegalStateException e) {
+            // Already paid, being charged by another request, or the booking is closed
+            logger.info("Payment not processed: {}", e.getMessage());
+            PaymentResponse conflictResponse = new PaymentResponse();
+            conflictResponse.setSuccess(false);
+            conflictResponse.setMessage(e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(conflictResponse);
         } catch (Exception e) {
             logger.error("Payment processing error", e);
             PaymentResponse errorResponse = new PaymentResponse();
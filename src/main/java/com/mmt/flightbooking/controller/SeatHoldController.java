@@ -0,0 +1,121 @@
+package com.mmt.flightbooking.controller;
+
+import com.mmt.flightbooking.dto.SeatHoldRequest;
+import com.mmt.flightbooking.dto.SeatHoldResponse;
+import com.mmt.flightbooking.entity.User;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.execution.IoKind;
+import com.mmt.flightbooking.service.hold.SeatHold;
+import com.mmt.flightbooking.service.hold.SeatHoldService;
+import com.mmt.flightbooking.service.hold.SeatHoldUnavailableException;
+import com.mmt.flightbooking.service.user.CurrentUserResolver;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@RestController
+@RequestMapping("/v1/holds")
+@Tag(name = "Seat Holds", description = "Hold seats between search and booking")
+public class SeatHoldController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldController.class);
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private CurrentUserResolver currentUserResolver;
+
+    @Autowired
+    private BlockingIoExecutor ioExecutor;
+
+    @PostMapping
+    @Operation(summary = "Hold seats", description = "Hold seats on a searched flight for a few minutes; pass the hold id in holdIds when booking")
+    public CompletableFuture<ResponseEntity<SeatHoldResponse>> createHold(
+            @Valid @RequestBody SeatHoldRequest request,
+            Authentication authentication) {
+
+        // The hold calls the airline, so it runs on the I/O executor like booking
+        return ioExecutor.supplyAsync(IoKind.BOOKING_FLOW, () -> {
+                User user = getCurrentUser(authentication);
+                logger.info("Holding {} seats on flight {} for user: {}",
+                           request.getPassengerCount(), request.getFlightId(), user.getEmail());
+                return seatHoldService.createHold(user, request.getFlightId(), request.getPassengerCount());
+            })
+            .thenApply(hold -> ResponseEntity.status(HttpStatus.CREATED)
+                .body(buildSeatHoldResponse(hold, "Seats held until " + hold.getExpiresAt())))
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                SeatHoldResponse errorResponse = new SeatHoldResponse();
+                errorResponse.setSuccess(false);
+                errorResponse.setFlightId(request.getFlightId());
+                errorResponse.setMessage(cause.getMessage());
+
+                if (cause instanceof SeatHoldUnavailableException) {
+                    logger.info("Seat hold refused: {}", cause.getMessage());
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+                }
+                if (cause instanceof IllegalArgumentException) {
+                    return ResponseEntity.badRequest().body(errorResponse);
+                }
+
+                logger.error("Seat hold error", cause);
+                errorResponse.setMessage("Seat hold failed: " + cause.getMessage());
+                return ResponseEntity.internalServerError().body(errorResponse);
+            });
+    }
+
+    @GetMapping("/{holdId}")
+    @Operation(summary = "Get seat hold", description = "Get an active seat hold")
+    public ResponseEntity<SeatHoldResponse> getHold(
+            @PathVariable String holdId,
+            Authentication authentication) {
+
+        SeatHold hold = seatHoldService.getActiveHold(holdId, getCurrentUser(authentication));
+        if (hold == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(buildSeatHoldResponse(hold, "Seats held until " + hold.getExpiresAt()));
+    }
+
+    @DeleteMapping("/{holdId}")
+    @Operation(summary = "Release seat hold", description = "Release held seats before the hold expires")
+    public ResponseEntity<SeatHoldResponse> releaseHold(
+            @PathVariable String holdId,
+            Authentication authentication) {
+
+        logger.info("Releasing seat hold: {}", holdId);
+
+        SeatHold hold = seatHoldService.releaseHold(holdId, getCurrentUser(authentication));
+        if (hold == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(buildSeatHoldResponse(hold, "Seats released"));
+    }
+
+    private User getCurrentUser(Authentication authentication) {
+        return currentUserResolver.resolve(authentication);
+    }
+
+    private SeatHoldResponse buildSeatHoldResponse(SeatHold hold, String message) {
+        SeatHoldResponse response = new SeatHoldResponse();
+        response.setHoldId(hold.getHoldId());
+        response.setFlightId(hold.getFlightId());
+        response.setFlightNumber(hold.getFlightNumber());
+        response.setAirlineCode(hold.getAirlineCode());
+        response.setPassengerCount(hold.getPassengerCount());
+        response.setExpiresAt(hold.getExpiresAt());
+        response.setMessage(message);
+        return response;
+    }
+}
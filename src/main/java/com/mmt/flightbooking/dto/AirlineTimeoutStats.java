@@ -0,0 +1,89 @@
+package com.mmt.flightbooking.dto;
+
+/**
+ * Observed search latency and the adaptive search timeout currently applied to an airline
+ */
+public class AirlineTimeoutStats {
+    
+    private String airlineCode;
+    private long samples;
+    private double p50Ms;
+    private double p99Ms;
+    private long timeoutMs;
+    private String source;
+    private long cutoffs;
+    
+    // Constructors
+    public AirlineTimeoutStats() {}
+    
+    public AirlineTimeoutStats(String airlineCode, long samples, double p50Ms, double p99Ms,
+                               long timeoutMs, String source, long cutoffs) {
+        this.airlineCode = airlineCode;
+        this.samples = samples;
+        this.p50Ms = p50Ms;
+        this.p99Ms = p99Ms;
+        this.timeoutMs = timeoutMs;
+        this.source = source;
+        this.cutoffs = cutoffs;
+    }
+    
+    // Getters and Setters
+    public String getAirlineCode() {
+        return airlineCode;
+    }
+    
+    public void setAirlineCode(String airlineCode) {
+        this.airlineCode = airlineCode;
+    }
+    
+    public long getSamples() {
+        return samples;
+    }
+    
+    public void setSamples(long samples) {
+        this.samples = samples;
+    }
+    
+    public double getP50Ms() {
+        return p50Ms;
+    }
+    
+    public void setP50Ms(double p50Ms) {
+        this.p50Ms = p50Ms;
+    }
+    
+    public double getP99Ms() {
+        return p99Ms;
+    }
+    
+    public void setP99Ms(double p99Ms) {
+        this.p99Ms = p99Ms;
+    }
+    
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+    
+    public void setTimeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+    
+    /**
+     * How the timeout was derived: "default" (not enough samples), "p99", "min-bound" or "max-bound"
+     */
+    public String getSource() {
+        return source;
+    }
+    
+    public void setSource(String source) {
+        this.source = source;
+    }
+    
+    public long getCutoffs() {
+        return cutoffs;
+    }
+    
+    public void setCutoffs(long cutoffs) {
+        this.cutoffs = cutoffs;
+    }
+}
@@ -1,4 +1,4 @@
-package com.mmt.flightbooking.controller;
+package com.mmt.flightbooking.dto;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -96,6 +96,7 @@ public class BookingDetailsResponse {
     public static class FlightInfo {
         private String flightNumber;
         private String airline;
+        private String airlinePnr;
         private String origin;
         private String destination;
         private LocalDateTime departureTime;
@@ -120,6 +121,14 @@ public class BookingDetailsResponse {
             this.airline = airline;
         }
         
+        public String getAirlinePnr() {
+            return airlinePnr;
+        }
+        
+        public void setAirlinePnr(String airlinePnr) {
+            this.airlinePnr = airlinePnr;
+        }
+        
         public String getOrigin() {
             return origin;
         }
@@ -0,0 +1,29 @@
+package com.mmt.flightbooking.dto;
+
+import java.util.List;
+
+/**
+ * One page of a user's booking history, newest first
+ */
+public class BookingHistoryPage {
+    
+    private final List<BookingSummary> bookings;
+    private final String nextCursor;
+    
+    public BookingHistoryPage(List<BookingSummary> bookings, String nextCursor) {
+        this.bookings = bookings;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters
+    public List<BookingSummary> getBookings() {
+        return bookings;
+    }
+    
+    /**
+     * Opaque cursor for the next (older) page, or null on the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,71 @@
+package com.mmt.flightbooking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only view of a booked flight for the booking history
+ */
+public class BookingSegmentSummary {
+    
+    private final Long bookingId;
+    private final Integer segmentIndex;
+    private final String airlineCode;
+    private final String airlinePnr;
+    private final String flightNumber;
+    private final String originAirport;
+    private final String destinationAirport;
+    private final LocalDate departureDate;
+    private final BigDecimal price;
+    
+    public BookingSegmentSummary(Long bookingId, Integer segmentIndex, String airlineCode, String airlinePnr,
+                                 String flightNumber, String originAirport, String destinationAirport,
+                                 LocalDate departureDate, BigDecimal price) {
+        this.bookingId = bookingId;
+        this.segmentIndex = segmentIndex;
+        this.airlineCode = airlineCode;
+        this.airlinePnr = airlinePnr;
+        this.flightNumber = flightNumber;
+        this.originAirport = originAirport;
+        this.destinationAirport = destinationAirport;
+        this.departureDate = departureDate;
+        this.price = price;
+    }
+    
+    // Getters
+    public Long getBookingId() {
+        return bookingId;
+    }
+    
+    public Integer getSegmentIndex() {
+        return segmentIndex;
+    }
+    
+    public String getAirlineCode() {
+        return airlineCode;
+    }
+    
+    public String getAirlinePnr() {
+        return airlinePnr;
+    }
+    
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+    
+    public String getOriginAirport() {
+        return originAirport;
+    }
+    
+    public String getDestinationAirport() {
+        return destinationAirport;
+    }
+    
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+}
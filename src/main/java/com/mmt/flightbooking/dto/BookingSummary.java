@@ -0,0 +1,120 @@
+package com.mmt.flightbooking.dto;
+
+import com.mmt.flightbooking.entity.BookingStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only view of a booking for the booking history, selected column by column (JPQL constructor expression)
+ * Segments and passengers are attached afterwards from one query each for the whole page
+ */
+public class BookingSummary {
+    
+    private final Long id;
+    private final String bookingReference;
+    private final BookingStatus status;
+    private final BigDecimal totalAmount;
+    private final String currency;
+    private final String airlineCode;
+    private final String airlinePnr;
+    private final String flightNumber;
+    private final String originAirport;
+    private final String destinationAirport;
+    private final LocalDate departureDate;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private List<BookingSegmentSummary> segments = new ArrayList<>();
+    private List<PassengerSummary> passengers = new ArrayList<>();
+    
+    public BookingSummary(Long id, String bookingReference, BookingStatus status, BigDecimal totalAmount,
+                          String currency, String airlineCode, String airlinePnr, String flightNumber,
+                          String originAirport, String destinationAirport, LocalDate departureDate,
+                          LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.bookingReference = bookingReference;
+        this.status = status;
+        this.totalAmount = totalAmount;
+        this.currency = currency;
+        this.airlineCode = airlineCode;
+        this.airlinePnr = airlinePnr;
+        this.flightNumber = flightNumber;
+        this.originAirport = originAirport;
+        this.destinationAirport = destinationAirport;
+        this.departureDate = departureDate;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public String getBookingReference() {
+        return bookingReference;
+    }
+    
+    public BookingStatus getStatus() {
+        return status;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public String getAirlineCode() {
+        return airlineCode;
+    }
+    
+    public String getAirlinePnr() {
+        return airlinePnr;
+    }
+    
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+    
+    public String getOriginAirport() {
+        return originAirport;
+    }
+    
+    public String getDestinationAirport() {
+        return destinationAirport;
+    }
+    
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public List<BookingSegmentSummary> getSegments() {
+        return segments;
+    }
+    
+    public void setSegments(List<BookingSegmentSummary> segments) {
+        this.segments = segments;
+    }
+    
+    public List<PassengerSummary> getPassengers() {
+        return passengers;
+    }
+    
+    public void setPassengers(List<PassengerSummary> passengers) {
+        this.passengers = passengers;
+    }
+}
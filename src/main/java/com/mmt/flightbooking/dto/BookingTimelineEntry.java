@@ -0,0 +1,48 @@
+package com.mmt.flightbooking.dto;
+
+import com.mmt.flightbooking.entity.BookingStatus;
+import com.mmt.flightbooking.entity.BookingStatusEventType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of one booking status change for the ops timeline
+ */
+public class BookingTimelineEntry {
+    
+    private final BookingStatusEventType eventType;
+    private final BookingStatus fromStatus;
+    private final BookingStatus toStatus;
+    private final String detail;
+    private final LocalDateTime occurredAt;
+    
+    public BookingTimelineEntry(BookingStatusEventType eventType, BookingStatus fromStatus, BookingStatus toStatus,
+                                String detail, LocalDateTime occurredAt) {
+        this.eventType = eventType;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.detail = detail;
+        this.occurredAt = occurredAt;
+    }
+    
+    // Getters
+    public BookingStatusEventType getEventType() {
+        return eventType;
+    }
+    
+    public BookingStatus getFromStatus() {
+        return fromStatus;
+    }
+    
+    public BookingStatus getToStatus() {
+        return toStatus;
+    }
+    
+    public String getDetail() {
+        return detail;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,76 @@
+package com.mmt.flightbooking.dto;
+
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Bookings to cancel in bulk: everything on one flight, or an explicit list of booking references
+ */
+public class BulkCancellationRequest {
+    
+    // Flight criteria: airline, flight number and departure date together
+    private String airlineCode;
+    private String flightNumber;
+    private LocalDate departureDate;
+    
+    // Or the booking references to cancel
+    @Size(max = 10000, message = "At most 10000 booking references per job")
+    private List<String> bookingReferences;
+    
+    // Recorded in the logs with the job
+    private String reason;
+    
+    // Constructors
+    public BulkCancellationRequest() {}
+    
+    public boolean hasFlight() {
+        return airlineCode != null && flightNumber != null && departureDate != null;
+    }
+    
+    public boolean hasBookingReferences() {
+        return bookingReferences != null && !bookingReferences.isEmpty();
+    }
+    
+    // Getters and Setters
+    public String getAirlineCode() {
+        return airlineCode;
+    }
+    
+    public void setAirlineCode(String airlineCode) {
+        this.airlineCode = airlineCode;
+    }
+    
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+    
+    public void setFlightNumber(String flightNumber) {
+        this.flightNumber = flightNumber;
+    }
+    
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+    
+    public void setDepartureDate(LocalDate departureDate) {
+        this.departureDate = departureDate;
+    }
+    
+    public List<String> getBookingReferences() {
+        return bookingReferences;
+    }
+    
+    public void setBookingReferences(List<String> bookingReferences) {
+        this.bookingReferences = bookingReferences;
+    }
+    
+    public String getReason() {
+        return reason;
+    }
+    
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
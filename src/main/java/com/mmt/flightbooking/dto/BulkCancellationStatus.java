@@ -0,0 +1,151 @@
+package com.mmt.flightbooking.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress and throughput of a bulk cancellation job
+ */
+public class BulkCancellationStatus {
+    
+    private String jobId;
+    private String state;  // RUNNING, COMPLETED, FAILED
+    private String criteria;
+    private long totalBookings;
+    private long processed;
+    private long cancelled;
+    private long failed;
+    // Not found, or no longer CONFIRMED by the time the job reached them
+    private long skipped;
+    private long airlineCalls;
+    private double bookingsPerSecond;
+    private double airlineCallsPerSecond;
+    private List<String> failedBookingReferences;
+    private String error;
+    private Instant startedAt;
+    private Instant finishedAt;
+    
+    // Constructors
+    public BulkCancellationStatus() {}
+    
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    public String getState() {
+        return state;
+    }
+    
+    public void setState(String state) {
+        this.state = state;
+    }
+    
+    public String getCriteria() {
+        return criteria;
+    }
+    
+    public void setCriteria(String criteria) {
+        this.criteria = criteria;
+    }
+    
+    public long getTotalBookings() {
+        return totalBookings;
+    }
+    
+    public void setTotalBookings(long totalBookings) {
+        this.totalBookings = totalBookings;
+    }
+    
+    public long getProcessed() {
+        return processed;
+    }
+    
+    public void setProcessed(long processed) {
+        this.processed = processed;
+    }
+    
+    public long getCancelled() {
+        return cancelled;
+    }
+    
+    public void setCancelled(long cancelled) {
+        this.cancelled = cancelled;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+    
+    public long getSkipped() {
+        return skipped;
+    }
+    
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+    
+    public long getAirlineCalls() {
+        return airlineCalls;
+    }
+    
+    public void setAirlineCalls(long airlineCalls) {
+        this.airlineCalls = airlineCalls;
+    }
+    
+    public double getBookingsPerSecond() {
+        return bookingsPerSecond;
+    }
+    
+    public void setBookingsPerSecond(double bookingsPerSecond) {
+        this.bookingsPerSecond = bookingsPerSecond;
+    }
+    
+    public double getAirlineCallsPerSecond() {
+        return airlineCallsPerSecond;
+    }
+    
+    public void setAirlineCallsPerSecond(double airlineCallsPerSecond) {
+        this.airlineCallsPerSecond = airlineCallsPerSecond;
+    }
+    
+    public List<String> getFailedBookingReferences() {
+        return failedBookingReferences;
+    }
+    
+    public void setFailedBookingReferences(List<String> failedBookingReferences) {
+        this.failedBookingReferences = failedBookingReferences;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(Instant startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(Instant finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+}
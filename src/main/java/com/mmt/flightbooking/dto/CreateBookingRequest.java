@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 import java.util.List;
 
@@ -11,6 +12,7 @@ public class CreateBookingRequest {
     
     // For aggregator: flight ID from search results (UUID string from airline)
     @NotEmpty(message = "Flight IDs are required")
+    @Size(max = 6, message = "At most 6 flights can be booked together")
     private List<String> flightIds;  // Changed from Long to String for airline UUIDs
     
     @NotNull(message = "Passenger count is required")
@@ -29,6 +31,9 @@ public class CreateBookingRequest {
     private String specialRequests;
     private String mealPreferences;
     
+    // Optional seat holds (POST /v1/holds) the booking is made against
+    private List<String> holdIds;
+    
     // Constructors
     public CreateBookingRequest() {}
     
@@ -96,4 +101,12 @@ public class CreateBookingRequest {
     public void setContactPhone(String contactPhone) {
         this.contactPhone = contactPhone;
     }
+    
+    public List<String> getHoldIds() {
+        return holdIds;
+    }
+    
+    public void setHoldIds(List<String> holdIds) {
+        this.holdIds = holdIds;
+    }
 }
@@ -0,0 +1,51 @@
+package com.mmt.flightbooking.dto;
+
+import com.mmt.flightbooking.entity.PassengerType;
+
+/**
+ * Read-only view of a passenger for the booking history
+ */
+public class PassengerSummary {
+    
+    private final Long bookingId;
+    private final String firstName;
+    private final String lastName;
+    private final Integer age;
+    private final PassengerType type;
+    private final String seatNumber;
+    
+    public PassengerSummary(Long bookingId, String firstName, String lastName, Integer age,
+                            PassengerType type, String seatNumber) {
+        this.bookingId = bookingId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.age = age;
+        this.type = type;
+        this.seatNumber = seatNumber;
+    }
+    
+    // Getters
+    public Long getBookingId() {
+        return bookingId;
+    }
+    
+    public String getFirstName() {
+        return firstName;
+    }
+    
+    public String getLastName() {
+        return lastName;
+    }
+    
+    public Integer getAge() {
+        return age;
+    }
+    
+    public PassengerType getType() {
+        return type;
+    }
+    
+    public String getSeatNumber() {
+        return seatNumber;
+    }
+}
@@ -0,0 +1,43 @@
+package com.mmt.flightbooking.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+public class SeatHoldRequest {
+    
+    // Flight ID from search results
+    @NotBlank(message = "Flight ID is required")
+    private String flightId;
+    
+    @NotNull(message = "Passenger count is required")
+    @Positive(message = "Passenger count must be positive")
+    @Max(value = 9, message = "At most 9 seats can be held")
+    private Integer passengerCount;
+    
+    // Constructors
+    public SeatHoldRequest() {}
+    
+    public SeatHoldRequest(String flightId, Integer passengerCount) {
+        this.flightId = flightId;
+        this.passengerCount = passengerCount;
+    }
+    
+    // Getters and Setters
+    public String getFlightId() {
+        return flightId;
+    }
+    
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+    
+    public Integer getPassengerCount() {
+        return passengerCount;
+    }
+    
+    public void setPassengerCount(Integer passengerCount) {
+        this.passengerCount = passengerCount;
+    }
+}
@@ -0,0 +1,83 @@
+package com.mmt.flightbooking.dto;
+
+import java.time.Instant;
+
+public class SeatHoldResponse {
+    
+    private String holdId;
+    private String flightId;
+    private String flightNumber;
+    private String airlineCode;
+    private Integer passengerCount;
+    private Instant expiresAt;
+    private String message;
+    private boolean success = true;
+    
+    // Constructors
+    public SeatHoldResponse() {}
+    
+    // Getters and Setters
+    public String getHoldId() {
+        return holdId;
+    }
+    
+    public void setHoldId(String holdId) {
+        this.holdId = holdId;
+    }
+    
+    public String getFlightId() {
+        return flightId;
+    }
+    
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+    
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+    
+    public void setFlightNumber(String flightNumber) {
+        this.flightNumber = flightNumber;
+    }
+    
+    public String getAirlineCode() {
+        return airlineCode;
+    }
+    
+    public void setAirlineCode(String airlineCode) {
+        this.airlineCode = airlineCode;
+    }
+    
+    public Integer getPassengerCount() {
+        return passengerCount;
+    }
+    
+    public void setPassengerCount(Integer passengerCount) {
+        this.passengerCount = passengerCount;
+    }
+    
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+}
@@ -10,11 +10,19 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    // Booking history keyset: WHERE user_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+    @Index(name = "idx_bookings_user_created", columnList = "user_id, created_at DESC, id DESC"),
+    // Stale booking reaper: WHERE status = 'PENDING' AND created_at < ? ORDER BY created_at
+    @Index(name = "idx_bookings_status_created", columnList = "status, created_at"),
+    // Lookup by airline PNR (airline webhooks, support)
+    @Index(name = "idx_bookings_airline_pnr", columnList = "airline_pnr")
+})
 public class Booking {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookingIdGenerator")
+    @SequenceGenerator(name = "bookingIdGenerator", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -47,6 +55,7 @@ public class Booking {
     @Column(name = "departure_date")
     private java.time.LocalDate departureDate;
     
+    // Current snapshot; how it got here is in booking_status_events (BookingEventLog)
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private BookingStatus status = BookingStatus.PENDING;
@@ -60,6 +69,11 @@ public class Booking {
     @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Passenger> passengers = new ArrayList<>();
     
+    // Flights of the itinerary; the flight and airline columns above mirror the first segment
+    @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @OrderBy("segmentIndex")
+    private List<BookingSegment> segments = new ArrayList<>();
+    
     @OneToOne(mappedBy = "booking", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Payment payment;
     
@@ -70,6 +84,10 @@ public class Booking {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
     
+    // Optimistic lock: concurrent updates of the same row fail instead of overwriting each other
+    @Version
+    private Long version;
+    
     // Constructors
     public Booking() {}
     
@@ -168,6 +186,17 @@ public class Booking {
         this.status = status;
     }
     
+    /**
+     * Move the booking to the next status of the booking state machine
+     * @throws IllegalStateException if the current status cannot move to the next one
+     */
+    public void transitionTo(BookingStatus next) {
+        if (!status.canTransitionTo(next)) {
+            throw new IllegalStateException("Booking " + bookingReference + " cannot go from " + status + " to " + next);
+        }
+        this.status = next;
+    }
+    
     public BigDecimal getTotalAmount() {
         return totalAmount;
     }
@@ -192,6 +221,14 @@ public class Booking {
         this.passengers = passengers;
     }
     
+    public List<BookingSegment> getSegments() {
+        return segments;
+    }
+    
+    public void setSegments(List<BookingSegment> segments) {
+        this.segments = segments;
+    }
+    
     public Payment getPayment() {
         return payment;
     }
@@ -215,4 +252,12 @@ public class Booking {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,9 @@
+package com.mmt.flightbooking.entity;
+
+public enum BookingEventType {
+    BOOKING_CONFIRMED,
+    PAYMENT_CONFIRMED,
+    BOOKING_CANCELLED,
+    // Cancelled by a bulk disruption job, which has already cancelled the airline bookings
+    BOOKING_DISRUPTED
+}
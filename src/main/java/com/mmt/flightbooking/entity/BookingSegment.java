@@ -0,0 +1,188 @@
+package com.mmt.flightbooking.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One flight of a booking (one-way, round trip or multi-city)
+ * Each segment is booked with its own airline and carries that airline's PNR
+ */
+@Entity
+@Table(name = "booking_segments", indexes = {
+    // Airline status sync walks upcoming segments in (departure_date, id) order
+    @Index(name = "idx_booking_segments_departure", columnList = "departure_date, id"),
+    // Bulk cancellation finds the bookings on a disrupted flight
+    @Index(name = "idx_booking_segments_flight", columnList = "airline_code, flight_number, departure_date"),
+    // Lookup by airline PNR of a later segment
+    @Index(name = "idx_booking_segments_airline_pnr", columnList = "airline_pnr")
+})
+public class BookingSegment {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookingSegmentIdGenerator")
+    @SequenceGenerator(name = "bookingSegmentIdGenerator", sequenceName = "booking_segments_seq", allocationSize = 50)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booking_id", nullable = false)
+    private Booking booking;
+    
+    // Position in the itinerary, starting at 0
+    @Column(name = "segment_index", nullable = false)
+    private Integer segmentIndex;
+    
+    @Column(name = "flight_id")
+    private String flightId;  // Airline's flight ID from search results
+    
+    @Column(name = "airline_code", nullable = false)
+    private String airlineCode;
+    
+    @Column(name = "flight_number")
+    private String flightNumber;
+    
+    @Column(name = "origin_airport")
+    private String originAirport;
+    
+    @Column(name = "destination_airport")
+    private String destinationAirport;
+    
+    @Column(name = "departure_date")
+    private LocalDate departureDate;
+    
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+    
+    @Column(name = "airline_pnr")
+    private String airlinePnr;
+    
+    @Column(name = "airline_booking_id")
+    private String airlineBookingId;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public BookingSegment() {}
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Booking getBooking() {
+        return booking;
+    }
+    
+    public void setBooking(Booking booking) {
+        this.booking = booking;
+    }
+    
+    public Integer getSegmentIndex() {
+        return segmentIndex;
+    }
+    
+    public void setSegmentIndex(Integer segmentIndex) {
+        this.segmentIndex = segmentIndex;
+    }
+    
+    public String getFlightId() {
+        return flightId;
+    }
+    
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+    
+    public String getAirlineCode() {
+        return airlineCode;
+    }
+    
+    public void setAirlineCode(String airlineCode) {
+        this.airlineCode = airlineCode;
+    }
+    
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+    
+    public void setFlightNumber(String flightNumber) {
+        this.flightNumber = flightNumber;
+    }
+    
+    public String getOriginAirport() {
+        return originAirport;
+    }
+    
+    public void setOriginAirport(String originAirport) {
+        this.originAirport = originAirport;
+    }
+    
+    public String getDestinationAirport() {
+        return destinationAirport;
+    }
+    
+    public void setDestinationAirport(String destinationAirport) {
+        this.destinationAirport = destinationAirport;
+    }
+    
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+    
+    public void setDepartureDate(LocalDate departureDate) {
+        this.departureDate = departureDate;
+    }
+    
+    public BigDecimal getPrice() {
+        return price;
+    }
+    
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+    
+    public String getAirlinePnr() {
+        return airlinePnr;
+    }
+    
+    public void setAirlinePnr(String airlinePnr) {
+        this.airlinePnr = airlinePnr;
+    }
+    
+    public String getAirlineBookingId() {
+        return airlineBookingId;
+    }
+    
+    public void setAirlineBookingId(String airlineBookingId) {
+        this.airlineBookingId = airlineBookingId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -5,5 +5,18 @@ public enum BookingStatus {
     CONFIRMED,
     CANCELLED,
     FAILED,
-    REFUNDED
+    REFUNDED;
+
+    /**
+     * Allowed moves of the booking state machine
+     * FAILED and REFUNDED are terminal; a CONFIRMED booking can still fail if the airline drops it
+     */
+    public boolean canTransitionTo(BookingStatus next) {
+        return switch (this) {
+            case PENDING -> next == CONFIRMED || next == FAILED || next == CANCELLED;
+            case CONFIRMED -> next == CANCELLED || next == FAILED;
+            case CANCELLED -> next == REFUNDED;
+            case FAILED, REFUNDED -> false;
+        };
+    }
 }
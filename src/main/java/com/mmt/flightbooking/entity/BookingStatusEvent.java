@@ -0,0 +1,77 @@
+package com.mmt.flightbooking.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entry of the append-only booking status log
+ * Written with JDBC batches by BookingEventLog in the transaction that changes the booking; never
+ * updated or deleted, except when a whole month is archived. The status on the booking row is a
+ * snapshot of the latest entry. Range-partitioned by occurred_at (init-scripts/11), so there is no
+ * foreign key to bookings.
+ */
+@Entity
+@Immutable
+@Table(name = "booking_status_events", indexes = {
+    // Timeline of one booking
+    @Index(name = "idx_booking_status_events_booking", columnList = "booking_id, occurred_at")
+})
+public class BookingStatusEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 32)
+    private BookingStatusEventType eventType;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", length = 32)
+    private BookingStatus fromStatus;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", length = 32)
+    private BookingStatus toStatus;
+    
+    // PNRs, reason, schedule change...
+    @Column(length = 500)
+    private String detail;
+    
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public Long getBookingId() {
+        return bookingId;
+    }
+    
+    public BookingStatusEventType getEventType() {
+        return eventType;
+    }
+    
+    public BookingStatus getFromStatus() {
+        return fromStatus;
+    }
+    
+    public BookingStatus getToStatus() {
+        return toStatus;
+    }
+    
+    public String getDetail() {
+        return detail;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,13 @@
+package com.mmt.flightbooking.entity;
+
+public enum BookingStatusEventType {
+    CREATED,
+    AIRLINE_CONFIRMED,
+    PAID,
+    PAYMENT_FAILED,
+    // Airline booking failed, or the booking was abandoned while PENDING
+    FAILED,
+    CANCELLED,
+    // Schedule change pulled from the airline; the status is unchanged
+    SYNCED
+}
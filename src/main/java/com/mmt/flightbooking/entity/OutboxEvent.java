@@ -0,0 +1,159 @@
+package com.mmt.flightbooking.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Booking event written in the same transaction as the booking change
+ * Relayed to listeners by the outbox relay; a row stays PENDING until every listener handled it,
+ * and a retry only goes to the listeners not yet in {@code deliveredListeners}
+ */
+@Entity
+@Table(name = "booking_outbox", indexes = {
+    @Index(name = "idx_booking_outbox_pending", columnList = "status, next_attempt_at")
+})
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private BookingEventType eventType;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status = OutboxStatus.PENDING;
+    
+    @Column(nullable = false)
+    private int attempts;
+    
+    // Not picked up before this time (claim lease or retry backoff)
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+    
+    private String lastError;
+    
+    // Comma-separated names of listeners that already handled the event
+    @Column(name = "delivered_listeners", length = 500)
+    private String deliveredListeners;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime publishedAt;
+    
+    // Constructors
+    public OutboxEvent() {}
+    
+    public OutboxEvent(Long bookingId, BookingEventType eventType) {
+        this.bookingId = bookingId;
+        this.eventType = eventType;
+        this.nextAttemptAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getBookingId() {
+        return bookingId;
+    }
+    
+    public void setBookingId(Long bookingId) {
+        this.bookingId = bookingId;
+    }
+    
+    public BookingEventType getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(BookingEventType eventType) {
+        this.eventType = eventType;
+    }
+    
+    public OutboxStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(OutboxStatus status) {
+        this.status = status;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+    
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    
+    public String getDeliveredListeners() {
+        return deliveredListeners;
+    }
+    
+    public void setDeliveredListeners(String deliveredListeners) {
+        this.deliveredListeners = deliveredListeners;
+    }
+    
+    /**
+     * Names of listeners that already handled the event (a mutable copy)
+     */
+    public Set<String> deliveredListenerNames() {
+        if (deliveredListeners == null || deliveredListeners.isBlank()) {
+            return new LinkedHashSet<>();
+        }
+        return new LinkedHashSet<>(Arrays.asList(deliveredListeners.split(",")));
+    }
+    
+    public void markDelivered(Set<String> listenerNames) {
+        this.deliveredListeners = listenerNames.isEmpty() ? null : String.join(",", listenerNames);
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+    
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+}
@@ -0,0 +1,7 @@
+package com.mmt.flightbooking.entity;
+
+public enum OutboxStatus {
+    PENDING,
+    PUBLISHED,
+    FAILED
+}
@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 public class Passenger {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "passengerIdGenerator")
+    @SequenceGenerator(name = "passengerIdGenerator", sequenceName = "passengers_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
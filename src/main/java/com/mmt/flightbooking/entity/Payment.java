@@ -14,7 +14,8 @@ import java.util.List;
 public class Payment {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "paymentIdGenerator")
+    @SequenceGenerator(name = "paymentIdGenerator", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
     
     @OneToOne(fetch = FetchType.LAZY)
@@ -49,6 +50,10 @@ public class Payment {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
     
+    // Optimistic lock: concurrent updates of the same row fail instead of overwriting each other
+    @Version
+    private Long version;
+    
     // Constructors
     public Payment() {}
     
@@ -154,4 +159,12 @@ public class Payment {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
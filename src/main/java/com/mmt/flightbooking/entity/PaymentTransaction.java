@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 public class PaymentTransaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "paymentTransactionIdGenerator")
+    @SequenceGenerator(name = "paymentTransactionIdGenerator", sequenceName = "payment_transactions_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
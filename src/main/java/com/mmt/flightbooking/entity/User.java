@@ -1,5 +1,6 @@
 package com.mmt.flightbooking.entity;
 
+import com.mmt.flightbooking.service.user.UserCacheInvalidator;
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -10,6 +11,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserCacheInvalidator.class)
 public class User {
     
     @Id
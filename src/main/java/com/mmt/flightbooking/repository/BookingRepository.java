@@ -1,26 +1,171 @@
 package com.mmt.flightbooking.repository;
 
+import com.mmt.flightbooking.dto.BookingSummary;
+import com.mmt.flightbooking.dto.PassengerSummary;
 import com.mmt.flightbooking.entity.Booking;
 import com.mmt.flightbooking.entity.BookingStatus;
 import com.mmt.flightbooking.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     
+    String BOOKING_SUMMARY = "new com.mmt.flightbooking.dto.BookingSummary(b.id, b.bookingReference, b.status, " +
+        "b.totalAmount, b.currency, b.airlineCode, b.airlinePnr, b.flightNumber, b.originAirport, " +
+        "b.destinationAirport, b.departureDate, b.createdAt, b.updatedAt)";
+    
     List<Booking> findByUserAndStatus(User user, BookingStatus status);
     
     Optional<Booking> findByBookingReference(String bookingReference);
     
+    /**
+     * Id of the booking with the given reference, without loading it
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.bookingReference = :bookingReference")
+    Optional<Long> findIdByBookingReference(@Param("bookingReference") String bookingReference);
+    
+    /**
+     * Ids of the bookings whose first airline PNR matches, newest first
+     * Served from idx_bookings_airline_pnr
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.airlinePnr = :airlinePnr ORDER BY b.id DESC")
+    List<Long> findIdsByAirlinePnr(@Param("airlinePnr") String airlinePnr);
+    
+    @Query("SELECT b FROM Booking b JOIN FETCH b.user LEFT JOIN FETCH b.segments WHERE b.id = :id")
+    Optional<Booking> findWithUserById(@Param("id") Long id);
+    
+    /**
+     * PENDING → CONFIRMED with the airline references, as a single UPDATE
+     * Bumps the version so entity updates racing it fail their optimistic-lock check.
+     * @return 1 if the booking was confirmed, 0 if it was no longer PENDING
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = com.mmt.flightbooking.entity.BookingStatus.CONFIRMED, " +
+           "b.airlinePnr = :airlinePnr, b.airlineBookingId = :airlineBookingId, b.updatedAt = LOCAL DATETIME, " +
+           "b.version = b.version + 1 " +
+           "WHERE b.id = :id AND b.status = com.mmt.flightbooking.entity.BookingStatus.PENDING")
+    int confirmPending(@Param("id") Long id, @Param("airlinePnr") String airlinePnr,
+                       @Param("airlineBookingId") String airlineBookingId);
+    
+    /**
+     * Compare-and-set status change, as a single UPDATE
+     * @return 1 if the booking moved, 0 if it was no longer in the expected status
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :status, b.updatedAt = LOCAL DATETIME, b.version = b.version + 1 " +
+           "WHERE b.id = :id AND b.status = :expected")
+    int transitionStatus(@Param("id") Long id, @Param("expected") BookingStatus expected,
+                         @Param("status") BookingStatus status);
+    
+    /**
+     * Lock a batch of PENDING bookings created before the cutoff, oldest first
+     * Rows locked by another reaper are skipped, not waited on. Served from idx_bookings_status_created
+     */
+    @Query(value = "SELECT id FROM bookings WHERE status = 'PENDING' AND created_at < :cutoff " +
+                   "ORDER BY created_at LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockStalePending(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+    
+    /**
+     * PENDING → FAILED for many bookings, as a single UPDATE
+     * @return Number of bookings moved
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = com.mmt.flightbooking.entity.BookingStatus.FAILED, " +
+           "b.updatedAt = LOCAL DATETIME, b.version = b.version + 1 " +
+           "WHERE b.id IN :ids AND b.status = com.mmt.flightbooking.entity.BookingStatus.PENDING")
+    int failPending(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Lock a batch of CONFIRMED bookings created before the cutoff whose payment is still PENDING, oldest first
+     * The airline keeps their seats until they are cancelled. Rows locked by another reaper are skipped
+     */
+    @Query(value = "SELECT b.id FROM bookings b WHERE b.status = 'CONFIRMED' AND b.created_at < :cutoff " +
+                   "AND EXISTS (SELECT 1 FROM payments p WHERE p.booking_id = b.id AND p.status = 'PENDING') " +
+                   "ORDER BY b.created_at LIMIT :batchSize FOR UPDATE OF b SKIP LOCKED", nativeQuery = true)
+    List<Long> lockUnpaidConfirmed(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+    
+    /**
+     * CONFIRMED → FAILED for many bookings, as a single UPDATE
+     * Skips bookings with a payment being charged or already paid
+     * @return Number of bookings moved
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = com.mmt.flightbooking.entity.BookingStatus.FAILED, " +
+           "b.updatedAt = LOCAL DATETIME, b.version = b.version + 1 " +
+           "WHERE b.id IN :ids AND b.status = com.mmt.flightbooking.entity.BookingStatus.CONFIRMED " +
+           "AND NOT EXISTS (SELECT p.id FROM Payment p WHERE p.booking.id = b.id AND p.status IN " +
+           "(com.mmt.flightbooking.entity.PaymentStatus.PROCESSING, com.mmt.flightbooking.entity.PaymentStatus.COMPLETED))")
+    int failUnpaidConfirmed(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT b.id FROM Booking b WHERE b.id IN :ids AND b.status = :status")
+    List<Long> findIdsByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+    
+    @Query("SELECT COUNT(b) FROM Booking b WHERE b.status = com.mmt.flightbooking.entity.BookingStatus.PENDING " +
+           "AND b.createdAt < :cutoff")
+    long countStalePending(@Param("cutoff") LocalDateTime cutoff);
+    
     @Query("SELECT b FROM Booking b WHERE b.user = :user ORDER BY b.createdAt DESC")
     List<Booking> findUserBookings(@Param("user") User user);
     
+    /**
+     * Newest bookings of a user as projections, first page of the booking history
+     * Served from idx_bookings_user_created; the page size comes from the pageable (no count query)
+     */
+    @Query("SELECT " + BOOKING_SUMMARY + " FROM Booking b WHERE b.user = :user " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingSummary> findUserBookingSummaries(@Param("user") User user, Pageable page);
+    
+    /**
+     * Bookings of a user older than the keyset (createdAt, id), next page of the booking history
+     */
+    @Query("SELECT " + BOOKING_SUMMARY + " FROM Booking b WHERE b.user = :user " +
+           "AND (b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :id)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingSummary> findUserBookingSummariesBefore(@Param("user") User user,
+                                                        @Param("createdAt") LocalDateTime createdAt,
+                                                        @Param("id") Long id, Pageable page);
+    
+    /**
+     * Passengers of a page of bookings, in one query
+     */
+    @Query("SELECT new com.mmt.flightbooking.dto.PassengerSummary(p.booking.id, p.firstName, p.lastName, " +
+           "p.age, p.type, p.seatNumber) FROM Passenger p WHERE p.booking.id IN :bookingIds ORDER BY p.id")
+    List<PassengerSummary> findPassengerSummaries(@Param("bookingIds") Collection<Long> bookingIds);
+    
+    /**
+     * Bookings as projections by id, in one query
+     */
+    @Query("SELECT " + BOOKING_SUMMARY + " FROM Booking b WHERE b.id IN :ids ORDER BY b.id")
+    List<BookingSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Ids of the CONFIRMED bookings among the given references
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.bookingReference IN :references " +
+           "AND b.status = com.mmt.flightbooking.entity.BookingStatus.CONFIRMED ORDER BY b.id")
+    List<Long> findConfirmedIdsByReferences(@Param("references") Collection<String> references);
+    
+    /**
+     * Ids of CONFIRMED bookings made before segments were recorded, on the given flight
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.airlineCode = :airlineCode AND b.flightNumber = :flightNumber " +
+           "AND b.departureDate = :departureDate AND b.segments IS EMPTY " +
+           "AND b.status = com.mmt.flightbooking.entity.BookingStatus.CONFIRMED ORDER BY b.id")
+    List<Long> findConfirmedUnsegmentedIdsOnFlight(@Param("airlineCode") String airlineCode,
+                                                   @Param("flightNumber") String flightNumber,
+                                                   @Param("departureDate") LocalDate departureDate);
+    
     @Query("SELECT b FROM Booking b WHERE b.user = :user AND b.status = :status ORDER BY b.createdAt DESC")
     List<Booking> findUserBookingsByStatus(@Param("user") User user, @Param("status") BookingStatus status);
     
@@ -0,0 +1,52 @@
+package com.mmt.flightbooking.repository;
+
+import com.mmt.flightbooking.dto.BookingSegmentSummary;
+import com.mmt.flightbooking.entity.BookingSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookingSegmentRepository extends JpaRepository<BookingSegment, Long> {
+    
+    /**
+     * Segments of a page of bookings, in one query
+     */
+    @Query("SELECT new com.mmt.flightbooking.dto.BookingSegmentSummary(s.booking.id, s.segmentIndex, s.airlineCode, " +
+           "s.airlinePnr, s.flightNumber, s.originAirport, s.destinationAirport, s.departureDate, s.price) " +
+           "FROM BookingSegment s WHERE s.booking.id IN :bookingIds ORDER BY s.segmentIndex")
+    List<BookingSegmentSummary> findSegmentSummaries(@Param("bookingIds") Collection<Long> bookingIds);
+    
+    /**
+     * Ids of the CONFIRMED bookings with a segment on the given flight
+     * Served from idx_booking_segments_flight
+     */
+    @Query("SELECT DISTINCT s.booking.id FROM BookingSegment s WHERE s.airlineCode = :airlineCode " +
+           "AND s.flightNumber = :flightNumber AND s.departureDate = :departureDate " +
+           "AND s.booking.status = com.mmt.flightbooking.entity.BookingStatus.CONFIRMED ORDER BY s.booking.id")
+    List<Long> findConfirmedBookingIdsOnFlight(@Param("airlineCode") String airlineCode,
+                                               @Param("flightNumber") String flightNumber,
+                                               @Param("departureDate") LocalDate departureDate);
+    
+    /**
+     * Ids of the bookings with a segment booked under the given airline PNR, newest first
+     * Served from idx_booking_segments_airline_pnr
+     */
+    @Query("SELECT s.booking.id FROM BookingSegment s WHERE s.airlinePnr = :airlinePnr ORDER BY s.booking.id DESC")
+    List<Long> findBookingIdsByAirlinePnr(@Param("airlinePnr") String airlinePnr);
+    
+    /**
+     * Record the airline references of a booked segment
+     */
+    @Modifying
+    @Query("UPDATE BookingSegment s SET s.airlinePnr = :airlinePnr, s.airlineBookingId = :airlineBookingId, " +
+           "s.updatedAt = LOCAL DATETIME WHERE s.id = :id")
+    int confirmSegment(@Param("id") Long id, @Param("airlinePnr") String airlinePnr,
+                       @Param("airlineBookingId") String airlineBookingId);
+}
@@ -0,0 +1,23 @@
+package com.mmt.flightbooking.repository;
+
+import com.mmt.flightbooking.dto.BookingTimelineEntry;
+import com.mmt.flightbooking.entity.BookingStatusEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface BookingStatusEventRepository extends JpaRepository<BookingStatusEvent, Long> {
+    
+    /**
+     * Status log of a booking, oldest first
+     * Projected straight into DTOs from idx_booking_status_events_booking; no entities are loaded
+     */
+    @Query("SELECT new com.mmt.flightbooking.dto.BookingTimelineEntry(e.eventType, e.fromStatus, e.toStatus, " +
+           "e.detail, e.occurredAt) FROM BookingStatusEvent e WHERE e.bookingId = :bookingId " +
+           "ORDER BY e.occurredAt, e.id")
+    List<BookingTimelineEntry> findTimeline(@Param("bookingId") Long bookingId);
+}
@@ -0,0 +1,35 @@
+package com.mmt.flightbooking.repository;
+
+import com.mmt.flightbooking.entity.OutboxEvent;
+import com.mmt.flightbooking.entity.OutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    
+    /**
+     * Lock a batch of due events; rows locked by another relay are skipped, not waited on
+     */
+    @Query(value = "SELECT * FROM booking_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockDueBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+    
+    /**
+     * Push claimed events out of reach of other relays until the lease expires
+     */
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.nextAttemptAt = :leaseUntil WHERE e.id IN :ids")
+    int claim(@Param("ids") List<Long> ids, @Param("leaseUntil") LocalDateTime leaseUntil);
+    
+    long countByStatus(OutboxStatus status);
+    
+    @Query("SELECT e.eventType, MIN(e.createdAt) FROM OutboxEvent e WHERE e.status = com.mmt.flightbooking.entity.OutboxStatus.PENDING GROUP BY e.eventType")
+    List<Object[]> findOldestPendingByType();
+}
@@ -3,10 +3,13 @@ package com.mmt.flightbooking.repository;
 import com.mmt.flightbooking.entity.Payment;
 import com.mmt.flightbooking.entity.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +27,45 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByMethodAndStatus(@Param("method") com.mmt.flightbooking.entity.PaymentMethod method, 
                                        @Param("status") PaymentStatus status);
     
+    /**
+     * PENDING → PROCESSING while the payment's booking can still be confirmed (PENDING or CONFIRMED)
+     * Compare-and-set: of concurrent callers only one gets 1 back and may charge the payment
+     */
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.mmt.flightbooking.entity.PaymentStatus.PROCESSING, " +
+           "p.updatedAt = LOCAL DATETIME, p.version = p.version + 1 " +
+           "WHERE p.id = :id AND p.status = com.mmt.flightbooking.entity.PaymentStatus.PENDING " +
+           "AND EXISTS (SELECT b.id FROM Booking b WHERE b.id = p.booking.id AND b.status IN " +
+           "(com.mmt.flightbooking.entity.BookingStatus.PENDING, com.mmt.flightbooking.entity.BookingStatus.CONFIRMED))")
+    int claimForCharge(@Param("id") Long id);
+    
+    /**
+     * Lock a batch of PENDING payments left behind by FAILED bookings created before the cutoff
+     * Rows locked by another reaper are skipped, not waited on
+     */
+    @Query(value = "SELECT p.id FROM payments p JOIN bookings b ON b.id = p.booking_id " +
+                   "WHERE b.status = 'FAILED' AND b.created_at < :cutoff AND p.status = 'PENDING' " +
+                   "ORDER BY p.id LIMIT :batchSize FOR UPDATE OF p SKIP LOCKED", nativeQuery = true)
+    List<Long> lockOrphanedPending(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+    
+    /**
+     * PENDING → FAILED for the payments of many bookings, as a single UPDATE
+     */
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.mmt.flightbooking.entity.PaymentStatus.FAILED, " +
+           "p.updatedAt = LOCAL DATETIME, p.version = p.version + 1 " +
+           "WHERE p.booking.id IN :bookingIds AND p.status = com.mmt.flightbooking.entity.PaymentStatus.PENDING")
+    int failPendingForBookings(@Param("bookingIds") Collection<Long> bookingIds);
+    
+    /**
+     * PENDING → FAILED for many payments, as a single UPDATE
+     */
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.mmt.flightbooking.entity.PaymentStatus.FAILED, " +
+           "p.updatedAt = LOCAL DATETIME, p.version = p.version + 1 " +
+           "WHERE p.id IN :ids AND p.status = com.mmt.flightbooking.entity.PaymentStatus.PENDING")
+    int failPending(@Param("ids") Collection<Long> ids);
+    
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = :status")
     Long countByStatus(@Param("status") PaymentStatus status);
     
@@ -0,0 +1,343 @@
+package com.mmt.flightbooking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmt.flightbooking.dto.BookingResponse;
+import com.mmt.flightbooking.dto.CreateBookingRequest;
+import com.mmt.flightbooking.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key support for booking creation
+ * The first request with a key claims it in Redis (SET NX) and runs the booking; its response is
+ * stored under the key so retries get the same response without calling the airline again.
+ * Duplicates arriving while the first request is still running wait for its outcome: the owner
+ * publishes the key on {@link #COMPLETION_CHANNEL} when it finishes, which wakes waiters on any node.
+ * Failed bookings release the key so the client can retry. Both completion and release only touch
+ * the key while it still holds the owner's claim token, so an owner whose claim expired cannot
+ * overwrite the request that took the key over.
+ */
+@Service
+public class BookingIdempotencyService implements MessageListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookingIdempotencyService.class);
+    
+    public static final String COMPLETION_CHANNEL = "booking:idempotency:done";
+    
+    private static final String KEY_PREFIX = "booking:idempotency:";
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    // Records are stored as JSON; only drop the claim if it is still ours
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "local current = redis.call('GET', KEYS[1]) " +
+        "if current and cjson.decode(current).token == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+        "return 0",
+        Long.class);
+    
+    // Store the response only while the claim is still ours: ARGV = token, completed record, TTL in ms
+    private static final RedisScript<Long> COMPLETE_SCRIPT = new DefaultRedisScript<>(
+        "local current = redis.call('GET', KEYS[1]) " +
+        "if current and cjson.decode(current).token == ARGV[1] then " +
+        "redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3]) return 1 end " +
+        "return 0",
+        Long.class);
+    
+    // Duplicates on this node waiting for a key to complete
+    private final Map<String, Set<CompletableFuture<Void>>> waiters = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+    
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    // How long a claim lives if its owner dies before finishing
+    @Value("${flightbooking.booking.idempotency.in-progress-ttl-seconds:120}")
+    private long inProgressTtlSeconds = 120;
+    
+    @Value("${flightbooking.booking.idempotency.ttl-hours:24}")
+    private long completedTtlHours = 24;
+    
+    // How long a duplicate waits for the first request before giving up; must stay well below
+    // spring.mvc.async.request-timeout or the client gets a 503 instead of the 409
+    @Value("${flightbooking.booking.idempotency.wait-ms:10000}")
+    private long waitMs = 10000;
+    
+    // Waiters re-read the key this often in case the completion message was missed
+    @Value("${flightbooking.booking.idempotency.recheck-ms:1000}")
+    private long recheckMs = 1000;
+    
+    /**
+     * Run a booking at most once per idempotency key
+     * @param idempotencyKey Client-supplied key (scoped to the user)
+     * @param user Booking user
+     * @param request Booking request; a reused key must come with the same request
+     * @param booking Runs the booking
+     * @return The booking response, and whether it was replayed from an earlier request
+     * @throws IdempotencyConflictException if the key was used for a different request, or the
+     *         first request is still running after the wait timeout
+     */
+    public Outcome execute(String idempotencyKey, User user, CreateBookingRequest request,
+                           Supplier<BookingResponse> booking) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        
+        String key = KEY_PREFIX + user.getId() + ":" + idempotencyKey;
+        String fingerprint = fingerprint(request);
+        IdempotencyRecord claim = IdempotencyRecord.inProgress(UUID.randomUUID().toString(), fingerprint);
+        
+        Boolean claimed = redisTemplate.opsForValue()
+            .setIfAbsent(key, claim, Duration.ofSeconds(inProgressTtlSeconds));
+        if (Boolean.TRUE.equals(claimed)) {
+            return new Outcome(runClaimed(key, claim, booking), false);
+        }
+        
+        IdempotencyRecord existing = awaitCompletion(key);
+        if (existing == null) {
+            // First request failed (key released) or its claim expired: try again as the owner
+            logger.info("Idempotency key {} was released, retrying claim", idempotencyKey);
+            return execute(idempotencyKey, user, request, booking);
+        }
+        if (!fingerprint.equals(existing.getFingerprint())) {
+            throw new IdempotencyConflictException(
+                "Idempotency-Key was already used for a different booking request", false);
+        }
+        if (existing.getResponse() == null) {
+            throw new IdempotencyConflictException(
+                "A booking with this Idempotency-Key is still in progress", true);
+        }
+        
+        logger.info("Replaying booking {} for idempotency key {}", 
+                   existing.getResponse().getBookingReference(), idempotencyKey);
+        return new Outcome(existing.getResponse(), true);
+    }
+    
+    private BookingResponse runClaimed(String key, IdempotencyRecord claim, Supplier<BookingResponse> booking) {
+        BookingResponse response;
+        try {
+            response = booking.get();
+        } catch (RuntimeException e) {
+            release(key, claim);
+            throw e;
+        }
+        
+        if (response.isSuccess()) {
+            complete(key, claim, response);
+        } else {
+            release(key, claim);
+        }
+        return response;
+    }
+    
+    /**
+     * Wait until the record under the key is completed or gone
+     * @return The completed record, the still-in-progress record after the wait timeout,
+     *         or null if the key was released
+     */
+    private IdempotencyRecord awaitCompletion(String key) {
+        long deadline = System.nanoTime() + Duration.ofMillis(waitMs).toNanos();
+        
+        while (true) {
+            // Registered before reading so a completion landing in between still wakes us
+            CompletableFuture<Void> signal = register(key);
+            try {
+                IdempotencyRecord record = read(key);
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (record == null || record.getResponse() != null || remainingMs <= 0) {
+                    return record;
+                }
+                signal.get(Math.min(remainingMs, recheckMs), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // No notification yet (or it was missed): read the key again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyConflictException("Interrupted while waiting for in-progress booking", true);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Idempotency completion signal failed", e);
+            } finally {
+                unregister(key, signal);
+            }
+        }
+    }
+    
+    /**
+     * Completion of a key, published by whichever node owned it
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String key = new String(message.getBody(), StandardCharsets.UTF_8);
+        Set<CompletableFuture<Void>> signals = waiters.remove(key);
+        if (signals != null) {
+            signals.forEach(signal -> signal.complete(null));
+        }
+    }
+    
+    private CompletableFuture<Void> register(String key) {
+        CompletableFuture<Void> signal = new CompletableFuture<>();
+        waiters.compute(key, (k, signals) -> {
+            Set<CompletableFuture<Void>> registered = signals != null ? signals : new HashSet<>();
+            registered.add(signal);
+            return registered;
+        });
+        return signal;
+    }
+    
+    private void unregister(String key, CompletableFuture<Void> signal) {
+        waiters.computeIfPresent(key, (k, signals) -> {
+            signals.remove(signal);
+            return signals.isEmpty() ? null : signals;
+        });
+    }
+    
+    private void complete(String key, IdempotencyRecord claim, BookingResponse response) {
+        IdempotencyRecord completed = IdempotencyRecord.completed(claim, response);
+        // Compare and set in one step: a claim that expired mid-booking may belong to another request now
+        Long stored = stringRedisTemplate.execute(COMPLETE_SCRIPT, List.of(key), claim.getToken(), toJson(completed),
+                                                  String.valueOf(Duration.ofHours(completedTtlHours).toMillis()));
+        if (!Long.valueOf(1).equals(stored)) {
+            logger.warn("Idempotency claim on {} lapsed before booking {} completed, response not stored",
+                       key, response.getBookingReference());
+        }
+        notifyWaiters(key);
+    }
+    
+    private void release(String key, IdempotencyRecord claim) {
+        // Compare and delete in one step: the claim may have expired and been taken over
+        stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(key), claim.getToken());
+        notifyWaiters(key);
+    }
+    
+    private void notifyWaiters(String key) {
+        try {
+            stringRedisTemplate.convertAndSend(COMPLETION_CHANNEL, key);
+        } catch (RuntimeException e) {
+            // Waiters still pick the outcome up on their next recheck
+            logger.warn("Failed to publish idempotency completion for {}: {}", key, e.getMessage());
+        }
+    }
+    
+    private IdempotencyRecord read(String key) {
+        Object cached = redisTemplate.opsForValue().get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached instanceof IdempotencyRecord record) {
+            return record;
+        }
+        return objectMapper.convertValue(cached, IdempotencyRecord.class);
+    }
+    
+    private String toJson(IdempotencyRecord record) {
+        try {
+            return objectMapper.writeValueAsString(record);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Idempotency record cannot be serialized", e);
+        }
+    }
+    
+    private String fingerprint(CreateBookingRequest request) {
+        try {
+            return DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Booking request cannot be fingerprinted", e);
+        }
+    }
+    
+    /**
+     * Result of an idempotent booking
+     */
+    public static class Outcome {
+        private final BookingResponse response;
+        private final boolean replayed;
+        
+        public Outcome(BookingResponse response, boolean replayed) {
+            this.response = response;
+            this.replayed = replayed;
+        }
+        
+        public BookingResponse getResponse() {
+            return response;
+        }
+        
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+    
+    /**
+     * Value stored under an idempotency key: a claim while running, the response once done
+     */
+    public static class IdempotencyRecord {
+        private String token;
+        private String fingerprint;
+        private BookingResponse response;
+        
+        public IdempotencyRecord() {}
+        
+        static IdempotencyRecord inProgress(String token, String fingerprint) {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setToken(token);
+            record.setFingerprint(fingerprint);
+            return record;
+        }
+        
+        static IdempotencyRecord completed(IdempotencyRecord claim, BookingResponse response) {
+            IdempotencyRecord record = inProgress(claim.getToken(), claim.getFingerprint());
+            record.setResponse(response);
+            return record;
+        }
+        
+        public String getToken() {
+            return token;
+        }
+        
+        public void setToken(String token) {
+            this.token = token;
+        }
+        
+        public String getFingerprint() {
+            return fingerprint;
+        }
+        
+        public void setFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+        
+        public BookingResponse getResponse() {
+            return response;
+        }
+        
+        public void setResponse(BookingResponse response) {
+            this.response = response;
+        }
+    }
+}
@@ -1,31 +1,57 @@
 package com.mmt.flightbooking.service;
 
 import com.mmt.flightbooking.dto.CreateBookingRequest;
+import com.mmt.flightbooking.dto.BookingHistoryPage;
 import com.mmt.flightbooking.dto.BookingResponse;
+import com.mmt.flightbooking.dto.BookingSummary;
 import com.mmt.flightbooking.dto.PaymentRequest;
 import com.mmt.flightbooking.dto.PaymentResult;
 import com.mmt.flightbooking.dto.PassengerRequest;
 import com.mmt.flightbooking.dto.FlightSearchResult;
 import com.mmt.flightbooking.entity.*;
 import com.mmt.flightbooking.repository.BookingRepository;
+import com.mmt.flightbooking.repository.BookingSegmentRepository;
 import com.mmt.flightbooking.service.airline.AirlineBookingService;
 import com.mmt.flightbooking.service.airline.adapter.AirlineBookingResponse;
+import com.mmt.flightbooking.service.datasource.ReadYourWrites;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.execution.IoKind;
+import com.mmt.flightbooking.service.history.BookingEventLog;
+import com.mmt.flightbooking.service.hold.SeatHold;
+import com.mmt.flightbooking.service.hold.SeatHoldService;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import com.mmt.flightbooking.service.notification.NotificationService;
 import com.mmt.flightbooking.service.payment.PaymentService;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 public class BookingService {
     
     private static final Logger logger = LoggerFactory.getLogger(BookingService.class);
+    private static final int MAX_SEGMENTS = 6;
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
     
     @Autowired
     private BookingRepository bookingRepository;
@@ -42,86 +68,151 @@ public class BookingService {
     @Autowired
     private AirlineBookingService airlineBookingService;
     
-    @Transactional
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private BookingSegmentRepository segmentRepository;
+    
+    @Autowired
+    private BlockingIoExecutor ioExecutor;
+    
+    @Autowired
+    private SeatHoldService seatHoldService;
+    
+    @Autowired
+    private OptimisticLockRetry optimisticLockRetry;
+    
+    @Autowired
+    private BookingReadModelService bookingReadModel;
+    
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    
+    @Autowired
+    private BookingEventLog eventLog;
+    
+    @Autowired
+    private IdGenerator idGenerator;
+    
+    /**
+     * Create a booking with the airline(s)
+     * Not transactional: the airline round trip must not hold a database connection.
+     * The flow is split into short local transactions around the airline calls:
+     * PENDING booking aggregate (tx) → airline bookings (no tx) → CONFIRMED (tx).
+     * The aggregate (booking, segments, passengers, PENDING payment) is built in memory and
+     * written in one flush; confirming it is one UPDATE per booking and segment.
+     * Each flight of a multi-segment itinerary (round trip, multi-city) is booked with its airline
+     * in parallel, so the airline phase takes as long as the slowest airline.
+     * If any airline rejects its segment, the segments that were booked are cancelled again in
+     * parallel and the booking is marked FAILED; the same happens if the confirming commit fails.
+     * Seat holds sent with the request must still be active; the airline books the held seats, and the
+     * holds are released once the booking is confirmed. Flights booked without a hold are counted
+     * against the seats others hold while the airlines are called, as a hold would be.
+     */
     public BookingResponse createBooking(CreateBookingRequest request, User user) {
         logger.info("Creating booking for user: {} with {} flights", 
                    user.getEmail(), request.getFlightIds().size());
         
+        List<SeatHold> reservations = List.of();
         try {
             // ═══════════════════════════════════════════════════════════
             // TRUE AGGREGATOR FLOW (Like MMT) - Key Changes:
             // 1. NO database queries for flights
             // 2. Get flight details from search cache
-            // 3. Call AIRLINE's booking API
+            // 3. Call AIRLINE's booking API (one call per segment, in parallel)
             // 4. Store only REFERENCE to airline booking
             // ═══════════════════════════════════════════════════════════
             
-            // 1. Get flight details from search results cache
-            String flightId = request.getFlightIds().get(0); // Handling single flight for simplicity
-            logger.info("[AGGREGATOR] Retrieving flight from cache: {}", flightId);
-            FlightSearchResult flightDetails = searchCacheService.getFlightFromCache(flightId);
-            
-            if (flightDetails == null) {
-                logger.error("[AGGREGATOR] Flight not found in cache: {}. User must search again.", flightId);
-                throw new RuntimeException("Flight not found in search results. Please search again.");
+            // 1. Get flight details for every segment from search results cache
+            List<String> flightIds = request.getFlightIds();
+            List<FlightSearchResult> flights = new ArrayList<>();
+            for (String flightId : flightIds) {
+                logger.info("[AGGREGATOR] Retrieving flight from cache: {}", flightId);
+                FlightSearchResult flightDetails = searchCacheService.getFlightFromCache(flightId);
+                
+                if (flightDetails == null) {
+                    logger.error("[AGGREGATOR] Flight not found in cache: {}. User must search again.", flightId);
+                    throw new RuntimeException("Flight not found in search results. Please search again.");
+                }
+                logger.info("[AGGREGATOR] ✓ Flight found in cache: {} - {} - Price: {} {}", 
+                           flightDetails.getFlightNumber(), flightDetails.getAirline(),
+                           flightDetails.getPrice(), flightDetails.getCurrency());
+                flights.add(flightDetails);
             }
-            logger.info("[AGGREGATOR] ✓ Flight found in cache: {} - {}", flightDetails.getFlightNumber(), flightDetails.getAirline());
+            validateItinerary(flights);
             
-            logger.info("[AGGREGATOR] Booking flight {} ({}) - Price: {} {}", 
-                       flightDetails.getFlightNumber(), flightDetails.getAirline(),
-                       flightDetails.getPrice(), flightDetails.getCurrency());
+            // Seats held for this booking must still be held
+            List<SeatHold> holds = seatHoldService.requireActiveHolds(
+                request.getHoldIds(), user, flightIds, request.getPassengers().size());
+            // Seats not held must not be ones other customers hold
+            reservations = seatHoldService.reserveUnheldSeats(
+                flightIds, flights, holds, request.getPassengers().size());
             
-            // 2. Call AIRLINE's booking API (THIS IS WHAT MMT DOES!)
-            logger.info("[AGGREGATOR] Calling {} airline API to create booking...", 
-                       flightDetails.getAirline());
+            // 2. Record the booking as PENDING before talking to the airlines (short tx)
+            Booking newBooking = buildPendingBooking(request, user, flightIds, flights);
+            List<BookingSegment> segments = newBooking.getSegments();
+            // One save: booking, segments, passengers and payment go out in a single batched flush
+            Booking pendingBooking = transactionTemplate.execute(status -> {
+                Booking saved = bookingRepository.save(newBooking);
+                eventLog.append(saved.getId(), BookingStatusEventType.CREATED, null, BookingStatus.PENDING,
+                                saved.getBookingReference());
+                return saved;
+            });
             
-            AirlineBookingResponse airlineResponse = 
-                airlineBookingService.createBookingWithAirline(flightId, flightDetails, request);
+            // 3. Call the AIRLINES' booking APIs outside any transaction (THIS IS WHAT MMT DOES!)
+            logger.info("[AGGREGATOR] Calling airline APIs to book {} segment(s) of {}...", 
+                       flights.size(), pendingBooking.getBookingReference());
+            List<AirlineBookingResponse> airlineResponses = bookSegments(flightIds, flights, request, holds);
             
-            if (!airlineResponse.isSuccess()) {
-                throw new RuntimeException("Airline booking failed: " + airlineResponse.getMessage());
+            for (int i = 0; i < airlineResponses.size(); i++) {
+                AirlineBookingResponse airlineResponse = airlineResponses.get(i);
+                if (!airlineResponse.isSuccess()) {
+                    compensateSegments(pendingBooking, segments, airlineResponses);
+                    markFailed(pendingBooking);
+                    String segment = flights.size() > 1 
+                        ? String.format(" (segment %d of %d, %s)", i + 1, flights.size(), flights.get(i).getFlightNumber())
+                        : "";
+                    throw new RuntimeException("Airline booking failed" + segment + ": " + airlineResponse.getMessage());
+                }
             }
             
-            logger.info("[AGGREGATOR] ✓ Airline booking successful! Airline PNR: {}", 
-                       airlineResponse.getPnr());
-            
-            // 3. Create booking in OUR database (storing ONLY the reference)
-            Booking booking = new Booking();
-            booking.setUser(user);
-            booking.setBookingReference(generateBookingReference()); // MMT's own reference
-            booking.setStatus(BookingStatus.CONFIRMED);  // Airline confirmed it
-            booking.setTotalAmount(flightDetails.getPrice());
-            booking.setCurrency(flightDetails.getCurrency());
-            
-            // Store airline booking references (KEY AGGREGATOR PATTERN!)
-            booking.setAirlineCode(flightDetails.getAirlineCode());
-            booking.setAirlinePnr(airlineResponse.getPnr());  // ← Airline's PNR
-            booking.setAirlineBookingId(airlineResponse.getBookingId());  // ← Airline's ID
+            logger.info("[AGGREGATOR] ✓ Airline booking successful! Airline PNRs: {}", 
+                       airlineResponses.stream().map(AirlineBookingResponse::getPnr).toList());
             
-            // Cache flight details for quick display (not the source of truth)
-            booking.setFlightNumber(flightDetails.getFlightNumber());
-            booking.setOriginAirport(flightDetails.getOrigin());
-            booking.setDestinationAirport(flightDetails.getDestination());
-            booking.setDepartureDate(flightDetails.getDate());
-            
-            // 4. Save MMT booking
-            booking = bookingRepository.save(booking);
-            
-            // 5. Create passengers
-            createPassengers(booking, request.getPassengers());
+            // 4. PENDING → CONFIRMED with the airline references (short tx)
+            Booking booking;
+            try {
+                booking = transactionTemplate.execute(status -> 
+                    confirmPendingBooking(pendingBooking, segments, airlineResponses));
+            } catch (RuntimeException e) {
+                logger.error("Failed to confirm booking {} after airlines booked it, cancelling with airlines",
+                            pendingBooking.getBookingReference(), e);
+                compensateSegments(pendingBooking, segments, airlineResponses);
+                markFailed(pendingBooking);
+                throw new RuntimeException("Booking could not be saved; airline booking " 
+                                         + pnrs(airlineResponses) + " was cancelled", e);
+            }
             
-            // 6. Create payment record (we handle payment, not airline)
-            Payment payment = paymentService.createPayment(booking, 
-                PaymentMethod.valueOf(request.getPaymentMethod()));
-            booking.setPayment(payment);
+            logger.info("[AGGREGATOR] ✓ MMT booking created: {} → Airline PNR: {}", 
+                       booking.getBookingReference(), pnrs(airlineResponses));
             
-            // 7. Save updated booking
-            booking = bookingRepository.save(booking);
+            if (!holds.isEmpty()) {
+                try {
+                    seatHoldService.consumeHolds(holds);
+                } catch (Exception e) {
+                    // The holds lapse on their own
+                    logger.warn("Could not release seat holds of booking {}", booking.getBookingReference(), e);
+                }
+            }
             
-            logger.info("[AGGREGATOR] ✓ MMT booking created: {} → Airline PNR: {}", 
-                       booking.getBookingReference(), booking.getAirlinePnr());
+            // 5. Create response
+            List<String> confirmations = new ArrayList<>();
+            for (int i = 0; i < flights.size(); i++) {
+                confirmations.add(String.format("%s (PNR: %s)", 
+                                  flights.get(i).getAirline(), airlineResponses.get(i).getPnr()));
+            }
             
-            // 8. Create response
             BookingResponse response = new BookingResponse();
             response.setBookingId(booking.getId());
             response.setBookingReference(booking.getBookingReference());
@@ -129,8 +220,7 @@ public class BookingService {
             response.setTotalAmount(booking.getTotalAmount());
             response.setCurrency(booking.getCurrency());
             response.setCreatedAt(booking.getCreatedAt());
-            response.setMessage(String.format("✓ Booking confirmed with %s (PNR: %s)", 
-                               flightDetails.getAirline(), booking.getAirlinePnr()));
+            response.setMessage("✓ Booking confirmed with " + String.join(", ", confirmations));
             
             return response;
             
@@ -140,29 +230,59 @@ public class BookingService {
             errorResponse.setSuccess(false);
             errorResponse.setMessage("Booking creation failed: " + e.getMessage());
             return errorResponse;
+        } finally {
+            releaseReservations(reservations);
+            // The user's next reads must see the booking, whatever state it ended in
+            readYourWrites.recordWrite(user);
         }
     }
     
-    @Transactional(isolation = Isolation.READ_COMMITTED)
+    /**
+     * Confirm a booking after payment
+     * Not transactional: the payment gateway call must not hold a database connection.
+     * The payment is claimed before it is charged, so a booking is charged at most once: a
+     * repeated confirm of a paid booking, or one racing another, is refused. The status change
+     * runs in its own short transaction afterwards and is retried if a concurrent writer updated
+     * the booking in between; payment itself is never retried. If the booking cannot take the
+     * charge any more (e.g. it was cancelled meanwhile), the charge is refunded.
+     */
     public BookingResponse confirmBooking(Long bookingId, PaymentRequest paymentRequest) {
         logger.info("Confirming booking: {}", bookingId);
         
         try {
-            // Get booking with optimistic locking
             Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found"));
+            // CONFIRMED by the airline, not yet paid; whether it is paid is up to the payment claim
+            if (booking.getStatus() != BookingStatus.CONFIRMED
+                    && !booking.getStatus().canTransitionTo(BookingStatus.CONFIRMED)) {
+                throw new IllegalStateException("Booking " + booking.getBookingReference() + " is " + booking.getStatus());
+            }
+            Payment payment = paymentRequest.getPayment();
+            if (payment.getBooking() == null || !bookingId.equals(payment.getBooking().getId())) {
+                throw new IllegalArgumentException("Payment does not belong to booking " + booking.getBookingReference());
+            }
             
-            // Process payment
+            // Process payment; throws if it is already paid or being charged
             PaymentResult paymentResult = paymentService.processPayment(paymentRequest);
+            BookingStatus target = paymentResult.isSuccess() ? BookingStatus.CONFIRMED : BookingStatus.FAILED;
+            
+            try {
+                booking = optimisticLockRetry.execute("Confirm booking " + bookingId, () ->
+                    transactionTemplate.execute(status -> applyPaymentOutcome(bookingId, target)));
+            } catch (RuntimeException e) {
+                if (!paymentResult.isSuccess()) {
+                    throw e;
+                }
+                logger.error("Booking {} could not take payment {}, refunding", 
+                            bookingId, paymentResult.getTransactionId(), e);
+                boolean refunded = paymentService.refundPayment(payment.getId(), 
+                    "booking " + bookingId + " could not be confirmed: " + e.getMessage());
+                throw new IllegalStateException("Booking could not be confirmed (" + e.getMessage() + "); payment "
+                                              + (refunded ? "refunded" : "to be refunded by support"), e);
+            }
+            readYourWrites.recordWrite(booking.getUser());
             
             if (paymentResult.isSuccess()) {
-                // Update booking status
-                booking.setStatus(BookingStatus.CONFIRMED);
-                bookingRepository.save(booking);
-                
-                // Send confirmation
-                notificationService.sendBookingConfirmation(booking);
-                
                 BookingResponse response = new BookingResponse();
                 response.setBookingId(booking.getId());
                 response.setBookingReference(booking.getBookingReference());
@@ -174,9 +294,6 @@ public class BookingService {
                 logger.info("Booking confirmed successfully: {}", booking.getBookingReference());
                 return response;
             } else {
-                booking.setStatus(BookingStatus.FAILED);
-                bookingRepository.save(booking);
-                
                 BookingResponse errorResponse = new BookingResponse();
                 errorResponse.setSuccess(false);
                 errorResponse.setMessage("Payment failed: " + paymentResult.getMessage());
@@ -192,14 +309,303 @@ public class BookingService {
         }
     }
     
+    /**
+     * Cancel a booking
+     * The airline-side cancellation and customer notifications are delivered from the outbox
+     * after the transaction commits. A cancellation racing another update of the same booking
+     * re-reads it and tries again.
+     * @throws IllegalStateException if the booking can no longer be cancelled
+     */
+    public Booking cancelBooking(Long bookingId, User user) {
+        Booking cancelled = optimisticLockRetry.execute("Cancel booking " + bookingId, () ->
+            transactionTemplate.execute(status -> {
+                Booking booking = getBookingById(bookingId, user);
+                if (booking.getStatus() == BookingStatus.CANCELLED) {
+                    return booking;
+                }
+                
+                BookingStatus from = booking.getStatus();
+                booking.transitionTo(BookingStatus.CANCELLED);
+                bookingRepository.save(booking);
+                eventLog.append(bookingId, BookingStatusEventType.CANCELLED, from, BookingStatus.CANCELLED,
+                                "cancelled by customer");
+                bookingReadModel.invalidate(bookingId);
+                notificationService.sendBookingCancellation(booking);
+                
+                logger.info("Booking cancelled: {}", booking.getBookingReference());
+                return booking;
+            }));
+        readYourWrites.recordWrite(user);
+        return cancelled;
+    }
+    
+    @Transactional(readOnly = true)
     public Booking getBookingById(Long bookingId, User user) {
-        return bookingRepository.findById(bookingId)
-            .filter(booking -> booking.getUser().equals(user))
-            .orElseThrow(() -> new RuntimeException("Booking not found"));
+        return readYourWrites.read(user, () -> bookingRepository.findById(bookingId)
+            // By id: the user may be a detached copy (CurrentUserResolver caches users across requests)
+            .filter(booking -> user.getId() != null && user.getId().equals(booking.getUser().getId()))
+            .orElseThrow(() -> new RuntimeException("Booking not found")));
     }
     
+    @Transactional(readOnly = true)
     public List<Booking> getUserBookings(User user) {
-        return bookingRepository.findUserBookings(user);
+        return readYourWrites.read(user, () -> bookingRepository.findUserBookings(user));
+    }
+    
+    /**
+     * One page of a user's booking history, newest first
+     * Keyset pagination on (createdAt, id): every page is an index range scan, however deep the
+     * user pages. Reads projections rather than entities: one query for the page of bookings and
+     * one each for their segments and passengers, independent of the page size.
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param limit Page size, capped at {@value #MAX_HISTORY_PAGE_SIZE}
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public BookingHistoryPage getUserBookingHistory(User user, String cursor, int limit) {
+        return readYourWrites.read(user, () -> loadUserBookingHistory(user, cursor, limit));
+    }
+    
+    private BookingHistoryPage loadUserBookingHistory(User user, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        // One extra row tells whether there is a next page
+        Pageable page = PageRequest.of(0, pageSize + 1);
+        
+        List<BookingSummary> bookings;
+        if (cursor == null || cursor.isBlank()) {
+            bookings = bookingRepository.findUserBookingSummaries(user, page);
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            bookings = bookingRepository.findUserBookingSummariesBefore(user, after.createdAt(), after.id(), page);
+        }
+        
+        String nextCursor = null;
+        if (bookings.size() > pageSize) {
+            bookings = new ArrayList<>(bookings.subList(0, pageSize));
+            BookingSummary last = bookings.get(pageSize - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        if (bookings.isEmpty()) {
+            return new BookingHistoryPage(bookings, null);
+        }
+        
+        Map<Long, BookingSummary> byId = bookings.stream()
+            .collect(Collectors.toMap(BookingSummary::getId, Function.identity()));
+        segmentRepository.findSegmentSummaries(byId.keySet())
+            .forEach(segment -> byId.get(segment.getBookingId()).getSegments().add(segment));
+        bookingRepository.findPassengerSummaries(byId.keySet())
+            .forEach(passenger -> byId.get(passenger.getBookingId()).getPassengers().add(passenger));
+        
+        return new BookingHistoryPage(bookings, nextCursor);
+    }
+    
+    private void validateItinerary(List<FlightSearchResult> flights) {
+        if (flights.size() > MAX_SEGMENTS) {
+            throw new IllegalArgumentException("At most " + MAX_SEGMENTS + " flights can be booked together");
+        }
+        for (int i = 1; i < flights.size(); i++) {
+            FlightSearchResult previous = flights.get(i - 1);
+            FlightSearchResult next = flights.get(i);
+            if (!Objects.equals(previous.getCurrency(), next.getCurrency())) {
+                throw new IllegalArgumentException("All flights of a booking must be priced in the same currency");
+            }
+            if (previous.getDate() != null && next.getDate() != null && next.getDate().isBefore(previous.getDate())) {
+                throw new IllegalArgumentException("Flights must be listed in travel order");
+            }
+        }
+    }
+    
+    private Booking buildPendingBooking(CreateBookingRequest request, User user, 
+                                        List<String> flightIds, List<FlightSearchResult> flights) {
+        FlightSearchResult firstFlight = flights.get(0);
+        
+        // Create booking in OUR database (storing ONLY the references once the airlines confirm)
+        Booking booking = new Booking();
+        booking.setUser(user);
+        booking.setBookingReference(generateBookingReference()); // MMT's own reference
+        booking.setStatus(BookingStatus.PENDING);  // Airlines not called yet
+        booking.setTotalAmount(flights.stream()
+            .map(FlightSearchResult::getPrice)
+            .reduce(BigDecimal.ZERO, BigDecimal::add));
+        booking.setCurrency(firstFlight.getCurrency());
+        booking.setAirlineCode(firstFlight.getAirlineCode());
+        
+        // Cache flight details for quick display (not the source of truth)
+        booking.setFlightNumber(firstFlight.getFlightNumber());
+        booking.setOriginAirport(firstFlight.getOrigin());
+        booking.setDestinationAirport(firstFlight.getDestination());
+        booking.setDepartureDate(firstFlight.getDate());
+        
+        for (int i = 0; i < flights.size(); i++) {
+            FlightSearchResult flight = flights.get(i);
+            BookingSegment segment = new BookingSegment();
+            segment.setBooking(booking);
+            segment.setSegmentIndex(i);
+            segment.setFlightId(flightIds.get(i));
+            segment.setAirlineCode(flight.getAirlineCode());
+            segment.setFlightNumber(flight.getFlightNumber());
+            segment.setOriginAirport(flight.getOrigin());
+            segment.setDestinationAirport(flight.getDestination());
+            segment.setDepartureDate(flight.getDate());
+            segment.setPrice(flight.getPrice());
+            booking.getSegments().add(segment);
+        }
+        
+        createPassengers(booking, request.getPassengers());
+        
+        // Payment record (we handle payment, not airline), saved with the booking
+        booking.setPayment(paymentService.newPendingPayment(booking, 
+            PaymentMethod.valueOf(request.getPaymentMethod())));
+        
+        return booking;
+    }
+    
+    /**
+     * Book every segment with its airline in parallel
+     * @return One response per segment, in segment order; calls that threw become failed responses
+     */
+    private List<AirlineBookingResponse> bookSegments(List<String> flightIds, List<FlightSearchResult> flights,
+                                                      CreateBookingRequest request, List<SeatHold> holds) {
+        // The airline books held seats out of the hold, so the customer's own hold does not compete with them
+        Map<String, String> holdReferences = holds.stream()
+            .filter(hold -> hold.getAirlineHoldReference() != null)
+            .collect(Collectors.toMap(SeatHold::getFlightId, SeatHold::getAirlineHoldReference, (a, b) -> a));
+        List<Supplier<AirlineBookingResponse>> calls = new ArrayList<>();
+        for (int i = 0; i < flights.size(); i++) {
+            String flightId = flightIds.get(i);
+            FlightSearchResult flight = flights.get(i);
+            String holdReference = holdReferences.get(flightId);
+            calls.add(() -> airlineBookingService.createBookingWithAirline(flightId, flight, request, holdReference));
+        }
+        
+        List<AirlineBookingResponse> responses = new ArrayList<>();
+        List<CompletableFuture<AirlineBookingResponse>> results = ioExecutor.forkJoin(IoKind.BOOKING_FLOW, calls);
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                responses.add(results.get(i).join());
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.error("Error booking {} with airline", flights.get(i).getFlightNumber(), cause);
+                AirlineBookingResponse failed = new AirlineBookingResponse();
+                failed.setSuccess(false);
+                failed.setAirlineCode(flights.get(i).getAirlineCode());
+                failed.setMessage(cause.getMessage());
+                responses.add(failed);
+            }
+        }
+        return responses;
+    }
+    
+    private Booking confirmPendingBooking(Booking booking, List<BookingSegment> segments,
+                                          List<AirlineBookingResponse> airlineResponses) {
+        // Store airline booking references (KEY AGGREGATOR PATTERN!)
+        // The booking row mirrors the first segment's references
+        AirlineBookingResponse first = airlineResponses.get(0);
+        int updated = bookingRepository.confirmPending(booking.getId(), first.getPnr(), first.getBookingId());
+        if (updated == 0) {
+            throw new IllegalStateException("Booking " + booking.getBookingReference() + " is no longer PENDING");
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            BookingSegment segment = segments.get(i);
+            AirlineBookingResponse airlineResponse = airlineResponses.get(i);
+            segmentRepository.confirmSegment(segment.getId(), airlineResponse.getPnr(), airlineResponse.getBookingId());
+            segment.setAirlinePnr(airlineResponse.getPnr());  // ← Airline's PNR
+            segment.setAirlineBookingId(airlineResponse.getBookingId());  // ← Airline's ID
+        }
+        
+        booking.setStatus(BookingStatus.CONFIRMED);  // Airlines confirmed it
+        booking.setAirlinePnr(first.getPnr());
+        eventLog.append(booking.getId(), BookingStatusEventType.AIRLINE_CONFIRMED, BookingStatus.PENDING,
+                        BookingStatus.CONFIRMED, "PNR " + pnrs(airlineResponses));
+        booking.setAirlineBookingId(first.getBookingId());
+        bookingReadModel.invalidate(booking.getId());
+        return booking;
+    }
+    
+    /**
+     * Airlines hold segments we will not record: cancel them in parallel so the customer is
+     * not ticketed for a booking we don't know about
+     */
+    private void compensateSegments(Booking booking, List<BookingSegment> segments,
+                                    List<AirlineBookingResponse> airlineResponses) {
+        List<String> pnrs = new ArrayList<>();
+        List<Supplier<Boolean>> cancellations = new ArrayList<>();
+        for (int i = 0; i < airlineResponses.size(); i++) {
+            AirlineBookingResponse airlineResponse = airlineResponses.get(i);
+            if (airlineResponse.isSuccess() && airlineResponse.getPnr() != null) {
+                String airlineCode = segments.get(i).getAirlineCode();
+                pnrs.add(airlineResponse.getPnr());
+                cancellations.add(() -> airlineBookingService.cancelBookingWithAirline(
+                    airlineCode, airlineResponse.getPnr()));
+            }
+        }
+        if (cancellations.isEmpty()) {
+            return;
+        }
+        
+        logger.warn("Cancelling airline bookings {} of booking {}", pnrs, booking.getBookingReference());
+        List<CompletableFuture<Boolean>> results = ioExecutor.forkJoin(IoKind.BOOKING_FLOW, cancellations);
+        for (int i = 0; i < results.size(); i++) {
+            Boolean cancelled = results.get(i).exceptionally(e -> false).join();
+            if (!Boolean.TRUE.equals(cancelled)) {
+                logger.error("Compensation failed: airline did not cancel PNR {} for booking {}",
+                            pnrs.get(i), booking.getBookingReference());
+            }
+        }
+    }
+    
+    private static String pnrs(List<AirlineBookingResponse> airlineResponses) {
+        return airlineResponses.stream()
+            .map(AirlineBookingResponse::getPnr)
+            .collect(Collectors.joining(", "));
+    }
+    
+    private Booking applyPaymentOutcome(Long bookingId, BookingStatus target) {
+        // Re-read on every attempt so a retry sees the concurrent writer's version
+        Booking booking = bookingRepository.findById(bookingId)
+            .orElseThrow(() -> new RuntimeException("Booking not found"));
+        BookingStatus from = booking.getStatus();
+        if (from != target) {
+            booking.transitionTo(target);
+        }
+        bookingRepository.save(booking);
+        eventLog.append(bookingId,
+                        target == BookingStatus.CONFIRMED ? BookingStatusEventType.PAID : BookingStatusEventType.PAYMENT_FAILED,
+                        from, target, null);
+        bookingReadModel.invalidate(bookingId);
+        if (target == BookingStatus.CONFIRMED) {
+            notificationService.sendBookingConfirmation(booking);
+        }
+        return booking;
+    }
+    
+    private void markFailed(Booking booking) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (bookingRepository.transitionStatus(booking.getId(), BookingStatus.PENDING, BookingStatus.FAILED) > 0) {
+                    eventLog.append(booking.getId(), BookingStatusEventType.FAILED, BookingStatus.PENDING,
+                                    BookingStatus.FAILED, "airline booking failed");
+                }
+                bookingReadModel.invalidate(booking.getId());
+            });
+            booking.setStatus(BookingStatus.FAILED);
+        } catch (Exception e) {
+            // Left PENDING; picked up by operations if the database is unavailable
+            logger.error("Could not mark booking {} as FAILED", booking.getBookingReference(), e);
+        }
+    }
+    
+    private void releaseReservations(List<SeatHold> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        try {
+            seatHoldService.releaseReservations(reservations);
+        } catch (Exception e) {
+            // They lapse on their own shortly
+            logger.warn("Could not release seat reservations {}", 
+                       reservations.stream().map(SeatHold::getHoldId).toList(), e);
+        }
     }
     
     private void createPassengers(Booking booking, List<PassengerRequest> passengerRequests) {
@@ -221,6 +627,28 @@ public class BookingService {
     }
     
     private String generateBookingReference() {
-        return "MMT" + UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+        return idGenerator.nextReference("MMT");
+    }
+    
+    /**
+     * Keyset position in the booking history: the last booking of the previous page
+     */
+    private record HistoryCursor(LocalDateTime createdAt, Long id) {
+        
+        String encode() {
+            String raw = createdAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static HistoryCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                         Long.parseLong(raw.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid booking history cursor");
+            }
+        }
     }
 }
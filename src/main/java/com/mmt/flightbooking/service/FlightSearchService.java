@@ -4,13 +4,18 @@ import com.mmt.flightbooking.dto.FlightSearchRequest;
 import com.mmt.flightbooking.dto.FlightSearchResult;
 import com.mmt.flightbooking.dto.FlightSearchResponse;
 import com.mmt.flightbooking.service.airline.ExternalAirlineService;
+import com.mmt.flightbooking.service.id.IdGenerator;
+import com.mmt.flightbooking.service.search.SearchMetrics;
+import com.mmt.flightbooking.service.search.SearchScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class FlightSearchService {
@@ -22,51 +27,117 @@ public class FlightSearchService {
     
     @Autowired
     private FlightSearchCacheService searchCacheService;
+    
+    @Autowired
+    private SearchMetrics searchMetrics;
+    
+    @Autowired
+    private IdGenerator idGenerator;
+    
+    @Value("${flightbooking.search.timeout-ms:25000}")
+    private long searchTimeoutMs;
 
     public FlightSearchResponse searchFlights(FlightSearchRequest request) {
+        return searchFlightsAsync(request).join();
+    }
+    
+    public CompletableFuture<FlightSearchResponse> searchFlightsAsync(FlightSearchRequest request) {
+        return searchFlightsAsync(request, openScope(null));
+    }
+    
+    /**
+     * Open a search scope for a request
+     * @param requestedTimeoutMs Deadline requested by the caller (may be null); never extends the configured timeout
+     */
+    public SearchScope openScope(Long requestedTimeoutMs) {
+        String searchId = idGenerator.nextKey();
+        if (requestedTimeoutMs == null || requestedTimeoutMs <= 0) {
+            return SearchScope.open(searchId, searchTimeoutMs);
+        }
+        return SearchScope.open(searchId,
+            searchTimeoutMs > 0 ? Math.min(requestedTimeoutMs, searchTimeoutMs) : requestedTimeoutMs);
+    }
+    
+    /**
+     * Search flights within the given scope without blocking the calling thread
+     * The scope owns the airline fan-out and its deadline; caching and ranking run when the
+     * airline results arrive, and stage timings are published when the search ends.
+     * The returned future never completes exceptionally; failures become an error response.
+     */
+    public CompletableFuture<FlightSearchResponse> searchFlightsAsync(FlightSearchRequest request, SearchScope scope) {
         logger.info("Searching flights for route: {} to {} on {}", 
                    request.getOrigin(), request.getDestination(), request.getDepartureDate());
+        searchMetrics.searchStarted();
         
+        // PURE AGGREGATOR APPROACH (like MMT):
+        // Search ONLY from external airlines, NO local database
+        
+        // 1. Fan out to all airlines inside the scope (bounded by the search deadline)
+        CompletableFuture<List<FlightSearchResult>> externalResults;
         try {
-            // PURE AGGREGATOR APPROACH (like MMT):
-            // Search ONLY from external airlines, NO local database
-            
-            // 1. Search external airlines asynchronously (parallel calls)
-            CompletableFuture<List<FlightSearchResult>> externalResults = 
-                airlineService.searchFlightsAsync(request);
-            
-            // 2. Get external results
-            List<FlightSearchResult> allResults = externalResults.get();
-            
-            // 3. Cache each flight result for later booking (30 min TTL)
-            logger.info("Caching {} flight results in Redis...", allResults.size());
-            for (FlightSearchResult flight : allResults) {
-                try {
-                    searchCacheService.cacheFlightResult(flight.getFlightId(), flight);
-                    logger.debug("Cached flight: {} - {}", flight.getFlightId(), flight.getFlightNumber());
-                } catch (Exception e) {
-                    logger.error("Failed to cache flight: {}", flight.getFlightId(), e);
-                }
-            }
-            logger.info("Successfully cached {} flights", allResults.size());
-            
-            // 4. Apply filters and sorting
-            List<FlightSearchResult> filteredResults = applyFiltersAndSorting(allResults, request);
-            
-            // 5. Create response
-            FlightSearchResponse response = new FlightSearchResponse(filteredResults);
-            response.setSearchId(UUID.randomUUID().toString());
-            
-            logger.info("Found {} flights for search", filteredResults.size());
-            return response;
-            
+            externalResults = airlineService.searchFlights(request, scope);
         } catch (Exception e) {
-            logger.error("Error searching flights", e);
-            FlightSearchResponse errorResponse = new FlightSearchResponse();
-            errorResponse.setSuccess(false);
-            errorResponse.setMessage("Flight search failed: " + e.getMessage());
-            return errorResponse;
+            externalResults = CompletableFuture.failedFuture(e);
+        }
+        
+        // 2. Build the response once external results arrive
+        return externalResults
+            .thenApply(allResults -> buildResponse(allResults, request, scope))
+            .exceptionally(this::errorResponse)
+            .whenComplete((response, error) -> searchMetrics.record(scope));
+    }
+    
+    private FlightSearchResponse buildResponse(List<FlightSearchResult> allResults,
+                                               FlightSearchRequest request, SearchScope scope) {
+        // Client went away: don't write results nobody will book from
+        if (scope.isAbandoned()) {
+            logger.info("Search {} abandoned ({}), discarding {} results", 
+                       scope.getSearchId(), scope.getCancelReason(), allResults.size());
+            searchMetrics.resultsDiscarded(scope, allResults.size());
+            FlightSearchResponse response = new FlightSearchResponse();
+            response.setSuccess(false);
+            response.setMessage("Flight search cancelled: " + scope.getCancelReason());
+            return response;
+        }
+        
+        // 3. Cache each flight result for later booking (30 min TTL)
+        scope.timeStage("cache", () -> cacheResults(allResults));
+        
+        // 4. Apply filters and sorting
+        List<FlightSearchResult> filteredResults = 
+            scope.timeStage("rank", () -> applyFiltersAndSorting(allResults, request));
+        
+        // 5. Create response
+        FlightSearchResponse response = new FlightSearchResponse(filteredResults);
+        response.setSearchId(scope.getSearchId());
+        
+        logger.info("Found {} flights for search {} in {} ms", 
+                   filteredResults.size(), scope.getSearchId(), scope.elapsed().toMillis());
+        return response;
+    }
+    
+    private FlightSearchResponse errorResponse(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+            ? error.getCause() : error;
+        logger.error("Error searching flights", cause);
+        FlightSearchResponse errorResponse = new FlightSearchResponse();
+        errorResponse.setSuccess(false);
+        errorResponse.setMessage("Flight search failed: " + cause.getMessage());
+        return errorResponse;
+    }
+    
+    private int cacheResults(List<FlightSearchResult> results) {
+        logger.info("Caching {} flight results in Redis...", results.size());
+        for (FlightSearchResult flight : results) {
+            try {
+                searchCacheService.cacheFlightResult(flight.getFlightId(), flight);
+                logger.debug("Cached flight: {} - {}", flight.getFlightId(), flight.getFlightNumber());
+            } catch (Exception e) {
+                logger.error("Failed to cache flight: {}", flight.getFlightId(), e);
+            }
         }
+        logger.info("Successfully cached {} flights", results.size());
+        return results.size();
     }
     
     private List<FlightSearchResult> applyFiltersAndSorting(
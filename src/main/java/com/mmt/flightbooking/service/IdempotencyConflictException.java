@@ -0,0 +1,19 @@
+package com.mmt.flightbooking.service;
+
+/**
+ * An Idempotency-Key cannot be honoured: it belongs to a different request,
+ * or the request holding it has not finished yet
+ */
+public class IdempotencyConflictException extends RuntimeException {
+    
+    private final boolean inProgress;
+    
+    public IdempotencyConflictException(String message, boolean inProgress) {
+        super(message);
+        this.inProgress = inProgress;
+    }
+    
+    public boolean isInProgress() {
+        return inProgress;
+    }
+}
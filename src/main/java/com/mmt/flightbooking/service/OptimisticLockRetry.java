@@ -0,0 +1,69 @@
+package com.mmt.flightbooking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry for writes that lost an optimistic-lock race
+ * Each attempt must run in its own transaction and re-read the rows it changes, so a retry
+ * applies the change on top of whatever the concurrent writer committed.
+ * Backoff doubles per attempt with full jitter so racing writers do not collide again in lockstep.
+ */
+@Component
+public class OptimisticLockRetry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticLockRetry.class);
+    
+    private final int maxAttempts;
+    private final long backoffMs;
+    
+    @Autowired
+    public OptimisticLockRetry(
+            @Value("${flightbooking.booking.optimistic-retry.max-attempts:4}") int maxAttempts,
+            @Value("${flightbooking.booking.optimistic-retry.backoff-ms:20}") long backoffMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMs = Math.max(0, backoffMs);
+    }
+    
+    /**
+     * Run an attempt, retrying it while it fails with an optimistic-lock conflict
+     * @param operation Name used in logs
+     * @param attempt Runs one attempt in its own transaction
+     * @return The result of the first attempt that did not conflict
+     * @throws OptimisticLockingFailureException if every attempt conflicted
+     */
+    public <T> T execute(String operation, Supplier<T> attempt) {
+        for (int i = 1; ; i++) {
+            try {
+                return attempt.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (i >= maxAttempts) {
+                    logger.warn("{} still conflicting after {} attempts", operation, i);
+                    throw e;
+                }
+                logger.info("{} hit a concurrent update, retrying (attempt {}/{})", operation, i + 1, maxAttempts);
+                sleep(i);
+            }
+        }
+    }
+    
+    private void sleep(int attempt) {
+        long ceiling = backoffMs << Math.min(attempt - 1, 10);
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying", e);
+        }
+    }
+}
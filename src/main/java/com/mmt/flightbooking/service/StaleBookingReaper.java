@@ -0,0 +1,218 @@
+package com.mmt.flightbooking.service;
+
+import com.mmt.flightbooking.entity.BookingEventType;
+import com.mmt.flightbooking.entity.BookingStatus;
+import com.mmt.flightbooking.entity.BookingStatusEventType;
+import com.mmt.flightbooking.repository.BookingRepository;
+import com.mmt.flightbooking.repository.PaymentRepository;
+import com.mmt.flightbooking.service.history.BookingEventLog;
+import com.mmt.flightbooking.service.outbox.OutboxService;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fails bookings that will never complete, and the PENDING payments of FAILED bookings
+ * <ul>
+ *   <li>PENDING bookings: a booking flow that never finished (node died mid-request). No airline
+ *       PNR is recorded before confirmation, so there is nothing to cancel.</li>
+ *   <li>CONFIRMED bookings whose payment is still PENDING after the payment window: the customer
+ *       abandoned payment. They are failed and a BOOKING_CANCELLED outbox event releases the seats
+ *       with the airline (and tells the customer), retried by the outbox relay.</li>
+ * </ul>
+ * Each batch claims the oldest stale rows with FOR UPDATE SKIP LOCKED and moves them with one
+ * UPDATE in a short transaction, so several nodes can reap in parallel without waiting on each other.
+ */
+@Component
+public class StaleBookingReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaleBookingReaper.class);
+
+    private final BookingRepository bookingRepository;
+    private final PaymentRepository paymentRepository;
+    private final OutboxService outboxService;
+    private final BookingReadModelService bookingReadModel;
+    private final BookingEventLog eventLog;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry registry;
+    private final AtomicLong backlog = new AtomicLong();
+
+    @Value("${flightbooking.booking.reaper.enabled:true}")
+    private boolean enabled = true;
+
+    // A booking flow finishes in seconds; anything PENDING this long has been abandoned
+    @Value("${flightbooking.booking.reaper.pending-ttl-minutes:30}")
+    private long pendingTtlMinutes = 30;
+
+    // How long a confirmed booking may stay unpaid before its airline booking is given up
+    @Value("${flightbooking.booking.reaper.payment-window-minutes:30}")
+    private long paymentWindowMinutes = 30;
+
+    @Value("${flightbooking.booking.reaper.batch-size:200}")
+    private int batchSize = 200;
+
+    // Bounds one run; the rest is picked up by the next run (or another node)
+    @Value("${flightbooking.booking.reaper.max-batches-per-run:50}")
+    private int maxBatchesPerRun = 50;
+
+    @Autowired
+    public StaleBookingReaper(BookingRepository bookingRepository, PaymentRepository paymentRepository,
+                              OutboxService outboxService, BookingReadModelService bookingReadModel,
+                              BookingEventLog eventLog, TransactionTemplate transactionTemplate,
+                              MeterRegistry registry) {
+        this.bookingRepository = bookingRepository;
+        this.paymentRepository = paymentRepository;
+        this.outboxService = outboxService;
+        this.bookingReadModel = bookingReadModel;
+        this.eventLog = eventLog;
+        this.transactionTemplate = transactionTemplate;
+        this.registry = registry;
+
+        Gauge.builder("flightbooking.booking.reaper.backlog", backlog, AtomicLong::get)
+            .description("PENDING bookings past the reaper cutoff at the end of the last run")
+            .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${flightbooking.booking.reaper.interval-ms:60000}",
+               initialDelayString = "${flightbooking.booking.reaper.initial-delay-ms:30000}")
+    public void reap() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusMinutes(pendingTtlMinutes);
+            int batches = 0;
+            int reaped;
+            do {
+                reaped = reapPendingBatch(cutoff);
+            } while (reaped == batchSize && ++batches < maxBatchesPerRun);
+
+            LocalDateTime paymentCutoff = LocalDateTime.now().minusMinutes(paymentWindowMinutes);
+            batches = 0;
+            int claimed;
+            do {
+                claimed = reapUnpaidBatch(paymentCutoff);
+            } while (claimed == batchSize && ++batches < maxBatchesPerRun);
+
+            batches = 0;
+            do {
+                reaped = reapOrphanedPaymentBatch(cutoff);
+            } while (reaped == batchSize && ++batches < maxBatchesPerRun);
+
+            backlog.set(bookingRepository.countStalePending(cutoff));
+        } catch (Exception e) {
+            logger.error("Stale booking reaper run failed", e);
+        }
+    }
+
+    /**
+     * Claim and fail one batch of PENDING bookings created before the cutoff
+     * @return Number of bookings failed
+     */
+    public int reapPendingBatch(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        Integer failed = transactionTemplate.execute(status -> {
+            List<Long> ids = bookingRepository.lockStalePending(cutoff, batchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            int moved = bookingRepository.failPending(ids);
+            paymentRepository.failPendingForBookings(ids);
+            // Claimed rows are locked and PENDING, so every one of them moved
+            eventLog.appendAll(ids, BookingStatusEventType.FAILED, BookingStatus.PENDING, BookingStatus.FAILED,
+                               "abandoned");
+            ids.forEach(bookingReadModel::invalidate);
+            return moved;
+        });
+        int count = failed == null ? 0 : failed;
+        if (count == 0) {
+            return 0;
+        }
+
+        registry.counter("flightbooking.booking.reaper.reaped", "kind", "booking").increment(count);
+        batchTimer("booking").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        logger.info("Reaper failed {} bookings PENDING since before {}", count, cutoff);
+        return count;
+    }
+
+    /**
+     * Claim one batch of CONFIRMED bookings created before the cutoff and still unpaid, and fail them
+     * Their PENDING payments are failed first, so a charge can no longer start on them; bookings
+     * whose payment was already being charged or paid are left CONFIRMED.
+     * @return Number of bookings claimed (a full batch means there may be more)
+     */
+    public int reapUnpaidBatch(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        UnpaidBatch batch = transactionTemplate.execute(status -> {
+            List<Long> ids = bookingRepository.lockUnpaidConfirmed(cutoff, batchSize);
+            if (ids.isEmpty()) {
+                return new UnpaidBatch(0, 0);
+            }
+            paymentRepository.failPendingForBookings(ids);
+            int moved = bookingRepository.failUnpaidConfirmed(ids);
+            List<Long> failedIds = moved == ids.size() ? ids
+                : bookingRepository.findIdsByIdInAndStatus(ids, BookingStatus.FAILED);
+            if (!failedIds.isEmpty()) {
+                eventLog.appendAll(failedIds, BookingStatusEventType.FAILED, BookingStatus.CONFIRMED,
+                                   BookingStatus.FAILED, "payment window expired");
+                // Cancels the airline bookings, retried until the airline accepts
+                outboxService.recordAll(failedIds, BookingEventType.BOOKING_CANCELLED);
+                failedIds.forEach(bookingReadModel::invalidate);
+            }
+            return new UnpaidBatch(ids.size(), failedIds.size());
+        });
+        if (batch == null || batch.claimed() == 0) {
+            return 0;
+        }
+
+        int count = batch.failed();
+        if (count > 0) {
+            registry.counter("flightbooking.booking.reaper.reaped", "kind", "unpaid").increment(count);
+            batchTimer("unpaid").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.info("Reaper failed {} CONFIRMED bookings unpaid since before {}", count, cutoff);
+        }
+        return batch.claimed();
+    }
+
+    /**
+     * Claim and fail one batch of PENDING payments whose booking has FAILED
+     * @return Number of payments failed
+     */
+    public int reapOrphanedPaymentBatch(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        Integer failed = transactionTemplate.execute(status -> {
+            List<Long> ids = paymentRepository.lockOrphanedPending(cutoff, batchSize);
+            return ids.isEmpty() ? 0 : paymentRepository.failPending(ids);
+        });
+        int count = failed == null ? 0 : failed;
+        if (count > 0) {
+            registry.counter("flightbooking.booking.reaper.reaped", "kind", "payment").increment(count);
+            batchTimer("payment").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.info("Reaper failed {} PENDING payments of FAILED bookings", count);
+        }
+        return count;
+    }
+
+    private Timer batchTimer(String kind) {
+        return Timer.builder("flightbooking.booking.reaper.batch")
+            .description("Time to claim and fail one reaper batch")
+            .tag("kind", kind)
+            .register(registry);
+    }
+
+    private record UnpaidBatch(int claimed, int failed) {}
+}
@@ -12,18 +12,19 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserService {
     
+    public static final String TEST_USER_EMAIL = "test@example.com";
+    
     @Autowired
     private UserRepository userRepository;
     
     /**
-     * Get or create test user (for demonstration)
-     * In production, this would validate JWT token and get user from database
+     * Get or create the demo user, which requests without a bearer token act as
      */
     public User getOrCreateTestUser() {
-        return userRepository.findByEmail("test@example.com")
+        return userRepository.findByEmail(TEST_USER_EMAIL)
             .orElseGet(() -> {
                 User user = new User();
-                user.setEmail("test@example.com");
+                user.setEmail(TEST_USER_EMAIL);
                 user.setPhone("+1234567890");
                 user.setPasswordHash("$2a$10$dummy");
                 user.setStatus(UserStatus.ACTIVE);
@@ -6,11 +6,16 @@ import com.mmt.flightbooking.service.airline.adapter.AirlineAdapter;
 import com.mmt.flightbooking.service.airline.adapter.AirlineAdapterFactory;
 import com.mmt.flightbooking.service.airline.adapter.AirlineBookingResponse;
 import com.mmt.flightbooking.service.airline.adapter.AirlineBookingDetails;
+import com.mmt.flightbooking.service.airline.adapter.AirlineHoldResponse;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.execution.IoKind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+
 /**
  * Service to handle booking creation with external airline systems
  * This is the key component that makes this a TRUE aggregator like MMT
@@ -24,25 +29,31 @@ public class AirlineBookingService {
     @Autowired
     private AirlineAdapterFactory adapterFactory;
     
+    @Autowired
+    private BlockingIoExecutor ioExecutor;
+    
     /**
      * Create booking with the airline that owns the flight
      * This is what MMT actually does - delegates booking to the airline
      * Uses Adapter Pattern to handle different airline APIs
+     * @param holdReference Airline reference of the seats held for the booking, or null
      */
     public AirlineBookingResponse createBookingWithAirline(
             String flightId, 
             FlightSearchResult flightDetails,
-            CreateBookingRequest bookingRequest) {
+            CreateBookingRequest bookingRequest,
+            String holdReference) {
         
-        logger.info("Creating booking with airline: {} for flight: {}", 
-                   flightDetails.getAirlineCode(), flightDetails.getFlightNumber());
+        logger.info("Creating booking with airline: {} for flight: {} (hold: {})", 
+                   flightDetails.getAirlineCode(), flightDetails.getFlightNumber(), holdReference);
         
         try {
             // Get appropriate airline adapter
             AirlineAdapter adapter = adapterFactory.getAdapter(flightDetails.getAirlineCode());
             
             // Delegate booking to airline adapter
-            AirlineBookingResponse response = adapter.createBooking(flightId, flightDetails, bookingRequest);
+            AirlineBookingResponse response = ioExecutor.call(IoKind.AIRLINE_BOOKING,
+                () -> adapter.createBooking(flightId, flightDetails, bookingRequest, holdReference));
             
             logger.info("Airline booking response: Success={}, PNR={}", 
                        response.isSuccess(), response.getPnr());
@@ -82,7 +93,7 @@ public class AirlineBookingService {
             AirlineAdapter adapter = adapterFactory.getAdapter(airlineCode);
             
             // Delegate to airline adapter
-            return adapter.getBookingDetails(airlinePnr);
+            return ioExecutor.call(IoKind.AIRLINE_STATUS, () -> adapter.getBookingDetails(airlinePnr));
             
         } catch (Exception e) {
             logger.error("Error fetching booking from airline", e);
@@ -102,12 +113,53 @@ public class AirlineBookingService {
             AirlineAdapter adapter = adapterFactory.getAdapter(airlineCode);
             
             // Delegate to airline adapter
-            return adapter.cancelBooking(airlinePnr);
+            return ioExecutor.call(IoKind.AIRLINE_CANCEL, () -> adapter.cancelBooking(airlinePnr));
             
         } catch (Exception e) {
             logger.error("Error cancelling booking with airline", e);
             return false;
         }
     }
+    
+    /**
+     * Hold seats with the airline that owns the flight
+     */
+    public AirlineHoldResponse holdSeatsWithAirline(String holdId, FlightSearchResult flightDetails,
+                                                    int passengerCount, Instant expiresAt) {
+        logger.info("Holding {} seats with airline: {} for flight: {}", 
+                   passengerCount, flightDetails.getAirlineCode(), flightDetails.getFlightNumber());
+        
+        try {
+            // Get appropriate airline adapter
+            AirlineAdapter adapter = adapterFactory.getAdapter(flightDetails.getAirlineCode());
+            
+            // Delegate to airline adapter
+            return ioExecutor.call(IoKind.AIRLINE_BOOKING,
+                () -> adapter.holdSeats(holdId, flightDetails, passengerCount, expiresAt));
+            
+        } catch (Exception e) {
+            logger.error("Error holding seats with airline: {}", flightDetails.getAirlineCode(), e);
+            return new AirlineHoldResponse(false, null, flightDetails.getAirlineCode(), 
+                                           "Hold failed: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Release a seat hold with the airline
+     */
+    public boolean releaseHoldWithAirline(String airlineCode, String holdReference) {
+        logger.info("Releasing seat hold with airline: {} reference: {}", airlineCode, holdReference);
+        
+        try {
+            // Get appropriate airline adapter
+            AirlineAdapter adapter = adapterFactory.getAdapter(airlineCode);
+            
+            // Delegate to airline adapter
+            return ioExecutor.call(IoKind.AIRLINE_CANCEL, () -> adapter.releaseHold(holdReference));
+            
+        } catch (Exception e) {
+            logger.error("Error releasing seat hold with airline", e);
+            return false;
+        }
+    }
 }
-
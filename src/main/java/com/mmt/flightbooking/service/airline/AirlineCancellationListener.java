@@ -0,0 +1,73 @@
+package com.mmt.flightbooking.service.airline;
+
+import com.mmt.flightbooking.entity.Booking;
+import com.mmt.flightbooking.entity.BookingSegment;
+import com.mmt.flightbooking.service.notification.NotificationListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cancels the airline-side booking of every segment when a booking is cancelled
+ * Runs from the outbox relay, so a failed airline call is retried rather than lost.
+ * Airline cancellation by PNR is idempotent, which makes redelivery safe.
+ */
+@Component
+public class AirlineCancellationListener implements NotificationListener {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AirlineCancellationListener.class);
+    
+    @Autowired
+    private AirlineBookingService airlineBookingService;
+    
+    @Override
+    public void onBookingConfirmed(Booking booking) {
+        // Nothing to do
+    }
+    
+    @Override
+    public void onPaymentConfirmed(Booking booking) {
+        // Nothing to do
+    }
+    
+    @Override
+    public void onBookingCancelled(Booking booking) {
+        if (booking.getSegments().isEmpty()) {
+            // Bookings made before segments were recorded
+            cancel(booking, booking.getAirlineCode(), booking.getAirlinePnr());
+            return;
+        }
+        for (BookingSegment segment : booking.getSegments()) {
+            cancel(booking, segment.getAirlineCode(), segment.getAirlinePnr());
+        }
+    }
+    
+    @Override
+    public void onBookingDisrupted(Booking booking) {
+        // The bulk cancellation job cancelled the airline bookings before recording the event
+    }
+    
+    private void cancel(Booking booking, String airlineCode, String airlinePnr) {
+        if (airlinePnr == null) {
+            logger.info("Booking {} has no airline PNR, nothing to cancel", booking.getBookingReference());
+            return;
+        }
+        
+        boolean cancelled = airlineBookingService.cancelBookingWithAirline(airlineCode, airlinePnr);
+        if (!cancelled) {
+            throw new IllegalStateException("Airline cancellation failed for PNR: " + airlinePnr);
+        }
+        logger.info("Airline booking {} cancelled for {}", airlinePnr, booking.getBookingReference());
+    }
+    
+    @Override
+    public String getListenerName() {
+        return "AIRLINE_CANCELLATION";
+    }
+    
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
@@ -0,0 +1,236 @@
+package com.mmt.flightbooking.service.airline;
+
+import com.mmt.flightbooking.dto.AirlineTimeoutStats;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Rolling search latency per airline and the adaptive search timeout derived from it
+ * timeout = p99 x factor, clamped to [min, max]. Until an airline has enough samples in the
+ * current window the default timeout is used. Timeouts are recomputed at most once per second per airline.
+ */
+@Component
+public class AirlineLatencyTracker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AirlineLatencyTracker.class);
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // Slices the sample count window is tracked in; samples age out one slice at a time
+    private static final int WINDOW_SLICES = 10;
+    
+    private final MeterRegistry registry;
+    private final double factor;
+    private final long minTimeoutMs;
+    private final long maxTimeoutMs;
+    private final long defaultTimeoutMs;
+    private final long minSamples;
+    private final Duration window;
+    private final Map<String, AirlineLatency> airlines = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public AirlineLatencyTracker(
+            MeterRegistry registry,
+            @Value("${flightbooking.airline.timeout.factor:1.5}") double factor,
+            @Value("${flightbooking.airline.timeout.min-ms:300}") long minTimeoutMs,
+            @Value("${flightbooking.airline.timeout.max-ms:10000}") long maxTimeoutMs,
+            @Value("${flightbooking.airline.timeout.default-ms:5000}") long defaultTimeoutMs,
+            @Value("${flightbooking.airline.timeout.min-samples:50}") long minSamples,
+            @Value("${flightbooking.airline.timeout.window-seconds:300}") long windowSeconds) {
+        this.registry = registry;
+        this.factor = factor;
+        this.minTimeoutMs = minTimeoutMs;
+        this.maxTimeoutMs = maxTimeoutMs;
+        this.defaultTimeoutMs = defaultTimeoutMs;
+        this.minSamples = minSamples;
+        this.window = Duration.ofSeconds(windowSeconds);
+    }
+    
+    /**
+     * Record a search that completed
+     */
+    public void recordSuccess(String airlineCode, Duration latency) {
+        AirlineLatency airline = latency(airlineCode);
+        airline.timer.record(latency);
+        airline.samples.record();
+    }
+    
+    /**
+     * Record a search cut off by its adaptive timeout
+     * The timeout is recorded as a latency sample so a slowing airline pushes its own p99 up
+     * instead of being cut off at a stale value forever
+     */
+    public void recordCutoff(String airlineCode, Duration timeout) {
+        AirlineLatency latency = latency(airlineCode);
+        latency.timer.record(timeout);
+        latency.samples.record();
+        latency.cutoffs.increment();
+        latency.cached = null;
+        AirlineTimeoutStats stats = latency.current();
+        logger.warn("Cut off {} search after {} ms (timeout source: {}, p99: {} ms, samples: {})",
+                   airlineCode, timeout.toMillis(), stats.getSource(), stats.getP99Ms(), stats.getSamples());
+    }
+    
+    /**
+     * Current search timeout for an airline
+     */
+    public Duration searchTimeout(String airlineCode) {
+        return Duration.ofMillis(latency(airlineCode).current().getTimeoutMs());
+    }
+    
+    public AirlineTimeoutStats getStats(String airlineCode) {
+        return latency(airlineCode).current();
+    }
+    
+    public List<AirlineTimeoutStats> getAllStats() {
+        return airlines.keySet().stream()
+            .sorted()
+            .map(this::getStats)
+            .collect(Collectors.toList());
+    }
+    
+    private AirlineLatency latency(String airlineCode) {
+        return airlines.computeIfAbsent(airlineCode, AirlineLatency::new);
+    }
+    
+    /**
+     * Meters and cached timeout for one airline
+     */
+    private class AirlineLatency {
+        
+        private final String airlineCode;
+        private final Timer timer;
+        private final Counter cutoffs;
+        // Samples behind the windowed percentiles; the timer's own count is lifetime
+        private final SampleWindow samples = new SampleWindow(registry.config().clock(), window);
+        private volatile AirlineTimeoutStats cached;
+        private volatile long computedAt;
+        
+        AirlineLatency(String airlineCode) {
+            this.airlineCode = airlineCode;
+            this.timer = Timer.builder("flightbooking.airline.search.latency")
+                .description("Airline search latency (rolling window)")
+                .tag("airline", airlineCode)
+                .publishPercentiles(0.5, 0.99)
+                .percentilePrecision(2)
+                .distributionStatisticExpiry(window)
+                .register(registry);
+            this.cutoffs = Counter.builder("flightbooking.airline.search.cutoffs")
+                .description("Airline searches cut off by their adaptive timeout")
+                .tag("airline", airlineCode)
+                .register(registry);
+            Gauge.builder("flightbooking.airline.search.timeout", this, l -> l.current().getTimeoutMs())
+                .description("Adaptive search timeout currently applied to the airline")
+                .tag("airline", airlineCode)
+                .baseUnit("milliseconds")
+                .register(registry);
+        }
+        
+        AirlineTimeoutStats current() {
+            AirlineTimeoutStats stats = cached;
+            long now = registry.config().clock().monotonicTime();
+            if (stats == null || now - computedAt > REFRESH_NANOS) {
+                stats = compute();
+                cached = stats;
+                computedAt = now;
+            }
+            return stats;
+        }
+        
+        private AirlineTimeoutStats compute() {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            double p50 = percentile(snapshot, 0.5);
+            double p99 = percentile(snapshot, 0.99);
+            long windowSamples = samples.count();
+            
+            long timeoutMs;
+            String source;
+            if (windowSamples < minSamples || p99 <= 0) {
+                timeoutMs = defaultTimeoutMs;
+                source = "default";
+            } else {
+                long adaptive = Math.round(p99 * factor);
+                if (adaptive < minTimeoutMs) {
+                    timeoutMs = minTimeoutMs;
+                    source = "min-bound";
+                } else if (adaptive > maxTimeoutMs) {
+                    timeoutMs = maxTimeoutMs;
+                    source = "max-bound";
+                } else {
+                    timeoutMs = adaptive;
+                    source = "p99";
+                }
+            }
+            return new AirlineTimeoutStats(airlineCode, windowSamples, p50, p99, timeoutMs, source,
+                                           (long) cutoffs.count());
+        }
+        
+        private double percentile(HistogramSnapshot snapshot, double percentile) {
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                if (value.percentile() == percentile) {
+                    return value.value(TimeUnit.MILLISECONDS);
+                }
+            }
+            return 0;
+        }
+    }
+    
+    /**
+     * Number of samples recorded within the last window
+     * The window is split into slices that are reset as they come round again.
+     */
+    private static class SampleWindow {
+        
+        private final Clock clock;
+        private final long sliceNanos;
+        private final long[] counts = new long[WINDOW_SLICES];
+        private final long[] sliceIds = new long[WINDOW_SLICES];
+        
+        SampleWindow(Clock clock, Duration window) {
+            this.clock = clock;
+            this.sliceNanos = Math.max(1, window.toNanos() / WINDOW_SLICES);
+            Arrays.fill(sliceIds, Long.MIN_VALUE);
+        }
+        
+        synchronized void record() {
+            long slice = currentSlice();
+            int index = Math.floorMod(slice, WINDOW_SLICES);
+            if (sliceIds[index] != slice) {
+                sliceIds[index] = slice;
+                counts[index] = 0;
+            }
+            counts[index]++;
+        }
+        
+        synchronized long count() {
+            long slice = currentSlice();
+            long total = 0;
+            for (int i = 0; i < WINDOW_SLICES; i++) {
+                if (slice - sliceIds[i] < WINDOW_SLICES) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+        
+        private long currentSlice() {
+            return Math.floorDiv(clock.monotonicTime(), sliceNanos);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.mmt.flightbooking.service.airline;
+
+import com.mmt.flightbooking.entity.BookingEventType;
+import com.mmt.flightbooking.entity.BookingStatus;
+import com.mmt.flightbooking.entity.BookingStatusEventType;
+import com.mmt.flightbooking.service.airline.adapter.AirlineBookingDetails;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.execution.IoKind;
+import com.mmt.flightbooking.service.history.BookingEventLog;
+import com.mmt.flightbooking.service.outbox.OutboxService;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Pulls the airline-side state of upcoming CONFIRMED bookings into our rows
+ * Schedule changes (flight number, route) are copied onto the segment, and onto the booking row
+ * for the first segment; an airline-side cancellation cancels the booking and records a
+ * BOOKING_CANCELLED outbox event so the customer is told and the other segments are released.
+ * Both are appended to the booking status log.
+ * <p>
+ * Segments departing within the horizon are walked in keyset chunks on (departure_date, id), so
+ * only one chunk is ever in memory and no transaction stays open across airline calls. Each chunk
+ * is grouped by airline and polled by a few lanes per airline, which bounds how hard any single
+ * airline is hit; only changed rows are written, as JDBC batches in one short transaction.
+ * A Redis lock keeps one node syncing at a time.
+ */
+@Component
+public class AirlineStatusSyncWorker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AirlineStatusSyncWorker.class);
+    
+    private static final String LOCK_KEY = "airline:sync:lock";
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+    
+    private static final String SCAN_SQL =
+        "SELECT s.id, s.booking_id, s.segment_index, s.airline_code, s.airline_pnr, s.flight_number, " +
+        "s.origin_airport, s.destination_airport, s.departure_date " +
+        "FROM booking_segments s JOIN bookings b ON b.id = s.booking_id " +
+        "WHERE b.status = 'CONFIRMED' AND s.airline_pnr IS NOT NULL AND s.departure_date <= ? " +
+        "AND (s.departure_date, s.id) > (?, ?) " +
+        "ORDER BY s.departure_date, s.id LIMIT ?";
+    
+    private static final String UPDATE_SEGMENT_SQL =
+        "UPDATE booking_segments SET flight_number = ?, origin_airport = ?, destination_airport = ?, " +
+        "updated_at = now() WHERE id = ?";
+    
+    private static final String UPDATE_BOOKING_FLIGHT_SQL =
+        "UPDATE bookings SET flight_number = ?, origin_airport = ?, destination_airport = ?, " +
+        "updated_at = now(), version = version + 1 WHERE id = ? AND status = 'CONFIRMED'";
+    
+    private static final String CANCEL_BOOKING_SQL =
+        "UPDATE bookings SET status = 'CANCELLED', updated_at = now(), version = version + 1 " +
+        "WHERE id = ? AND status = 'CONFIRMED'";
+    
+    private static final RowMapper<SegmentRow> SEGMENT_ROW = (rs, rowNum) -> new SegmentRow(
+        rs.getLong("id"), rs.getLong("booking_id"), rs.getInt("segment_index"),
+        rs.getString("airline_code"), rs.getString("airline_pnr"), rs.getString("flight_number"),
+        rs.getString("origin_airport"), rs.getString("destination_airport"),
+        rs.getObject("departure_date", LocalDate.class));
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final AirlineBookingService airlineBookingService;
+    private final BlockingIoExecutor ioExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxService outboxService;
+    private final BookingEventLog eventLog;
+    private final BookingReadModelService bookingReadModel;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry registry;
+    
+    @Value("${flightbooking.airline-sync.enabled:true}")
+    private boolean enabled = true;
+    
+    // How far ahead departures are synced
+    @Value("${flightbooking.airline-sync.horizon-days:30}")
+    private int horizonDays = 30;
+    
+    @Value("${flightbooking.airline-sync.chunk-size:500}")
+    private int chunkSize = 500;
+    
+    // Status calls in flight per airline
+    @Value("${flightbooking.airline-sync.per-airline-concurrency:8}")
+    private int perAirlineConcurrency = 8;
+    
+    // Upper bound on one sync run; the lock lapses if the node dies mid-run
+    @Value("${flightbooking.airline-sync.lock-ttl-seconds:3600}")
+    private long lockTtlSeconds = 3600;
+    
+    @Autowired
+    public AirlineStatusSyncWorker(JdbcTemplate jdbcTemplate, AirlineBookingService airlineBookingService,
+                                   BlockingIoExecutor ioExecutor, TransactionTemplate transactionTemplate,
+                                   OutboxService outboxService, BookingEventLog eventLog,
+                                   BookingReadModelService bookingReadModel,
+                                   StringRedisTemplate stringRedisTemplate, MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.airlineBookingService = airlineBookingService;
+        this.ioExecutor = ioExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.outboxService = outboxService;
+        this.eventLog = eventLog;
+        this.bookingReadModel = bookingReadModel;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.registry = registry;
+    }
+    
+    @Scheduled(fixedDelayString = "${flightbooking.airline-sync.interval-ms:900000}",
+               initialDelayString = "${flightbooking.airline-sync.initial-delay-ms:60000}")
+    public void scheduledSync() {
+        if (!enabled) {
+            return;
+        }
+        
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean locked = stringRedisTemplate.opsForValue()
+                .setIfAbsent(LOCK_KEY, token, Duration.ofSeconds(lockTtlSeconds));
+            if (!Boolean.TRUE.equals(locked)) {
+                logger.debug("Airline status sync already running on another node");
+                return;
+            }
+        } catch (Exception e) {
+            logger.warn("Airline status sync skipped, lock unavailable: {}", e.getMessage());
+            return;
+        }
+        
+        try {
+            syncUpcomingBookings(LocalDate.now());
+        } catch (Exception e) {
+            logger.error("Airline status sync failed", e);
+        } finally {
+            try {
+                stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(LOCK_KEY), token);
+            } catch (Exception e) {
+                logger.warn("Could not release airline sync lock; it lapses in {} s", lockTtlSeconds);
+            }
+        }
+    }
+    
+    /**
+     * Sync every CONFIRMED segment departing from today up to the horizon
+     * @return Counts of what the run found
+     */
+    public SyncStats syncUpcomingBookings(LocalDate today) {
+        LocalDate horizon = today.plusDays(horizonDays);
+        SyncStats stats = new SyncStats();
+        long start = System.nanoTime();
+        
+        // Keyset start: every segment departing today (ids are positive)
+        LocalDate afterDate = today;
+        long afterId = 0;
+        while (true) {
+            List<SegmentRow> chunk = jdbcTemplate.query(SCAN_SQL, SEGMENT_ROW, horizon, afterDate, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            syncChunk(chunk, stats);
+            
+            SegmentRow last = chunk.get(chunk.size() - 1);
+            afterDate = last.departureDate();
+            afterId = last.id();
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        
+        logger.info("Airline status sync: {} segments polled, {} rescheduled, {} cancelled, {} unavailable in {} ms",
+                   stats.getPolled(), stats.getRescheduled(), stats.getCancelled(), stats.getUnavailable(),
+                   Duration.ofNanos(System.nanoTime() - start).toMillis());
+        return stats;
+    }
+    
+    private void syncChunk(List<SegmentRow> chunk, SyncStats stats) {
+        Map<String, List<SegmentRow>> byAirline = chunk.stream()
+            .collect(Collectors.groupingBy(SegmentRow::airlineCode, LinkedHashMap::new, Collectors.toList()));
+        
+        Queue<SegmentChange> changes = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        byAirline.forEach((airlineCode, rows) -> {
+            // A fixed number of lanes per airline drain its queue, one status call at a time each
+            Queue<SegmentRow> queue = new ConcurrentLinkedQueue<>(rows);
+            int laneCount = Math.min(Math.max(1, perAirlineConcurrency), rows.size());
+            for (int i = 0; i < laneCount; i++) {
+                lanes.add(ioExecutor.supplyAsync(IoKind.BACKGROUND, () -> {
+                    drain(queue, changes, stats);
+                    return null;
+                }));
+            }
+        });
+        CompletableFuture.allOf(lanes.toArray(new CompletableFuture[0]))
+            .handle((ignored, error) -> null)
+            .join();
+        
+        if (!changes.isEmpty()) {
+            write(new ArrayList<>(changes), stats);
+        }
+    }
+    
+    private void drain(Queue<SegmentRow> queue, Queue<SegmentChange> changes, SyncStats stats) {
+        SegmentRow row;
+        while ((row = queue.poll()) != null) {
+            stats.polled.incrementAndGet();
+            AirlineBookingDetails details = airlineBookingService.getBookingFromAirline(row.airlineCode(), row.airlinePnr());
+            if (details == null) {
+                // Airline down or PNR unknown: try again next run
+                count(stats.unavailable, "unavailable", 1);
+                continue;
+            }
+            
+            SegmentChange change = compare(row, details);
+            if (change == null) {
+                registry.counter("flightbooking.airline.sync", "outcome", "unchanged").increment();
+            } else {
+                changes.add(change);
+            }
+        }
+    }
+    
+    private static SegmentChange compare(SegmentRow row, AirlineBookingDetails details) {
+        String status = details.getStatus();
+        if ("CANCELLED".equalsIgnoreCase(status) || "CANCELED".equalsIgnoreCase(status)) {
+            return new SegmentChange(row, true, row.flightNumber(), row.originAirport(), row.destinationAirport());
+        }
+        
+        String flightNumber = details.getFlightNumber() != null ? details.getFlightNumber() : row.flightNumber();
+        String origin = details.getOrigin() != null ? details.getOrigin() : row.originAirport();
+        String destination = details.getDestination() != null ? details.getDestination() : row.destinationAirport();
+        if (Objects.equals(flightNumber, row.flightNumber()) && Objects.equals(origin, row.originAirport())
+                && Objects.equals(destination, row.destinationAirport())) {
+            return null;
+        }
+        return new SegmentChange(row, false, flightNumber, origin, destination);
+    }
+    
+    private void write(List<SegmentChange> changes, SyncStats stats) {
+        List<Object[]> segmentUpdates = new ArrayList<>();
+        List<Object[]> bookingUpdates = new ArrayList<>();
+        Set<Long> cancelledBookings = new LinkedHashSet<>();
+        for (SegmentChange change : changes) {
+            SegmentRow row = change.row();
+            if (change.cancelled()) {
+                cancelledBookings.add(row.bookingId());
+                continue;
+            }
+            segmentUpdates.add(new Object[] {change.flightNumber(), change.origin(), change.destination(), row.id()});
+            if (row.segmentIndex() == 0) {
+                // The booking row mirrors the first segment
+                bookingUpdates.add(new Object[] {change.flightNumber(), change.origin(), change.destination(), row.bookingId()});
+            }
+        }
+        
+        int cancelled = transactionTemplate.execute(status -> {
+            if (!segmentUpdates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_SEGMENT_SQL, segmentUpdates);
+            }
+            if (!bookingUpdates.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_BOOKING_FLIGHT_SQL, bookingUpdates);
+            }
+            for (SegmentChange change : changes) {
+                if (!change.cancelled()) {
+                    SegmentRow row = change.row();
+                    eventLog.append(row.bookingId(), BookingStatusEventType.SYNCED, BookingStatus.CONFIRMED,
+                                    BookingStatus.CONFIRMED, String.format("segment %d: %s %s-%s -> %s %s-%s",
+                                        row.segmentIndex(), row.flightNumber(), row.originAirport(),
+                                        row.destinationAirport(), change.flightNumber(), change.origin(),
+                                        change.destination()));
+                }
+            }
+            
+            List<Long> cancelIds = new ArrayList<>(cancelledBookings);
+            List<Long> recorded = new ArrayList<>();
+            if (!cancelIds.isEmpty()) {
+                int[] updated = jdbcTemplate.batchUpdate(CANCEL_BOOKING_SQL,
+                    cancelIds.stream().map(id -> new Object[] {id}).toList());
+                for (int i = 0; i < cancelIds.size(); i++) {
+                    // 0: no longer CONFIRMED (e.g. the customer cancelled since the scan); leave it alone
+                    if (updated[i] != 0) {
+                        outboxService.record(cancelIds.get(i), BookingEventType.BOOKING_CANCELLED);
+                        recorded.add(cancelIds.get(i));
+                    }
+                }
+                eventLog.appendAll(recorded, BookingStatusEventType.CANCELLED, BookingStatus.CONFIRMED,
+                                   BookingStatus.CANCELLED, "cancelled by airline");
+            }
+            
+            changes.stream().map(change -> change.row().bookingId()).distinct()
+                .forEach(bookingReadModel::invalidate);
+            return recorded.size();
+        });
+        
+        count(stats.rescheduled, "rescheduled", segmentUpdates.size());
+        count(stats.cancelled, "cancelled", cancelled);
+    }
+    
+    private void count(AtomicLong stat, String outcome, int amount) {
+        stat.addAndGet(amount);
+        registry.counter("flightbooking.airline.sync", "outcome", outcome).increment(amount);
+    }
+    
+    private record SegmentRow(long id, long bookingId, int segmentIndex, String airlineCode, String airlinePnr,
+                      String flightNumber, String originAirport, String destinationAirport,
+                      LocalDate departureDate) {}
+    
+    private record SegmentChange(SegmentRow row, boolean cancelled, String flightNumber,
+                                 String origin, String destination) {}
+    
+    /**
+     * What one sync run found
+     */
+    public static final class SyncStats {
+        
+        private final AtomicLong polled = new AtomicLong();
+        private final AtomicLong rescheduled = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong unavailable = new AtomicLong();
+        
+        public long getPolled() {
+            return polled.get();
+        }
+        
+        public long getRescheduled() {
+            return rescheduled.get();
+        }
+        
+        public long getCancelled() {
+            return cancelled.get();
+        }
+        
+        public long getUnavailable() {
+            return unavailable.get();
+        }
+    }
+}
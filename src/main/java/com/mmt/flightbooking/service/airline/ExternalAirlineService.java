@@ -4,14 +4,20 @@ import com.mmt.flightbooking.dto.FlightSearchRequest;
 import com.mmt.flightbooking.dto.FlightSearchResult;
 import com.mmt.flightbooking.service.airline.adapter.AirlineAdapter;
 import com.mmt.flightbooking.service.airline.adapter.AirlineAdapterFactory;
+import com.mmt.flightbooking.service.id.IdGenerator;
+import com.mmt.flightbooking.service.search.SearchScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -20,51 +26,107 @@ import java.util.stream.Collectors;
  */
 @Service
 public class ExternalAirlineService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(ExternalAirlineService.class);
-    
+
     @Autowired
     private AirlineAdapterFactory adapterFactory;
     
+    @Autowired
+    private AirlineLatencyTracker latencyTracker;
+    
+    @Autowired
+    private IdGenerator idGenerator;
+
     /**
-     * Search flights from all available airlines asynchronously
-     * Uses Adapter Pattern to query all airline adapters in parallel
+     * Search flights from all available airlines in a new scope with the default deadline
      * @param request Flight search criteria
      * @return Future containing combined results from all airlines
      */
-    @Async
     public CompletableFuture<List<FlightSearchResult>> searchFlightsAsync(FlightSearchRequest request) {
-        logger.info("Searching external airlines for route: {} to {}", 
+        return searchFlights(request, SearchScope.withDefaultTimeout(idGenerator.nextKey()));
+    }
+
+    /**
+     * Search flights from all available airlines within the given scope
+     * Each adapter call is forked straight onto the I/O executor from the calling thread;
+     * there is no intermediate async hop. Each airline is cut off at its adaptive timeout
+     * (see {@link AirlineLatencyTracker}) or the scope deadline, whichever comes first.
+     * Airlines that fail or are cut off contribute no results.
+     * @param request Flight search criteria
+     * @param scope Scope owning the fan-out
+     * @return Future containing combined results from all airlines that answered in time
+     */
+    public CompletableFuture<List<FlightSearchResult>> searchFlights(FlightSearchRequest request, SearchScope scope) {
+        logger.info("Searching external airlines for route: {} to {}",
                    request.getOrigin(), request.getDestination());
-        
+
         try {
             // Get all available airline adapters
             List<AirlineAdapter> adapters = adapterFactory.getAvailableAdapters();
             logger.info("Searching {} airlines in parallel", adapters.size());
-            
-            // Create futures for all airline adapters
-            List<CompletableFuture<List<FlightSearchResult>>> futures = adapters.stream()
-                .map(adapter -> {
-                    logger.debug("Initiating search with airline: {}", adapter.getAirlineName());
-                    return adapter.searchFlights(request);
-                })
+            long fanOutStart = System.nanoTime();
+
+            // Fork one child per airline; a failed airline yields no flights
+            List<CompletableFuture<List<FlightSearchResult>>> children = adapters.stream()
+                .map(adapter -> searchAirline(adapter, request, scope))
                 .collect(Collectors.toList());
-            
-            // Wait for all results and combine
-            return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApply(v -> {
-                    List<FlightSearchResult> allResults = futures.stream()
-                        .map(CompletableFuture::join)
+
+            // Wait for all children up to the deadline, then combine whatever arrived
+            return CompletableFuture.allOf(children.toArray(new CompletableFuture[0]))
+                .orTimeout(scope.remaining().toMillis(), TimeUnit.MILLISECONDS)
+                .handle((ignored, error) -> {
+                    if (error != null && scope.cancel(SearchScope.DEADLINE)) {
+                        logger.warn("Search deadline reached after {} ms, cancelling slow airlines",
+                                   scope.elapsed().toMillis());
+                    }
+
+                    List<FlightSearchResult> allResults = children.stream()
+                        .map(child -> child.getNow(Collections.emptyList()))
                         .flatMap(List::stream)
                         .collect(Collectors.toList());
-                    
+
+                    scope.recordStage("fanout", System.nanoTime() - fanOutStart);
                     logger.info("Combined results from all airlines: {} flights found", allResults.size());
                     return allResults;
                 });
-                    
+
         } catch (Exception e) {
             logger.error("Error in external airline search", e);
             return CompletableFuture.completedFuture(Collections.emptyList());
         }
     }
+    
+    private CompletableFuture<List<FlightSearchResult>> searchAirline(AirlineAdapter adapter,
+                                                                      FlightSearchRequest request,
+                                                                      SearchScope scope) {
+        String airlineCode = adapter.getAirlineCode();
+        Duration airlineTimeout = latencyTracker.searchTimeout(airlineCode);
+        long remainingMs = scope.remaining().toMillis();
+        boolean cappedByAirline = airlineTimeout.toMillis() <= remainingMs;
+        long timeoutMs = cappedByAirline ? airlineTimeout.toMillis() : remainingMs;
+        // Set by the adapter once the call starts: time queued for a search permit is not airline latency
+        AtomicLong start = new AtomicLong();
+        
+        // Timing out the adapter future stops the underlying call
+        return scope.fork("airline:" + airlineCode,
+                () -> adapter.searchFlights(request, () -> start.set(System.nanoTime()))
+                    .orTimeout(timeoutMs, TimeUnit.MILLISECONDS))
+            .whenComplete((results, error) -> {
+                if (error == null && start.get() != 0) {
+                    latencyTracker.recordSuccess(airlineCode, Duration.ofNanos(System.nanoTime() - start.get()));
+                } else if (cappedByAirline && unwrap(error) instanceof TimeoutException) {
+                    latencyTracker.recordCutoff(airlineCode, airlineTimeout);
+                }
+            })
+            .exceptionally(error -> {
+                logger.warn("Search with {} did not complete: {}",
+                           adapter.getAirlineName(), unwrap(error).toString());
+                return Collections.<FlightSearchResult>emptyList();
+            });
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
 }
@@ -4,6 +4,7 @@ import com.mmt.flightbooking.dto.CreateBookingRequest;
 import com.mmt.flightbooking.dto.FlightSearchRequest;
 import com.mmt.flightbooking.dto.FlightSearchResult;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -25,11 +26,26 @@ public interface AirlineAdapter {
     
     /**
      * Search flights from this airline
+     * Cancelling the returned future must stop the airline call so an abandoned search
+     * stops holding a worker and airline quota
      * @param request Flight search criteria
      * @return Future containing list of flight results
      */
     CompletableFuture<List<FlightSearchResult>> searchFlights(FlightSearchRequest request);
     
+    /**
+     * Search flights from this airline, reporting when the airline call actually starts
+     * Adapters that queue calls (e.g. behind a concurrency cap) run {@code onStarted} once the call
+     * leaves the queue, so callers timing the search measure the airline and not the queue
+     * @param request Flight search criteria
+     * @param onStarted Run once, when the airline call starts
+     * @return Future containing list of flight results
+     */
+    default CompletableFuture<List<FlightSearchResult>> searchFlights(FlightSearchRequest request, Runnable onStarted) {
+        onStarted.run();
+        return searchFlights(request);
+    }
+    
     /**
      * Create booking with airline
      * @param flightId Flight identifier
@@ -37,8 +53,22 @@ public interface AirlineAdapter {
      * @param bookingRequest Booking request details
      * @return Booking response from airline
      */
+    default AirlineBookingResponse createBooking(String flightId, FlightSearchResult flightDetails, 
+                                                CreateBookingRequest bookingRequest) {
+        return createBooking(flightId, flightDetails, bookingRequest, null);
+    }
+    
+    /**
+     * Create booking with airline, out of seats held for it
+     * The airline books the held seats instead of competing for free ones, and the hold ends with it.
+     * @param flightId Flight identifier
+     * @param flightDetails Flight details from search
+     * @param bookingRequest Booking request details
+     * @param holdReference Airline hold reference from {@link #holdSeats}, or null to book free seats
+     * @return Booking response from airline
+     */
     AirlineBookingResponse createBooking(String flightId, FlightSearchResult flightDetails, 
-                                        CreateBookingRequest bookingRequest);
+                                        CreateBookingRequest bookingRequest, String holdReference);
     
     /**
      * Get booking details from airline
@@ -54,6 +84,25 @@ public interface AirlineAdapter {
      */
     boolean cancelBooking(String airlinePnr);
     
+    /**
+     * Hold seats on a flight until they are booked or the hold expires
+     * The airline drops the hold on its own at expiry; holding again with the same holdId is idempotent
+     * @param holdId Our hold identifier, sent as the client reference
+     * @param flightDetails Flight details from search
+     * @param passengerCount Number of seats to hold
+     * @param expiresAt When the airline should release the seats
+     * @return Hold response from airline
+     */
+    AirlineHoldResponse holdSeats(String holdId, FlightSearchResult flightDetails, 
+                                  int passengerCount, Instant expiresAt);
+    
+    /**
+     * Release a seat hold before it expires
+     * @param holdReference Airline hold reference
+     * @return true if the airline no longer holds the seats
+     */
+    boolean releaseHold(String holdReference);
+    
     /**
      * Check if airline API is available
      * @return true if available, false otherwise
@@ -0,0 +1,34 @@
+package com.mmt.flightbooking.service.airline.adapter;
+
+/**
+ * Response from airline seat hold API
+ */
+public class AirlineHoldResponse {
+    private boolean success;
+    private String holdReference;
+    private String airlineCode;
+    private String message;
+    
+    public AirlineHoldResponse() {
+    }
+    
+    public AirlineHoldResponse(boolean success, String holdReference, String airlineCode, String message) {
+        this.success = success;
+        this.holdReference = holdReference;
+        this.airlineCode = airlineCode;
+        this.message = message;
+    }
+    
+    // Getters and setters
+    public boolean isSuccess() { return success; }
+    public void setSuccess(boolean success) { this.success = success; }
+    
+    public String getHoldReference() { return holdReference; }
+    public void setHoldReference(String holdReference) { this.holdReference = holdReference; }
+    
+    public String getAirlineCode() { return airlineCode; }
+    public void setAirlineCode(String airlineCode) { this.airlineCode = airlineCode; }
+    
+    public String getMessage() { return message; }
+    public void setMessage(String message) { this.message = message; }
+}
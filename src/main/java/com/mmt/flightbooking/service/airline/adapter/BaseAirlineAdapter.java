@@ -3,12 +3,17 @@ package com.mmt.flightbooking.service.airline.adapter;
 import com.mmt.flightbooking.dto.CreateBookingRequest;
 import com.mmt.flightbooking.dto.FlightSearchRequest;
 import com.mmt.flightbooking.dto.FlightSearchResult;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.execution.IoKind;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
@@ -21,11 +26,32 @@ public abstract class BaseAirlineAdapter implements AirlineAdapter {
     protected final Logger logger = LoggerFactory.getLogger(getClass());
     protected final RestTemplate restTemplate = new RestTemplate();
     
+    // Replaced by the Spring-managed executor; the default keeps plain instances usable
+    private BlockingIoExecutor ioExecutor = BlockingIoExecutor.commonPool();
+    private IdGenerator idGenerator;
+    
     protected abstract String getApiBaseUrl();
     
+    @Autowired
+    public void setIoExecutor(BlockingIoExecutor ioExecutor) {
+        this.ioExecutor = ioExecutor;
+    }
+    
+    @Autowired
+    public void setIdGenerator(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+    
     @Override
     public CompletableFuture<List<FlightSearchResult>> searchFlights(FlightSearchRequest request) {
-        return CompletableFuture.supplyAsync(() -> {
+        return searchFlights(request, () -> {});
+    }
+    
+    @Override
+    public CompletableFuture<List<FlightSearchResult>> searchFlights(FlightSearchRequest request, Runnable onStarted) {
+        return ioExecutor.supplyAsync(IoKind.AIRLINE_SEARCH, () -> {
+            // Runs with the AIRLINE_SEARCH permit held
+            onStarted.run();
             try {
                 logger.info("Searching flights for {} from {} to {}", 
                            getAirlineName(), request.getOrigin(), request.getDestination());
@@ -44,7 +70,7 @@ public abstract class BaseAirlineAdapter implements AirlineAdapter {
     
     @Override
     public AirlineBookingResponse createBooking(String flightId, FlightSearchResult flightDetails,
-                                               CreateBookingRequest bookingRequest) {
+                                               CreateBookingRequest bookingRequest, String holdReference) {
         try {
             logger.info("Creating booking with {} for flight {}", getAirlineName(), flightDetails.getFlightNumber());
             
@@ -57,6 +83,9 @@ public abstract class BaseAirlineAdapter implements AirlineAdapter {
             airlineBookingRequest.put("passengers", bookingRequest.getPassengers());
             airlineBookingRequest.put("contactEmail", bookingRequest.getContactEmail());
             airlineBookingRequest.put("contactPhone", bookingRequest.getContactPhone());
+            if (holdReference != null) {
+                airlineBookingRequest.put("holdReference", holdReference);
+            }
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
@@ -78,7 +107,7 @@ public abstract class BaseAirlineAdapter implements AirlineAdapter {
                     return new AirlineBookingResponse(
                         true,
                         (String) responseBody.getOrDefault("pnr", generateMockPNR()),
-                        (String) responseBody.getOrDefault("bookingId", UUID.randomUUID().toString()),
+                        (String) responseBody.getOrDefault("bookingId", idGenerator.nextKey()),
                         getAirlineCode(),
                         "Booking confirmed with " + getAirlineName()
                     );
@@ -91,7 +120,7 @@ public abstract class BaseAirlineAdapter implements AirlineAdapter {
             return new AirlineBookingResponse(
                 true,
                 generateMockPNR(),
-                UUID.randomUUID().toString(),
+                idGenerator.nextKey(),
                 getAirlineCode(),
                 "Booking created (mocked)"
             );
@@ -163,6 +192,80 @@ public abstract class BaseAirlineAdapter implements AirlineAdapter {
         }
     }
     
+    @Override
+    public AirlineHoldResponse holdSeats(String holdId, FlightSearchResult flightDetails,
+                                         int passengerCount, Instant expiresAt) {
+        try {
+            logger.info("Holding {} seats with {} on flight {} until {}", 
+                       passengerCount, getAirlineName(), flightDetails.getFlightNumber(), expiresAt);
+            
+            String url = getApiBaseUrl() + "/api/holds";
+            
+            Map<String, Object> airlineHoldRequest = new HashMap<>();
+            airlineHoldRequest.put("clientReference", holdId);
+            airlineHoldRequest.put("flightId", flightDetails.getFlightId());
+            airlineHoldRequest.put("flightNumber", flightDetails.getFlightNumber());
+            airlineHoldRequest.put("seats", passengerCount);
+            airlineHoldRequest.put("expiresAt", expiresAt.toString());
+            
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            HttpEntity<Map<String, Object>> request = new HttpEntity<>(airlineHoldRequest, headers);
+            
+            try {
+                @SuppressWarnings("rawtypes")
+                ResponseEntity<Map> response = restTemplate.postForEntity(url, request, Map.class);
+                
+                if (response.getStatusCode() == HttpStatus.OK || 
+                    response.getStatusCode() == HttpStatus.CREATED) {
+                    
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> responseBody = response.getBody();
+                    
+                    if (responseBody == null) {
+                        throw new RuntimeException("Empty response from airline API");
+                    }
+                    return new AirlineHoldResponse(
+                        true,
+                        (String) responseBody.getOrDefault("holdReference", holdId),
+                        getAirlineCode(),
+                        "Seats held with " + getAirlineName()
+                    );
+                }
+            } catch (Exception e) {
+                logger.warn("API call failed, using mock response: {}", e.getMessage());
+            }
+            
+            // Fallback to mock response for demo
+            return new AirlineHoldResponse(true, holdId, getAirlineCode(), "Seats held (mocked)");
+            
+        } catch (Exception e) {
+            logger.error("Error holding seats with {}", getAirlineName(), e);
+            return new AirlineHoldResponse(false, null, getAirlineCode(), "Hold failed: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public boolean releaseHold(String holdReference) {
+        try {
+            logger.info("Releasing seat hold with {}: {}", getAirlineName(), holdReference);
+            
+            String url = getApiBaseUrl() + "/api/holds/" + holdReference;
+            
+            try {
+                restTemplate.delete(url);
+                return true;
+            } catch (Exception e) {
+                logger.warn("API call failed: {}", e.getMessage());
+                return true; // Mock success for demo
+            }
+            
+        } catch (Exception e) {
+            logger.error("Error releasing seat hold with {}", getAirlineName(), e);
+            return false;
+        }
+    }
+    
     @Override
     public boolean isAvailable() {
         // Simple health check - can be enhanced
@@ -170,10 +273,7 @@ public abstract class BaseAirlineAdapter implements AirlineAdapter {
     }
     
     protected String generateMockPNR() {
-        return getAirlineCode() + UUID.randomUUID().toString()
-            .replace("-", "")
-            .substring(0, 6)
-            .toUpperCase();
+        return idGenerator.nextPnr(getAirlineCode());
     }
     
     protected abstract List<FlightSearchResult> generateMockFlights(FlightSearchRequest request);
@@ -182,7 +282,7 @@ public abstract class BaseAirlineAdapter implements AirlineAdapter {
                                                  FlightSearchRequest request, LocalTime departureTime, 
                                                  LocalTime arrivalTime, BigDecimal price, Integer durationMinutes) {
         FlightSearchResult result = new FlightSearchResult();
-        result.setFlightId(UUID.randomUUID().toString());
+        result.setFlightId(idGenerator.nextKey());
         result.setFlightNumber(flightNumber);
         result.setAirline(getAirlineName());
         result.setAirlineCode(getAirlineCode());
@@ -0,0 +1,349 @@
+package com.mmt.flightbooking.service.archive;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves monthly booking partitions older than the retention window into gzipped NDJSON files
+ * Each line holds one booking with its segments, passengers, payments, payment transactions and
+ * status log. Lines are compressed in blocks of consecutive bookings, each block its own gzip
+ * member, so a block can be decompressed on its own from its byte offset.
+ * The file is written first; then, in one transaction, booking_references is pointed at the file
+ * and the offset of each booking's block, child rows that landed in later partitions are deleted
+ * and the month's partitions are dropped, so the hot tables and their indexes only ever hold the
+ * retention window.
+ * Archived bookings stay readable by reference through {@link #findArchivedBooking(String)}, which
+ * decompresses one block instead of the month.
+ */
+@Service
+public class BookingArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingArchiveService.class);
+
+    private static final String LOCK_KEY = "booking:archive:lock";
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+        "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0", Long.class);
+
+    private static final TypeReference<Map<String, Object>> RECORD_TYPE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final BookingPartitionManager partitions;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry registry;
+
+    @Value("${flightbooking.archive.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${flightbooking.archive.directory:./archive}")
+    private String directory = "./archive";
+
+    // Months kept in the hot tables, not counting the current one
+    @Value("${flightbooking.archive.retention-months:24}")
+    private int retentionMonths = 24;
+
+    @Value("${flightbooking.archive.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    // Bookings per gzip member; a lookup decompresses one block
+    @Value("${flightbooking.archive.block-size:100}")
+    private int blockSize = 100;
+
+    // Upper bound on one archive run; the lock lapses if the node dies mid-run
+    @Value("${flightbooking.archive.lock-ttl-seconds:21600}")
+    private long lockTtlSeconds = 21600;
+
+    @Autowired
+    public BookingArchiveService(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedJdbcTemplate,
+                                 BookingPartitionManager partitions, TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper, StringRedisTemplate stringRedisTemplate,
+                                 MeterRegistry registry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.partitions = partitions;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.registry = registry;
+    }
+
+    @Scheduled(cron = "${flightbooking.archive.cron:0 30 2 * * *}")
+    public void scheduledArchive() {
+        if (!enabled) {
+            return;
+        }
+
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean locked = stringRedisTemplate.opsForValue()
+                .setIfAbsent(LOCK_KEY, token, Duration.ofSeconds(lockTtlSeconds));
+            if (!Boolean.TRUE.equals(locked)) {
+                logger.debug("Booking archive already running on another node");
+                return;
+            }
+        } catch (Exception e) {
+            logger.warn("Booking archive skipped, lock unavailable: {}", e.getMessage());
+            return;
+        }
+
+        try {
+            archiveExpired(LocalDate.now());
+        } catch (Exception e) {
+            logger.error("Booking archive run failed", e);
+        } finally {
+            try {
+                stringRedisTemplate.execute(UNLOCK_SCRIPT, List.of(LOCK_KEY), token);
+            } catch (Exception e) {
+                logger.warn("Could not release booking archive lock; it lapses in {} s", lockTtlSeconds);
+            }
+        }
+    }
+
+    /**
+     * Archive every month older than the retention window, oldest first
+     * @return Number of months archived
+     */
+    public int archiveExpired(LocalDate today) {
+        if (!partitions.isPartitioned("bookings")) {
+            return 0;
+        }
+
+        YearMonth oldestKept = YearMonth.from(today).minusMonths(retentionMonths);
+        int archived = 0;
+        for (YearMonth month : partitions.partitionMonths("bookings")) {
+            if (month.isBefore(oldestKept)) {
+                archiveMonth(month);
+                archived++;
+            }
+        }
+        return archived;
+    }
+
+    /**
+     * Write the month's bookings to its archive file, then drop the month's partitions
+     * @return Number of bookings archived
+     */
+    public long archiveMonth(YearMonth month) {
+        String bookings = BookingPartitionManager.partitionName("bookings", month);
+        String fileName = archiveFileName(month);
+        long start = System.nanoTime();
+
+        List<Block> blocks;
+        try {
+            blocks = export(bookings, fileName);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write archive file " + fileName, e);
+        }
+        long exported = blocks.stream().mapToLong(Block::bookings).sum();
+        List<Object[]> locations = blocks.stream()
+            .map(block -> new Object[] {fileName, block.offset(), block.firstId(), block.lastId()})
+            .toList();
+
+        // Rows created from the next month on belong to this month's bookings but live in later partitions
+        LocalDateTime nextMonth = month.plusMonths(1).atDay(1).atStartOfDay();
+        transactionTemplate.executeWithoutResult(status -> {
+            Long rows = jdbcTemplate.queryForObject("SELECT count(*) FROM " + bookings, Long.class);
+            if (rows == null || rows != exported) {
+                throw new IllegalStateException(String.format(
+                    "%s holds %d bookings but %d were archived; is it still being written?", bookings, rows, exported));
+            }
+            if (!locations.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE booking_references r SET archive_file = ?, archive_offset = ? FROM " +
+                                         bookings + " b WHERE r.booking_reference = b.booking_reference " +
+                                         "AND b.id BETWEEN ? AND ?", locations);
+            }
+            jdbcTemplate.update("DELETE FROM payment_transactions t USING payments p, " + bookings +
+                                " b WHERE t.payment_id = p.id AND p.booking_id = b.id AND t.processed_at >= ?", nextMonth);
+            jdbcTemplate.update("DELETE FROM payments p USING " + bookings +
+                                " b WHERE p.booking_id = b.id AND p.created_at >= ?", nextMonth);
+            jdbcTemplate.update("DELETE FROM passengers p USING " + bookings +
+                                " b WHERE p.booking_id = b.id AND p.created_at >= ?", nextMonth);
+            jdbcTemplate.update("DELETE FROM booking_status_events e USING " + bookings +
+                                " b WHERE e.booking_id = b.id AND e.occurred_at >= ?", nextMonth);
+            jdbcTemplate.update("DELETE FROM booking_segments s USING " + bookings + " b WHERE s.booking_id = b.id");
+            partitions.dropPartitions(month);
+        });
+
+        registry.counter("flightbooking.archive.bookings").increment(exported);
+        logger.info("Archived {} bookings of {} to {} in {} ms", exported, month, fileName,
+                    (System.nanoTime() - start) / 1_000_000);
+        return exported;
+    }
+
+    /**
+     * Look up an archived booking by reference
+     * @return The archived record (booking, segments, passengers, payments, paymentTransactions, statusEvents),
+     *         or null if the reference is unknown or not archived
+     */
+    public Map<String, Object> findArchivedBooking(String reference) {
+        List<Map<String, Object>> locations;
+        try {
+            locations = jdbcTemplate.queryForList(
+                "SELECT archive_file, archive_offset FROM booking_references " +
+                "WHERE booking_reference = ? AND archive_file IS NOT NULL", reference);
+        } catch (DataAccessException e) {
+            // No registry: the tables are not partitioned, so nothing has been archived
+            logger.debug("Booking reference registry unavailable: {}", e.getMessage());
+            return null;
+        }
+        if (locations.isEmpty()) {
+            return null;
+        }
+
+        Path file = Paths.get(directory).resolve((String) locations.get(0).get("archive_file"));
+        // Files archived before offsets were recorded are scanned from the start
+        Number offset = (Number) locations.get(0).get("archive_offset");
+        String needle = "\"booking_reference\":\"" + reference + "\"";
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                 new GZIPInputStream(Channels.newInputStream(channel.position(offset == null ? 0 : offset.longValue()))),
+                 StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.contains(needle)) {
+                    return objectMapper.readValue(line, RECORD_TYPE);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archive file " + file, e);
+        }
+        logger.warn("Booking {} is registered in {} but missing from it", reference, file);
+        return null;
+    }
+
+    static String archiveFileName(YearMonth month) {
+        return "bookings-" + month + ".ndjson.gz";
+    }
+
+    private List<Block> export(String bookingsPartition, String fileName) throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        Path target = dir.resolve(fileName);
+        Path tmp = dir.resolve(fileName + ".tmp");
+
+        List<Block> blocks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream file = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            long lastId = 0;
+            List<Map<String, Object>> chunk;
+            do {
+                chunk = jdbcTemplate.queryForList(
+                    "SELECT * FROM " + bookingsPartition + " WHERE id > ? ORDER BY id LIMIT ?", lastId, chunkSize);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                List<Long> ids = chunk.stream().map(row -> ((Number) row.get("id")).longValue()).toList();
+                Map<String, List<Long>> params = Map.of("ids", ids);
+                Map<Long, List<Map<String, Object>>> segments = byBooking(namedJdbcTemplate.queryForList(
+                    "SELECT * FROM booking_segments WHERE booking_id IN (:ids) ORDER BY booking_id, segment_index", params));
+                Map<Long, List<Map<String, Object>>> passengers = byBooking(namedJdbcTemplate.queryForList(
+                    "SELECT * FROM passengers WHERE booking_id IN (:ids) ORDER BY id", params));
+                Map<Long, List<Map<String, Object>>> payments = byBooking(namedJdbcTemplate.queryForList(
+                    "SELECT * FROM payments WHERE booking_id IN (:ids) ORDER BY id", params));
+                Map<Long, List<Map<String, Object>>> transactions = byBooking(namedJdbcTemplate.queryForList(
+                    "SELECT t.*, p.booking_id FROM payment_transactions t JOIN payments p ON p.id = t.payment_id " +
+                    "WHERE p.booking_id IN (:ids) ORDER BY t.id", params));
+                Map<Long, List<Map<String, Object>>> statusEvents = byBooking(namedJdbcTemplate.queryForList(
+                    "SELECT * FROM booking_status_events WHERE booking_id IN (:ids) ORDER BY occurred_at, id", params));
+
+                for (int from = 0; from < chunk.size(); from += blockSize) {
+                    int to = Math.min(from + blockSize, chunk.size());
+                    file.flush();
+                    long offset = channel.position();
+                    try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(unclosable(file)),
+                                                                StandardCharsets.UTF_8)) {
+                        for (int i = from; i < to; i++) {
+                            Long id = ids.get(i);
+                            Map<String, Object> record = new LinkedHashMap<>();
+                            record.put("booking", chunk.get(i));
+                            record.put("segments", segments.getOrDefault(id, List.of()));
+                            record.put("passengers", passengers.getOrDefault(id, List.of()));
+                            record.put("payments", payments.getOrDefault(id, List.of()));
+                            record.put("paymentTransactions", transactions.getOrDefault(id, List.of()));
+                            record.put("statusEvents", statusEvents.getOrDefault(id, List.of()));
+                            writer.write(objectMapper.writeValueAsString(record));
+                            writer.write('\n');
+                        }
+                    }
+                    blocks.add(new Block(ids.get(from), ids.get(to - 1), offset, to - from));
+                }
+                lastId = ids.get(ids.size() - 1);
+            } while (chunk.size() == chunkSize);
+            file.flush();
+        }
+
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return blocks;
+    }
+
+    // Closing a block's writer ends its gzip member, not the file
+    private static OutputStream unclosable(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+    }
+
+    /**
+     * Consecutive bookings compressed as one gzip member starting at offset
+     */
+    private record Block(long firstId, long lastId, long offset, long bookings) {}
+
+    private static Map<Long, List<Map<String, Object>>> byBooking(List<Map<String, Object>> rows) {
+        return rows.stream().collect(Collectors.groupingBy(row -> ((Number) row.get("booking_id")).longValue()));
+    }
+}
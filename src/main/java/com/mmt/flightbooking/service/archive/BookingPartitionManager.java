@@ -0,0 +1,149 @@
+package com.mmt.flightbooking.service.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly range partitions of the booking tables (see init-scripts/09-partition-booking-tables.sql
+ * and 11-booking-status-events.sql)
+ * Keeps partitions for the coming months in place so inserts never miss one. Indexes are declared
+ * on the parent tables, so every new partition gets them without further DDL.
+ * Tables that are not partitioned (e.g. schema generated by Hibernate in development) are left alone.
+ */
+@Component
+public class BookingPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingPartitionManager.class);
+
+    /**
+     * Partitioned tables and their partition column
+     */
+    public static final Map<String, String> TABLES = Map.of(
+        "bookings", "created_at",
+        "passengers", "created_at",
+        "payments", "created_at",
+        "payment_transactions", "processed_at",
+        "booking_status_events", "occurred_at");
+
+    /**
+     * Order in which a month's partitions are dropped: children first
+     */
+    public static final List<String> DROP_ORDER = List.of("booking_status_events", "payment_transactions", "payments",
+                                                          "passengers", "bookings");
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern PARTITION_NAME = Pattern.compile("_p(\\d{4})_(\\d{2})$");
+
+    private static final String IS_PARTITIONED_SQL =
+        "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+        "WHERE c.relname = ?)";
+
+    private static final String PARTITIONS_SQL =
+        "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+        "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ? ORDER BY c.relname";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${flightbooking.archive.partitions-ahead-months:3}")
+    private int monthsAhead = 3;
+
+    @Autowired
+    public BookingPartitionManager(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Scheduled(cron = "${flightbooking.archive.partition-cron:0 0 2 * * *}")
+    public void scheduledMaintenance() {
+        try {
+            ensurePartitions(LocalDate.now());
+        } catch (Exception e) {
+            logger.error("Partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Create any missing partition from this month up to the configured months ahead
+     * @return Number of partitions created
+     */
+    public int ensurePartitions(LocalDate today) {
+        YearMonth current = YearMonth.from(today);
+        int created = 0;
+        for (String table : TABLES.keySet()) {
+            if (!isPartitioned(table)) {
+                continue;
+            }
+            List<YearMonth> existing = partitionMonths(table);
+            for (int i = 0; i <= monthsAhead; i++) {
+                YearMonth month = current.plusMonths(i);
+                if (!existing.contains(month) && createPartition(table, month)) {
+                    created++;
+                }
+            }
+        }
+        if (created > 0) {
+            logger.info("Created {} booking table partitions", created);
+        }
+        return created;
+    }
+
+    public boolean isPartitioned(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class, table));
+    }
+
+    /**
+     * Months that currently have a partition of the table, oldest first
+     */
+    public List<YearMonth> partitionMonths(String table) {
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : jdbcTemplate.queryForList(PARTITIONS_SQL, String.class, table)) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (matcher.find()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        return months;
+    }
+
+    public static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+
+    /**
+     * Drop the partitions of every booking table for the month, children first
+     * Must run inside the transaction that archived the month
+     */
+    public void dropPartitions(YearMonth month) {
+        for (String table : DROP_ORDER) {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partitionName(table, month));
+        }
+        logger.info("Dropped booking table partitions for {}", month);
+    }
+
+    private boolean createPartition(String table, YearMonth month) {
+        String sql = String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+            partitionName(table, month), table, month.atDay(1), month.plusMonths(1).atDay(1));
+        try {
+            jdbcTemplate.execute(sql);
+            return true;
+        } catch (DataAccessException e) {
+            // Another node created it at the same moment
+            logger.warn("Could not create partition {}: {}", partitionName(table, month), e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.mmt.flightbooking.service.auth;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers verified bearer tokens until they expire
+ * A client sends the same token on every request until it expires, so its signature is verified
+ * and its claims validated once per node; later requests cost a SHA-256 of the token and a map
+ * lookup. Entries are keyed by the hash so raw tokens are not kept in memory. Rejected tokens
+ * are not cached and are verified (and rejected) again each time.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final MeterRegistry registry;
+    private final Timer verifyTimer;
+    private final int maxEntries;
+    private final Clock clock;
+    private final Map<String, Jwt> verified = new ConcurrentHashMap<>();
+
+    public CachingJwtDecoder(JwtDecoder delegate, MeterRegistry registry, int maxEntries) {
+        this(delegate, registry, maxEntries, Clock.systemUTC());
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate, MeterRegistry registry, int maxEntries, Clock clock) {
+        this.delegate = delegate;
+        this.registry = registry;
+        this.verifyTimer = registry.timer("flightbooking.auth.token.verify");
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
+        Jwt jwt = verified.get(key);
+        if (jwt != null) {
+            if (clock.instant().isBefore(jwt.getExpiresAt())) {
+                count("hit");
+                return jwt;
+            }
+            verified.remove(key);
+        }
+
+        count("miss");
+        jwt = verifyTimer.record(() -> delegate.decode(token));
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt != null && clock.instant().isBefore(expiresAt)) {
+            if (verified.size() >= maxEntries) {
+                // Crude bound; a miss costs one signature check
+                verified.clear();
+            }
+            verified.put(key, jwt);
+        }
+        return jwt;
+    }
+
+    public int size() {
+        return verified.size();
+    }
+
+    private void count(String result) {
+        registry.counter("flightbooking.auth.token.cache", "result", result).increment();
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
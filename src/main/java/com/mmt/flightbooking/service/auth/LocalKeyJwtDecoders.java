@@ -0,0 +1,122 @@
+package com.mmt.flightbooking.service.auth;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jca.JCAContext;
+import com.nimbusds.jose.proc.JWSVerifierFactory;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.proc.SingleKeyJWSKeySelector;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Decoders for bearer tokens signed with locally configured keys
+ * Verification needs no call to an identity provider. The signature verifier is built once per
+ * decoder and reused for every token, instead of Nimbus creating one per token; tokens must name
+ * the decoder's algorithm, carry an expiry and be within their validity window.
+ */
+public final class LocalKeyJwtDecoders {
+
+    private LocalKeyJwtDecoders() {
+    }
+
+    /**
+     * HS256 tokens signed with a shared secret of at least 32 bytes
+     */
+    public static NimbusJwtDecoder hmac(String secret) {
+        SecretKey key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        try {
+            return decoder(JWSAlgorithm.HS256, key, new MACVerifier(key));
+        } catch (JOSEException e) {
+            throw new IllegalStateException("JWT secret must be at least 32 bytes", e);
+        }
+    }
+
+    /**
+     * RS256 tokens, verified with an RSA public key in PEM (X.509 SubjectPublicKeyInfo) form
+     */
+    public static NimbusJwtDecoder rsa(String publicKeyPem) {
+        RSAPublicKey key = parsePublicKey(publicKeyPem);
+        return decoder(JWSAlgorithm.RS256, key, new RSASSAVerifier(key));
+    }
+
+    private static NimbusJwtDecoder decoder(JWSAlgorithm algorithm, Key key, JWSVerifier verifier) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        // Rejects tokens naming any other algorithm before the verifier is asked for
+        processor.setJWSKeySelector(new SingleKeyJWSKeySelector<>(algorithm, key));
+        processor.setJWSVerifierFactory(new PrecomputedVerifierFactory(verifier));
+        // Claims are checked by the validators below
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        OAuth2TokenValidator<Jwt> validator = new DelegatingOAuth2TokenValidator<>(
+            JwtValidators.createDefault(),
+            new JwtClaimValidator<Instant>(JwtClaimNames.EXP, Objects::nonNull));
+        decoder.setJwtValidator(validator);
+        return decoder;
+    }
+
+    private static RSAPublicKey parsePublicKey(String pem) {
+        String base64 = pem.replaceAll("-----(BEGIN|END) PUBLIC KEY-----", "").replaceAll("\\s", "");
+        try {
+            return (RSAPublicKey) KeyFactory.getInstance("RSA")
+                .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(base64)));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("JWT public key is not a PEM encoded RSA public key", e);
+        }
+    }
+
+    /**
+     * Hands out the one verifier; MACVerifier and RSASSAVerifier are thread-safe
+     */
+    private static final class PrecomputedVerifierFactory implements JWSVerifierFactory {
+
+        private final JWSVerifier verifier;
+
+        PrecomputedVerifierFactory(JWSVerifier verifier) {
+            this.verifier = verifier;
+        }
+
+        @Override
+        public JWSVerifier createJWSVerifier(JWSHeader header, Key key) throws JOSEException {
+            if (!verifier.supportedJWSAlgorithms().contains(header.getAlgorithm())) {
+                throw new JOSEException("Unsupported JWS algorithm " + header.getAlgorithm());
+            }
+            return verifier;
+        }
+
+        @Override
+        public Set<JWSAlgorithm> supportedJWSAlgorithms() {
+            return verifier.supportedJWSAlgorithms();
+        }
+
+        @Override
+        public JCAContext getJCAContext() {
+            return verifier.getJCAContext();
+        }
+    }
+}
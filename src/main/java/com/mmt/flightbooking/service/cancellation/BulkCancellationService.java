@@ -0,0 +1,403 @@
+package com.mmt.flightbooking.service.cancellation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmt.flightbooking.dto.BookingSegmentSummary;
+import com.mmt.flightbooking.dto.BookingSummary;
+import com.mmt.flightbooking.dto.BulkCancellationRequest;
+import com.mmt.flightbooking.dto.BulkCancellationStatus;
+import com.mmt.flightbooking.entity.BookingEventType;
+import com.mmt.flightbooking.entity.BookingStatus;
+import com.mmt.flightbooking.entity.BookingStatusEventType;
+import com.mmt.flightbooking.repository.BookingRepository;
+import com.mmt.flightbooking.repository.BookingSegmentRepository;
+import com.mmt.flightbooking.service.airline.AirlineBookingService;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.execution.IoKind;
+import com.mmt.flightbooking.service.history.BookingEventLog;
+import com.mmt.flightbooking.service.id.IdGenerator;
+import com.mmt.flightbooking.service.outbox.OutboxService;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cancels many bookings at once when an airline cancels a flight
+ * A job selects the CONFIRMED bookings on a flight (or from a list of references) up front and
+ * works through them in chunks. Each chunk cancels every airline PNR with a few lanes per airline,
+ * then moves the bookings whose PNRs all cancelled to CANCELLED as one JDBC batch and records their
+ * BOOKING_DISRUPTED outbox events as another, in one short transaction. Bookings the airline did
+ * not cancel stay CONFIRMED and are reported; running the job again retries them, since airline
+ * cancellation by PNR is idempotent.
+ * <p>
+ * Progress is kept on the node running the job and mirrored to Redis after every chunk, so any
+ * node can report it.
+ */
+@Service
+public class BulkCancellationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkCancellationService.class);
+
+    private static final String JOB_KEY_PREFIX = "bulk-cancel:job:";
+    private static final int MAX_REPORTED_FAILURES = 100;
+
+    private static final String CANCEL_BOOKING_SQL =
+        "UPDATE bookings SET status = 'CANCELLED', updated_at = now(), version = version + 1 " +
+        "WHERE id = ? AND status = 'CONFIRMED'";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingSegmentRepository segmentRepository;
+
+    @Autowired
+    private AirlineBookingService airlineBookingService;
+
+    @Autowired
+    private BlockingIoExecutor ioExecutor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private BookingEventLog eventLog;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private BookingReadModelService bookingReadModel;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    // Bookings loaded, cancelled and committed together
+    @Value("${flightbooking.bulk-cancel.chunk-size:200}")
+    private int chunkSize = 200;
+
+    // Cancel calls in flight per airline; all airlines together are capped by max-concurrent.airline-cancel
+    @Value("${flightbooking.bulk-cancel.per-airline-concurrency:16}")
+    private int perAirlineConcurrency = 16;
+
+    // How long a finished job's status can still be read
+    @Value("${flightbooking.bulk-cancel.status-ttl-hours:24}")
+    private long statusTtlHours = 24;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Select the bookings and start cancelling them in the background
+     * @return Status of the job as started, with the number of bookings selected
+     * @throws IllegalArgumentException if the request names neither a flight nor booking references
+     */
+    public BulkCancellationStatus startJob(BulkCancellationRequest request) {
+        String criteria = describe(request);
+        List<Long> bookingIds = selectBookings(request);
+        long notFound = request.hasBookingReferences()
+            ? new LinkedHashSet<>(request.getBookingReferences()).size() - bookingIds.size() : 0;
+
+        pruneFinishedJobs();
+        Job job = new Job(idGenerator.nextKey(), criteria, bookingIds.size());
+        // References that are unknown or not CONFIRMED are never part of the job
+        job.skipped.addAndGet(Math.max(0, notFound));
+        jobs.put(job.jobId, job);
+        logger.info("Bulk cancellation {} started for {}: {} bookings, reason: {}",
+                   job.jobId, criteria, bookingIds.size(), request.getReason());
+
+        BulkCancellationStatus started = job.snapshot();
+        publish(started);
+        ioExecutor.supplyAsync(IoKind.BACKGROUND, () -> {
+            run(job, bookingIds);
+            return null;
+        });
+        return started;
+    }
+
+    /**
+     * Status of a job started on any node
+     * @return Status, or null if the job is unknown or its status has expired
+     */
+    public BulkCancellationStatus getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job != null) {
+            return job.snapshot();
+        }
+        try {
+            Object cached = redisTemplate.opsForValue().get(JOB_KEY_PREFIX + jobId);
+            if (cached == null) {
+                return null;
+            }
+            if (cached instanceof BulkCancellationStatus status) {
+                return status;
+            }
+            // Stored as JSON in Redis, read back as a map
+            return objectMapper.convertValue(cached, BulkCancellationStatus.class);
+        } catch (Exception e) {
+            logger.warn("Could not read bulk cancellation {} from Redis: {}", jobId, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<Long> selectBookings(BulkCancellationRequest request) {
+        if (request.hasBookingReferences()) {
+            return bookingRepository.findConfirmedIdsByReferences(new LinkedHashSet<>(request.getBookingReferences()));
+        }
+
+        Set<Long> ids = new TreeSet<>(segmentRepository.findConfirmedBookingIdsOnFlight(
+            request.getAirlineCode(), request.getFlightNumber(), request.getDepartureDate()));
+        ids.addAll(bookingRepository.findConfirmedUnsegmentedIdsOnFlight(
+            request.getAirlineCode(), request.getFlightNumber(), request.getDepartureDate()));
+        return new ArrayList<>(ids);
+    }
+
+    private void run(Job job, List<Long> bookingIds) {
+        try {
+            for (int from = 0; from < bookingIds.size(); from += chunkSize) {
+                cancelChunk(job, bookingIds.subList(from, Math.min(from + chunkSize, bookingIds.size())));
+                publish(job.snapshot());
+            }
+            job.finish("COMPLETED", null);
+        } catch (Exception e) {
+            logger.error("Bulk cancellation {} failed", job.jobId, e);
+            job.finish("FAILED", e.getMessage());
+        }
+
+        BulkCancellationStatus status = job.snapshot();
+        publish(status);
+        logger.info("Bulk cancellation {} {}: {} cancelled, {} failed, {} skipped of {} in {} ms ({} bookings/s)",
+                   job.jobId, status.getState(), status.getCancelled(), status.getFailed(), status.getSkipped(),
+                   status.getTotalBookings(), Duration.between(status.getStartedAt(), status.getFinishedAt()).toMillis(),
+                   String.format("%.1f", status.getBookingsPerSecond()));
+    }
+
+    private void cancelChunk(Job job, List<Long> bookingIds) {
+        Map<Long, BookingSummary> bookings = new LinkedHashMap<>();
+        for (BookingSummary summary : bookingRepository.findSummariesByIds(bookingIds)) {
+            if (summary.getStatus() == BookingStatus.CONFIRMED) {
+                bookings.put(summary.getId(), summary);
+            }
+        }
+        // Cancelled by the customer (or already by an earlier job) since the job was started
+        count(job, job.skipped, "skipped", bookingIds.size() - bookings.size());
+        if (bookings.isEmpty()) {
+            return;
+        }
+
+        Set<Long> failed = cancelWithAirlines(job, bookings, pnrCalls(bookings));
+        for (Long id : failed) {
+            job.fail(bookings.get(id).getBookingReference());
+        }
+        count(job, job.failed, "failed", failed.size());
+
+        List<Long> airlineCancelled = bookings.keySet().stream()
+            .filter(id -> !failed.contains(id))
+            .toList();
+        if (airlineCancelled.isEmpty()) {
+            return;
+        }
+
+        List<Long> cancelled = transactionTemplate.execute(status -> {
+            int[] updated = jdbcTemplate.batchUpdate(CANCEL_BOOKING_SQL,
+                airlineCancelled.stream().map(id -> new Object[] {id}).toList());
+            List<Long> moved = new ArrayList<>();
+            for (int i = 0; i < airlineCancelled.size(); i++) {
+                // 0: no longer CONFIRMED (e.g. the customer cancelled meanwhile); already handled
+                if (updated[i] != 0) {
+                    moved.add(airlineCancelled.get(i));
+                }
+            }
+            outboxService.recordAll(moved, BookingEventType.BOOKING_DISRUPTED);
+            eventLog.appendAll(moved, BookingStatusEventType.CANCELLED, BookingStatus.CONFIRMED, BookingStatus.CANCELLED,
+                               "bulk cancellation " + job.jobId + " (" + job.criteria + ")");
+            moved.forEach(bookingReadModel::invalidate);
+            return moved;
+        });
+
+        count(job, job.cancelled, "cancelled", cancelled.size());
+        count(job, job.skipped, "skipped", airlineCancelled.size() - cancelled.size());
+    }
+
+    /**
+     * One airline cancel call per PNR; bookings made before segments were recorded use the booking's PNR
+     */
+    private List<PnrCall> pnrCalls(Map<Long, BookingSummary> bookings) {
+        Set<Long> segmented = new LinkedHashSet<>();
+        List<PnrCall> calls = new ArrayList<>();
+        for (BookingSegmentSummary segment : segmentRepository.findSegmentSummaries(bookings.keySet())) {
+            segmented.add(segment.getBookingId());
+            if (segment.getAirlinePnr() != null) {
+                calls.add(new PnrCall(segment.getBookingId(), segment.getAirlineCode(), segment.getAirlinePnr()));
+            }
+        }
+        bookings.values().stream()
+            .filter(booking -> !segmented.contains(booking.getId()) && booking.getAirlinePnr() != null)
+            .forEach(booking -> calls.add(new PnrCall(booking.getId(), booking.getAirlineCode(), booking.getAirlinePnr())));
+        return calls;
+    }
+
+    /**
+     * Cancel every PNR, a few lanes per airline at a time
+     * @return Bookings with at least one PNR the airline did not cancel
+     */
+    private Set<Long> cancelWithAirlines(Job job, Map<Long, BookingSummary> bookings, List<PnrCall> calls) {
+        Set<Long> failed = ConcurrentHashMap.newKeySet();
+        Map<String, List<PnrCall>> byAirline = calls.stream()
+            .collect(Collectors.groupingBy(PnrCall::airlineCode, LinkedHashMap::new, Collectors.toList()));
+
+        List<Supplier<Void>> lanes = new ArrayList<>();
+        byAirline.forEach((airlineCode, airlineCalls) -> {
+            Queue<PnrCall> queue = new ConcurrentLinkedQueue<>(airlineCalls);
+            int laneCount = Math.min(Math.max(1, perAirlineConcurrency), airlineCalls.size());
+            for (int i = 0; i < laneCount; i++) {
+                lanes.add(() -> {
+                    PnrCall call;
+                    while ((call = queue.poll()) != null) {
+                        job.airlineCalls.incrementAndGet();
+                        if (!airlineBookingService.cancelBookingWithAirline(call.airlineCode(), call.airlinePnr())) {
+                            logger.warn("Airline {} did not cancel PNR {} of booking {}", call.airlineCode(),
+                                       call.airlinePnr(), bookings.get(call.bookingId()).getBookingReference());
+                            failed.add(call.bookingId());
+                        }
+                    }
+                    return null;
+                });
+            }
+        });
+        // Lanes no worker has picked up run on this thread, so the job cannot starve itself
+        ioExecutor.forkJoin(IoKind.BACKGROUND, lanes);
+        return failed;
+    }
+
+    private void count(Job job, AtomicLong stat, String outcome, int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        stat.addAndGet(amount);
+        job.processed.addAndGet(amount);
+        registry.counter("flightbooking.bulk.cancel", "outcome", outcome).increment(amount);
+    }
+
+    private void publish(BulkCancellationStatus status) {
+        try {
+            redisTemplate.opsForValue().set(JOB_KEY_PREFIX + status.getJobId(), status,
+                Duration.ofHours(statusTtlHours));
+        } catch (Exception e) {
+            // Still readable on this node
+            logger.warn("Could not store bulk cancellation {} in Redis: {}", status.getJobId(), e.getMessage());
+        }
+    }
+
+    private void pruneFinishedJobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofHours(statusTtlHours));
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(cutoff));
+    }
+
+    private static String describe(BulkCancellationRequest request) {
+        if (request.hasBookingReferences()) {
+            return request.getBookingReferences().size() + " booking references";
+        }
+        if (request.hasFlight()) {
+            return request.getAirlineCode() + " " + request.getFlightNumber() + " on " + request.getDepartureDate();
+        }
+        throw new IllegalArgumentException(
+            "Give either airlineCode, flightNumber and departureDate, or bookingReferences");
+    }
+
+    private record PnrCall(Long bookingId, String airlineCode, String airlinePnr) {}
+
+    /**
+     * Live progress of a job running on this node
+     */
+    private static final class Job {
+
+        private final String jobId;
+        private final String criteria;
+        private final long totalBookings;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong airlineCalls = new AtomicLong();
+        private final Queue<String> failedReferences = new ConcurrentLinkedQueue<>();
+        private volatile String state = "RUNNING";
+        private volatile String error;
+        private volatile Instant finishedAt;
+
+        Job(String jobId, String criteria, long totalBookings) {
+            this.jobId = jobId;
+            this.criteria = criteria;
+            this.totalBookings = totalBookings;
+        }
+
+        void fail(String bookingReference) {
+            if (failedReferences.size() < MAX_REPORTED_FAILURES) {
+                failedReferences.add(bookingReference);
+            }
+        }
+
+        void finish(String finalState, String finalError) {
+            this.error = finalError;
+            this.finishedAt = Instant.now();
+            this.state = finalState;
+        }
+
+        BulkCancellationStatus snapshot() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(0.001, Duration.between(startedAt, end).toMillis() / 1000.0);
+
+            BulkCancellationStatus status = new BulkCancellationStatus();
+            status.setJobId(jobId);
+            status.setState(state);
+            status.setCriteria(criteria);
+            status.setTotalBookings(totalBookings);
+            status.setProcessed(processed.get());
+            status.setCancelled(cancelled.get());
+            status.setFailed(failed.get());
+            status.setSkipped(skipped.get());
+            status.setAirlineCalls(airlineCalls.get());
+            status.setBookingsPerSecond(processed.get() / seconds);
+            status.setAirlineCallsPerSecond(airlineCalls.get() / seconds);
+            status.setFailedBookingReferences(new ArrayList<>(failedReferences));
+            status.setError(error);
+            status.setStartedAt(startedAt);
+            status.setFinishedAt(finishedAt);
+            return status;
+        }
+    }
+}
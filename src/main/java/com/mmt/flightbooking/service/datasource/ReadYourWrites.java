@@ -0,0 +1,80 @@
+package com.mmt.flightbooking.service.datasource;
+
+import com.mmt.flightbooking.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a user's reads on the primary for a short window after they changed one of their bookings
+ * Replicas trail the primary, so a booking listed right after it was created or cancelled could
+ * otherwise come back missing or in its old status. The window is recorded in Redis, so it holds
+ * whichever node serves the next request.
+ */
+@Component
+public class ReadYourWrites {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadYourWrites.class);
+
+    private static final String KEY_PREFIX = "db:recent-writer:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    // Must exceed the replica lag limit (flightbooking.datasource.replicas.max-lag-ms)
+    @Value("${flightbooking.datasource.replicas.read-your-writes-ms:5000}")
+    private long windowMs = 5000;
+
+    @Autowired
+    public ReadYourWrites(StringRedisTemplate stringRedisTemplate, ReplicaRoutingDataSource routingDataSource) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.routingDataSource = routingDataSource;
+    }
+
+    /**
+     * Note that the user just wrote one of their bookings
+     */
+    public void recordWrite(User user) {
+        if (!routingDataSource.hasReplicas() || user == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(key(user), "1", Duration.ofMillis(windowMs));
+        } catch (Exception e) {
+            logger.warn("Could not record recent write of user {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Run a read for the user, on the primary if they wrote within the window
+     * Only read-only transactions are routed to replicas, so nothing is looked up for any other work.
+     */
+    public <T> T read(User user, Supplier<T> read) {
+        if (!routingDataSource.hasReplicas() || user == null
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly() || !wroteRecently(user)) {
+            return read.get();
+        }
+        return ReplicaRoutingDataSource.onPrimary(read);
+    }
+
+    private boolean wroteRecently(User user) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(key(user)));
+        } catch (Exception e) {
+            // Unknown: stay on the safe side
+            logger.debug("Could not check recent writes of user {}: {}", user.getId(), e.getMessage());
+            return true;
+        }
+    }
+
+    private static String key(User user) {
+        return KEY_PREFIX + user.getId();
+    }
+}
@@ -0,0 +1,195 @@
+package com.mmt.flightbooking.service.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to streaming replicas and everything else to the primary
+ * The target is picked when the transaction first touches the database, so this must sit behind a
+ * LazyConnectionDataSourceProxy (see DataSourceConfig); by then the transaction's read-only flag is set.
+ * Replicas take turns; one whose replay lag is above the limit, or that cannot be reached, is skipped
+ * until the next lag check finds it caught up. With no usable replica the read goes to the primary.
+ * Work wrapped in {@link #onPrimary(Supplier)} always reads from the primary (read-your-writes).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    static final String PRIMARY = "primary";
+
+    // Replay lag in ms; 0 when the replica has applied everything it received
+    private static final String LAG_SQL =
+        "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+        "ELSE (EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000)::BIGINT END";
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> replicaKeys;
+    private final Map<String, JdbcTemplate> lagProbes = new HashMap<>();
+    // Last measured lag per replica; -1 until measured or while unreachable
+    private final Map<String, AtomicLong> lagMs = new ConcurrentHashMap<>();
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong pinnedReads = new AtomicLong();
+    private final AtomicLong laggingReads = new AtomicLong();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, long maxLagMs) {
+        this.replicas = replicas;
+        this.replicaKeys = List.copyOf(replicas.keySet());
+        this.maxLagMs = maxLagMs;
+
+        Map<Object, Object> targets = new LinkedHashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            lagProbes.put(replica.getKey(), new JdbcTemplate(replica.getValue()));
+            lagMs.put(replica.getKey(), new AtomicLong(-1));
+        }
+        afterPropertiesSet();
+    }
+
+    /**
+     * Run work whose read-only transactions must see the latest committed writes
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY_PINNED.get();
+        PRIMARY_PINNED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_PINNED.remove();
+            }
+        }
+    }
+
+    public boolean hasReplicas() {
+        return !replicaKeys.isEmpty();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicaKeys.isEmpty()) {
+            return PRIMARY;
+        }
+        if (PRIMARY_PINNED.get() != null) {
+            pinnedReads.incrementAndGet();
+            return PRIMARY;
+        }
+
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicaKeys.size(); i++) {
+            String key = replicaKeys.get(Math.floorMod(start + i, replicaKeys.size()));
+            if (isUsable(key)) {
+                replicaReads.incrementAndGet();
+                return key;
+            }
+        }
+        laggingReads.incrementAndGet();
+        return PRIMARY;
+    }
+
+    /**
+     * Measure every replica's replay lag
+     */
+    @Scheduled(fixedDelayString = "${flightbooking.datasource.replicas.lag-check-interval-ms:1000}")
+    public void checkReplicaLag() {
+        for (String key : replicaKeys) {
+            long lag;
+            try {
+                Long measured = lagProbes.get(key).queryForObject(LAG_SQL, Long.class);
+                lag = measured == null ? -1 : Math.max(0, measured);
+            } catch (Exception e) {
+                logger.debug("Replica {} lag check failed: {}", key, e.getMessage());
+                lag = -1;
+            }
+            recordLag(key, lag);
+        }
+    }
+
+    void recordLag(String key, long lag) {
+        long previous = lagMs.get(key).getAndSet(lag);
+        boolean wasUsable = previous >= 0 && previous <= maxLagMs;
+        boolean usable = lag >= 0 && lag <= maxLagMs;
+        if (wasUsable != usable) {
+            logger.warn("Replica {} {} (lag {} ms, limit {} ms)", key,
+                        usable ? "back in rotation" : "taken out of rotation", lag, maxLagMs);
+        }
+    }
+
+    boolean isUsable(String key) {
+        long lag = lagMs.get(key).get();
+        return lag >= 0 && lag <= maxLagMs;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("flightbooking.datasource.reads", replicaReads, AtomicLong::get)
+            .description("Read-only transactions by where they were routed")
+            .tag("route", "replica")
+            .register(registry);
+        FunctionCounter.builder("flightbooking.datasource.reads", pinnedReads, AtomicLong::get)
+            .tag("route", "primary-read-your-writes")
+            .register(registry);
+        FunctionCounter.builder("flightbooking.datasource.reads", laggingReads, AtomicLong::get)
+            .tag("route", "primary-replicas-lagging")
+            .register(registry);
+        Gauge.builder("flightbooking.datasource.replica.hit.ratio", this, ReplicaRoutingDataSource::replicaHitRatio)
+            .description("Share of read-only transactions served by a replica")
+            .register(registry);
+        for (String key : replicaKeys) {
+            Gauge.builder("flightbooking.datasource.replica.lag", lagMs.get(key), AtomicLong::get)
+                .description("Replay lag of the replica in ms; -1 when unreachable")
+                .baseUnit("milliseconds")
+                .tag("replica", key)
+                .register(registry);
+        }
+    }
+
+    double replicaHitRatio() {
+        long replica = replicaReads.get();
+        long total = replica + pinnedReads.get() + laggingReads.get();
+        return total == 0 ? 0.0 : (double) replica / total;
+    }
+
+    @Override
+    public void close() {
+        List<String> failed = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            if (replica.getValue() instanceof Closeable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    failed.add(replica.getKey());
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            logger.warn("Could not close replica pools {}", failed);
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.mmt.flightbooking.service.execution;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Executor for blocking airline and payment calls
+ * In virtual-thread mode every call runs on its own virtual thread, so a node can keep
+ * thousands of slow airline calls in flight without a large platform pool.
+ * Per-kind semaphores cap concurrency in both modes.
+ * Cancelling (or timing out) a future returned by {@link #supplyAsync} skips the task if it has
+ * not started yet and interrupts it if it is running, so abandoned calls give back their slot and permit.
+ */
+@Component
+public class BlockingIoExecutor implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlockingIoExecutor.class);
+
+    private static final BlockingIoExecutor COMMON_POOL =
+        new BlockingIoExecutor(ForkJoinPool.commonPool(), false, Map.of(), 0, false);
+
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Map<IoKind, Integer> limits = new EnumMap<>(IoKind.class);
+    private final Map<IoKind, Semaphore> permits = new EnumMap<>(IoKind.class);
+    private final long permitTimeoutMs;
+    private final boolean ownsExecutor;
+    private final Map<IoKind, AtomicLong> cancelledQueued = new EnumMap<>(IoKind.class);
+    private final Map<IoKind, AtomicLong> cancelledRunning = new EnumMap<>(IoKind.class);
+
+    @Autowired
+    public BlockingIoExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            @Value("${flightbooking.execution.platform-pool-size:64}") int platformPoolSize,
+            @Value("${flightbooking.execution.max-concurrent.airline-search:2000}") int maxAirlineSearch,
+            @Value("${flightbooking.execution.max-concurrent.airline-booking:500}") int maxAirlineBooking,
+            @Value("${flightbooking.execution.max-concurrent.airline-cancel:200}") int maxAirlineCancel,
+            @Value("${flightbooking.execution.max-concurrent.airline-status:100}") int maxAirlineStatus,
+            @Value("${flightbooking.execution.max-concurrent.payment:500}") int maxPayment,
+            @Value("${flightbooking.execution.permit-timeout-ms:5000}") long permitTimeoutMs) {
+
+        this(createExecutor(virtualThreads, platformPoolSize), virtualThreads,
+             Map.of(IoKind.AIRLINE_SEARCH, maxAirlineSearch,
+                    IoKind.AIRLINE_BOOKING, maxAirlineBooking,
+                    IoKind.AIRLINE_CANCEL, maxAirlineCancel,
+                    IoKind.AIRLINE_STATUS, maxAirlineStatus,
+                    IoKind.PAYMENT, maxPayment),
+             permitTimeoutMs, true);
+
+        logger.info("Blocking I/O executor started: mode={}, limits={}",
+                   virtualThreads ? "virtual-threads" : "platform-pool(" + platformPoolSize + ")", limits);
+    }
+
+    private BlockingIoExecutor(ExecutorService executor, boolean virtualThreads,
+                               Map<IoKind, Integer> limits, long permitTimeoutMs, boolean ownsExecutor) {
+        this.executor = executor;
+        this.virtualThreads = virtualThreads;
+        this.permitTimeoutMs = permitTimeoutMs;
+        this.ownsExecutor = ownsExecutor;
+        for (IoKind kind : IoKind.values()) {
+            cancelledQueued.put(kind, new AtomicLong());
+            cancelledRunning.put(kind, new AtomicLong());
+        }
+        limits.forEach((kind, limit) -> {
+            if (limit > 0) {
+                this.limits.put(kind, limit);
+                this.permits.put(kind, new Semaphore(limit));
+            }
+        });
+    }
+
+    /**
+     * Uncapped executor on the common pool
+     * Used when adapters and services are constructed outside Spring (e.g. unit tests)
+     */
+    public static BlockingIoExecutor commonPool() {
+        return COMMON_POOL;
+    }
+
+    /**
+     * Run a blocking task asynchronously, holding a permit of the given kind while it runs
+     * @param kind Category of I/O the task performs
+     * @param task Blocking task
+     * @return Future completed with the task's result; cancelling it or timing it out stops the task
+     */
+    public <T> CompletableFuture<T> supplyAsync(IoKind kind, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // Whoever flips this first wins: the worker starting the task, or a cancellation
+        AtomicBoolean claimed = new AtomicBoolean();
+        AtomicBoolean finished = new AtomicBoolean();
+
+        Future<?> worker = executor.submit(() -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                T value = call(kind, task);
+                finished.set(true);
+                result.complete(value);
+            } catch (Throwable e) {
+                finished.set(true);
+                result.completeExceptionally(e);
+            }
+        });
+
+        // Failed from outside (cancel, orTimeout) before the task finished: stop the task
+        result.whenComplete((value, error) -> {
+            if (error == null || finished.get()) {
+                return;
+            }
+            if (claimed.compareAndSet(false, true)) {
+                cancelledQueued.get(kind).incrementAndGet();
+            } else {
+                cancelledRunning.get(kind).incrementAndGet();
+                worker.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Run blocking tasks in parallel and wait until all of them have finished
+     * Tasks no worker has picked up yet are run on the calling thread, so a caller that is itself
+     * running on this executor cannot deadlock waiting for a free thread.
+     * @param kind Category of I/O the tasks perform
+     * @param tasks Blocking tasks
+     * @return One completed future per task, in task order
+     */
+    public <T> List<CompletableFuture<T>> forkJoin(IoKind kind, List<Supplier<T>> tasks) {
+        List<CompletableFuture<T>> results = new ArrayList<>(tasks.size());
+        List<AtomicBoolean> claims = new ArrayList<>(tasks.size());
+
+        for (int i = 0; i < tasks.size(); i++) {
+            Supplier<T> task = tasks.get(i);
+            CompletableFuture<T> result = new CompletableFuture<>();
+            AtomicBoolean claimed = new AtomicBoolean();
+            results.add(result);
+            claims.add(claimed);
+            // The last task is always the caller's, so a single task never leaves the calling thread
+            if (i == tasks.size() - 1) {
+                break;
+            }
+            try {
+                executor.execute(() -> runClaimed(kind, task, claimed, result));
+            } catch (RejectedExecutionException e) {
+                // Executor shutting down: the calling thread runs it below
+            }
+        }
+
+        // Caller runs its own task first, then whatever no worker has started yet
+        for (int i = tasks.size() - 1; i >= 0; i--) {
+            runClaimed(kind, tasks.get(i), claims.get(i), results.get(i));
+        }
+
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+            .handle((ignored, error) -> null)
+            .join();
+        return results;
+    }
+
+    /**
+     * Run a blocking task on the calling thread, holding a permit of the given kind
+     * @throws RejectedExecutionException if no permit becomes free within the permit timeout
+     */
+    public <T> T call(IoKind kind, Supplier<T> task) {
+        Semaphore semaphore = permits.get(kind);
+        if (semaphore == null) {
+            return task.get();
+        }
+
+        acquire(kind, semaphore);
+        try {
+            return task.get();
+        } finally {
+            semaphore.release();
+        }
+    }
+
+    /**
+     * Number of calls of the given kind currently holding a permit
+     */
+    public int inFlight(IoKind kind) {
+        Semaphore semaphore = permits.get(kind);
+        return semaphore == null ? 0 : limits.get(kind) - semaphore.availablePermits();
+    }
+
+    /**
+     * Number of calls of the given kind cancelled before they started or while running
+     */
+    public long cancelled(IoKind kind) {
+        return cancelledQueued.get(kind).get() + cancelledRunning.get(kind).get();
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (IoKind kind : permits.keySet()) {
+            Gauge.builder("flightbooking.io.inflight", this, e -> e.inFlight(kind))
+                .description("Blocking external calls currently in flight")
+                .tag("kind", kind.name())
+                .register(registry);
+            Gauge.builder("flightbooking.io.limit", limits, l -> l.get(kind))
+                .description("Concurrency cap for blocking external calls")
+                .tag("kind", kind.name())
+                .register(registry);
+        }
+        for (IoKind kind : IoKind.values()) {
+            FunctionCounter.builder("flightbooking.io.cancelled", cancelledQueued.get(kind), AtomicLong::get)
+                .description("Blocking external calls cancelled before or while running")
+                .tags("kind", kind.name(), "phase", "queued")
+                .register(registry);
+            FunctionCounter.builder("flightbooking.io.cancelled", cancelledRunning.get(kind), AtomicLong::get)
+                .description("Blocking external calls cancelled before or while running")
+                .tags("kind", kind.name(), "phase", "running")
+                .register(registry);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ownsExecutor) {
+            executor.shutdown();
+        }
+    }
+
+    private <T> void runClaimed(IoKind kind, Supplier<T> task, AtomicBoolean claimed, CompletableFuture<T> result) {
+        if (!claimed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            result.complete(call(kind, task));
+        } catch (Throwable e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void acquire(IoKind kind, Semaphore semaphore) {
+        try {
+            if (!semaphore.tryAcquire(permitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("Concurrency cap reached for {} ({} in flight)", kind, limits.get(kind));
+                throw new RejectedExecutionException("Too many concurrent " + kind + " calls");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for " + kind + " permit", e);
+        }
+    }
+
+    private static ExecutorService createExecutor(boolean virtualThreads, int platformPoolSize) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("io-vt-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(platformPoolSize,
+            Thread.ofPlatform().name("io-", 0).daemon(true).factory());
+    }
+}
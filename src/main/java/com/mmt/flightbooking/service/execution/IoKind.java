@@ -0,0 +1,17 @@
+package com.mmt.flightbooking.service.execution;
+
+/**
+ * Categories of blocking external I/O, each with its own concurrency cap
+ */
+public enum IoKind {
+    AIRLINE_SEARCH,
+    AIRLINE_BOOKING,
+    AIRLINE_CANCEL,
+    /** Booking status polls of the background airline sync; capped on their own so they never take booking permits */
+    AIRLINE_STATUS,
+    PAYMENT,
+    /** Whole booking flow offloaded from the servlet thread; uncapped, the calls inside it are capped */
+    BOOKING_FLOW,
+    /** Lanes of background jobs; uncapped, the calls inside them are capped */
+    BACKGROUND
+}
@@ -0,0 +1,104 @@
+package com.mmt.flightbooking.service.execution;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pinning diagnostics for virtual-thread mode
+ * Streams JFR jdk.VirtualThreadPinned events, logs where the carrier thread was pinned
+ * (synchronized blocks, native frames) and counts them so pinning regressions show up in metrics
+ */
+@Component
+public class VirtualThreadPinningMonitor implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.mmt.flightbooking";
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${flightbooking.execution.pinning-diagnostics.enabled:false}")
+    private boolean enabled;
+
+    @Value("${flightbooking.execution.pinning-diagnostics.threshold-ms:20}")
+    private long thresholdMs;
+
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled || !virtualThreads) {
+            return;
+        }
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT)
+            .withThreshold(Duration.ofMillis(thresholdMs))
+            .withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+
+        logger.info("Virtual thread pinning diagnostics enabled (threshold: {} ms)", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public long getPinnedEventCount() {
+        return pinnedEvents.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("flightbooking.virtual-threads.pinned", pinnedEvents, AtomicLong::get)
+            .description("Virtual thread pinning events above the diagnostics threshold")
+            .register(registry);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.incrementAndGet();
+        logger.warn("Virtual thread {} pinned its carrier for {} ms at {}",
+                   event.getThread() != null ? event.getThread().getJavaName() : "unknown",
+                   event.getDuration().toMillis(),
+                   describePinningFrame(event.getStackTrace()));
+    }
+
+    /**
+     * Prefer the first application frame; fall back to the top of the stack
+     */
+    private String describePinningFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        RecordedFrame frame = frames.stream()
+            .filter(f -> f.getMethod().getType().getName().startsWith(APP_PACKAGE))
+            .findFirst()
+            .orElse(frames.get(0));
+
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+            + ":" + frame.getLineNumber();
+    }
+}
@@ -0,0 +1,135 @@
+package com.mmt.flightbooking.service.history;
+
+import com.mmt.flightbooking.dto.BookingTimelineEntry;
+import com.mmt.flightbooking.entity.BookingStatus;
+import com.mmt.flightbooking.entity.BookingStatusEventType;
+import com.mmt.flightbooking.repository.BookingStatusEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Append-only log of booking status changes
+ * Every transition appends an entry in the transaction that makes it, so the log holds exactly
+ * the committed history and the status on the booking row is its latest snapshot. Entries are
+ * buffered per transaction and written as one JDBC batch just before commit; they are inserted
+ * only, never updated, which keeps writes cheap on the partitioned table.
+ */
+@Service
+public class BookingEventLog {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookingEventLog.class);
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO booking_status_events (booking_id, event_type, from_status, to_status, detail, occurred_at) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+    
+    // Column length
+    private static final int MAX_DETAIL_LENGTH = 500;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private BookingStatusEventRepository eventRepository;
+    
+    /**
+     * Append a status change of a booking
+     * Must run inside the transaction that changes the booking
+     * @param bookingId Booking that changed (already saved)
+     * @param eventType What happened
+     * @param from Status before, null for a new booking
+     * @param to Status after
+     * @param detail PNRs, reason, schedule change... (optional)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(Long bookingId, BookingStatusEventType eventType, BookingStatus from, BookingStatus to,
+                       String detail) {
+        buffer(List.of(row(bookingId, eventType, from, to, detail, LocalDateTime.now())));
+    }
+    
+    /**
+     * Append the same status change for many bookings (bulk cancellation, reaper)
+     * Must run inside the transaction that changes the bookings
+     * @return Number of entries appended
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int appendAll(Collection<Long> bookingIds, BookingStatusEventType eventType, BookingStatus from,
+                         BookingStatus to, String detail) {
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        buffer(bookingIds.stream().map(id -> row(id, eventType, from, to, detail, now)).toList());
+        return bookingIds.size();
+    }
+    
+    /**
+     * Status history of a booking, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<BookingTimelineEntry> getTimeline(Long bookingId) {
+        return eventRepository.findTimeline(bookingId);
+    }
+    
+    private void buffer(List<Object[]> rows) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write(rows);
+            return;
+        }
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.rows.addAll(rows);
+    }
+    
+    private void write(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+        logger.debug("Appended {} booking status events", rows.size());
+    }
+    
+    private static Object[] row(Long bookingId, BookingStatusEventType eventType, BookingStatus from,
+                                BookingStatus to, String detail, LocalDateTime occurredAt) {
+        if (detail != null && detail.length() > MAX_DETAIL_LENGTH) {
+            detail = detail.substring(0, MAX_DETAIL_LENGTH);
+        }
+        return new Object[] {bookingId, eventType.name(), from != null ? from.name() : null,
+                             to != null ? to.name() : null, detail, Timestamp.valueOf(occurredAt)};
+    }
+    
+    /**
+     * Entries appended in the current transaction, flushed together before it commits
+     */
+    private final class PendingEvents implements TransactionSynchronization {
+        
+        private final List<Object[]> rows = new ArrayList<>();
+        
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (!rows.isEmpty()) {
+                write(rows);
+                rows.clear();
+            }
+        }
+        
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(BookingEventLog.this);
+        }
+    }
+}
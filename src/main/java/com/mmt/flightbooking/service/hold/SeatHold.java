@@ -0,0 +1,109 @@
+package com.mmt.flightbooking.service.hold;
+
+import java.time.Instant;
+
+/**
+ * Seats held on one flight for one user, stored in Redis until the hold is booked or expires
+ */
+public class SeatHold {
+    
+    private String holdId;
+    private Long userId;
+    // Search-result id, only for looking the flight up in the search cache
+    private String flightId;
+    // The physical flight (airline, number, date); seats are counted per flight key
+    private String flightKey;
+    private String airlineCode;
+    private String flightNumber;
+    private int passengerCount;
+    private String airlineHoldReference;
+    private Instant createdAt;
+    private Instant expiresAt;
+    
+    public SeatHold() {}
+    
+    public boolean isActiveAt(Instant now) {
+        return expiresAt != null && expiresAt.isAfter(now);
+    }
+    
+    // Getters and Setters
+    public String getHoldId() {
+        return holdId;
+    }
+    
+    public void setHoldId(String holdId) {
+        this.holdId = holdId;
+    }
+    
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
+    public String getFlightId() {
+        return flightId;
+    }
+    
+    public void setFlightId(String flightId) {
+        this.flightId = flightId;
+    }
+    
+    public String getFlightKey() {
+        return flightKey;
+    }
+    
+    public void setFlightKey(String flightKey) {
+        this.flightKey = flightKey;
+    }
+    
+    public String getAirlineCode() {
+        return airlineCode;
+    }
+    
+    public void setAirlineCode(String airlineCode) {
+        this.airlineCode = airlineCode;
+    }
+    
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+    
+    public void setFlightNumber(String flightNumber) {
+        this.flightNumber = flightNumber;
+    }
+    
+    public int getPassengerCount() {
+        return passengerCount;
+    }
+    
+    public void setPassengerCount(int passengerCount) {
+        this.passengerCount = passengerCount;
+    }
+    
+    public String getAirlineHoldReference() {
+        return airlineHoldReference;
+    }
+    
+    public void setAirlineHoldReference(String airlineHoldReference) {
+        this.airlineHoldReference = airlineHoldReference;
+    }
+    
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+    
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
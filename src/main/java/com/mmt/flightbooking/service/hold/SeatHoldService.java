@@ -0,0 +1,383 @@
+package com.mmt.flightbooking.service.hold;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmt.flightbooking.dto.FlightSearchResult;
+import com.mmt.flightbooking.entity.User;
+import com.mmt.flightbooking.service.FlightSearchCacheService;
+import com.mmt.flightbooking.service.airline.AirlineBookingService;
+import com.mmt.flightbooking.service.airline.adapter.AirlineHoldResponse;
+import com.mmt.flightbooking.service.id.IdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Temporary seat holds between search and booking
+ * Seats held per flight live in Redis: a sorted set of hold ids scored by expiry and a hash of
+ * seats per hold. A Lua script prunes expired holds, checks the flight's seats and adds the hold
+ * in one atomic step, so concurrent holds on the same flight (e.g. a flash sale) never wait on a
+ * lock and can never oversell, whichever node they land on.
+ * Flights are keyed by airline, flight number and date, not by the search-result flight id: every
+ * search mints new flight ids, and customers who searched separately must still see each other's holds.
+ * Expired holds stop counting as soon as their expiry passes; the airline side is released by
+ * {@link #releaseExpiredHolds()}, which any node may run.
+ */
+@Service
+public class SeatHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatHoldService.class);
+
+    private static final String HOLD_KEY_PREFIX = "seat:hold:";
+    private static final String FLIGHT_KEY_PREFIX = "seat:flight:";
+    // Every hold by expiry, across flights; drives airline reconciliation
+    private static final String EXPIRY_INDEX_KEY = "seat:hold:expiries";
+    // Records outlive the hold so the reconciler can still release the airline side
+    private static final Duration RECORD_GRACE = Duration.ofMinutes(10);
+
+    /**
+     * KEYS: flight expiries (zset holdId → expiry ms), flight seats (hash holdId → seats)
+     * ARGV: holdId, seats, capacity, now ms, expiry ms
+     * Returns the seats left to hold afterwards, or -1 if the hold does not fit
+     */
+    private static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+        "local expired = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[4]) " +
+        "for _, id in ipairs(expired) do " +
+        "  redis.call('ZREM', KEYS[1], id) " +
+        "  redis.call('HDEL', KEYS[2], id) " +
+        "end " +
+        "local held = 0 " +
+        "for _, seats in ipairs(redis.call('HVALS', KEYS[2])) do held = held + tonumber(seats) end " +
+        "local left = tonumber(ARGV[3]) - held - tonumber(ARGV[2]) " +
+        "if left < 0 then return -1 end " +
+        "redis.call('ZADD', KEYS[1], ARGV[5], ARGV[1]) " +
+        "redis.call('HSET', KEYS[2], ARGV[1], ARGV[2]) " +
+        "local latest = redis.call('ZRANGE', KEYS[1], -1, -1, 'WITHSCORES')[2] " +
+        "redis.call('PEXPIREAT', KEYS[1], latest) " +
+        "redis.call('PEXPIREAT', KEYS[2], latest) " +
+        "return left",
+        Long.class);
+
+    /**
+     * KEYS: flight expiries, flight seats; ARGV: holdId
+     * Returns 1 if the hold was still counted against the flight
+     */
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+        "redis.call('HDEL', KEYS[2], ARGV[1]) " +
+        "return redis.call('ZREM', KEYS[1], ARGV[1])",
+        Long.class);
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FlightSearchCacheService searchCacheService;
+
+    @Autowired
+    private AirlineBookingService airlineBookingService;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Value("${flightbooking.seat-hold.ttl-seconds:600}")
+    private long holdTtlSeconds = 600;
+
+    @Value("${flightbooking.seat-hold.reconcile-batch-size:100}")
+    private int reconcileBatchSize = 100;
+
+    // Outlasts the airline booking calls; a node dying mid-booking frees the seats after this
+    @Value("${flightbooking.seat-hold.booking-reservation-seconds:120}")
+    private long bookingReservationSeconds = 120;
+
+    /**
+     * Hold seats on a flight from the search results
+     * @param user Holding user
+     * @param flightId Flight id from search results
+     * @param passengerCount Seats to hold
+     * @return The active hold
+     * @throws IllegalArgumentException if the flight is not in the search results
+     * @throws SeatHoldUnavailableException if the seats cannot be held
+     */
+    public SeatHold createHold(User user, String flightId, int passengerCount) {
+        FlightSearchResult flight = searchCacheService.getFlightFromCache(flightId);
+        if (flight == null) {
+            throw new IllegalArgumentException("Flight not found in search results. Please search again.");
+        }
+
+        Instant now = Instant.now();
+        SeatHold hold = new SeatHold();
+        hold.setHoldId(idGenerator.nextKey());
+        hold.setUserId(user.getId());
+        hold.setFlightId(flightId);
+        hold.setFlightKey(flightKey(flight));
+        hold.setAirlineCode(flight.getAirlineCode());
+        hold.setFlightNumber(flight.getFlightNumber());
+        hold.setPassengerCount(passengerCount);
+        hold.setCreatedAt(now);
+        hold.setExpiresAt(now.plusSeconds(holdTtlSeconds));
+
+        // 1. Count the seats against the flight (atomic, no lock)
+        int capacity = flight.getAvailableSeats() != null ? flight.getAvailableSeats() : Integer.MAX_VALUE;
+        Long left = stringRedisTemplate.execute(RESERVE_SCRIPT, seatKeys(hold),
+            hold.getHoldId(), String.valueOf(passengerCount), String.valueOf(capacity),
+            String.valueOf(now.toEpochMilli()), String.valueOf(hold.getExpiresAt().toEpochMilli()));
+        if (left == null || left < 0) {
+            logger.info("No seats left to hold on {} for {} passengers", flight.getFlightNumber(), passengerCount);
+            throw new SeatHoldUnavailableException("Not enough seats left on " + flight.getFlightNumber());
+        }
+        stringRedisTemplate.opsForZSet().add(EXPIRY_INDEX_KEY, hold.getHoldId(), hold.getExpiresAt().toEpochMilli());
+
+        // 2. Hold the same seats with the airline
+        AirlineHoldResponse airlineHold = airlineBookingService.holdSeatsWithAirline(
+            hold.getHoldId(), flight, passengerCount, hold.getExpiresAt());
+        if (!airlineHold.isSuccess()) {
+            stringRedisTemplate.opsForZSet().remove(EXPIRY_INDEX_KEY, hold.getHoldId());
+            releaseSeats(hold);
+            throw new SeatHoldUnavailableException("Airline could not hold seats: " + airlineHold.getMessage());
+        }
+        hold.setAirlineHoldReference(airlineHold.getHoldReference());
+
+        redisTemplate.opsForValue().set(holdKey(hold.getHoldId()), hold,
+            Duration.ofSeconds(holdTtlSeconds).plus(RECORD_GRACE));
+        logger.info("Held {} seats on {} until {} (hold {}, {} left to hold)",
+                   passengerCount, flight.getFlightNumber(), hold.getExpiresAt(), hold.getHoldId(), left);
+        return hold;
+    }
+
+    /**
+     * Get an active hold of the user
+     * @return The hold, or null if it does not exist, has expired or belongs to someone else
+     */
+    public SeatHold getActiveHold(String holdId, User user) {
+        SeatHold hold = read(holdId);
+        if (hold == null || !hold.getUserId().equals(user.getId()) || !hold.isActiveAt(Instant.now())) {
+            return null;
+        }
+        return hold;
+    }
+
+    /**
+     * Release a hold before it expires
+     * @return The released hold, or null if the user has no such active hold
+     */
+    public SeatHold releaseHold(String holdId, User user) {
+        SeatHold hold = getActiveHold(holdId, user);
+        if (hold == null) {
+            return null;
+        }
+
+        release(hold.getHoldId());
+        return hold;
+    }
+
+    /**
+     * Holds a booking is made against
+     * @param holdIds Hold ids sent with the booking (may be null or empty)
+     * @param user Booking user
+     * @param flightIds Flights being booked
+     * @param passengerCount Passengers being booked
+     * @return The active holds
+     * @throws IllegalArgumentException if a hold has expired or does not match the booking
+     */
+    public List<SeatHold> requireActiveHolds(Collection<String> holdIds, User user,
+                                             Collection<String> flightIds, int passengerCount) {
+        List<SeatHold> holds = new ArrayList<>();
+        if (holdIds == null) {
+            return holds;
+        }
+        for (String holdId : holdIds) {
+            SeatHold hold = getActiveHold(holdId, user);
+            if (hold == null) {
+                throw new IllegalArgumentException("Seat hold " + holdId + " has expired. Please hold the seats again.");
+            }
+            if (!flightIds.contains(hold.getFlightId()) || hold.getPassengerCount() != passengerCount) {
+                throw new IllegalArgumentException("Seat hold " + holdId + " does not match the booked flights");
+            }
+            holds.add(hold);
+        }
+        return holds;
+    }
+
+    /**
+     * Count a booking's seats on the flights it holds none on, as a hold would
+     * Goes through the same script as {@link #createHold}, so a booking without a hold cannot take
+     * seats other customers hold. Nothing is held with the airline: the reservation only lives in
+     * Redis until {@link #releaseReservations} or its short expiry.
+     * @param flightIds Flights being booked
+     * @param flights Their details from search results, in the same order
+     * @param holds The booking's active holds
+     * @param passengerCount Passengers being booked
+     * @return The reservations made, one per flight without a hold
+     * @throws SeatHoldUnavailableException if a flight has too few seats left; nothing stays reserved
+     */
+    public List<SeatHold> reserveUnheldSeats(List<String> flightIds, List<FlightSearchResult> flights,
+                                             Collection<SeatHold> holds, int passengerCount) {
+        Set<String> held = new HashSet<>();
+        for (SeatHold hold : holds) {
+            held.add(countedUnder(hold));
+        }
+
+        Instant now = Instant.now();
+        List<SeatHold> reservations = new ArrayList<>();
+        for (int i = 0; i < flightIds.size(); i++) {
+            FlightSearchResult flight = flights.get(i);
+            if (held.contains(flightKey(flight))) {
+                continue;
+            }
+            SeatHold reservation = new SeatHold();
+            reservation.setHoldId(idGenerator.nextKey());
+            reservation.setFlightId(flightIds.get(i));
+            reservation.setFlightKey(flightKey(flight));
+            reservation.setAirlineCode(flight.getAirlineCode());
+            reservation.setFlightNumber(flight.getFlightNumber());
+            reservation.setPassengerCount(passengerCount);
+            reservation.setCreatedAt(now);
+            reservation.setExpiresAt(now.plusSeconds(bookingReservationSeconds));
+
+            int capacity = flight.getAvailableSeats() != null ? flight.getAvailableSeats() : Integer.MAX_VALUE;
+            Long left = stringRedisTemplate.execute(RESERVE_SCRIPT, seatKeys(reservation),
+                reservation.getHoldId(), String.valueOf(passengerCount), String.valueOf(capacity),
+                String.valueOf(now.toEpochMilli()), String.valueOf(reservation.getExpiresAt().toEpochMilli()));
+            if (left == null || left < 0) {
+                releaseReservations(reservations);
+                logger.info("No seats left on {} for a booking of {} passengers", flight.getFlightNumber(), passengerCount);
+                throw new SeatHoldUnavailableException("Not enough seats left on " + flight.getFlightNumber());
+            }
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+
+    /**
+     * The booking the reservations were made for is settled: stop counting their seats
+     */
+    public void releaseReservations(List<SeatHold> reservations) {
+        for (SeatHold reservation : reservations) {
+            releaseSeats(reservation);
+        }
+    }
+
+    /**
+     * The holds were turned into a booking: stop counting their seats and let the reconciler
+     * release the airline side right away
+     */
+    public void consumeHolds(List<SeatHold> holds) {
+        Instant now = Instant.now();
+        for (SeatHold hold : holds) {
+            releaseSeats(hold);
+            // No longer active, but kept for the reconciler
+            hold.setExpiresAt(now);
+            redisTemplate.opsForValue().set(holdKey(hold.getHoldId()), hold, RECORD_GRACE);
+            stringRedisTemplate.opsForZSet().add(EXPIRY_INDEX_KEY, hold.getHoldId(), 0);
+        }
+    }
+
+    /**
+     * Release the airline side of expired (and consumed) holds
+     * Each hold is claimed by removing it from the expiry index, so several nodes can run this
+     * concurrently and each hold is released once.
+     * @return Number of holds released by this call
+     */
+    @Scheduled(fixedDelayString = "${flightbooking.seat-hold.reconcile-interval-ms:5000}")
+    public int releaseExpiredHolds() {
+        Set<String> due = stringRedisTemplate.opsForZSet()
+            .rangeByScore(EXPIRY_INDEX_KEY, 0, Instant.now().toEpochMilli(), 0, reconcileBatchSize);
+        if (due == null || due.isEmpty()) {
+            return 0;
+        }
+
+        int released = 0;
+        for (String holdId : due) {
+            try {
+                if (release(holdId)) {
+                    released++;
+                }
+            } catch (Exception e) {
+                // Claim is gone; the airline drops the hold at its own expiry anyway
+                logger.warn("Could not release seat hold {} with airline", holdId, e);
+            }
+        }
+        logger.debug("Released {} expired seat holds", released);
+        return released;
+    }
+
+    /**
+     * Release a hold everywhere, if this caller wins the claim on it
+     */
+    private boolean release(String holdId) {
+        Long claimed = stringRedisTemplate.opsForZSet().remove(EXPIRY_INDEX_KEY, holdId);
+        if (claimed == null || claimed == 0) {
+            return false;
+        }
+
+        SeatHold hold = read(holdId);
+        if (hold == null) {
+            return false;
+        }
+        releaseSeats(hold);
+        if (hold.getAirlineHoldReference() != null
+                && !airlineBookingService.releaseHoldWithAirline(hold.getAirlineCode(), hold.getAirlineHoldReference())) {
+            logger.warn("Airline {} did not release hold {}; it lapses at {}",
+                       hold.getAirlineCode(), hold.getAirlineHoldReference(), hold.getExpiresAt());
+        }
+        redisTemplate.delete(holdKey(holdId));
+        return true;
+    }
+
+    private void releaseSeats(SeatHold hold) {
+        stringRedisTemplate.execute(RELEASE_SCRIPT, seatKeys(hold), hold.getHoldId());
+    }
+
+    private SeatHold read(String holdId) {
+        Object cached = redisTemplate.opsForValue().get(holdKey(holdId));
+        if (cached == null) {
+            return null;
+        }
+        if (cached instanceof SeatHold hold) {
+            return hold;
+        }
+        return objectMapper.convertValue(cached, SeatHold.class);
+    }
+
+    private static String holdKey(String holdId) {
+        return HOLD_KEY_PREFIX + holdId;
+    }
+
+    /**
+     * Identity of the physical flight, the same across searches
+     */
+    static String flightKey(FlightSearchResult flight) {
+        return flight.getAirlineCode() + ":" + flight.getFlightNumber() + ":" + flight.getDate();
+    }
+
+    private static String countedUnder(SeatHold hold) {
+        // Holds made before flight keys were recorded were counted under their flight id
+        return hold.getFlightKey() != null ? hold.getFlightKey() : hold.getFlightId();
+    }
+
+    private static List<String> seatKeys(SeatHold hold) {
+        // Hash tag keeps both keys of a flight in one cluster slot, as the scripts need
+        String prefix = FLIGHT_KEY_PREFIX + "{" + countedUnder(hold) + "}";
+        return List.of(prefix + ":expiries", prefix + ":seats");
+    }
+}
@@ -0,0 +1,11 @@
+package com.mmt.flightbooking.service.hold;
+
+/**
+ * Seats cannot be held: the flight has no seats left to hold, or the airline refused the hold
+ */
+public class SeatHoldUnavailableException extends RuntimeException {
+    
+    public SeatHoldUnavailableException(String message) {
+        super(message);
+    }
+}
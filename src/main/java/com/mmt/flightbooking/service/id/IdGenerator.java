@@ -0,0 +1,156 @@
+package com.mmt.flightbooking.service.id;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered, node-aware 63-bit IDs (Snowflake layout) for everything we mint
+ * Bits: 41 milliseconds since 2024-01-01 | 10 node | 12 sequence. IDs from one node strictly
+ * increase: the sequence runs within a millisecond and borrows the next one when it overflows, and
+ * a clock stepping back is ridden out on the last timestamp instead of waiting. Generation is a
+ * single CAS on an AtomicLong, with no lock and no SecureRandom.
+ * <p>
+ * IDs from different nodes never collide as long as each node has its own node id
+ * (flightbooking.id.node-id). Startup fails without one unless flightbooking.id.allow-random-node
+ * is set (the dev profile), which picks a random node id instead.
+ */
+@Component
+public class IdGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdGenerator.class);
+
+    static final long EPOCH_MS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // Crockford base32: no I, L, O, U; ascending in ASCII, so fixed-width keys sort like the ids
+    private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    // 63 bits in 5-bit digits
+    static final int KEY_LENGTH = 13;
+    private static final char[] BASE36 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final int PNR_LENGTH = 6;
+    private static final long PNR_RANGE = 2_176_782_336L;  // 36^6
+    // Coprime with 36, so multiplying permutes the PNR range
+    private static final long PNR_MULTIPLIER = 1_000_003L;
+
+    private static final IdGenerator STANDALONE = new IdGenerator(randomNodeId(), System::currentTimeMillis);
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    // (milliseconds since epoch << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    @Autowired
+    public IdGenerator(@Value("${flightbooking.id.node-id:-1}") int nodeId,
+                       @Value("${flightbooking.id.allow-random-node:false}") boolean allowRandomNode) {
+        this(resolveNodeId(nodeId, allowRandomNode), System::currentTimeMillis);
+        if (nodeId < 0) {
+            logger.warn("flightbooking.id.node-id not set, using random node id {}; set a distinct id per node "
+                       + "to rule out collisions", this.nodeId);
+        } else {
+            logger.info("ID generator node id {}", nodeId);
+        }
+    }
+
+    IdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    /**
+     * Generator with a random node id, for unit tests that construct services without Spring
+     * Application code always gets the Spring-managed generator.
+     */
+    public static IdGenerator standalone() {
+        return STANDALONE;
+    }
+
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH_MS) << SEQUENCE_BITS;
+        long next = last.updateAndGet(previous -> Math.max(now, previous + 1));
+        return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+            | nodeId << SEQUENCE_BITS
+            | (next & SEQUENCE_MASK);
+    }
+
+    /**
+     * Next id as a 13-character Crockford base32 key
+     * Keys sort in generation order, so they append to the right of a B-tree index like the ids do.
+     */
+    public String nextKey() {
+        return encodeKey(nextId());
+    }
+
+    /**
+     * Next id as a key behind a prefix, e.g. booking references (MMT…) and gateway transaction ids (TXN_…)
+     */
+    public String nextReference(String prefix) {
+        return prefix + nextKey();
+    }
+
+    /**
+     * Airline-style PNR: airline code and six letters or digits
+     * Six characters cannot hold a time-ordered id: its low digits are permuted into them, so PNRs
+     * minted in the same millisecond never collide and consecutive ones look unrelated. Only used
+     * where an airline did not return a PNR of its own.
+     */
+    public String nextPnr(String airlineCode) {
+        long value = (nextId() % PNR_RANGE) * PNR_MULTIPLIER % PNR_RANGE;
+        char[] pnr = new char[PNR_LENGTH];
+        for (int i = PNR_LENGTH - 1; i >= 0; i--) {
+            pnr[i] = BASE36[(int) (value % 36)];
+            value /= 36;
+        }
+        return airlineCode + new String(pnr);
+    }
+
+    static String encodeKey(long id) {
+        char[] key = new char[KEY_LENGTH];
+        for (int i = KEY_LENGTH - 1; i >= 0; i--) {
+            key[i] = BASE32[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(key);
+    }
+
+    /**
+     * Time the id was generated at
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MS);
+    }
+
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+
+    private static int resolveNodeId(int nodeId, boolean allowRandomNode) {
+        if (nodeId >= 0) {
+            return nodeId;
+        }
+        if (!allowRandomNode) {
+            // Two nodes drawing the same random id would mint colliding references
+            throw new IllegalStateException(
+                "Set flightbooking.id.node-id (ID_NODE_ID) to a node id between 0 and " + MAX_NODE_ID
+                + " that no other node uses");
+        }
+        return randomNodeId();
+    }
+
+    private static int randomNodeId() {
+        return ThreadLocalRandom.current().nextInt(MAX_NODE_ID + 1);
+    }
+}
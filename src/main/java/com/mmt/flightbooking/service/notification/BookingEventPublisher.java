@@ -1,13 +1,16 @@
 package com.mmt.flightbooking.service.notification;
 
 import com.mmt.flightbooking.entity.Booking;
+import com.mmt.flightbooking.entity.BookingEventType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Publisher for booking events using Observer Pattern
@@ -83,6 +86,41 @@ public class BookingEventPublisher {
         });
     }
     
+    /**
+     * Deliver an event on the calling thread to the listeners that have not handled it yet
+     * Used by the outbox relay, which retries an event only for the listeners that failed, so a
+     * failing listener does not make the others (e.g. the customer's email) run again.
+     * @param eventType Event type
+     * @param booking Booking the event is about
+     * @param delivered Names of listeners that already handled the event; they are skipped, and
+     *                  listeners that succeed in this call are added
+     * @return Names of listeners that failed (empty if all succeeded)
+     */
+    public List<String> dispatch(BookingEventType eventType, Booking booking, Set<String> delivered) {
+        logger.info("Dispatching {} event for: {}", eventType, booking.getBookingReference());
+        
+        List<String> failed = new ArrayList<>();
+        notifyListeners(listener -> {
+            if (delivered.contains(listener.getListenerName())) {
+                return;
+            }
+            try {
+                switch (eventType) {
+                    case BOOKING_CONFIRMED -> listener.onBookingConfirmed(booking);
+                    case PAYMENT_CONFIRMED -> listener.onPaymentConfirmed(booking);
+                    case BOOKING_CANCELLED -> listener.onBookingCancelled(booking);
+                    case BOOKING_DISRUPTED -> listener.onBookingDisrupted(booking);
+                }
+                delivered.add(listener.getListenerName());
+            } catch (Exception e) {
+                logger.error("Error in listener {} while processing {}", 
+                           listener.getListenerName(), eventType, e);
+                failed.add(listener.getListenerName());
+            }
+        });
+        return failed;
+    }
+    
     /**
      * Add a new listener dynamically (allows runtime extension)
      * @param listener Notification listener to add
@@ -26,6 +26,15 @@ public interface NotificationListener {
      */
     void onBookingCancelled(Booking booking);
     
+    /**
+     * Handle cancellation by a bulk disruption job
+     * The airline bookings are already cancelled; by default handled like any cancellation
+     * @param booking Booking details
+     */
+    default void onBookingDisrupted(Booking booking) {
+        onBookingCancelled(booking);
+    }
+    
     /**
      * Get listener name for logging
      * @return Listener name
@@ -1,6 +1,8 @@
 package com.mmt.flightbooking.service.notification;
 
 import com.mmt.flightbooking.entity.Booking;
+import com.mmt.flightbooking.entity.BookingEventType;
+import com.mmt.flightbooking.service.outbox.OutboxService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,7 +10,8 @@ import org.springframework.stereotype.Service;
 
 /**
  * Notification Service using Observer Pattern
- * Delegates notification to BookingEventPublisher which notifies all registered listeners
+ * Records booking events in the outbox; the outbox relay delivers them to all registered
+ * listeners once the booking change has committed. Must be called inside that transaction.
  */
 @Service
 public class NotificationService {
@@ -16,7 +19,7 @@ public class NotificationService {
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
     
     @Autowired
-    private BookingEventPublisher eventPublisher;
+    private OutboxService outboxService;
     
     /**
      * Send booking confirmation notifications to all channels
@@ -25,7 +28,7 @@ public class NotificationService {
     public void sendBookingConfirmation(Booking booking) {
         logger.info("Triggering booking confirmation notifications for: {}", 
                    booking.getBookingReference());
-        eventPublisher.publishBookingConfirmed(booking);
+        outboxService.record(booking, BookingEventType.BOOKING_CONFIRMED);
     }
     
     /**
@@ -35,7 +38,7 @@ public class NotificationService {
     public void sendPaymentConfirmation(Booking booking) {
         logger.info("Triggering payment confirmation notifications for: {}", 
                    booking.getBookingReference());
-        eventPublisher.publishPaymentConfirmed(booking);
+        outboxService.record(booking, BookingEventType.PAYMENT_CONFIRMED);
     }
     
     /**
@@ -45,6 +48,6 @@ public class NotificationService {
     public void sendBookingCancellation(Booking booking) {
         logger.info("Triggering booking cancellation notifications for: {}", 
                    booking.getBookingReference());
-        eventPublisher.publishBookingCancelled(booking);
+        outboxService.record(booking, BookingEventType.BOOKING_CANCELLED);
     }
 }
@@ -0,0 +1,195 @@
+package com.mmt.flightbooking.service.outbox;
+
+import com.mmt.flightbooking.entity.Booking;
+import com.mmt.flightbooking.entity.BookingEventType;
+import com.mmt.flightbooking.entity.OutboxEvent;
+import com.mmt.flightbooking.entity.OutboxStatus;
+import com.mmt.flightbooking.repository.BookingRepository;
+import com.mmt.flightbooking.repository.OutboxEventRepository;
+import com.mmt.flightbooking.service.notification.BookingEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relays outbox events to {@link BookingEventPublisher} listeners
+ * Each poll claims a batch with FOR UPDATE SKIP LOCKED in a short transaction (so several nodes
+ * can relay concurrently without waiting on each other), then dispatches outside the transaction.
+ * A claimed event is leased; if the node dies mid-batch the event becomes due again when the
+ * lease expires. Delivery is tracked per listener: a retry only goes to the listeners that have not
+ * handled the event yet. It is still at-least-once (a node can die between a listener succeeding and
+ * the row being saved), so listeners must tolerate duplicates.
+ */
+@Component
+public class OutboxRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final long MAX_BACKOFF_SECONDS = 300;
+    
+    private final OutboxEventRepository outboxRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry registry;
+    private final Map<BookingEventType, AtomicLong> oldestPendingSeconds = new EnumMap<>(BookingEventType.class);
+    
+    @Value("${flightbooking.outbox.enabled:true}")
+    private boolean enabled = true;
+    
+    @Value("${flightbooking.outbox.batch-size:100}")
+    private int batchSize = 100;
+    
+    @Value("${flightbooking.outbox.lease-seconds:60}")
+    private long leaseSeconds = 60;
+    
+    @Value("${flightbooking.outbox.max-attempts:10}")
+    private int maxAttempts = 10;
+    
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxRepository, BookingRepository bookingRepository,
+                       BookingEventPublisher eventPublisher, TransactionTemplate transactionTemplate,
+                       MeterRegistry registry) {
+        this.outboxRepository = outboxRepository;
+        this.bookingRepository = bookingRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.registry = registry;
+        
+        for (BookingEventType type : BookingEventType.values()) {
+            AtomicLong age = new AtomicLong();
+            oldestPendingSeconds.put(type, age);
+            Gauge.builder("flightbooking.outbox.oldest.pending.age", age, AtomicLong::get)
+                .description("Age of the oldest undelivered outbox event")
+                .tag("type", type.name())
+                .baseUnit("seconds")
+                .register(registry);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${flightbooking.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        
+        try {
+            // Keep draining while batches come back full
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+            
+            updatePendingAges();
+        } catch (Exception e) {
+            logger.error("Outbox relay poll failed", e);
+        }
+    }
+    
+    /**
+     * Claim and dispatch one batch of due events
+     * @return Number of events claimed
+     */
+    public int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> due = outboxRepository.lockDueBatch(now, batchSize);
+            if (!due.isEmpty()) {
+                outboxRepository.claim(due.stream().map(OutboxEvent::getId).toList(),
+                                       now.plusSeconds(leaseSeconds));
+            }
+            return due;
+        });
+        
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        
+        logger.debug("Relaying {} outbox events", batch.size());
+        batch.forEach(this::dispatch);
+        return batch.size();
+    }
+    
+    private void dispatch(OutboxEvent event) {
+        try {
+            Booking booking = bookingRepository.findWithUserById(event.getBookingId())
+                .orElseThrow(() -> new IllegalStateException("Booking not found: " + event.getBookingId()));
+            
+            Set<String> delivered = event.deliveredListenerNames();
+            List<String> failedListeners = eventPublisher.dispatch(event.getEventType(), booking, delivered);
+            event.markDelivered(delivered);
+            if (!failedListeners.isEmpty()) {
+                throw new IllegalStateException("Listeners failed: " + failedListeners);
+            }
+            
+            event.setStatus(OutboxStatus.PUBLISHED);
+            event.setPublishedAt(LocalDateTime.now());
+            event.setLastError(null);
+            if (event.getCreatedAt() != null) {
+                lagTimer(event.getEventType()).record(Duration.between(event.getCreatedAt(), event.getPublishedAt()));
+            }
+        } catch (Exception e) {
+            int attempts = event.getAttempts() + 1;
+            event.setAttempts(attempts);
+            event.setLastError(truncate(e.getMessage()));
+            
+            if (attempts >= maxAttempts) {
+                event.setStatus(OutboxStatus.FAILED);
+                logger.error("Giving up on {} outbox event {} for booking {} after {} attempts",
+                            event.getEventType(), event.getId(), event.getBookingId(), attempts, e);
+            } else {
+                long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 16));
+                event.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+                logger.warn("{} outbox event {} failed (attempt {}), retrying in {} s: {}",
+                           event.getEventType(), event.getId(), attempts, backoff, e.getMessage());
+            }
+            Counter.builder("flightbooking.outbox.failures")
+                .description("Outbox event delivery failures")
+                .tag("type", event.getEventType().name())
+                .register(registry)
+                .increment();
+        }
+        
+        transactionTemplate.executeWithoutResult(status -> outboxRepository.save(event));
+    }
+    
+    private void updatePendingAges() {
+        List<Object[]> oldest = outboxRepository.findOldestPendingByType();
+        oldestPendingSeconds.values().forEach(age -> age.set(0));
+        for (Object[] row : oldest == null ? Collections.<Object[]>emptyList() : oldest) {
+            BookingEventType type = (BookingEventType) row[0];
+            LocalDateTime createdAt = (LocalDateTime) row[1];
+            oldestPendingSeconds.get(type).set(Duration.between(createdAt, LocalDateTime.now()).toSeconds());
+        }
+    }
+    
+    private Timer lagTimer(BookingEventType type) {
+        return Timer.builder("flightbooking.outbox.lag")
+            .description("Time from booking change commit to event delivery")
+            .tag("type", type.name())
+            .register(registry);
+    }
+    
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+}
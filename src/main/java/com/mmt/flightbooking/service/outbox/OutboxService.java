@@ -0,0 +1,85 @@
+package com.mmt.flightbooking.service.outbox;
+
+import com.mmt.flightbooking.entity.Booking;
+import com.mmt.flightbooking.entity.BookingEventType;
+import com.mmt.flightbooking.entity.OutboxEvent;
+import com.mmt.flightbooking.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Transactional outbox for booking events
+ * Events are stored in the same transaction as the booking change, so an event exists
+ * if and only if the change committed. {@link OutboxRelay} delivers them to listeners.
+ */
+@Service
+public class OutboxService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+    
+    private static final String INSERT_PENDING_SQL =
+        "INSERT INTO booking_outbox (booking_id, event_type, status, attempts, next_attempt_at, created_at) " +
+        "VALUES (?, ?, 'PENDING', 0, ?, ?)";
+    
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    /**
+     * Record a booking event
+     * Must run inside the transaction that changes the booking
+     * @param booking Booking the event is about (already saved)
+     * @param eventType Event type
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent record(Booking booking, BookingEventType eventType) {
+        OutboxEvent event = outboxRepository.save(new OutboxEvent(booking.getId(), eventType));
+        logger.debug("Recorded {} outbox event for booking {}", eventType, booking.getBookingReference());
+        return event;
+    }
+    
+    /**
+     * Record a booking event for a booking changed without loading it (e.g. a JDBC batch update)
+     * Must run inside the transaction that changes the booking
+     * @param bookingId Booking the event is about
+     * @param eventType Event type
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent record(Long bookingId, BookingEventType eventType) {
+        OutboxEvent event = outboxRepository.save(new OutboxEvent(bookingId, eventType));
+        logger.debug("Recorded {} outbox event for booking {}", eventType, bookingId);
+        return event;
+    }
+    
+    /**
+     * Record the same event for many bookings as one JDBC batch insert
+     * Outbox ids are identity columns, so saving entities would insert row by row.
+     * Must run inside the transaction that changes the bookings
+     * @param bookingIds Bookings the event is about
+     * @param eventType Event type
+     * @return Number of events recorded
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int recordAll(Collection<Long> bookingIds, BookingEventType eventType) {
+        if (bookingIds.isEmpty()) {
+            return 0;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_PENDING_SQL, bookingIds.stream()
+            .map(id -> new Object[] {id, eventType.name(), now, now})
+            .toList());
+        logger.debug("Recorded {} {} outbox events", bookingIds.size(), eventType);
+        return bookingIds.size();
+    }
+}
@@ -1,12 +1,12 @@
 package com.mmt.flightbooking.service.payment;
 
 import com.mmt.flightbooking.dto.PaymentRequest;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
-
 /**
  * Strategy for processing Credit/Debit Card payments
  */
@@ -16,6 +16,13 @@ public class CardPaymentStrategy implements PaymentStrategy {
     private static final Logger logger = LoggerFactory.getLogger(CardPaymentStrategy.class);
     private static final String GATEWAY_NAME = "Razorpay";
     
+    private final IdGenerator idGenerator;
+    
+    @Autowired
+    public CardPaymentStrategy(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+    
     @Override
     public PaymentGatewayResponse processPayment(PaymentRequest request) {
         logger.info("Processing card payment for card ending: {}", 
@@ -32,7 +39,7 @@ public class CardPaymentStrategy implements PaymentStrategy {
             boolean success = Math.random() > 0.1;
             
             if (success) {
-                String transactionId = "TXN_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+                String transactionId = idGenerator.nextReference("TXN_");
                 logger.info("Card payment successful. Transaction ID: {}", transactionId);
                 return new PaymentGatewayResponse(true, "Card payment successful", 
                                                 transactionId, GATEWAY_NAME);
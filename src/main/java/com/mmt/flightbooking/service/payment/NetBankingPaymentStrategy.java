@@ -1,12 +1,12 @@
 package com.mmt.flightbooking.service.payment;
 
 import com.mmt.flightbooking.dto.PaymentRequest;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
-
 /**
  * Strategy for processing Net Banking payments
  */
@@ -16,6 +16,13 @@ public class NetBankingPaymentStrategy implements PaymentStrategy {
     private static final Logger logger = LoggerFactory.getLogger(NetBankingPaymentStrategy.class);
     private static final String GATEWAY_NAME = "Razorpay";
     
+    private final IdGenerator idGenerator;
+    
+    @Autowired
+    public NetBankingPaymentStrategy(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+    
     @Override
     public PaymentGatewayResponse processPayment(PaymentRequest request) {
         logger.info("Processing net banking payment for bank: {}", request.getBankCode());
@@ -31,7 +38,7 @@ public class NetBankingPaymentStrategy implements PaymentStrategy {
             boolean success = Math.random() > 0.08;
             
             if (success) {
-                String transactionId = "NB_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+                String transactionId = idGenerator.nextReference("NB_");
                 logger.info("Net banking payment successful. Transaction ID: {}", transactionId);
                 return new PaymentGatewayResponse(true, "Net banking payment successful", 
                                                 transactionId, GATEWAY_NAME);
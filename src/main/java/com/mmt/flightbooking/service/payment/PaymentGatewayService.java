@@ -1,7 +1,10 @@
 package com.mmt.flightbooking.service.payment;
 
 import com.mmt.flightbooking.dto.PaymentRequest;
+import com.mmt.flightbooking.entity.Payment;
 import com.mmt.flightbooking.entity.PaymentMethod;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.execution.IoKind;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +22,9 @@ public class PaymentGatewayService {
     @Autowired
     private PaymentStrategyFactory strategyFactory;
     
+    @Autowired
+    private BlockingIoExecutor ioExecutor;
+    
     /**
      * Process payment using appropriate strategy based on payment method
      * @param request Payment request containing method and details
@@ -43,7 +49,7 @@ public class PaymentGatewayService {
             logger.debug("Using strategy: {} for payment method: {}", 
                         strategy.getStrategyName(), method);
             
-            PaymentGatewayResponse response = strategy.processPayment(request);
+            PaymentGatewayResponse response = ioExecutor.call(IoKind.PAYMENT, () -> strategy.processPayment(request));
             
             logger.info("Payment processing completed. Success: {}, Transaction: {}", 
                        response.isSuccess(), response.getTransactionId());
@@ -56,4 +62,27 @@ public class PaymentGatewayService {
                                             null, "System");
         }
     }
+    
+    /**
+     * Refund a completed payment in full through the strategy that charged it
+     * @param payment Completed payment
+     * @return Payment gateway response
+     */
+    public PaymentGatewayResponse refundPayment(Payment payment) {
+        logger.info("Refunding payment {} through gateway for method: {}", payment.getId(), payment.getMethod());
+        
+        try {
+            PaymentMethod method = payment.getMethod();
+            if (!strategyFactory.isSupported(method)) {
+                return new PaymentGatewayResponse(false, "Unsupported payment method: " + method, null, "System");
+            }
+            PaymentStrategy strategy = strategyFactory.getStrategy(method);
+            return ioExecutor.call(IoKind.PAYMENT, () -> strategy.refundPayment(payment));
+            
+        } catch (Exception e) {
+            logger.error("Payment gateway refund failed", e);
+            return new PaymentGatewayResponse(false, "Payment gateway error: " + e.getMessage(), 
+                                            null, "System");
+        }
+    }
 }
@@ -4,13 +4,13 @@ import com.mmt.flightbooking.dto.PaymentRequest;
 import com.mmt.flightbooking.dto.PaymentResult;
 import com.mmt.flightbooking.entity.*;
 import com.mmt.flightbooking.repository.PaymentRepository;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-
-import java.util.UUID;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class PaymentService {
@@ -23,84 +23,157 @@ public class PaymentService {
     @Autowired
     private PaymentGatewayService paymentGatewayService;
     
+    @Autowired
+    private IdGenerator idGenerator;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
     @Transactional
     public Payment createPayment(Booking booking, PaymentMethod method) {
         logger.info("Creating payment for booking: {} with method: {}", 
                    booking.getBookingReference(), method);
         
+        return paymentRepository.save(newPendingPayment(booking, method));
+    }
+    
+    /**
+     * Build a PENDING payment for a booking without saving it
+     * Persisted together with the booking it belongs to (cascade from Booking)
+     */
+    public Payment newPendingPayment(Booking booking, PaymentMethod method) {
         Payment payment = new Payment();
         payment.setBooking(booking);
         payment.setAmount(booking.getTotalAmount());
         payment.setCurrency(booking.getCurrency());
         payment.setMethod(method);
         payment.setStatus(PaymentStatus.PENDING);
-        
-        return paymentRepository.save(payment);
+        return payment;
     }
     
-    @Transactional
+    /**
+     * Charge a payment through its gateway
+     * Not transactional: the gateway call must not hold a database connection. The payment is first
+     * claimed (PENDING → PROCESSING, only while its booking can still be confirmed) in a short
+     * transaction, so it is charged at most once however often it is submitted; the outcome is
+     * recorded in a second one. A charge whose outcome cannot be recorded is refunded.
+     * @throws IllegalStateException if the payment is already paid or being charged, or its booking is closed
+     */
     public PaymentResult processPayment(PaymentRequest request) {
-        logger.info("Processing payment for booking: {}", 
-                   request.getPayment().getBooking().getBookingReference());
+        Payment payment = request.getPayment();
+        logger.info("Processing payment for booking: {}", payment.getBooking().getBookingReference());
+        
+        Integer claimed = transactionTemplate.execute(status -> paymentRepository.claimForCharge(payment.getId()));
+        if (claimed == null || claimed == 0) {
+            throw new IllegalStateException("Payment " + payment.getId()
+                                          + " is already paid or being processed, or its booking is closed");
+        }
         
+        // Call appropriate payment gateway based on method
+        PaymentGatewayResponse response;
         try {
-            // Update payment status to processing
-            request.getPayment().setStatus(PaymentStatus.PROCESSING);
-            paymentRepository.save(request.getPayment());
-            
-            // Create transaction record
-            PaymentTransaction transaction = new PaymentTransaction();
-            transaction.setPayment(request.getPayment());
-            transaction.setStatus(TransactionStatus.INITIATED);
-            transaction.setTransactionReference(UUID.randomUUID().toString());
-            
-            // Call appropriate payment gateway based on method
-            PaymentGatewayResponse response = paymentGatewayService.processPayment(request);
-            
-            // Update transaction status
-            if (response.isSuccess()) {
-                transaction.setStatus(TransactionStatus.SUCCESS);
-                request.getPayment().setStatus(PaymentStatus.COMPLETED);
-                request.getPayment().setTransactionId(response.getTransactionId());
-                request.getPayment().setGatewayResponse(response.getResponse());
-                request.getPayment().setGatewayName(response.getGatewayName());
-            } else {
-                transaction.setStatus(TransactionStatus.FAILED);
-                request.getPayment().setStatus(PaymentStatus.FAILED);
-                transaction.setErrorMessage(response.getErrorMessage());
-            }
-            
-            // Save transaction
-            request.getPayment().getTransactions().add(transaction);
-            paymentRepository.save(request.getPayment());
-            
-            PaymentResult result = new PaymentResult();
-            result.setSuccess(response.isSuccess());
-            result.setMessage(response.getMessage());
-            result.setTransactionId(response.getTransactionId());
-            result.setGatewayResponse(response.getResponse());
-            
-            logger.info("Payment processed: success={}, transactionId={}", 
-                       response.isSuccess(), response.getTransactionId());
-            
-            return result;
-            
+            response = paymentGatewayService.processPayment(request);
         } catch (Exception e) {
             logger.error("Payment processing failed", e);
-            
-            // Update payment status to failed
-            request.getPayment().setStatus(PaymentStatus.FAILED);
-            paymentRepository.save(request.getPayment());
-            
-            return new PaymentResult(false, "Payment processing failed: " + e.getMessage());
+            response = new PaymentGatewayResponse(false, "Payment processing failed: " + e.getMessage(), null, "System");
+            response.setErrorMessage(e.getMessage());
+        }
+        applyOutcome(payment, response);
+        
+        PaymentGatewayResponse outcome = response;
+        try {
+            transactionTemplate.executeWithoutResult(status -> recordOutcome(payment.getId(), outcome));
+        } catch (RuntimeException e) {
+            if (!outcome.isSuccess()) {
+                throw e;
+            }
+            // Left PROCESSING; the customer must not keep a charge we have no record of
+            logger.error("Could not record charge {} of payment {}, refunding", outcome.getTransactionId(), payment.getId(), e);
+            PaymentGatewayResponse refund = paymentGatewayService.refundPayment(payment);
+            return new PaymentResult(false, "Payment could not be recorded; charge "
+                                   + (refund.isSuccess() ? "refunded" : "to be refunded by support"));
         }
+        
+        PaymentResult result = new PaymentResult();
+        result.setSuccess(response.isSuccess());
+        result.setMessage(response.getMessage());
+        result.setTransactionId(response.getTransactionId());
+        result.setGatewayResponse(response.getResponse());
+        
+        logger.info("Payment processed: success={}, transactionId={}", 
+                   response.isSuccess(), response.getTransactionId());
+        
+        return result;
+    }
+    
+    /**
+     * Refund a completed charge in full, e.g. when its booking was cancelled while it was being charged
+     * @return Whether the gateway refunded it; if not the payment stays COMPLETED for support to refund
+     */
+    public boolean refundPayment(Long paymentId, String reason) {
+        Payment payment = transactionTemplate.execute(status -> paymentRepository.findById(paymentId)
+            .orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId)));
+        if (payment.getStatus() != PaymentStatus.COMPLETED) {
+            return false;
+        }
+        
+        PaymentGatewayResponse response = paymentGatewayService.refundPayment(payment);
+        if (!response.isSuccess()) {
+            logger.error("Refund of payment {} ({}) failed: {}", paymentId, reason, response.getMessage());
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            Payment current = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId));
+            current.setStatus(PaymentStatus.REFUNDED);
+            PaymentTransaction transaction = newTransaction(current, TransactionStatus.REFUNDED);
+            transaction.setGatewayResponse(reason);
+            current.getTransactions().add(transaction);
+            paymentRepository.save(current);
+        });
+        logger.info("Payment {} refunded: {}", paymentId, reason);
+        return true;
+    }
+    
+    private void recordOutcome(Long paymentId, PaymentGatewayResponse response) {
+        // Re-read: the claim bumped the version of the caller's copy
+        Payment payment = paymentRepository.findById(paymentId)
+            .orElseThrow(() -> new RuntimeException("Payment not found: " + paymentId));
+        applyOutcome(payment, response);
+        PaymentTransaction transaction = newTransaction(payment,
+            response.isSuccess() ? TransactionStatus.SUCCESS : TransactionStatus.FAILED);
+        transaction.setErrorMessage(response.isSuccess() ? null : response.getErrorMessage());
+        payment.getTransactions().add(transaction);
+        paymentRepository.save(payment);
+    }
+    
+    private static void applyOutcome(Payment payment, PaymentGatewayResponse response) {
+        if (response.isSuccess()) {
+            payment.setStatus(PaymentStatus.COMPLETED);
+            payment.setTransactionId(response.getTransactionId());
+            payment.setGatewayResponse(response.getResponse());
+            payment.setGatewayName(response.getGatewayName());
+        } else {
+            payment.setStatus(PaymentStatus.FAILED);
+        }
+    }
+    
+    private PaymentTransaction newTransaction(Payment payment, TransactionStatus status) {
+        PaymentTransaction transaction = new PaymentTransaction();
+        transaction.setPayment(payment);
+        transaction.setStatus(status);
+        transaction.setTransactionReference(idGenerator.nextKey());
+        return transaction;
     }
     
+    // Served by a replica: a status read within replica lag of the payment can still show the previous one
+    @Transactional(readOnly = true)
     public Payment getPaymentByBookingId(Long bookingId) {
         return paymentRepository.findByBookingId(bookingId)
             .orElseThrow(() -> new RuntimeException("Payment not found for booking: " + bookingId));
     }
     
+    @Transactional(readOnly = true)
     public Payment getPaymentByTransactionId(String transactionId) {
         return paymentRepository.findByTransactionId(transactionId)
             .orElseThrow(() -> new RuntimeException("Payment not found for transaction: " + transactionId));
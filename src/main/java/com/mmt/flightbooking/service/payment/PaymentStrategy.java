@@ -1,6 +1,7 @@
 package com.mmt.flightbooking.service.payment;
 
 import com.mmt.flightbooking.dto.PaymentRequest;
+import com.mmt.flightbooking.entity.Payment;
 
 /**
  * Strategy interface for different payment methods
@@ -15,6 +16,20 @@ public interface PaymentStrategy {
      */
     PaymentGatewayResponse processPayment(PaymentRequest request);
     
+    /**
+     * Refund a completed payment in full
+     * The gateways behind these strategies are simulated: any charge with a gateway transaction id is refunded
+     * @param payment Payment charged through this strategy
+     * @return Payment gateway response
+     */
+    default PaymentGatewayResponse refundPayment(Payment payment) {
+        if (payment.getTransactionId() == null) {
+            return new PaymentGatewayResponse(false, "No gateway transaction to refund", null, getStrategyName());
+        }
+        return new PaymentGatewayResponse(true, "Refunded " + payment.getAmount() + " " + payment.getCurrency(),
+                                          payment.getTransactionId(), getStrategyName());
+    }
+    
     /**
      * Get the name of this payment strategy
      * @return Strategy name for logging/tracking
@@ -1,12 +1,12 @@
 package com.mmt.flightbooking.service.payment;
 
 import com.mmt.flightbooking.dto.PaymentRequest;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
-
 /**
  * Strategy for processing UPI payments
  */
@@ -16,6 +16,13 @@ public class UpiPaymentStrategy implements PaymentStrategy {
     private static final Logger logger = LoggerFactory.getLogger(UpiPaymentStrategy.class);
     private static final String GATEWAY_NAME = "Razorpay";
     
+    private final IdGenerator idGenerator;
+    
+    @Autowired
+    public UpiPaymentStrategy(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+    
     @Override
     public PaymentGatewayResponse processPayment(PaymentRequest request) {
         logger.info("Processing UPI payment for ID: {}", request.getUpiId());
@@ -31,7 +38,7 @@ public class UpiPaymentStrategy implements PaymentStrategy {
             boolean success = Math.random() > 0.05;
             
             if (success) {
-                String transactionId = "UPI_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+                String transactionId = idGenerator.nextReference("UPI_");
                 logger.info("UPI payment successful. Transaction ID: {}", transactionId);
                 return new PaymentGatewayResponse(true, "UPI payment successful", 
                                                 transactionId, GATEWAY_NAME);
@@ -1,12 +1,12 @@
 package com.mmt.flightbooking.service.payment;
 
 import com.mmt.flightbooking.dto.PaymentRequest;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
-
 /**
  * Strategy for processing Wallet payments (Paytm, PhonePe, etc.)
  */
@@ -16,6 +16,13 @@ public class WalletPaymentStrategy implements PaymentStrategy {
     private static final Logger logger = LoggerFactory.getLogger(WalletPaymentStrategy.class);
     private static final String GATEWAY_NAME = "Razorpay";
     
+    private final IdGenerator idGenerator;
+    
+    @Autowired
+    public WalletPaymentStrategy(IdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+    }
+    
     @Override
     public PaymentGatewayResponse processPayment(PaymentRequest request) {
         logger.info("Processing wallet payment for type: {}", request.getWalletType());
@@ -31,7 +38,7 @@ public class WalletPaymentStrategy implements PaymentStrategy {
             boolean success = Math.random() > 0.03;
             
             if (success) {
-                String transactionId = "WALLET_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+                String transactionId = idGenerator.nextReference("WALLET_");
                 logger.info("Wallet payment successful. Transaction ID: {}", transactionId);
                 return new PaymentGatewayResponse(true, "Wallet payment successful", 
                                                 transactionId, GATEWAY_NAME);
@@ -0,0 +1,114 @@
+package com.mmt.flightbooking.service.readmodel;
+
+import com.mmt.flightbooking.dto.BookingDetailsResponse;
+import com.mmt.flightbooking.dto.BookingSegmentSummary;
+import com.mmt.flightbooking.dto.BookingSummary;
+import com.mmt.flightbooking.entity.Booking;
+import com.mmt.flightbooking.entity.BookingSegment;
+import com.mmt.flightbooking.entity.PassengerType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the booking details API view from a booking entity or a booking history projection
+ */
+public final class BookingDetailsAssembler {
+    
+    private BookingDetailsAssembler() {}
+    
+    /**
+     * Details of a booking entity; passengers and segments are read from its collections
+     */
+    public static BookingDetailsResponse fromBooking(Booking booking) {
+        BookingDetailsResponse response = new BookingDetailsResponse();
+        response.setBookingId(booking.getId());
+        response.setBookingReference(booking.getBookingReference());
+        response.setStatus(booking.getStatus().toString());
+        response.setTotalAmount(booking.getTotalAmount());
+        response.setCurrency(booking.getCurrency());
+        response.setCreatedAt(booking.getCreatedAt());
+        response.setUpdatedAt(booking.getUpdatedAt());
+        
+        // Add flight details (cached in booking for aggregator model), one per booked segment
+        List<BookingDetailsResponse.FlightInfo> flights = new ArrayList<>();
+        for (BookingSegment segment : booking.getSegments()) {
+            flights.add(buildFlightInfo(segment.getFlightNumber(), segment.getAirlineCode(), segment.getAirlinePnr(),
+                segment.getOriginAirport(), segment.getDestinationAirport(), segment.getDepartureDate(), segment.getPrice()));
+        }
+        if (flights.isEmpty()) {
+            // Bookings made before segments were recorded
+            flights.add(buildFlightInfo(booking.getFlightNumber(), booking.getAirlineCode(), booking.getAirlinePnr(),
+                booking.getOriginAirport(), booking.getDestinationAirport(), booking.getDepartureDate(), booking.getTotalAmount()));
+        }
+        response.setFlights(flights);
+        
+        // Add passenger details
+        response.setPassengers(booking.getPassengers().stream()
+            .map(p -> buildPassengerInfo(p.getFirstName(), p.getLastName(), p.getAge(), p.getType(), p.getSeatNumber()))
+            .toList());
+        
+        return response;
+    }
+    
+    /**
+     * Details of a booking history projection with its segments and passengers attached
+     */
+    public static BookingDetailsResponse fromSummary(BookingSummary booking) {
+        BookingDetailsResponse response = new BookingDetailsResponse();
+        response.setBookingId(booking.getId());
+        response.setBookingReference(booking.getBookingReference());
+        response.setStatus(booking.getStatus().toString());
+        response.setTotalAmount(booking.getTotalAmount());
+        response.setCurrency(booking.getCurrency());
+        response.setCreatedAt(booking.getCreatedAt());
+        response.setUpdatedAt(booking.getUpdatedAt());
+        
+        List<BookingDetailsResponse.FlightInfo> flights = new ArrayList<>();
+        for (BookingSegmentSummary segment : booking.getSegments()) {
+            flights.add(buildFlightInfo(segment.getFlightNumber(), segment.getAirlineCode(), segment.getAirlinePnr(),
+                segment.getOriginAirport(), segment.getDestinationAirport(), segment.getDepartureDate(), segment.getPrice()));
+        }
+        if (flights.isEmpty()) {
+            // Bookings made before segments were recorded
+            flights.add(buildFlightInfo(booking.getFlightNumber(), booking.getAirlineCode(), booking.getAirlinePnr(),
+                booking.getOriginAirport(), booking.getDestinationAirport(), booking.getDepartureDate(), booking.getTotalAmount()));
+        }
+        response.setFlights(flights);
+        
+        response.setPassengers(booking.getPassengers().stream()
+            .map(p -> buildPassengerInfo(p.getFirstName(), p.getLastName(), p.getAge(), p.getType(), p.getSeatNumber()))
+            .toList());
+        
+        return response;
+    }
+    
+    private static BookingDetailsResponse.FlightInfo buildFlightInfo(String flightNumber, String airlineCode, String airlinePnr,
+                                                                     String origin, String destination,
+                                                                     LocalDate departureDate, BigDecimal price) {
+        BookingDetailsResponse.FlightInfo flightInfo = new BookingDetailsResponse.FlightInfo();
+        flightInfo.setFlightNumber(flightNumber);
+        flightInfo.setAirline(airlineCode); // Store airline code
+        flightInfo.setAirlinePnr(airlinePnr);
+        flightInfo.setOrigin(origin);
+        flightInfo.setDestination(destination);
+        flightInfo.setDepartureTime(departureDate.atStartOfDay()); // Use date
+        flightInfo.setArrivalTime(departureDate.atStartOfDay()); // Same day for simplicity
+        flightInfo.setSeatClass("ECONOMY"); // Default
+        flightInfo.setPrice(price);
+        return flightInfo;
+    }
+    
+    private static BookingDetailsResponse.PassengerInfo buildPassengerInfo(String firstName, String lastName, Integer age,
+                                                                           PassengerType type, String seatNumber) {
+        BookingDetailsResponse.PassengerInfo passengerInfo = new BookingDetailsResponse.PassengerInfo();
+        passengerInfo.setFirstName(firstName);
+        passengerInfo.setLastName(lastName);
+        passengerInfo.setAge(age);
+        passengerInfo.setType(type.toString());
+        passengerInfo.setSeatNumber(seatNumber);
+        return passengerInfo;
+    }
+}
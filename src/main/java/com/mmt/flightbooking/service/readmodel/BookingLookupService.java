@@ -0,0 +1,124 @@
+package com.mmt.flightbooking.service.readmodel;
+
+import com.mmt.flightbooking.repository.BookingRepository;
+import com.mmt.flightbooking.repository.BookingSegmentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Resolves booking references and airline PNRs to booking ids
+ * Neither changes once a booking has it, so the mapping is cached aside in Redis with a long TTL
+ * and in a per-node near cache in front of it, without any invalidation; a hit in either never
+ * touches the database. Unknown keys are not cached: an airline webhook can name a PNR before
+ * the booking holding it has committed.
+ */
+@Service
+public class BookingLookupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingLookupService.class);
+
+    private static final String REFERENCE_PREFIX = "booking:ref:";
+    private static final String PNR_PREFIX = "booking:pnr:";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingSegmentRepository segmentRepository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${flightbooking.booking.lookup.ttl-hours:168}")
+    private long ttlHours = 168;
+
+    @Value("${flightbooking.booking.lookup.near-cache.max-entries:100000}")
+    private int nearCacheMaxEntries = 100000;
+
+    private final Map<String, Long> nearCache = new ConcurrentHashMap<>();
+
+    /**
+     * @return Id of the booking with the reference, or null if there is none
+     */
+    public Long findIdByReference(String bookingReference) {
+        return resolve(REFERENCE_PREFIX + bookingReference, "reference",
+                       () -> bookingRepository.findIdByBookingReference(bookingReference).orElse(null));
+    }
+
+    /**
+     * @return Id of the booking holding the airline PNR on any of its segments, or null if there is none
+     */
+    public Long findIdByAirlinePnr(String airlinePnr) {
+        return resolve(PNR_PREFIX + airlinePnr, "pnr", () -> {
+            List<Long> ids = bookingRepository.findIdsByAirlinePnr(airlinePnr);
+            if (ids.isEmpty()) {
+                ids = segmentRepository.findBookingIdsByAirlinePnr(airlinePnr);
+            }
+            return ids.isEmpty() ? null : ids.get(0);
+        });
+    }
+
+    private Long resolve(String key, String kind, Supplier<Long> loader) {
+        Long id = nearCache.get(key);
+        if (id != null) {
+            count(kind, "near-cache");
+            return id;
+        }
+
+        boolean redisAvailable = true;
+        try {
+            String cached = stringRedisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                id = Long.valueOf(cached);
+                remember(key, id);
+                count(kind, "redis");
+                return id;
+            }
+        } catch (Exception e) {
+            redisAvailable = false;
+            logger.warn("Booking lookup index unavailable for {}, reading from database: {}", key, e.getMessage());
+        }
+
+        id = loader.get();
+        if (id == null) {
+            count(kind, "not-found");
+            return null;
+        }
+        count(kind, "database");
+        remember(key, id);
+        if (redisAvailable) {
+            try {
+                stringRedisTemplate.opsForValue().set(key, id.toString(), Duration.ofHours(ttlHours));
+            } catch (Exception e) {
+                logger.warn("Could not index booking {} under {}: {}", id, key, e.getMessage());
+            }
+        }
+        return id;
+    }
+
+    private void remember(String key, Long id) {
+        if (nearCache.size() >= nearCacheMaxEntries) {
+            // Crude bound; entries are cheap to refetch from Redis
+            nearCache.clear();
+        }
+        nearCache.put(key, id);
+    }
+
+    private void count(String kind, String source) {
+        registry.counter("flightbooking.booking.lookup", "key", kind, "source", source).increment();
+    }
+}
@@ -0,0 +1,195 @@
+package com.mmt.flightbooking.service.readmodel;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mmt.flightbooking.dto.BookingDetailsResponse;
+import com.mmt.flightbooking.entity.Booking;
+import com.mmt.flightbooking.entity.User;
+import com.mmt.flightbooking.repository.BookingRepository;
+import com.mmt.flightbooking.service.datasource.ReplicaRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cached read model for booking details
+ * The serialized {@link BookingView} of a booking lives in Redis, optionally with a per-node near
+ * cache in front, so status polls are served without touching the database.
+ * Every booking state change bumps a generation counter for the booking once its transaction
+ * commits; a cached view is only served if it was built at the current generation. Reading the
+ * view and the counter is one MGET, and a reader that raced a state change stores a view with an
+ * old generation that is never served, so a stale view cannot outlive the change.
+ */
+@Service
+public class BookingReadModelService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookingReadModelService.class);
+    
+    private static final String VIEW_PREFIX = "booking:view:";
+    private static final String GENERATION_PREFIX = "booking:view:gen:";
+    
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${flightbooking.booking.read-model.ttl-seconds:3600}")
+    private long ttlSeconds = 3600;
+    
+    // The near cache still checks the generation in Redis; it saves transferring and parsing the view
+    @Value("${flightbooking.booking.read-model.near-cache.enabled:false}")
+    private boolean nearCacheEnabled = false;
+    
+    @Value("${flightbooking.booking.read-model.near-cache.max-entries:10000}")
+    private int nearCacheMaxEntries = 10000;
+    
+    private final Map<Long, BookingView> nearCache = new ConcurrentHashMap<>();
+    
+    /**
+     * Booking details for the booking's owner, from the cache or rebuilt from the database
+     * @throws RuntimeException if the booking does not exist or belongs to another user
+     */
+    public BookingView getBookingView(Long bookingId, User user) {
+        BookingView view = getBookingView(bookingId);
+        if (!view.getOwnerId().equals(user.getId())) {
+            throw new RuntimeException("Booking not found");
+        }
+        return view;
+    }
+    
+    /**
+     * Booking details whoever owns the booking, for support tooling and airline webhooks
+     * @throws RuntimeException if the booking does not exist
+     */
+    public BookingView getBookingView(Long bookingId) {
+        Long generation = null;
+        BookingView view = null;
+        try {
+            List<String> cached = stringRedisTemplate.opsForValue()
+                .multiGet(List.of(VIEW_PREFIX + bookingId, GENERATION_PREFIX + bookingId));
+            generation = cached == null || cached.get(1) == null ? 0L : Long.parseLong(cached.get(1));
+            view = cachedView(bookingId, generation, cached == null ? null : cached.get(0));
+        } catch (Exception e) {
+            logger.warn("Booking read model unavailable for {}, reading from database: {}", bookingId, e.getMessage());
+        }
+        
+        if (view == null) {
+            view = load(bookingId, generation == null ? 0L : generation);
+            if (generation != null) {
+                store(bookingId, view);
+            }
+        }
+        return view;
+    }
+    
+    /**
+     * Mark the cached view of a booking stale
+     * Inside a transaction this happens after commit, so readers never rebuild from the old row
+     * after the bump. A failure here leaves the view stale until its TTL, so it is logged loudly.
+     */
+    public void invalidate(Long bookingId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpGeneration(bookingId);
+                }
+            });
+        } else {
+            bumpGeneration(bookingId);
+        }
+    }
+    
+    private BookingView cachedView(Long bookingId, long generation, String json) throws JsonProcessingException {
+        if (nearCacheEnabled) {
+            BookingView near = nearCache.get(bookingId);
+            if (near != null && near.getGeneration() == generation) {
+                return near;
+            }
+        }
+        if (json == null) {
+            return null;
+        }
+        
+        BookingView view = objectMapper.readValue(json, BookingView.class);
+        if (view.getGeneration() != generation) {
+            return null;
+        }
+        remember(bookingId, view);
+        return view;
+    }
+    
+    // Always from the primary, even inside a caller's read-only transaction: a view read from a lagging
+    // replica would be cached as the current generation
+    private BookingView load(Long bookingId, long generation) {
+        return ReplicaRoutingDataSource.onPrimary(() -> transactionTemplate.execute(status -> {
+            Booking booking = bookingRepository.findWithUserById(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+            BookingDetailsResponse details = BookingDetailsAssembler.fromBooking(booking);
+            return new BookingView(etag(details), booking.getUser().getId(), generation, details);
+        }));
+    }
+    
+    private void store(Long bookingId, BookingView view) {
+        try {
+            stringRedisTemplate.opsForValue().set(VIEW_PREFIX + bookingId, objectMapper.writeValueAsString(view),
+                                                  Duration.ofSeconds(ttlSeconds));
+            remember(bookingId, view);
+        } catch (Exception e) {
+            logger.warn("Could not cache booking view {}: {}", bookingId, e.getMessage());
+        }
+    }
+    
+    private void remember(Long bookingId, BookingView view) {
+        if (!nearCacheEnabled) {
+            return;
+        }
+        if (nearCache.size() >= nearCacheMaxEntries) {
+            // Crude bound; entries are cheap to rebuild from Redis
+            nearCache.clear();
+        }
+        nearCache.put(bookingId, view);
+    }
+    
+    private void bumpGeneration(Long bookingId) {
+        try {
+            String key = GENERATION_PREFIX + bookingId;
+            stringRedisTemplate.opsForValue().increment(key);
+            // Outlives any view built at an older generation
+            stringRedisTemplate.expire(key, Duration.ofSeconds(ttlSeconds * 2));
+            nearCache.remove(bookingId);
+        } catch (Exception e) {
+            logger.error("Could not invalidate booking view {}; it may be stale for up to {} s",
+                        bookingId, ttlSeconds, e);
+        }
+    }
+    
+    private String etag(BookingDetailsResponse details) {
+        try {
+            byte[] json = objectMapper.writeValueAsString(details).getBytes(StandardCharsets.UTF_8);
+            return "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize booking view", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.mmt.flightbooking.service.readmodel;
+
+import com.mmt.flightbooking.dto.BookingDetailsResponse;
+
+/**
+ * Booking details as served to clients, with the entity tag identifying this version of them
+ * Also the cached form of the read model: {@code ownerId} and {@code generation} are only
+ * used to authorise and validate cached copies.
+ */
+public class BookingView {
+    
+    private String etag;
+    private Long ownerId;
+    private long generation;
+    private BookingDetailsResponse details;
+    
+    // Constructors
+    public BookingView() {}
+    
+    public BookingView(String etag, Long ownerId, long generation, BookingDetailsResponse details) {
+        this.etag = etag;
+        this.ownerId = ownerId;
+        this.generation = generation;
+        this.details = details;
+    }
+    
+    // Getters and Setters
+    public String getEtag() {
+        return etag;
+    }
+    
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+    
+    public Long getOwnerId() {
+        return ownerId;
+    }
+    
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+    
+    public long getGeneration() {
+        return generation;
+    }
+    
+    public void setGeneration(long generation) {
+        this.generation = generation;
+    }
+    
+    public BookingDetailsResponse getDetails() {
+        return details;
+    }
+    
+    public void setDetails(BookingDetailsResponse details) {
+        this.details = details;
+    }
+}
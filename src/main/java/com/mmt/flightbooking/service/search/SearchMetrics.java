@@ -0,0 +1,81 @@
+package com.mmt.flightbooking.service.search;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes per-stage search timings collected by a {@link SearchScope}
+ * Stages named "airline:XX" are tagged with the airline code
+ */
+@Component
+public class SearchMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchMetrics.class);
+
+    private final MeterRegistry registry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Autowired
+    public SearchMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("flightbooking.search.inflight", inFlight, AtomicInteger::get)
+            .description("Flight searches currently in flight on this node")
+            .register(registry);
+    }
+
+    /**
+     * Mark a search as started; every started search must be finished with {@link #record(SearchScope)}
+     */
+    public void searchStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Count airline results dropped because the search was abandoned before they could be used
+     */
+    public void resultsDiscarded(SearchScope scope, int count) {
+        Counter.builder("flightbooking.search.discarded.results")
+            .description("Airline results fetched for searches nobody was waiting for")
+            .tag("reason", scope.getCancelReason())
+            .register(registry)
+            .increment(count);
+    }
+
+    /**
+     * Record stage timings and the total duration of a finished search
+     * @param scope Scope of the finished search
+     */
+    public void record(SearchScope scope) {
+        inFlight.decrementAndGet();
+        scope.getStageTimings().forEach((stage, duration) -> {
+            String[] parts = stage.split(":", 2);
+            Timer.builder("flightbooking.search.stage")
+                .description("Duration of individual flight search stages")
+                .tag("stage", parts[0])
+                .tag("airline", parts.length > 1 ? parts[1] : "none")
+                .register(registry)
+                .record(duration);
+        });
+
+        Timer.builder("flightbooking.search.total")
+            .description("End-to-end flight search duration")
+            .tag("outcome", scope.isCancelled() ? scope.getCancelReason() : "completed")
+            .register(registry)
+            .record(scope.elapsed());
+
+        logger.debug("Search {} finished in {} ms, stages: {}",
+                    scope.getSearchId(), scope.elapsed().toMillis(), scope.getStageTimings());
+    }
+}
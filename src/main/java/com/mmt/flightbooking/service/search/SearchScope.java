@@ -0,0 +1,155 @@
+package com.mmt.flightbooking.service.search;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Scope of a single flight search
+ * Owns every child airline call forked for the search, the search deadline and
+ * per-stage timings. Cancelling the scope cancels all children that are still running.
+ */
+public class SearchScope {
+
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(25);
+
+    // Cancel reasons
+    public static final String DEADLINE = "deadline";
+    public static final String CLIENT_DISCONNECT = "client-disconnect";
+    public static final String REQUEST_TIMEOUT = "request-timeout";
+
+    private final String searchId;
+    private final long startNanos = System.nanoTime();
+    private final long deadlineNanos;
+    private final List<CompletableFuture<?>> children = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> stageNanos = new ConcurrentHashMap<>();
+    private final AtomicReference<String> cancelReason = new AtomicReference<>();
+
+    private SearchScope(String searchId, Duration timeout) {
+        this.searchId = searchId;
+        this.deadlineNanos = startNanos + timeout.toNanos();
+    }
+
+    /**
+     * Open a scope with the given timeout
+     * @param searchId Id of the search (returned to the client and used in logs)
+     * @param timeoutMs Search timeout; non-positive values use {@link #DEFAULT_TIMEOUT}
+     */
+    public static SearchScope open(String searchId, long timeoutMs) {
+        return new SearchScope(searchId, timeoutMs > 0 ? Duration.ofMillis(timeoutMs) : DEFAULT_TIMEOUT);
+    }
+
+    public static SearchScope withDefaultTimeout(String searchId) {
+        return new SearchScope(searchId, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Fork a child call inside this scope
+     * The child is timed under the given stage name and cancelled together with the scope.
+     * @param stage Stage name used for timing (e.g. "airline:6E")
+     * @param call Starts the child call
+     * @return The child future, or a cancelled future if the scope is already cancelled
+     */
+    public <T> CompletableFuture<T> fork(String stage, Supplier<CompletableFuture<T>> call) {
+        if (isCancelled()) {
+            return CompletableFuture.failedFuture(new CancellationException(cancelReason.get()));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> child = call.get();
+        children.add(child);
+        child.whenComplete((result, error) -> recordStage(stage, System.nanoTime() - start));
+
+        // Scope may have been cancelled while the child was being started
+        if (isCancelled()) {
+            child.cancel(true);
+        }
+        return child;
+    }
+
+    /**
+     * Run a synchronous stage of the search and record its duration
+     */
+    public <T> T timeStage(String stage, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            recordStage(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void recordStage(String stage, long nanos) {
+        stageNanos.put(stage, nanos);
+    }
+
+    /**
+     * Cancel every child call still running in this scope
+     * @param reason Why the search was cancelled (e.g. {@link #DEADLINE}, {@link #CLIENT_DISCONNECT})
+     * @return true if this call cancelled the scope, false if it was already cancelled
+     */
+    public boolean cancel(String reason) {
+        if (!cancelReason.compareAndSet(null, reason)) {
+            return false;
+        }
+        children.forEach(child -> child.cancel(true));
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return cancelReason.get() != null;
+    }
+
+    public String getCancelReason() {
+        return cancelReason.get();
+    }
+
+    /**
+     * True if nobody is waiting for the result any more (cancelled for a reason other than the
+     * search deadline, which still returns partial results)
+     */
+    public boolean isAbandoned() {
+        String reason = cancelReason.get();
+        return reason != null && !DEADLINE.equals(reason);
+    }
+
+    /**
+     * Time left until the search deadline (zero once it has passed)
+     */
+    public Duration remaining() {
+        long remaining = deadlineNanos - System.nanoTime();
+        return remaining > 0 ? Duration.ofNanos(remaining) : Duration.ZERO;
+    }
+
+    public boolean isExpired() {
+        return System.nanoTime() >= deadlineNanos;
+    }
+
+    public Duration elapsed() {
+        return Duration.ofNanos(System.nanoTime() - startNanos);
+    }
+
+    public String getSearchId() {
+        return searchId;
+    }
+
+    public int getChildCount() {
+        return children.size();
+    }
+
+    /**
+     * Snapshot of recorded stage durations
+     */
+    public Map<String, Duration> getStageTimings() {
+        Map<String, Duration> timings = new LinkedHashMap<>();
+        stageNanos.forEach((stage, nanos) -> timings.put(stage, Duration.ofNanos(nanos)));
+        return timings;
+    }
+}
@@ -0,0 +1,47 @@
+package com.mmt.flightbooking.service.user;
+
+import com.mmt.flightbooking.entity.User;
+import com.mmt.flightbooking.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the authenticated principal of a request to its {@link User}
+ * The principal's name is the user's email. Requests without an authenticated principal act as the
+ * demo user, as before authentication was wired in. Resolved users come from {@link UserCache}.
+ */
+@Component
+public class CurrentUserResolver {
+
+    static final String DEMO_SUBJECT = UserService.TEST_USER_EMAIL;
+
+    private final UserService userService;
+    private final UserCache userCache;
+
+    @Autowired
+    public CurrentUserResolver(UserService userService, UserCache userCache) {
+        this.userService = userService;
+        this.userCache = userCache;
+    }
+
+    /**
+     * @throws RuntimeException if the principal has no user
+     */
+    public User resolve(Authentication authentication) {
+        String subject = subjectOf(authentication);
+        if (subject == null) {
+            return userCache.get(DEMO_SUBJECT, userService::getOrCreateTestUser);
+        }
+        return userCache.get(subject, () -> userService.getUserByEmail(subject));
+    }
+
+    private static String subjectOf(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,80 @@
+package com.mmt.flightbooking.service.user;
+
+import com.mmt.flightbooking.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-node cache of users by authentication subject (their email)
+ * Every authenticated request resolves its user, so in the steady state this is served from memory
+ * and issues no query. Entries live a short TTL and are evicted when the user row changes on this
+ * node (UserCacheInvalidator); the TTL bounds how long another node can serve the old row.
+ * Cached users are detached: read their columns, don't navigate their collections or change them.
+ */
+@Component
+public class UserCache {
+
+    private final MeterRegistry registry;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${flightbooking.user.cache.ttl-seconds:60}")
+    private long ttlSeconds = 60;
+
+    @Value("${flightbooking.user.cache.max-entries:50000}")
+    private int maxEntries = 50000;
+
+    @Autowired
+    public UserCache(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Cached user for the subject, loaded and cached if missing or expired
+     * @param loader Loads the user; an exception is passed on and nothing is cached
+     */
+    public User get(String subject, Supplier<User> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(subject);
+        if (entry != null && now - entry.expiresAtNanos() < 0) {
+            count("hit");
+            return entry.user();
+        }
+
+        count("miss");
+        User user = loader.get();
+        if (entries.size() >= maxEntries) {
+            // Crude bound; a miss costs one indexed query
+            entries.clear();
+        }
+        entries.put(subject, new Entry(user, now + ttlSeconds * 1_000_000_000L));
+        return user;
+    }
+
+    /**
+     * Drop the user, under any subject it is cached by
+     */
+    public void evict(User user) {
+        if (user.getEmail() != null) {
+            entries.remove(user.getEmail());
+        }
+        if (user.getId() != null) {
+            entries.values().removeIf(entry -> user.getId().equals(entry.user().getId()));
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void count(String result) {
+        registry.counter("flightbooking.user.cache", "result", result).increment();
+    }
+
+    private record Entry(User user, long expiresAtNanos) {}
+}
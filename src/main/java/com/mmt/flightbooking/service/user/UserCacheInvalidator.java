@@ -0,0 +1,38 @@
+package com.mmt.flightbooking.service.user;
+
+import com.mmt.flightbooking.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA listener on {@link User} that evicts changed users from {@link UserCache}
+ * Evicts when the change is flushed and again after the transaction commits, so a request reading
+ * the old row in between cannot keep it cached. Instantiated by Hibernate through Spring's bean
+ * container, which injects the cache.
+ */
+public class UserCacheInvalidator {
+
+    private final UserCache userCache;
+
+    @Autowired
+    public UserCacheInvalidator(UserCache userCache) {
+        this.userCache = userCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void userChanged(User user) {
+        userCache.evict(user);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userCache.evict(user);
+                }
+            });
+        }
+    }
+}
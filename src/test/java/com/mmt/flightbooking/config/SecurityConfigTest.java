@@ -0,0 +1,75 @@
+package com.mmt.flightbooking.config;
+
+import com.mmt.flightbooking.controller.AdminController;
+import com.mmt.flightbooking.service.airline.AirlineLatencyTracker;
+import com.mmt.flightbooking.service.airline.adapter.AirlineAdapterFactory;
+import com.mmt.flightbooking.service.archive.BookingArchiveService;
+import com.mmt.flightbooking.service.cancellation.BulkCancellationService;
+import com.mmt.flightbooking.service.history.BookingEventLog;
+import com.mmt.flightbooking.service.readmodel.BookingLookupService;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AdminController.class)
+@Import(SecurityConfig.class)
+class SecurityConfigTest {
+
+    private static final String ADMIN_ENDPOINT = "/v1/admin/airlines/timeouts";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @MockBean
+    private AirlineLatencyTracker latencyTracker;
+
+    @MockBean
+    private AirlineAdapterFactory adapterFactory;
+
+    @MockBean
+    private BulkCancellationService bulkCancellationService;
+
+    @MockBean
+    private BookingArchiveService bookingArchiveService;
+
+    @MockBean
+    private BookingLookupService bookingLookup;
+
+    @MockBean
+    private BookingReadModelService bookingReadModel;
+
+    @MockBean
+    private BookingEventLog bookingEventLog;
+
+    @Test
+    void testAdminEndpoint_WithoutTokenUnauthorized() throws Exception {
+        mockMvc.perform(get(ADMIN_ENDPOINT))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void testAdminEndpoint_CustomerTokenForbidden() throws Exception {
+        mockMvc.perform(get(ADMIN_ENDPOINT).with(jwt().jwt(token -> token.subject("jane@example.com"))))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testAdminEndpoint_AdminTokenAllowed() throws Exception {
+        mockMvc.perform(get(ADMIN_ENDPOINT)
+                .with(jwt().authorities(new SimpleGrantedAuthority(SecurityConfig.ADMIN_AUTHORITY))))
+            .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,257 @@
+package com.mmt.flightbooking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mmt.flightbooking.dto.BookingResponse;
+import com.mmt.flightbooking.dto.CreateBookingRequest;
+import com.mmt.flightbooking.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingIdempotencyServiceTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @InjectMocks
+    private BookingIdempotencyService idempotencyService;
+
+    private User testUser;
+    private CreateBookingRequest request;
+    private BookingResponse confirmed;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setEmail("test@example.com");
+
+        request = new CreateBookingRequest();
+        request.setFlightIds(List.of("flight-123"));
+        request.setPassengerCount(1);
+        request.setPaymentMethod("UPI");
+
+        confirmed = new BookingResponse();
+        confirmed.setBookingId(1L);
+        confirmed.setBookingReference("MMT12345678");
+        confirmed.setStatus("CONFIRMED");
+
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testFirstRequest_RunsBookingAndStoresResponse() throws Exception {
+        // Arrange
+        ArgumentCaptor<Object> claim = ArgumentCaptor.forClass(Object.class);
+        when(valueOperations.setIfAbsent(eq("booking:idempotency:1:key-1"), claim.capture(), any(Duration.class)))
+            .thenReturn(true);
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("booking:idempotency:1:key-1")),
+                                         anyString(), stored.capture(), eq(String.valueOf(Duration.ofHours(24).toMillis()))))
+            .thenReturn(1L);
+
+        // Act
+        BookingIdempotencyService.Outcome outcome =
+            idempotencyService.execute("key-1", testUser, request, () -> confirmed);
+
+        // Assert - stored against our claim token
+        assertFalse(outcome.isReplayed());
+        assertSame(confirmed, outcome.getResponse());
+
+        String token = ((BookingIdempotencyService.IdempotencyRecord) claim.getValue()).getToken();
+        verify(stringRedisTemplate).execute(any(RedisScript.class), eq(List.of("booking:idempotency:1:key-1")),
+                                            eq(token), anyString(), anyString());
+        BookingIdempotencyService.IdempotencyRecord record =
+            objectMapper.readValue(stored.getValue(), BookingIdempotencyService.IdempotencyRecord.class);
+        assertEquals("MMT12345678", record.getResponse().getBookingReference());
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        verify(stringRedisTemplate).convertAndSend(BookingIdempotencyService.COMPLETION_CHANNEL, "booking:idempotency:1:key-1");
+    }
+
+    @Test
+    void testFirstRequest_ClaimLapsedDoesNotOverwriteKey() {
+        // Arrange - the claim expired mid-booking and another request took the key over
+        when(valueOperations.setIfAbsent(eq("booking:idempotency:1:key-1"), any(), any(Duration.class)))
+            .thenReturn(true);
+        when(stringRedisTemplate.execute(any(RedisScript.class), eq(List.of("booking:idempotency:1:key-1")),
+                                         anyString(), anyString(), anyString()))
+            .thenReturn(0L);
+
+        // Act
+        BookingIdempotencyService.Outcome outcome =
+            idempotencyService.execute("key-1", testUser, request, () -> confirmed);
+
+        // Assert - the booking's own response is still returned
+        assertSame(confirmed, outcome.getResponse());
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        verify(stringRedisTemplate).convertAndSend(BookingIdempotencyService.COMPLETION_CHANNEL, "booking:idempotency:1:key-1");
+    }
+
+    @Test
+    void testRetry_ReplaysStoredResponseWithoutBooking() throws Exception {
+        // Arrange
+        BookingIdempotencyService.IdempotencyRecord first = claimFirstRequest();
+        first.setResponse(confirmed);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        // Stored as JSON in Redis, read back as a map
+        when(valueOperations.get("booking:idempotency:1:key-1")).thenReturn(objectMapper.convertValue(first, Object.class));
+
+        AtomicInteger bookings = new AtomicInteger();
+
+        // Act
+        BookingIdempotencyService.Outcome outcome = idempotencyService.execute("key-1", testUser, request, () -> {
+            bookings.incrementAndGet();
+            return confirmed;
+        });
+
+        // Assert
+        assertTrue(outcome.isReplayed());
+        assertEquals("MMT12345678", outcome.getResponse().getBookingReference());
+        assertEquals(0, bookings.get());
+    }
+
+    @Test
+    void testConcurrentDuplicate_WaitsForFirstOutcome() throws Exception {
+        // Arrange
+        BookingIdempotencyService.IdempotencyRecord inProgress = claimFirstRequest();
+        BookingIdempotencyService.IdempotencyRecord done = claimFirstRequest();
+        done.setResponse(confirmed);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("booking:idempotency:1:key-1")).thenReturn(inProgress, inProgress, done);
+        // No completion message arrives: the waiter falls back to re-reading the key
+        ReflectionTestUtils.setField(idempotencyService, "recheckMs", 10L);
+
+        // Act
+        BookingIdempotencyService.Outcome outcome = idempotencyService.execute("key-1", testUser, request, () -> {
+            fail("Duplicate must not book again");
+            return null;
+        });
+
+        // Assert
+        assertTrue(outcome.isReplayed());
+        assertEquals(1L, outcome.getResponse().getBookingId());
+        verify(valueOperations, times(3)).get("booking:idempotency:1:key-1");
+    }
+
+    @Test
+    void testConcurrentDuplicate_WokenByCompletionMessage() throws Exception {
+        // Arrange
+        BookingIdempotencyService.IdempotencyRecord inProgress = claimFirstRequest();
+        BookingIdempotencyService.IdempotencyRecord done = claimFirstRequest();
+        done.setResponse(confirmed);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        AtomicInteger reads = new AtomicInteger();
+        when(valueOperations.get("booking:idempotency:1:key-1")).thenAnswer(invocation -> {
+            if (reads.incrementAndGet() > 1) {
+                return done;
+            }
+            // The first request finishes right after the duplicate's read
+            idempotencyService.onMessage(new DefaultMessage(
+                BookingIdempotencyService.COMPLETION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "booking:idempotency:1:key-1".getBytes(StandardCharsets.UTF_8)), null);
+            return inProgress;
+        });
+        // Only the message can wake the waiter within the wait
+        ReflectionTestUtils.setField(idempotencyService, "recheckMs", 60000L);
+
+        // Act
+        long start = System.nanoTime();
+        BookingIdempotencyService.Outcome outcome = idempotencyService.execute("key-1", testUser, request, () -> {
+            fail("Duplicate must not book again");
+            return null;
+        });
+
+        // Assert
+        assertTrue(outcome.isReplayed());
+        assertEquals(2, reads.get());
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 5000);
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequest_Conflict() throws Exception {
+        // Arrange
+        BookingIdempotencyService.IdempotencyRecord first = claimFirstRequest();
+        first.setResponse(confirmed);
+        when(valueOperations.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get("booking:idempotency:1:key-1")).thenReturn(first);
+
+        request.setFlightIds(List.of("flight-456"));
+
+        // Act & Assert
+        IdempotencyConflictException e = assertThrows(IdempotencyConflictException.class,
+            () -> idempotencyService.execute("key-1", testUser, request, () -> confirmed));
+        assertFalse(e.isInProgress());
+    }
+
+    @Test
+    void testFailedBooking_ReleasesKey() {
+        // Arrange
+        ArgumentCaptor<Object> claim = ArgumentCaptor.forClass(Object.class);
+        when(valueOperations.setIfAbsent(eq("booking:idempotency:1:key-1"), claim.capture(), any(Duration.class)))
+            .thenReturn(true);
+
+        BookingResponse failed = new BookingResponse();
+        failed.setSuccess(false);
+        failed.setMessage("Airline booking failed");
+
+        // Act
+        BookingIdempotencyService.Outcome outcome =
+            idempotencyService.execute("key-1", testUser, request, () -> failed);
+
+        // Assert - a retry may book again
+        assertFalse(outcome.getResponse().isSuccess());
+        String token = ((BookingIdempotencyService.IdempotencyRecord) claim.getValue()).getToken();
+        verify(stringRedisTemplate).execute(any(RedisScript.class), eq(List.of("booking:idempotency:1:key-1")), eq(token));
+        verify(redisTemplate, never()).delete(anyString());
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+        verify(stringRedisTemplate).convertAndSend(BookingIdempotencyService.COMPLETION_CHANNEL, "booking:idempotency:1:key-1");
+    }
+
+    @Test
+    void testBlankKey_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> idempotencyService.execute(" ", testUser, request, () -> confirmed));
+    }
+
+    /**
+     * Record the first request with the same body would have written
+     */
+    private BookingIdempotencyService.IdempotencyRecord claimFirstRequest() throws Exception {
+        BookingIdempotencyService.IdempotencyRecord record = new BookingIdempotencyService.IdempotencyRecord();
+        record.setToken("first-request");
+        record.setFingerprint(DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(request)));
+        return record;
+    }
+}
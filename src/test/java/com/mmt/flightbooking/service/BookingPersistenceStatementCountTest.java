@@ -0,0 +1,178 @@
+package com.mmt.flightbooking.service;
+
+import com.mmt.flightbooking.dto.BookingResponse;
+import com.mmt.flightbooking.dto.CreateBookingRequest;
+import com.mmt.flightbooking.dto.FlightSearchResult;
+import com.mmt.flightbooking.dto.PassengerRequest;
+import com.mmt.flightbooking.entity.User;
+import com.mmt.flightbooking.repository.UserRepository;
+import com.mmt.flightbooking.service.airline.AirlineBookingService;
+import com.mmt.flightbooking.service.datasource.ReadYourWrites;
+import com.mmt.flightbooking.service.airline.adapter.AirlineBookingResponse;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.history.BookingEventLog;
+import com.mmt.flightbooking.service.hold.SeatHoldService;
+import com.mmt.flightbooking.service.id.IdGenerator;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
+import com.mmt.flightbooking.service.notification.NotificationService;
+import com.mmt.flightbooking.service.payment.PaymentGatewayService;
+import com.mmt.flightbooking.service.payment.PaymentService;
+import com.mmt.flightbooking.service.user.UserCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Counts the SQL statements a booking costs against a real PostgreSQL
+ * Guards the single-write path: the PENDING aggregate goes out as one booking insert, one
+ * segment insert, one batched passenger insert and one payment insert; confirming it is one
+ * UPDATE for the booking and one per segment.
+ * Skipped when Docker is not available.
+ */
+// The throwaway container has no init-scripts schema; the mapped tables are enough here
+@DataJpaTest(properties = {"spring.jpa.properties.hibernate.generate_statistics=true",
+                           "spring.jpa.hibernate.ddl-auto=create-drop",
+                           "flightbooking.id.node-id=1"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({BookingService.class, PaymentService.class, BlockingIoExecutor.class, OptimisticLockRetry.class,
+         IdGenerator.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BookingPersistenceStatementCountTest {
+
+    private static final int PASSENGERS = 9;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @MockBean
+    private FlightSearchCacheService searchCacheService;
+
+    @MockBean
+    private AirlineBookingService airlineBookingService;
+
+    @MockBean
+    private NotificationService notificationService;
+
+    @MockBean
+    private PaymentGatewayService paymentGatewayService;
+
+    @MockBean
+    private SeatHoldService seatHoldService;
+
+    @MockBean
+    private BookingReadModelService bookingReadModel;
+
+    @MockBean
+    private ReadYourWrites readYourWrites;
+
+    @MockBean
+    private BookingEventLog eventLog;
+
+    // Injected into the User entity listener
+    @MockBean
+    private UserCache userCache;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User testUser;
+    private CreateBookingRequest request;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setEmail(UUID.randomUUID() + "@example.com");
+        testUser.setPhone(UUID.randomUUID().toString());
+        testUser.setPasswordHash("hash");
+        testUser = userRepository.save(testUser);
+
+        FlightSearchResult flight = new FlightSearchResult();
+        flight.setFlightId("flight-123");
+        flight.setFlightNumber("6E-2001");
+        flight.setAirline("IndiGo");
+        flight.setAirlineCode("6E");
+        flight.setOrigin("DEL");
+        flight.setDestination("BOM");
+        flight.setDate(LocalDate.of(2025, 11, 15));
+        flight.setPrice(new BigDecimal("5500.00"));
+        flight.setCurrency("INR");
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(flight);
+
+        when(airlineBookingService.createBookingWithAirline(any(), any(), any(), any())).then(invocation -> {
+            AirlineBookingResponse response = new AirlineBookingResponse();
+            response.setSuccess(true);
+            response.setPnr("6E-" + UUID.randomUUID().toString().substring(0, 6));
+            response.setBookingId(UUID.randomUUID().toString());
+            return response;
+        });
+
+        List<PassengerRequest> passengers = new ArrayList<>();
+        for (int i = 0; i < PASSENGERS; i++) {
+            passengers.add(new PassengerRequest("Passenger", "No" + i, 30, "ADULT"));
+        }
+        request = new CreateBookingRequest();
+        request.setFlightIds(List.of("flight-123"));
+        request.setPassengerCount(PASSENGERS);
+        request.setPassengers(passengers);
+        request.setPaymentMethod("CREDIT_CARD");
+    }
+
+    @Test
+    void testCreateBooking_StatementCount() {
+        // Warm up: first booking fetches the sequence blocks
+        assertTrue(bookingService.createBooking(request, testUser).isSuccess());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        BookingResponse response = bookingService.createBooking(request, testUser);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertEquals("CONFIRMED", response.getStatus());
+        assertEquals(1 + 1 + PASSENGERS + 1, statistics.getEntityInsertCount(),
+            "booking + segment + passengers + payment");
+        assertEquals(6, statistics.getPrepareStatementCount(),
+            "insert booking, insert segment, batched insert passengers, insert payment, "
+            + "confirm booking, confirm segment");
+    }
+}
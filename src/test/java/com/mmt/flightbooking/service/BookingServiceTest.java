@@ -3,24 +3,43 @@ package com.mmt.flightbooking.service;
 import com.mmt.flightbooking.dto.*;
 import com.mmt.flightbooking.entity.*;
 import com.mmt.flightbooking.repository.BookingRepository;
+import com.mmt.flightbooking.repository.BookingSegmentRepository;
 import com.mmt.flightbooking.service.airline.AirlineBookingService;
 import com.mmt.flightbooking.service.airline.adapter.AirlineBookingResponse;
+import com.mmt.flightbooking.service.datasource.ReadYourWrites;
+import com.mmt.flightbooking.service.datasource.ReplicaRoutingDataSource;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.history.BookingEventLog;
+import com.mmt.flightbooking.service.hold.SeatHold;
+import com.mmt.flightbooking.service.hold.SeatHoldService;
+import com.mmt.flightbooking.service.hold.SeatHoldUnavailableException;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import com.mmt.flightbooking.service.notification.NotificationService;
 import com.mmt.flightbooking.service.payment.PaymentService;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -44,6 +63,34 @@ class BookingServiceTest {
     @Mock
     private AirlineBookingService airlineBookingService;
 
+    @Mock
+    private BookingSegmentRepository segmentRepository;
+
+    @Mock
+    private SeatHoldService seatHoldService;
+
+    @Mock
+    private BookingReadModelService bookingReadModel;
+
+    @Mock
+    private BookingEventLog eventLog;
+
+    @Spy
+    private BlockingIoExecutor ioExecutor = BlockingIoExecutor.commonPool();
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Spy
+    private OptimisticLockRetry optimisticLockRetry = new OptimisticLockRetry(3, 1);
+
+    @Spy
+    private IdGenerator idGenerator = IdGenerator.standalone();
+
+    @Spy
+    private ReadYourWrites readYourWrites =
+        new ReadYourWrites(mock(StringRedisTemplate.class), mock(ReplicaRoutingDataSource.class));
+
     @InjectMocks
     private BookingService bookingService;
 
@@ -135,11 +182,11 @@ class BookingServiceTest {
         when(airlineBookingService.createBookingWithAirline(
             eq("flight-123"), 
             eq(testFlightResult), 
-            eq(createBookingRequest)
+            eq(createBookingRequest),
+            isNull()
         )).thenReturn(airlineResponse);
         when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
-        when(paymentService.createPayment(any(Booking.class), any(PaymentMethod.class)))
-            .thenReturn(testPayment);
+        when(bookingRepository.confirmPending(1L, "6E-ABC123", "airline-booking-123")).thenReturn(1);
 
         // Act
         BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
@@ -159,10 +206,18 @@ class BookingServiceTest {
         verify(airlineBookingService, times(1)).createBookingWithAirline(
             eq("flight-123"), 
             eq(testFlightResult), 
-            eq(createBookingRequest)
+            eq(createBookingRequest),
+            isNull()
         );
-        verify(bookingRepository, times(2)).save(any(Booking.class));
-        verify(paymentService, times(1)).createPayment(any(Booking.class), eq(PaymentMethod.CREDIT_CARD));
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(bookingRepository, times(1)).confirmPending(1L, "6E-ABC123", "airline-booking-123");
+        verify(paymentService, times(1)).newPendingPayment(any(Booking.class), eq(PaymentMethod.CREDIT_CARD));
+        verify(paymentService, never()).createPayment(any(), any());
+
+        // Both transitions are in the status log
+        verify(eventLog).append(1L, BookingStatusEventType.CREATED, null, BookingStatus.PENDING, "MMT12345678");
+        verify(eventLog).append(1L, BookingStatusEventType.AIRLINE_CONFIRMED, BookingStatus.PENDING,
+                                BookingStatus.CONFIRMED, "PNR 6E-ABC123");
     }
 
     @Test
@@ -179,7 +234,7 @@ class BookingServiceTest {
         assertTrue(response.getMessage().contains("Flight not found in search results"));
 
         // Verify that airline booking was not attempted
-        verify(airlineBookingService, never()).createBookingWithAirline(any(), any(), any());
+        verify(airlineBookingService, never()).createBookingWithAirline(any(), any(), any(), any());
         verify(bookingRepository, never()).save(any(Booking.class));
     }
 
@@ -191,8 +246,10 @@ class BookingServiceTest {
         failedResponse.setMessage("No seats available");
 
         when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
-        when(airlineBookingService.createBookingWithAirline(any(), any(), any()))
+        when(airlineBookingService.createBookingWithAirline(any(), any(), any(), any()))
             .thenReturn(failedResponse);
+        ArgumentCaptor<Booking> bookingCaptor = ArgumentCaptor.forClass(Booking.class);
+        when(bookingRepository.save(bookingCaptor.capture())).then(invocation -> invocation.getArgument(0));
 
         // Act
         BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
@@ -203,56 +260,113 @@ class BookingServiceTest {
         assertTrue(response.getMessage().contains("Airline booking failed"));
         assertTrue(response.getMessage().contains("No seats available"));
 
-        // Verify booking was not saved
-        verify(bookingRepository, never()).save(any(Booking.class));
+        // Verify the PENDING booking was marked FAILED and never confirmed
+        assertEquals(BookingStatus.FAILED, bookingCaptor.getValue().getStatus());
+        assertNull(bookingCaptor.getValue().getAirlinePnr());
+        verify(bookingRepository).transitionStatus(any(), eq(BookingStatus.PENDING), eq(BookingStatus.FAILED));
+        verify(bookingRepository, never()).confirmPending(any(), any(), any());
+        verify(eventLog, never()).append(any(), eq(BookingStatusEventType.AIRLINE_CONFIRMED), any(), any(), any());
+    }
+
+    @Test
+    void testCreateBooking_ConfirmFailureCancelsAirlineBooking() {
+        // Arrange
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
+        when(airlineBookingService.createBookingWithAirline(any(), any(), any(), any()))
+            .thenReturn(airlineResponse);
+        ArgumentCaptor<Booking> bookingCaptor = ArgumentCaptor.forClass(Booking.class);
+        when(bookingRepository.save(bookingCaptor.capture())).then(invocation -> invocation.getArgument(0));
+        when(bookingRepository.confirmPending(any(), any(), any()))
+            .thenThrow(new RuntimeException("Connection is not available"));
+        when(airlineBookingService.cancelBookingWithAirline("6E", "6E-ABC123")).thenReturn(true);
+
+        // Act
+        BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().contains("6E-ABC123 was cancelled"));
+        verify(airlineBookingService).cancelBookingWithAirline("6E", "6E-ABC123");
+        assertEquals(BookingStatus.FAILED, bookingCaptor.getValue().getStatus());
+        verify(bookingRepository).transitionStatus(any(), eq(BookingStatus.PENDING), eq(BookingStatus.FAILED));
+    }
+
+    @Test
+    void testCreateBooking_AirlineCalledOutsideTransaction() {
+        // Arrange
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
+        when(bookingRepository.save(any(Booking.class))).then(invocation -> invocation.getArgument(0));
+        when(bookingRepository.confirmPending(any(), any(), any())).thenReturn(1);
+        AtomicLong transactionsBeforeAirlineCall = new AtomicLong(-1);
+        when(airlineBookingService.createBookingWithAirline(any(), any(), any(), any())).then(invocation -> {
+            transactionsBeforeAirlineCall.set(mockingDetails(transactionTemplate).getInvocations().stream()
+                .filter(i -> i.getMethod().getName().equals("execute"))
+                .count());
+            return airlineResponse;
+        });
+
+        // Act
+        BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
+
+        // Assert - PENDING transaction finished before the airline call, CONFIRMED one ran after it
+        assertTrue(response.isSuccess());
+        assertEquals(1, transactionsBeforeAirlineCall.get());
+        verify(transactionTemplate, times(2)).execute(any());
     }
 
     @Test
     void testCreateBooking_BookingEntityCreatedCorrectly() {
         // Arrange
         when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
-        when(airlineBookingService.createBookingWithAirline(any(), any(), any()))
+        when(airlineBookingService.createBookingWithAirline(any(), any(), any(), any()))
             .thenReturn(airlineResponse);
         
         ArgumentCaptor<Booking> bookingCaptor = ArgumentCaptor.forClass(Booking.class);
         when(bookingRepository.save(bookingCaptor.capture())).thenReturn(testBooking);
-        when(paymentService.createPayment(any(Booking.class), any())).thenReturn(testPayment);
+        when(bookingRepository.confirmPending(1L, "6E-ABC123", "airline-booking-123")).thenReturn(1);
+        when(paymentService.newPendingPayment(any(Booking.class), eq(PaymentMethod.CREDIT_CARD))).thenReturn(testPayment);
 
         // Act
-        bookingService.createBooking(createBookingRequest, testUser);
+        BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
 
-        // Assert
-        Booking capturedBooking = bookingCaptor.getAllValues().get(0);
-        assertEquals(testUser, capturedBooking.getUser());
-        assertEquals(BookingStatus.CONFIRMED, capturedBooking.getStatus());
-        assertEquals(new BigDecimal("5500.00"), capturedBooking.getTotalAmount());
-        assertEquals("INR", capturedBooking.getCurrency());
-        assertEquals("6E", capturedBooking.getAirlineCode());
-        assertEquals("6E-ABC123", capturedBooking.getAirlinePnr());
-        assertEquals("airline-booking-123", capturedBooking.getAirlineBookingId());
-        assertEquals("6E-2001", capturedBooking.getFlightNumber());
-        assertEquals("DEL", capturedBooking.getOriginAirport());
-        assertEquals("BOM", capturedBooking.getDestinationAirport());
-        assertEquals(LocalDate.of(2025, 11, 15), capturedBooking.getDepartureDate());
+        // Assert - the only save records the whole PENDING aggregate before the airline call
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        Booking pendingBooking = bookingCaptor.getValue();
+        assertEquals(testUser, pendingBooking.getUser());
+        assertEquals(BookingStatus.PENDING, pendingBooking.getStatus());
+        assertNull(pendingBooking.getAirlinePnr());
+        assertEquals(new BigDecimal("5500.00"), pendingBooking.getTotalAmount());
+        assertEquals("INR", pendingBooking.getCurrency());
+        assertEquals("6E", pendingBooking.getAirlineCode());
+        assertEquals("6E-2001", pendingBooking.getFlightNumber());
+        assertEquals("DEL", pendingBooking.getOriginAirport());
+        assertEquals("BOM", pendingBooking.getDestinationAirport());
+        assertEquals(LocalDate.of(2025, 11, 15), pendingBooking.getDepartureDate());
+        assertSame(testPayment, pendingBooking.getPayment());
+        assertEquals(1, pendingBooking.getPassengers().size());
+
+        // Confirmed with the airline references by a single update
+        assertTrue(response.isSuccess());
+        assertEquals("CONFIRMED", response.getStatus());
+        verify(bookingRepository).confirmPending(1L, "6E-ABC123", "airline-booking-123");
     }
 
     @Test
     void testCreateBooking_PassengersAddedCorrectly() {
         // Arrange
         when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
-        when(airlineBookingService.createBookingWithAirline(any(), any(), any()))
+        when(airlineBookingService.createBookingWithAirline(any(), any(), any(), any()))
             .thenReturn(airlineResponse);
         
         ArgumentCaptor<Booking> bookingCaptor = ArgumentCaptor.forClass(Booking.class);
         when(bookingRepository.save(any(Booking.class))).then(invocation -> invocation.getArgument(0));
-        when(paymentService.createPayment(any(Booking.class), any())).thenReturn(testPayment);
+        when(bookingRepository.confirmPending(any(), any(), any())).thenReturn(1);
 
         // Act
         bookingService.createBooking(createBookingRequest, testUser);
 
         // Assert
-        verify(bookingRepository, atLeast(1)).save(bookingCaptor.capture());
-        // Get the first save call which has passengers
+        verify(bookingRepository, times(1)).save(bookingCaptor.capture());
         Booking capturedBooking = bookingCaptor.getAllValues().get(0);
         List<Passenger> passengers = capturedBooking.getPassengers();
         assertEquals(1, passengers.size());
@@ -292,6 +406,7 @@ class BookingServiceTest {
 
         verify(notificationService, times(1)).sendBookingConfirmation(testBooking);
         verify(bookingRepository, times(1)).save(testBooking);
+        verify(eventLog).append(1L, BookingStatusEventType.PAID, BookingStatus.CONFIRMED, BookingStatus.CONFIRMED, null);
     }
 
     @Test
@@ -389,6 +504,179 @@ class BookingServiceTest {
         });
     }
 
+    @Test
+    void testCancelBooking_RecordsCancellationEvent() {
+        // Arrange
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
+
+        // Act
+        Booking result = bookingService.cancelBooking(1L, testUser);
+
+        // Assert - airline cancellation is left to the outbox relay
+        assertEquals(BookingStatus.CANCELLED, result.getStatus());
+        verify(bookingRepository).save(testBooking);
+        verify(bookingReadModel).invalidate(1L);
+        verify(notificationService, times(1)).sendBookingCancellation(testBooking);
+        verify(airlineBookingService, never()).cancelBookingWithAirline(any(), any());
+        verify(eventLog).append(eq(1L), eq(BookingStatusEventType.CANCELLED), any(), eq(BookingStatus.CANCELLED), any());
+        // The user's next reads go to the primary
+        verify(readYourWrites).recordWrite(testUser);
+    }
+
+    @Test
+    void testCancelBooking_UserFromAnotherPersistenceContext() {
+        // Arrange - the current user is a cached copy, not the instance the booking was loaded with
+        User cachedUser = new User();
+        cachedUser.setId(testUser.getId());
+        cachedUser.setEmail(testUser.getEmail());
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(testBooking);
+
+        // Act
+        Booking result = bookingService.cancelBooking(1L, cachedUser);
+
+        // Assert
+        assertNotSame(testUser, cachedUser);
+        assertEquals(BookingStatus.CANCELLED, result.getStatus());
+    }
+
+    @Test
+    void testCancelBooking_AlreadyCancelled() {
+        // Arrange
+        testBooking.setStatus(BookingStatus.CANCELLED);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking));
+
+        // Act
+        bookingService.cancelBooking(1L, testUser);
+
+        // Assert - no second cancellation event
+        verify(bookingRepository, never()).save(any());
+        verify(notificationService, never()).sendBookingCancellation(any());
+    }
+
+    @Test
+    void testCancelBooking_RetriesAfterConcurrentUpdate() {
+        // Arrange - first attempt loses the race, the retry re-reads the booking
+        Booking reloaded = bookingWithStatus(BookingStatus.CONFIRMED);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking), Optional.of(reloaded));
+        when(bookingRepository.save(any(Booking.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L))
+            .then(invocation -> invocation.getArgument(0));
+
+        // Act
+        Booking result = bookingService.cancelBooking(1L, testUser);
+
+        // Assert - cancelled once, on the re-read booking
+        assertSame(reloaded, result);
+        assertEquals(BookingStatus.CANCELLED, result.getStatus());
+        verify(bookingRepository, times(2)).findById(1L);
+        verify(notificationService, times(1)).sendBookingCancellation(reloaded);
+    }
+
+    @Test
+    void testCancelBooking_GivesUpAfterRepeatedConflicts() {
+        // Arrange
+        when(bookingRepository.findById(1L)).then(invocation -> Optional.of(bookingWithStatus(BookingStatus.CONFIRMED)));
+        when(bookingRepository.save(any(Booking.class)))
+            .thenThrow(new ObjectOptimisticLockingFailureException(Booking.class, 1L));
+
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> bookingService.cancelBooking(1L, testUser));
+        verify(bookingRepository, times(3)).save(any(Booking.class));
+        verify(notificationService, never()).sendBookingCancellation(any());
+    }
+
+    @Test
+    void testCancelBooking_FailedBookingRejected() {
+        // Arrange
+        testBooking.setStatus(BookingStatus.FAILED);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> bookingService.cancelBooking(1L, testUser));
+        assertEquals(BookingStatus.FAILED, testBooking.getStatus());
+        verify(bookingRepository, never()).save(any());
+        verify(notificationService, never()).sendBookingCancellation(any());
+    }
+
+    @Test
+    void testConfirmBooking_CancelledBookingNotCharged() {
+        // Arrange
+        PaymentRequest paymentRequest = new PaymentRequest();
+        paymentRequest.setPayment(testPayment);
+        testBooking.setStatus(BookingStatus.CANCELLED);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking));
+
+        // Act
+        BookingResponse response = bookingService.confirmBooking(1L, paymentRequest);
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().contains("CANCELLED"));
+        verify(paymentService, never()).processPayment(any());
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    void testConfirmBooking_CancelledWhileChargingRefunded() {
+        // Arrange - confirmable when checked, cancelled by the time the payment is recorded
+        PaymentRequest paymentRequest = new PaymentRequest();
+        paymentRequest.setPayment(testPayment);
+        PaymentResult paymentResult = new PaymentResult(true, "Card payment successful", "TXN123");
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking),
+                                                       Optional.of(bookingWithStatus(BookingStatus.CANCELLED)));
+        when(paymentService.processPayment(paymentRequest)).thenReturn(paymentResult);
+        when(paymentService.refundPayment(eq(1L), anyString())).thenReturn(true);
+
+        // Act
+        BookingResponse response = bookingService.confirmBooking(1L, paymentRequest);
+
+        // Assert - the charge is given back
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().contains("refunded"));
+        verify(paymentService).refundPayment(eq(1L), anyString());
+        verify(bookingRepository, never()).save(any());
+        verify(notificationService, never()).sendBookingConfirmation(any());
+    }
+
+    @Test
+    void testConfirmBooking_AlreadyPaidNotChargedAgain() {
+        // Arrange - the payment claim refuses a second charge
+        PaymentRequest paymentRequest = new PaymentRequest();
+        paymentRequest.setPayment(testPayment);
+        when(bookingRepository.findById(1L)).thenReturn(Optional.of(testBooking));
+        when(paymentService.processPayment(paymentRequest))
+            .thenThrow(new IllegalStateException("Payment 1 is already paid or being processed, or its booking is closed"));
+
+        // Act
+        BookingResponse response = bookingService.confirmBooking(1L, paymentRequest);
+
+        // Assert - booking left as it was
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().contains("already paid"));
+        assertEquals(BookingStatus.CONFIRMED, testBooking.getStatus());
+        verify(bookingRepository, never()).save(any());
+        verify(paymentService, never()).refundPayment(any(), any());
+    }
+
+    @Test
+    void testConfirmBooking_PaymentOfAnotherBookingRejected() {
+        // Arrange
+        PaymentRequest paymentRequest = new PaymentRequest();
+        paymentRequest.setPayment(testPayment);
+        Booking other = bookingWithStatus(BookingStatus.CONFIRMED);
+        other.setId(2L);
+        when(bookingRepository.findById(2L)).thenReturn(Optional.of(other));
+
+        // Act
+        BookingResponse response = bookingService.confirmBooking(2L, paymentRequest);
+
+        // Assert
+        assertFalse(response.isSuccess());
+        verify(paymentService, never()).processPayment(any());
+    }
+
     @Test
     void testGetUserBookings_Success() {
         // Arrange
@@ -405,6 +693,61 @@ class BookingServiceTest {
         verify(bookingRepository, times(1)).findUserBookings(testUser);
     }
 
+    @Test
+    void testGetUserBookingHistory_FirstPageHasNextCursor() {
+        // Arrange - one row more than the page size means there is a next page
+        BookingSummary newest = bookingSummary(3L, LocalDateTime.of(2025, 11, 3, 9, 0));
+        BookingSummary middle = bookingSummary(2L, LocalDateTime.of(2025, 11, 2, 9, 0));
+        BookingSummary oldest = bookingSummary(1L, LocalDateTime.of(2025, 11, 1, 9, 0));
+        when(bookingRepository.findUserBookingSummaries(eq(testUser), any()))
+            .thenReturn(List.of(newest, middle, oldest));
+        when(segmentRepository.findSegmentSummaries(any())).thenReturn(List.of(
+            new BookingSegmentSummary(3L, 0, "6E", "6E-ABC123", "6E-2001", "DEL", "BOM", LocalDate.of(2025, 11, 15), new BigDecimal("5500.00")),
+            new BookingSegmentSummary(3L, 1, "AI", "AI-XYZ789", "AI-660", "BOM", "DEL", LocalDate.of(2025, 11, 20), new BigDecimal("6200.00"))));
+        when(bookingRepository.findPassengerSummaries(any())).thenReturn(List.of(
+            new PassengerSummary(2L, "John", "Doe", 30, PassengerType.ADULT, null)));
+
+        // Act
+        BookingHistoryPage page = bookingService.getUserBookingHistory(testUser, null, 2);
+
+        // Assert - segments and passengers attached to their bookings, fetched once for the page
+        assertEquals(List.of(newest, middle), page.getBookings());
+        assertNotNull(page.getNextCursor());
+        assertEquals(2, newest.getSegments().size());
+        assertEquals(1, middle.getPassengers().size());
+        verify(segmentRepository).findSegmentSummaries(Set.of(3L, 2L));
+        verify(bookingRepository).findPassengerSummaries(Set.of(3L, 2L));
+        verify(bookingRepository, never()).findUserBookings(any());
+    }
+
+    @Test
+    void testGetUserBookingHistory_CursorContinuesAfterLastBooking() {
+        // Arrange
+        LocalDateTime lastCreatedAt = LocalDateTime.of(2025, 11, 2, 9, 0, 0, 123456000);
+        when(bookingRepository.findUserBookingSummaries(eq(testUser), any()))
+            .thenReturn(List.of(bookingSummary(3L, LocalDateTime.of(2025, 11, 3, 9, 0)),
+                                bookingSummary(2L, lastCreatedAt),
+                                bookingSummary(1L, LocalDateTime.of(2025, 11, 1, 9, 0))));
+        String cursor = bookingService.getUserBookingHistory(testUser, null, 2).getNextCursor();
+        when(bookingRepository.findUserBookingSummariesBefore(eq(testUser), any(), any(), any()))
+            .thenReturn(List.of(bookingSummary(1L, LocalDateTime.of(2025, 11, 1, 9, 0))));
+
+        // Act
+        BookingHistoryPage page = bookingService.getUserBookingHistory(testUser, cursor, 2);
+
+        // Assert - last page
+        assertEquals(1, page.getBookings().size());
+        assertNull(page.getNextCursor());
+        verify(bookingRepository).findUserBookingSummariesBefore(eq(testUser), eq(lastCreatedAt), eq(2L), any());
+    }
+
+    @Test
+    void testGetUserBookingHistory_InvalidCursorRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> bookingService.getUserBookingHistory(testUser, "not-a-cursor", 20));
+        verifyNoInteractions(bookingRepository);
+    }
+
     @Test
     void testCreateBooking_ExceptionHandling() {
         // Arrange
@@ -432,20 +775,254 @@ class BookingServiceTest {
         createBookingRequest.setPassengerCount(3);
 
         when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
-        when(airlineBookingService.createBookingWithAirline(any(), any(), any()))
+        when(airlineBookingService.createBookingWithAirline(any(), any(), any(), any()))
             .thenReturn(airlineResponse);
         
         ArgumentCaptor<Booking> bookingCaptor = ArgumentCaptor.forClass(Booking.class);
         when(bookingRepository.save(any(Booking.class))).then(invocation -> invocation.getArgument(0));
-        when(paymentService.createPayment(any(Booking.class), any())).thenReturn(testPayment);
+        when(bookingRepository.confirmPending(any(), any(), any())).thenReturn(1);
 
         // Act
         bookingService.createBooking(createBookingRequest, testUser);
 
         // Assert
-        verify(bookingRepository, atLeast(1)).save(bookingCaptor.capture());
+        verify(bookingRepository, times(1)).save(bookingCaptor.capture());
         Booking capturedBooking = bookingCaptor.getAllValues().get(0);
         assertEquals(3, capturedBooking.getPassengers().size());
     }
-}
 
+    @Test
+    void testCreateBooking_RoundTripBooksEachSegment() {
+        // Arrange
+        FlightSearchResult returnFlight = returnFlight();
+        AirlineBookingResponse returnResponse = airlineResponse("AI", "AI-XYZ789");
+        createBookingRequest.setFlightIds(Arrays.asList("flight-123", "flight-456"));
+
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
+        when(searchCacheService.getFlightFromCache("flight-456")).thenReturn(returnFlight);
+        when(airlineBookingService.createBookingWithAirline(eq("flight-123"), any(), any(), any())).thenReturn(airlineResponse);
+        when(airlineBookingService.createBookingWithAirline(eq("flight-456"), any(), any(), any())).thenReturn(returnResponse);
+        ArgumentCaptor<Booking> bookingCaptor = ArgumentCaptor.forClass(Booking.class);
+        when(bookingRepository.save(bookingCaptor.capture())).then(invocation -> invocation.getArgument(0));
+        when(bookingRepository.confirmPending(any(), eq("6E-ABC123"), eq("airline-booking-123"))).thenReturn(1);
+
+        // Act
+        BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
+
+        // Assert - one booking, one save, every segment confirmed with its own PNR
+        assertTrue(response.isSuccess());
+        assertEquals(new BigDecimal("11700.00"), response.getTotalAmount());
+        assertTrue(response.getMessage().contains("6E-ABC123"));
+        assertTrue(response.getMessage().contains("AI-XYZ789"));
+
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        List<BookingSegment> segments = bookingCaptor.getValue().getSegments();
+        assertEquals(2, segments.size());
+        assertEquals("6E-ABC123", segments.get(0).getAirlinePnr());
+        assertEquals("AI-XYZ789", segments.get(1).getAirlinePnr());
+        assertEquals("BOM", segments.get(1).getOriginAirport());
+        verify(segmentRepository).confirmSegment(any(), eq("6E-ABC123"), eq("airline-booking-123"));
+        verify(segmentRepository).confirmSegment(any(), eq("AI-XYZ789"), eq("airline-booking-456"));
+    }
+
+    @Test
+    void testCreateBooking_SegmentFailureCancelsBookedSegments() {
+        // Arrange
+        AirlineBookingResponse failedResponse = new AirlineBookingResponse();
+        failedResponse.setSuccess(false);
+        failedResponse.setMessage("No seats available");
+        createBookingRequest.setFlightIds(Arrays.asList("flight-123", "flight-456"));
+
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
+        when(searchCacheService.getFlightFromCache("flight-456")).thenReturn(returnFlight());
+        when(airlineBookingService.createBookingWithAirline(eq("flight-123"), any(), any(), any())).thenReturn(airlineResponse);
+        when(airlineBookingService.createBookingWithAirline(eq("flight-456"), any(), any(), any())).thenReturn(failedResponse);
+        when(airlineBookingService.cancelBookingWithAirline("6E", "6E-ABC123")).thenReturn(true);
+        ArgumentCaptor<Booking> bookingCaptor = ArgumentCaptor.forClass(Booking.class);
+        when(bookingRepository.save(bookingCaptor.capture())).then(invocation -> invocation.getArgument(0));
+
+        // Act
+        BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
+
+        // Assert - the outbound flight is released and the booking never confirmed
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().contains("segment 2 of 2"));
+        assertTrue(response.getMessage().contains("No seats available"));
+        verify(airlineBookingService).cancelBookingWithAirline("6E", "6E-ABC123");
+        verify(airlineBookingService, never()).cancelBookingWithAirline(eq("AI"), any());
+        assertEquals(BookingStatus.FAILED, bookingCaptor.getValue().getStatus());
+        verify(bookingRepository, never()).confirmPending(any(), any(), any());
+    }
+
+    @Test
+    void testCreateBooking_SegmentsBookedInParallel() {
+        // Arrange
+        createBookingRequest.setFlightIds(Arrays.asList("flight-123", "flight-456"));
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
+        when(searchCacheService.getFlightFromCache("flight-456")).thenReturn(returnFlight());
+        when(airlineBookingService.createBookingWithAirline(any(), any(), any(), any())).then(invocation -> {
+            Thread.sleep(300);
+            return "flight-123".equals(invocation.getArgument(0)) 
+                ? airlineResponse : airlineResponse("AI", "AI-XYZ789");
+        });
+        when(bookingRepository.save(any(Booking.class))).then(invocation -> invocation.getArgument(0));
+        when(bookingRepository.confirmPending(any(), any(), any())).thenReturn(1);
+
+        // Act
+        long start = System.nanoTime();
+        BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert - as slow as the slowest airline, not the sum of both
+        assertTrue(response.isSuccess());
+        assertTrue(elapsedMs < 550, "Segments should be booked in parallel, took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testCreateBooking_RejectsMixedCurrencies() {
+        // Arrange
+        FlightSearchResult returnFlight = returnFlight();
+        returnFlight.setCurrency("USD");
+        createBookingRequest.setFlightIds(Arrays.asList("flight-123", "flight-456"));
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
+        when(searchCacheService.getFlightFromCache("flight-456")).thenReturn(returnFlight);
+
+        // Act
+        BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().contains("same currency"));
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(airlineBookingService, never()).createBookingWithAirline(any(), any(), any(), any());
+    }
+
+    @Test
+    void testCreateBooking_ConsumesSeatHolds() {
+        // Arrange
+        SeatHold hold = new SeatHold();
+        hold.setHoldId("hold-1");
+        hold.setFlightId("flight-123");
+        hold.setAirlineHoldReference("6E-HOLD-1");
+        createBookingRequest.setHoldIds(List.of("hold-1"));
+
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
+        when(seatHoldService.requireActiveHolds(List.of("hold-1"), testUser, List.of("flight-123"), 1))
+            .thenReturn(List.of(hold));
+        when(airlineBookingService.createBookingWithAirline(any(), any(), any(), any())).thenReturn(airlineResponse);
+        when(bookingRepository.save(any(Booking.class))).then(invocation -> invocation.getArgument(0));
+        when(bookingRepository.confirmPending(any(), any(), any())).thenReturn(1);
+
+        // Act
+        BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
+
+        // Assert - the airline books the held seats, then the hold is released
+        assertTrue(response.isSuccess());
+        verify(airlineBookingService).createBookingWithAirline(
+            eq("flight-123"), eq(testFlightResult), eq(createBookingRequest), eq("6E-HOLD-1"));
+        verify(seatHoldService).reserveUnheldSeats(List.of("flight-123"), List.of(testFlightResult), List.of(hold), 1);
+        verify(seatHoldService).consumeHolds(List.of(hold));
+    }
+
+    @Test
+    void testCreateBooking_WithoutHoldCountsAgainstHeldSeats() {
+        // Arrange
+        SeatHold reservation = new SeatHold();
+        reservation.setHoldId("reservation-1");
+        reservation.setFlightId("flight-123");
+
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
+        when(seatHoldService.requireActiveHolds(any(), any(), any(), anyInt())).thenReturn(List.of());
+        when(seatHoldService.reserveUnheldSeats(List.of("flight-123"), List.of(testFlightResult), List.of(), 1))
+            .thenReturn(List.of(reservation));
+        when(airlineBookingService.createBookingWithAirline(any(), any(), any(), any())).thenReturn(airlineResponse);
+        when(bookingRepository.save(any(Booking.class))).then(invocation -> invocation.getArgument(0));
+        when(bookingRepository.confirmPending(any(), any(), any())).thenReturn(1);
+
+        // Act
+        BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
+
+        // Assert - seats counted while the airline is called, released once it has booked them
+        assertTrue(response.isSuccess());
+        verify(seatHoldService).releaseReservations(List.of(reservation));
+        verify(seatHoldService, never()).consumeHolds(any());
+    }
+
+    @Test
+    void testCreateBooking_WithoutHoldSeatsHeldByOthers() {
+        // Arrange
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
+        when(seatHoldService.requireActiveHolds(any(), any(), any(), anyInt())).thenReturn(List.of());
+        when(seatHoldService.reserveUnheldSeats(any(), any(), any(), anyInt()))
+            .thenThrow(new SeatHoldUnavailableException("Not enough seats left on 6E-2001"));
+
+        // Act
+        BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
+
+        // Assert - nothing recorded, airline never called
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().contains("Not enough seats left"));
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(airlineBookingService, never()).createBookingWithAirline(any(), any(), any(), any());
+    }
+
+    @Test
+    void testCreateBooking_ExpiredSeatHoldRejected() {
+        // Arrange
+        createBookingRequest.setHoldIds(List.of("hold-1"));
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(testFlightResult);
+        when(seatHoldService.requireActiveHolds(any(), any(), any(), anyInt()))
+            .thenThrow(new IllegalArgumentException("Seat hold hold-1 has expired. Please hold the seats again."));
+
+        // Act
+        BookingResponse response = bookingService.createBooking(createBookingRequest, testUser);
+
+        // Assert - nothing recorded, airline never called
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().contains("has expired"));
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(airlineBookingService, never()).createBookingWithAirline(any(), any(), any(), any());
+    }
+
+    private BookingSummary bookingSummary(Long id, LocalDateTime createdAt) {
+        return new BookingSummary(id, "MMT0000000" + id, BookingStatus.CONFIRMED, new BigDecimal("5500.00"), "INR",
+            "6E", "6E-ABC123", "6E-2001", "DEL", "BOM", LocalDate.of(2025, 11, 15), createdAt, createdAt);
+    }
+
+    private Booking bookingWithStatus(BookingStatus status) {
+        Booking booking = new Booking();
+        booking.setId(1L);
+        booking.setUser(testUser);
+        booking.setBookingReference("MMT12345678");
+        booking.setStatus(status);
+        booking.setAirlineCode("6E");
+        return booking;
+    }
+
+    private FlightSearchResult returnFlight() {
+        FlightSearchResult flight = new FlightSearchResult();
+        flight.setFlightId("flight-456");
+        flight.setFlightNumber("AI-660");
+        flight.setAirline("Air India");
+        flight.setAirlineCode("AI");
+        flight.setOrigin("BOM");
+        flight.setDestination("DEL");
+        flight.setDate(LocalDate.of(2025, 11, 20));
+        flight.setDepartureTime(LocalTime.of(18, 0));
+        flight.setArrivalTime(LocalTime.of(20, 10));
+        flight.setPrice(new BigDecimal("6200.00"));
+        flight.setCurrency("INR");
+        flight.setDurationMinutes(130);
+        return flight;
+    }
+
+    private AirlineBookingResponse airlineResponse(String airlineCode, String pnr) {
+        AirlineBookingResponse response = new AirlineBookingResponse();
+        response.setSuccess(true);
+        response.setPnr(pnr);
+        response.setBookingId("airline-booking-456");
+        response.setAirlineCode(airlineCode);
+        response.setMessage("Booking successful");
+        return response;
+    }
+}
@@ -4,12 +4,17 @@ import com.mmt.flightbooking.dto.FlightSearchRequest;
 import com.mmt.flightbooking.dto.FlightSearchResponse;
 import com.mmt.flightbooking.dto.FlightSearchResult;
 import com.mmt.flightbooking.service.airline.ExternalAirlineService;
+import com.mmt.flightbooking.service.id.IdGenerator;
+import com.mmt.flightbooking.service.search.SearchMetrics;
+import com.mmt.flightbooking.service.search.SearchScope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -33,6 +38,12 @@ class FlightSearchServiceTest {
     @Mock
     private FlightSearchCacheService searchCacheService;
 
+    @Spy
+    private SearchMetrics searchMetrics = new SearchMetrics(new SimpleMeterRegistry());
+
+    @Spy
+    private IdGenerator idGenerator = IdGenerator.standalone();
+
     @InjectMocks
     private FlightSearchService flightSearchService;
 
@@ -68,7 +79,7 @@ class FlightSearchServiceTest {
         // Arrange
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(mockFlightResults);
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response = flightSearchService.searchFlights(searchRequest);
@@ -79,7 +90,7 @@ class FlightSearchServiceTest {
         assertNotNull(response.getSearchId());
         assertEquals(4, response.getFlights().size());
 
-        verify(airlineService, times(1)).searchFlightsAsync(searchRequest);
+        verify(airlineService, times(1)).searchFlights(eq(searchRequest), any(SearchScope.class));
         verify(searchCacheService, times(4)).cacheFlightResult(anyString(), any(FlightSearchResult.class));
     }
 
@@ -88,7 +99,7 @@ class FlightSearchServiceTest {
         // Arrange
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(mockFlightResults);
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         ArgumentCaptor<String> flightIdCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<FlightSearchResult> flightCaptor = ArgumentCaptor.forClass(FlightSearchResult.class);
@@ -117,7 +128,7 @@ class FlightSearchServiceTest {
 
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(new ArrayList<>(mockFlightResults));
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response = flightSearchService.searchFlights(searchRequest);
@@ -138,7 +149,7 @@ class FlightSearchServiceTest {
 
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(new ArrayList<>(mockFlightResults));
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response = flightSearchService.searchFlights(searchRequest);
@@ -165,7 +176,7 @@ class FlightSearchServiceTest {
 
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(mixedDurationFlights);
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response = flightSearchService.searchFlights(searchRequest);
@@ -185,7 +196,7 @@ class FlightSearchServiceTest {
 
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(new ArrayList<>(mockFlightResults));
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response = flightSearchService.searchFlights(searchRequest);
@@ -203,7 +214,7 @@ class FlightSearchServiceTest {
         // Arrange
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(new ArrayList<>());
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response = flightSearchService.searchFlights(searchRequest);
@@ -221,7 +232,7 @@ class FlightSearchServiceTest {
         CompletableFuture<List<FlightSearchResult>> future = CompletableFuture.failedFuture(
             new RuntimeException("Airline API unavailable")
         );
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response = flightSearchService.searchFlights(searchRequest);
@@ -238,7 +249,7 @@ class FlightSearchServiceTest {
         // Arrange
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(mockFlightResults);
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
         
         // Simulate cache failure for one specific flight only
         doNothing().when(searchCacheService).cacheFlightResult(eq("flight-1"), any());
@@ -264,7 +275,7 @@ class FlightSearchServiceTest {
         // Arrange
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(mockFlightResults);
-        when(airlineService.searchFlightsAsync(any())).thenReturn(future);
+        when(airlineService.searchFlights(any(), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response1 = flightSearchService.searchFlights(searchRequest);
@@ -284,7 +295,7 @@ class FlightSearchServiceTest {
 
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(new ArrayList<>(mockFlightResults));
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response = flightSearchService.searchFlights(searchRequest);
@@ -303,7 +314,7 @@ class FlightSearchServiceTest {
         
         ArgumentCaptor<FlightSearchRequest> requestCaptor = 
             ArgumentCaptor.forClass(FlightSearchRequest.class);
-        when(airlineService.searchFlightsAsync(requestCaptor.capture())).thenReturn(future);
+        when(airlineService.searchFlights(requestCaptor.capture(), any(SearchScope.class))).thenReturn(future);
 
         // Act
         flightSearchService.searchFlights(searchRequest);
@@ -325,7 +336,7 @@ class FlightSearchServiceTest {
 
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(new ArrayList<>(mockFlightResults));
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response = flightSearchService.searchFlights(searchRequest);
@@ -357,7 +368,7 @@ class FlightSearchServiceTest {
 
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(largeResultSet);
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response = flightSearchService.searchFlights(searchRequest);
@@ -376,7 +387,7 @@ class FlightSearchServiceTest {
 
         CompletableFuture<List<FlightSearchResult>> future = 
             CompletableFuture.completedFuture(mockFlightResults);
-        when(airlineService.searchFlightsAsync(searchRequest)).thenReturn(future);
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(future);
 
         // Act
         FlightSearchResponse response = flightSearchService.searchFlights(searchRequest);
@@ -388,6 +399,53 @@ class FlightSearchServiceTest {
         assertEquals(4, response.getFlights().size());
     }
 
+    @Test
+    void testSearchFlightsAsync_DoesNotBlockWhileAirlinesPending() {
+        // Arrange
+        CompletableFuture<List<FlightSearchResult>> pending = new CompletableFuture<>();
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(pending);
+
+        // Act
+        CompletableFuture<FlightSearchResponse> future = flightSearchService.searchFlightsAsync(searchRequest);
+
+        // Assert - returns immediately and counts the search as in flight
+        assertFalse(future.isDone());
+        assertEquals(1, searchMetrics.getInFlight());
+
+        pending.complete(mockFlightResults);
+        FlightSearchResponse response = future.join();
+        assertTrue(response.isSuccess());
+        assertEquals(mockFlightResults.size(), response.getTotalCount());
+        assertEquals(0, searchMetrics.getInFlight());
+    }
+
+    @Test
+    void testSearchFlightsAsync_AbandonedSearchSkipsCache() {
+        // Arrange
+        CompletableFuture<List<FlightSearchResult>> pending = new CompletableFuture<>();
+        when(airlineService.searchFlights(eq(searchRequest), any(SearchScope.class))).thenReturn(pending);
+        SearchScope scope = SearchScope.open("search-1", 1000);
+
+        // Act - client disconnects before the airlines answer
+        CompletableFuture<FlightSearchResponse> future = flightSearchService.searchFlightsAsync(searchRequest, scope);
+        scope.cancel(SearchScope.CLIENT_DISCONNECT);
+        pending.complete(mockFlightResults);
+
+        // Assert
+        FlightSearchResponse response = future.join();
+        assertFalse(response.isSuccess());
+        verify(searchCacheService, never()).cacheFlightResult(anyString(), any());
+    }
+
+    @Test
+    void testOpenScope_RequestedTimeoutCannotExceedConfigured() {
+        // Act
+        SearchScope scope = flightSearchService.openScope(500L);
+
+        // Assert
+        assertTrue(scope.remaining().toMillis() <= 500);
+    }
+
     // Helper methods
     private FlightSearchResult createFlightResult(String flightId, String flightNumber, 
                                                   String airline, String airlineCode,
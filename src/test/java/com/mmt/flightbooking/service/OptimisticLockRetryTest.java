@@ -0,0 +1,52 @@
+package com.mmt.flightbooking.service;
+
+import com.mmt.flightbooking.entity.Booking;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticLockRetryTest {
+
+    private final OptimisticLockRetry retry = new OptimisticLockRetry(3, 1);
+
+    @Test
+    void testExecute_RetriesUntilNoConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retry.execute("test", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException(Booking.class, 1L);
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testExecute_GivesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> retry.execute("test", () -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Booking.class, 1L);
+        }));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void testExecute_OtherFailuresNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> retry.execute("test", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Booking MMT1 cannot go from FAILED to CANCELLED");
+        }));
+        assertEquals(1, attempts.get());
+    }
+}
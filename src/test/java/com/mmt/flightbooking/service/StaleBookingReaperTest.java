@@ -0,0 +1,155 @@
+package com.mmt.flightbooking.service;
+
+import com.mmt.flightbooking.entity.BookingEventType;
+import com.mmt.flightbooking.entity.BookingStatus;
+import com.mmt.flightbooking.entity.BookingStatusEventType;
+import com.mmt.flightbooking.repository.BookingRepository;
+import com.mmt.flightbooking.repository.PaymentRepository;
+import com.mmt.flightbooking.service.history.BookingEventLog;
+import com.mmt.flightbooking.service.outbox.OutboxService;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StaleBookingReaperTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2025, 11, 1, 10, 0);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private BookingReadModelService bookingReadModel;
+
+    @Mock
+    private BookingEventLog eventLog;
+
+    private SimpleMeterRegistry registry;
+    private StaleBookingReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        reaper = new StaleBookingReaper(bookingRepository, paymentRepository, outboxService, bookingReadModel,
+                                        eventLog, transactionTemplate, registry);
+    }
+
+    @Test
+    void testReapPendingBatch_FailsClaimedBookingsAndPayments() {
+        // Arrange
+        when(bookingRepository.lockStalePending(CUTOFF, 200)).thenReturn(List.of(1L, 2L));
+        when(bookingRepository.failPending(List.of(1L, 2L))).thenReturn(2);
+
+        // Act
+        int reaped = reaper.reapPendingBatch(CUTOFF);
+
+        // Assert - one UPDATE each for the bookings and their payments
+        assertEquals(2, reaped);
+        verify(paymentRepository).failPendingForBookings(List.of(1L, 2L));
+        verify(eventLog).appendAll(List.of(1L, 2L), BookingStatusEventType.FAILED, BookingStatus.PENDING,
+                                   BookingStatus.FAILED, "abandoned");
+        verify(bookingReadModel).invalidate(1L);
+        verify(bookingReadModel).invalidate(2L);
+        verifyNoInteractions(outboxService);
+        assertEquals(2.0, registry.counter("flightbooking.booking.reaper.reaped", "kind", "booking").count());
+    }
+
+    @Test
+    void testReapUnpaidBatch_FailsBookingsAndCancelsThroughOutbox() {
+        // Arrange
+        when(bookingRepository.lockUnpaidConfirmed(CUTOFF, 200)).thenReturn(List.of(1L, 2L));
+        when(bookingRepository.failUnpaidConfirmed(List.of(1L, 2L))).thenReturn(2);
+
+        // Act
+        int claimed = reaper.reapUnpaidBatch(CUTOFF);
+
+        // Assert - payments failed before the bookings, airline cancel left to the outbox relay
+        assertEquals(2, claimed);
+        var order = inOrder(paymentRepository, bookingRepository);
+        order.verify(paymentRepository).failPendingForBookings(List.of(1L, 2L));
+        order.verify(bookingRepository).failUnpaidConfirmed(List.of(1L, 2L));
+        verify(eventLog).appendAll(List.of(1L, 2L), BookingStatusEventType.FAILED, BookingStatus.CONFIRMED,
+                                   BookingStatus.FAILED, "payment window expired");
+        verify(outboxService).recordAll(List.of(1L, 2L), BookingEventType.BOOKING_CANCELLED);
+        verify(bookingReadModel).invalidate(2L);
+        assertEquals(2.0, registry.counter("flightbooking.booking.reaper.reaped", "kind", "unpaid").count());
+    }
+
+    @Test
+    void testReapUnpaidBatch_SkipsBookingBeingCharged() {
+        // Arrange - booking 2's payment was claimed for a charge before the reaper got to it
+        when(bookingRepository.lockUnpaidConfirmed(CUTOFF, 200)).thenReturn(List.of(1L, 2L));
+        when(bookingRepository.failUnpaidConfirmed(List.of(1L, 2L))).thenReturn(1);
+        when(bookingRepository.findIdsByIdInAndStatus(List.of(1L, 2L), BookingStatus.FAILED)).thenReturn(List.of(1L));
+
+        // Act
+        reaper.reapUnpaidBatch(CUTOFF);
+
+        // Assert
+        verify(outboxService).recordAll(List.of(1L), BookingEventType.BOOKING_CANCELLED);
+        verify(bookingReadModel, never()).invalidate(2L);
+        assertEquals(1.0, registry.counter("flightbooking.booking.reaper.reaped", "kind", "unpaid").count());
+    }
+
+    @Test
+    void testReapPendingBatch_NothingStale() {
+        // Arrange
+        when(bookingRepository.lockStalePending(CUTOFF, 200)).thenReturn(List.of());
+
+        // Act & Assert
+        assertEquals(0, reaper.reapPendingBatch(CUTOFF));
+        verify(bookingRepository, never()).failPending(any());
+        verifyNoInteractions(paymentRepository, bookingReadModel);
+    }
+
+    @Test
+    void testReapOrphanedPaymentBatch_FailsClaimedPayments() {
+        // Arrange
+        when(paymentRepository.lockOrphanedPending(CUTOFF, 200)).thenReturn(List.of(10L, 11L));
+        when(paymentRepository.failPending(List.of(10L, 11L))).thenReturn(2);
+
+        // Act & Assert
+        assertEquals(2, reaper.reapOrphanedPaymentBatch(CUTOFF));
+        assertEquals(2.0, registry.counter("flightbooking.booking.reaper.reaped", "kind", "payment").count());
+    }
+
+    @Test
+    void testReap_DrainsFullBatchesAndExportsBacklog() {
+        // Arrange - a full batch means there may be more
+        ReflectionTestUtils.setField(reaper, "batchSize", 2);
+        when(bookingRepository.lockStalePending(any(), eq(2))).thenReturn(List.of(1L, 2L), List.of(3L));
+        when(bookingRepository.failPending(anyCollection())).thenReturn(2, 1);
+        when(bookingRepository.lockUnpaidConfirmed(any(), eq(2))).thenReturn(List.of());
+        when(paymentRepository.lockOrphanedPending(any(), eq(2))).thenReturn(List.of());
+        when(bookingRepository.countStalePending(any())).thenReturn(7L);
+
+        // Act
+        reaper.reap();
+
+        // Assert
+        verify(bookingRepository, times(2)).lockStalePending(any(), eq(2));
+        assertEquals(7.0, registry.get("flightbooking.booking.reaper.backlog").gauge().value());
+    }
+}
@@ -7,14 +7,18 @@ import com.mmt.flightbooking.service.airline.adapter.AirlineAdapter;
 import com.mmt.flightbooking.service.airline.adapter.AirlineAdapterFactory;
 import com.mmt.flightbooking.service.airline.adapter.AirlineBookingDetails;
 import com.mmt.flightbooking.service.airline.adapter.AirlineBookingResponse;
+import com.mmt.flightbooking.service.airline.adapter.AirlineHoldResponse;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.Arrays;
@@ -22,6 +26,7 @@ import java.util.Arrays;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +38,9 @@ class AirlineBookingServiceTest {
     @Mock
     private AirlineAdapter mockAdapter;
 
+    @Spy
+    private BlockingIoExecutor ioExecutor = BlockingIoExecutor.commonPool();
+
     @InjectMocks
     private AirlineBookingService airlineBookingService;
 
@@ -81,12 +89,12 @@ class AirlineBookingServiceTest {
     void testCreateBookingWithAirline_Success() {
         // Arrange
         when(adapterFactory.getAdapter("6E")).thenReturn(mockAdapter);
-        when(mockAdapter.createBooking(eq("flight-123"), eq(flightDetails), eq(bookingRequest)))
+        when(mockAdapter.createBooking(eq("flight-123"), eq(flightDetails), eq(bookingRequest), isNull()))
             .thenReturn(successResponse);
 
         // Act
         AirlineBookingResponse response = airlineBookingService.createBookingWithAirline(
-            "flight-123", flightDetails, bookingRequest
+            "flight-123", flightDetails, bookingRequest, null
         );
 
         // Assert
@@ -97,7 +105,24 @@ class AirlineBookingServiceTest {
         assertEquals("6E", response.getAirlineCode());
 
         verify(adapterFactory, times(1)).getAdapter("6E");
-        verify(mockAdapter, times(1)).createBooking("flight-123", flightDetails, bookingRequest);
+        verify(mockAdapter, times(1)).createBooking("flight-123", flightDetails, bookingRequest, null);
+    }
+
+    @Test
+    void testCreateBookingWithAirline_BooksHeldSeats() {
+        // Arrange
+        when(adapterFactory.getAdapter("6E")).thenReturn(mockAdapter);
+        when(mockAdapter.createBooking("flight-123", flightDetails, bookingRequest, "6E-HOLD-1"))
+            .thenReturn(successResponse);
+
+        // Act
+        AirlineBookingResponse response = airlineBookingService.createBookingWithAirline(
+            "flight-123", flightDetails, bookingRequest, "6E-HOLD-1"
+        );
+
+        // Assert - the airline books out of the hold
+        assertTrue(response.isSuccess());
+        verify(mockAdapter, times(1)).createBooking("flight-123", flightDetails, bookingRequest, "6E-HOLD-1");
     }
 
     @Test
@@ -110,7 +135,7 @@ class AirlineBookingServiceTest {
 
         // Act
         AirlineBookingResponse response = airlineBookingService.createBookingWithAirline(
-            "flight-123", flightDetails, bookingRequest
+            "flight-123", flightDetails, bookingRequest, null
         );
 
         // Assert
@@ -119,19 +144,19 @@ class AirlineBookingServiceTest {
         assertTrue(response.getMessage().contains("Unsupported airline"));
         assertEquals("XX", response.getAirlineCode());
 
-        verify(mockAdapter, never()).createBooking(any(), any(), any());
+        verify(mockAdapter, never()).createBooking(any(), any(), any(), any());
     }
 
     @Test
     void testCreateBookingWithAirline_AdapterFails() {
         // Arrange
         when(adapterFactory.getAdapter("6E")).thenReturn(mockAdapter);
-        when(mockAdapter.createBooking(any(), any(), any()))
+        when(mockAdapter.createBooking(any(), any(), any(), any()))
             .thenThrow(new RuntimeException("Airline API error"));
 
         // Act
         AirlineBookingResponse response = airlineBookingService.createBookingWithAirline(
-            "flight-123", flightDetails, bookingRequest
+            "flight-123", flightDetails, bookingRequest, null
         );
 
         // Assert
@@ -164,10 +189,10 @@ class AirlineBookingServiceTest {
             mockResponse.setAirlineCode(code);
 
             when(adapterFactory.getAdapter(code)).thenReturn(mockAdapter);
-            when(mockAdapter.createBooking(any(), any(), any())).thenReturn(mockResponse);
+            when(mockAdapter.createBooking(any(), any(), any(), any())).thenReturn(mockResponse);
 
             AirlineBookingResponse response = airlineBookingService.createBookingWithAirline(
-                "flight-123", flightDetails, bookingRequest
+                "flight-123", flightDetails, bookingRequest, null
             );
 
             assertTrue(response.isSuccess());
@@ -280,5 +305,45 @@ class AirlineBookingServiceTest {
             assertTrue(result);
         }
     }
-}
 
+    @Test
+    void testHoldSeatsWithAirline_Success() {
+        // Arrange
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        when(adapterFactory.getAdapter("6E")).thenReturn(mockAdapter);
+        when(mockAdapter.holdSeats("hold-1", flightDetails, 2, expiresAt))
+            .thenReturn(new AirlineHoldResponse(true, "6E-HOLD-1", "6E", "Seats held"));
+
+        // Act
+        AirlineHoldResponse response = airlineBookingService.holdSeatsWithAirline("hold-1", flightDetails, 2, expiresAt);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertEquals("6E-HOLD-1", response.getHoldReference());
+    }
+
+    @Test
+    void testHoldSeatsWithAirline_ExceptionHandling() {
+        // Arrange
+        when(adapterFactory.getAdapter("6E"))
+            .thenThrow(new RuntimeException("Adapter error"));
+
+        // Act
+        AirlineHoldResponse response = airlineBookingService.holdSeatsWithAirline(
+            "hold-1", flightDetails, 2, Instant.now().plusSeconds(600));
+
+        // Assert
+        assertFalse(response.isSuccess());
+        assertEquals("6E", response.getAirlineCode());
+    }
+
+    @Test
+    void testReleaseHoldWithAirline_Success() {
+        // Arrange
+        when(adapterFactory.getAdapter("6E")).thenReturn(mockAdapter);
+        when(mockAdapter.releaseHold("6E-HOLD-1")).thenReturn(true);
+
+        // Act & Assert
+        assertTrue(airlineBookingService.releaseHoldWithAirline("6E", "6E-HOLD-1"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.mmt.flightbooking.service.airline;
+
+import com.mmt.flightbooking.dto.AirlineTimeoutStats;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AirlineLatencyTrackerTest {
+
+    private MockClock clock;
+    private SimpleMeterRegistry registry;
+    private AirlineLatencyTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MockClock();
+        registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        // factor 2, bounds 100..2000 ms, default 1000 ms after fewer than 10 samples
+        tracker = new AirlineLatencyTracker(registry, 2.0, 100, 2000, 1000, 10, 60);
+    }
+
+    @Test
+    void testSearchTimeout_UsesDefaultUntilEnoughSamples() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            tracker.recordSuccess("6E", Duration.ofMillis(200));
+        }
+
+        // Act
+        AirlineTimeoutStats stats = tracker.getStats("6E");
+
+        // Assert
+        assertEquals(1000, tracker.searchTimeout("6E").toMillis());
+        assertEquals("default", stats.getSource());
+    }
+
+    @Test
+    void testSearchTimeout_DerivedFromP99() {
+        // Arrange
+        for (int i = 0; i < 100; i++) {
+            tracker.recordSuccess("AI", Duration.ofMillis(400));
+        }
+
+        // Act
+        AirlineTimeoutStats stats = tracker.getStats("AI");
+
+        // Assert - p99 ~400ms x 2
+        assertEquals("p99", stats.getSource());
+        assertTrue(stats.getTimeoutMs() >= 700 && stats.getTimeoutMs() <= 900,
+                   "timeout was " + stats.getTimeoutMs());
+    }
+
+    @Test
+    void testSearchTimeout_ClampedToBounds() {
+        // Arrange
+        for (int i = 0; i < 20; i++) {
+            tracker.recordSuccess("6E", Duration.ofMillis(10));
+            tracker.recordSuccess("UK", Duration.ofSeconds(5));
+        }
+
+        // Act & Assert
+        assertEquals(100, tracker.searchTimeout("6E").toMillis());
+        assertEquals("min-bound", tracker.getStats("6E").getSource());
+        assertEquals(2000, tracker.searchTimeout("UK").toMillis());
+        assertEquals("max-bound", tracker.getStats("UK").getSource());
+    }
+
+    @Test
+    void testSearchTimeout_BackToDefaultOnceSamplesLeaveWindow() {
+        // Arrange
+        for (int i = 0; i < 100; i++) {
+            tracker.recordSuccess("AI", Duration.ofMillis(400));
+        }
+        assertEquals("p99", tracker.getStats("AI").getSource());
+
+        // Act - the 60s window moves past every sample
+        clock.add(Duration.ofSeconds(61));
+        AirlineTimeoutStats stats = tracker.getStats("AI");
+
+        // Assert - lifetime samples no longer count
+        assertEquals(0, stats.getSamples());
+        assertEquals("default", stats.getSource());
+        assertEquals(1000, stats.getTimeoutMs());
+    }
+
+    @Test
+    void testRecordCutoff_CountedAndPublished() {
+        // Act
+        tracker.recordCutoff("SG", Duration.ofMillis(1000));
+
+        // Assert
+        assertEquals(1, tracker.getStats("SG").getCutoffs());
+        assertEquals(1.0, registry.get("flightbooking.airline.search.cutoffs").tag("airline", "SG").counter().count());
+        assertEquals(1000.0, registry.get("flightbooking.airline.search.timeout").tag("airline", "SG").gauge().value());
+    }
+}
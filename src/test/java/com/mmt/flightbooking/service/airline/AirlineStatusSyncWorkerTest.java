@@ -0,0 +1,240 @@
+package com.mmt.flightbooking.service.airline;
+
+import com.mmt.flightbooking.entity.BookingEventType;
+import com.mmt.flightbooking.entity.BookingStatus;
+import com.mmt.flightbooking.entity.BookingStatusEventType;
+import com.mmt.flightbooking.service.airline.adapter.AirlineBookingDetails;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.history.BookingEventLog;
+import com.mmt.flightbooking.service.outbox.OutboxService;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AirlineStatusSyncWorkerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 11, 1);
+    private static final LocalDate DEPARTURE = LocalDate.of(2025, 11, 15);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private AirlineBookingService airlineBookingService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private BookingEventLog eventLog;
+
+    @Mock
+    private BookingReadModelService bookingReadModel;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private SimpleMeterRegistry registry;
+    private AirlineStatusSyncWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        worker = new AirlineStatusSyncWorker(jdbcTemplate, airlineBookingService, BlockingIoExecutor.commonPool(),
+                                             transactionTemplate, outboxService, eventLog, bookingReadModel,
+                                             stringRedisTemplate, registry);
+    }
+
+    @Test
+    void testSync_ScheduleChangeUpdatesSegmentAndBooking() throws Exception {
+        // Arrange
+        scanReturns(List.of(segment(11L, 1L, 0, "6E", "6E-ABC123", "6E-2001")));
+        when(airlineBookingService.getBookingFromAirline("6E", "6E-ABC123"))
+            .thenReturn(details("6E-ABC123", "CONFIRMED", "6E-2005"));
+
+        // Act
+        AirlineStatusSyncWorker.SyncStats stats = worker.syncUpcomingBookings(TODAY);
+
+        // Assert - first segment, so the booking row is updated too
+        assertEquals(1, stats.getPolled());
+        assertEquals(1, stats.getRescheduled());
+        List<Object[]> segmentRows = batchArgs("UPDATE booking_segments");
+        assertArrayEquals(new Object[] {"6E-2005", "DEL", "BOM", 11L}, segmentRows.get(0));
+        List<Object[]> bookingRows = batchArgs("UPDATE bookings SET flight_number");
+        assertArrayEquals(new Object[] {"6E-2005", "DEL", "BOM", 1L}, bookingRows.get(0));
+        verify(bookingReadModel).invalidate(1L);
+        verify(eventLog).append(1L, BookingStatusEventType.SYNCED, BookingStatus.CONFIRMED, BookingStatus.CONFIRMED,
+                                "segment 0: 6E-2001 DEL-BOM -> 6E-2005 DEL-BOM");
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void testSync_AirlineCancellationCancelsBooking() throws Exception {
+        // Arrange
+        scanReturns(List.of(segment(12L, 2L, 1, "AI", "AI-XYZ789", "AI-660")));
+        when(airlineBookingService.getBookingFromAirline("AI", "AI-XYZ789"))
+            .thenReturn(details("AI-XYZ789", "CANCELLED", "AI-660"));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE bookings SET status"), anyList())).thenReturn(new int[] {1});
+
+        // Act
+        AirlineStatusSyncWorker.SyncStats stats = worker.syncUpcomingBookings(TODAY);
+
+        // Assert - the outbox tells the customer and releases the other segments
+        assertEquals(1, stats.getCancelled());
+        verify(outboxService).record(2L, BookingEventType.BOOKING_CANCELLED);
+        verify(eventLog).appendAll(List.of(2L), BookingStatusEventType.CANCELLED, BookingStatus.CONFIRMED,
+                                   BookingStatus.CANCELLED, "cancelled by airline");
+        verify(bookingReadModel).invalidate(2L);
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("UPDATE booking_segments"), anyList());
+    }
+
+    @Test
+    void testSync_BookingChangedSinceScanNotCancelledAgain() throws Exception {
+        // Arrange - the customer cancelled after the scan, so the guarded update matches nothing
+        scanReturns(List.of(segment(12L, 2L, 0, "AI", "AI-XYZ789", "AI-660")));
+        when(airlineBookingService.getBookingFromAirline("AI", "AI-XYZ789"))
+            .thenReturn(details("AI-XYZ789", "CANCELLED", "AI-660"));
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE bookings SET status"), anyList())).thenReturn(new int[] {0});
+
+        // Act
+        AirlineStatusSyncWorker.SyncStats stats = worker.syncUpcomingBookings(TODAY);
+
+        // Assert
+        assertEquals(0, stats.getCancelled());
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void testSync_UnchangedAndUnavailableWriteNothing() throws Exception {
+        // Arrange
+        scanReturns(List.of(segment(11L, 1L, 0, "6E", "6E-ABC123", "6E-2001"),
+                            segment(12L, 2L, 0, "SG", "SG-47C459", "SG-234")));
+        when(airlineBookingService.getBookingFromAirline("6E", "6E-ABC123"))
+            .thenReturn(details("6E-ABC123", "CONFIRMED", "6E-2001"));
+        when(airlineBookingService.getBookingFromAirline("SG", "SG-47C459")).thenReturn(null);
+
+        // Act
+        AirlineStatusSyncWorker.SyncStats stats = worker.syncUpcomingBookings(TODAY);
+
+        // Assert
+        assertEquals(2, stats.getPolled());
+        assertEquals(1, stats.getUnavailable());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verifyNoInteractions(bookingReadModel);
+    }
+
+    @Test
+    void testSync_WalksChunksWithKeyset() throws Exception {
+        // Arrange - a full chunk means there may be more
+        ReflectionTestUtils.setField(worker, "chunkSize", 2);
+        List<ResultSet> first = List.of(segment(11L, 1L, 0, "6E", "6E-1", "6E-2001"),
+                                        segment(12L, 2L, 0, "6E", "6E-2", "6E-2001"));
+        List<ResultSet> second = List.of(segment(13L, 3L, 0, "6E", "6E-3", "6E-2001"));
+        AtomicInteger calls = new AtomicInteger();
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any(), any()))
+            .thenAnswer(invocation -> map(invocation.getArgument(1), calls.getAndIncrement() == 0 ? first : second));
+
+        // Act
+        AirlineStatusSyncWorker.SyncStats stats = worker.syncUpcomingBookings(TODAY);
+
+        // Assert - the second chunk starts after the last segment of the first
+        assertEquals(3, stats.getPolled());
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class), eq(TODAY.plusDays(30)), eq(TODAY), eq(0L), eq(2));
+        verify(jdbcTemplate).query(anyString(), any(RowMapper.class), eq(TODAY.plusDays(30)), eq(DEPARTURE), eq(12L), eq(2));
+    }
+
+    @Test
+    void testSync_PerAirlineConcurrencyBounded() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(worker, "perAirlineConcurrency", 2);
+        List<ResultSet> rows = new ArrayList<>();
+        for (long i = 1; i <= 8; i++) {
+            rows.add(segment(10 + i, i, 0, "6E", "6E-" + i, "6E-2001"));
+        }
+        scanReturns(rows);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(airlineBookingService.getBookingFromAirline(eq("6E"), anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return details(invocation.getArgument(1), "CONFIRMED", "6E-2001");
+        });
+
+        // Act
+        worker.syncUpcomingBookings(TODAY);
+
+        // Assert
+        assertTrue(maxInFlight.get() <= 2, "At most 2 calls in flight, saw " + maxInFlight.get());
+        assertTrue(maxInFlight.get() >= 1);
+    }
+
+    private void scanReturns(List<ResultSet> rows) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), any(), any()))
+            .thenAnswer(invocation -> map(invocation.getArgument(1), rows));
+    }
+
+    private static List<Object> map(RowMapper<?> mapper, List<ResultSet> rows) throws SQLException {
+        List<Object> mapped = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            mapped.add(mapper.mapRow(rows.get(i), i));
+        }
+        return mapped;
+    }
+
+    private List<Object[]> batchArgs(String sqlPrefix) {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith(sqlPrefix), captor.capture());
+        return captor.getValue();
+    }
+
+    private static ResultSet segment(long id, long bookingId, int segmentIndex, String airlineCode,
+                                     String airlinePnr, String flightNumber) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        lenient().when(rs.getLong("id")).thenReturn(id);
+        lenient().when(rs.getLong("booking_id")).thenReturn(bookingId);
+        lenient().when(rs.getInt("segment_index")).thenReturn(segmentIndex);
+        lenient().when(rs.getString("airline_code")).thenReturn(airlineCode);
+        lenient().when(rs.getString("airline_pnr")).thenReturn(airlinePnr);
+        lenient().when(rs.getString("flight_number")).thenReturn(flightNumber);
+        lenient().when(rs.getString("origin_airport")).thenReturn("DEL");
+        lenient().when(rs.getString("destination_airport")).thenReturn("BOM");
+        lenient().when(rs.getObject("departure_date", LocalDate.class)).thenReturn(DEPARTURE);
+        return rs;
+    }
+
+    private static AirlineBookingDetails details(String pnr, String status, String flightNumber) {
+        AirlineBookingDetails details = new AirlineBookingDetails();
+        details.setPnr(pnr);
+        details.setStatus(status);
+        details.setFlightNumber(flightNumber);
+        details.setOrigin("DEL");
+        details.setDestination("BOM");
+        return details;
+    }
+}
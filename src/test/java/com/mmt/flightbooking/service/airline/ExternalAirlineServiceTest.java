@@ -4,23 +4,31 @@ import com.mmt.flightbooking.dto.FlightSearchRequest;
 import com.mmt.flightbooking.dto.FlightSearchResult;
 import com.mmt.flightbooking.service.airline.adapter.AirlineAdapter;
 import com.mmt.flightbooking.service.airline.adapter.AirlineAdapterFactory;
+import com.mmt.flightbooking.service.id.IdGenerator;
+import com.mmt.flightbooking.service.search.SearchScope;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
 
@@ -42,6 +50,13 @@ class ExternalAirlineServiceTest {
     @Mock
     private AirlineAdapter vistaraAdapter;
 
+    @Spy
+    private AirlineLatencyTracker latencyTracker =
+        new AirlineLatencyTracker(new SimpleMeterRegistry(), 2.0, 50, 5000, 5000, 5, 60);
+
+    @Spy
+    private IdGenerator idGenerator = IdGenerator.standalone();
+
     @InjectMocks
     private ExternalAirlineService externalAirlineService;
 
@@ -102,13 +117,13 @@ class ExternalAirlineServiceTest {
         when(adapterFactory.getAvailableAdapters())
             .thenReturn(Arrays.asList(indigoAdapter, airIndiaAdapter, spiceJetAdapter, vistaraAdapter));
 
-        when(indigoAdapter.searchFlights(searchRequest))
+        when(indigoAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(indigoFlights));
-        when(airIndiaAdapter.searchFlights(searchRequest))
+        when(airIndiaAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(airIndiaFlights));
-        when(spiceJetAdapter.searchFlights(searchRequest))
+        when(spiceJetAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(spiceJetFlights));
-        when(vistaraAdapter.searchFlights(searchRequest))
+        when(vistaraAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(vistaraFlights));
 
         // Act
@@ -121,10 +136,10 @@ class ExternalAirlineServiceTest {
         assertEquals(6, results.size()); // 2+2+1+1 = 6 flights
         
         verify(adapterFactory, times(1)).getAvailableAdapters();
-        verify(indigoAdapter, times(1)).searchFlights(searchRequest);
-        verify(airIndiaAdapter, times(1)).searchFlights(searchRequest);
-        verify(spiceJetAdapter, times(1)).searchFlights(searchRequest);
-        verify(vistaraAdapter, times(1)).searchFlights(searchRequest);
+        verify(indigoAdapter, times(1)).searchFlights(eq(searchRequest), any());
+        verify(airIndiaAdapter, times(1)).searchFlights(eq(searchRequest), any());
+        verify(spiceJetAdapter, times(1)).searchFlights(eq(searchRequest), any());
+        verify(vistaraAdapter, times(1)).searchFlights(eq(searchRequest), any());
     }
 
     @Test
@@ -135,11 +150,11 @@ class ExternalAirlineServiceTest {
         when(adapterFactory.getAvailableAdapters())
             .thenReturn(Arrays.asList(indigoAdapter, airIndiaAdapter, vistaraAdapter)); // SpiceJet not available
 
-        when(indigoAdapter.searchFlights(searchRequest))
+        when(indigoAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(indigoFlights));
-        when(airIndiaAdapter.searchFlights(searchRequest))
+        when(airIndiaAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(airIndiaFlights));
-        when(vistaraAdapter.searchFlights(searchRequest))
+        when(vistaraAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(vistaraFlights));
 
         // Act
@@ -150,7 +165,7 @@ class ExternalAirlineServiceTest {
         // Assert
         assertNotNull(results);
         assertEquals(5, results.size()); // 2+2+1 = 5 flights (SpiceJet excluded)
-        verify(spiceJetAdapter, never()).searchFlights(any());
+        verify(spiceJetAdapter, never()).searchFlights(any(), any());
     }
 
     @Test
@@ -174,11 +189,11 @@ class ExternalAirlineServiceTest {
         when(adapterFactory.getAvailableAdapters())
             .thenReturn(Arrays.asList(indigoAdapter, airIndiaAdapter, spiceJetAdapter));
 
-        when(indigoAdapter.searchFlights(searchRequest))
+        when(indigoAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(indigoFlights));
-        when(airIndiaAdapter.searchFlights(searchRequest))
+        when(airIndiaAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.failedFuture(new RuntimeException("API unavailable")));
-        when(spiceJetAdapter.searchFlights(searchRequest))
+        when(spiceJetAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(spiceJetFlights));
 
         // Act
@@ -201,9 +216,9 @@ class ExternalAirlineServiceTest {
         when(adapterFactory.getAvailableAdapters())
             .thenReturn(Arrays.asList(indigoAdapter, airIndiaAdapter));
 
-        when(indigoAdapter.searchFlights(searchRequest))
+        when(indigoAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(indigoFlights));
-        when(airIndiaAdapter.searchFlights(searchRequest))
+        when(airIndiaAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(new ArrayList<>()));
 
         // Act
@@ -222,13 +237,13 @@ class ExternalAirlineServiceTest {
         when(adapterFactory.getAvailableAdapters())
             .thenReturn(Arrays.asList(indigoAdapter, airIndiaAdapter, spiceJetAdapter, vistaraAdapter));
 
-        when(indigoAdapter.searchFlights(any()))
+        when(indigoAdapter.searchFlights(any(), any()))
             .thenReturn(CompletableFuture.completedFuture(indigoFlights));
-        when(airIndiaAdapter.searchFlights(any()))
+        when(airIndiaAdapter.searchFlights(any(), any()))
             .thenReturn(CompletableFuture.completedFuture(airIndiaFlights));
-        when(spiceJetAdapter.searchFlights(any()))
+        when(spiceJetAdapter.searchFlights(any(), any()))
             .thenReturn(CompletableFuture.completedFuture(spiceJetFlights));
-        when(vistaraAdapter.searchFlights(any()))
+        when(vistaraAdapter.searchFlights(any(), any()))
             .thenReturn(CompletableFuture.completedFuture(vistaraFlights));
 
         // Act
@@ -237,10 +252,10 @@ class ExternalAirlineServiceTest {
         future.get();
 
         // Assert - All adapters should be called
-        verify(indigoAdapter, times(1)).searchFlights(searchRequest);
-        verify(airIndiaAdapter, times(1)).searchFlights(searchRequest);
-        verify(spiceJetAdapter, times(1)).searchFlights(searchRequest);
-        verify(vistaraAdapter, times(1)).searchFlights(searchRequest);
+        verify(indigoAdapter, times(1)).searchFlights(eq(searchRequest), any());
+        verify(airIndiaAdapter, times(1)).searchFlights(eq(searchRequest), any());
+        verify(spiceJetAdapter, times(1)).searchFlights(eq(searchRequest), any());
+        verify(vistaraAdapter, times(1)).searchFlights(eq(searchRequest), any());
     }
 
     @Test
@@ -249,9 +264,9 @@ class ExternalAirlineServiceTest {
         when(adapterFactory.getAvailableAdapters())
             .thenReturn(Arrays.asList(indigoAdapter, airIndiaAdapter));
 
-        when(indigoAdapter.searchFlights(searchRequest))
+        when(indigoAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(indigoFlights));
-        when(airIndiaAdapter.searchFlights(searchRequest))
+        when(airIndiaAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(airIndiaFlights));
 
         // Act
@@ -284,7 +299,7 @@ class ExternalAirlineServiceTest {
         }
 
         when(adapterFactory.getAvailableAdapters()).thenReturn(Arrays.asList(indigoAdapter));
-        when(indigoAdapter.searchFlights(searchRequest))
+        when(indigoAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(largeResultSet));
 
         // Act
@@ -318,17 +333,99 @@ class ExternalAirlineServiceTest {
         when(adapterFactory.getAvailableAdapters())
             .thenReturn(Arrays.asList(indigoAdapter, airIndiaAdapter));
 
-        when(indigoAdapter.searchFlights(searchRequest))
+        when(indigoAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(indigoFlights));
-        when(airIndiaAdapter.searchFlights(searchRequest))
+        when(airIndiaAdapter.searchFlights(eq(searchRequest), any()))
             .thenReturn(CompletableFuture.completedFuture(airIndiaFlights));
 
         // Act
         externalAirlineService.searchFlightsAsync(searchRequest).get();
 
         // Assert - Verify same request passed to all adapters
-        verify(indigoAdapter).searchFlights(searchRequest);
-        verify(airIndiaAdapter).searchFlights(searchRequest);
+        verify(indigoAdapter).searchFlights(eq(searchRequest), any());
+        verify(airIndiaAdapter).searchFlights(eq(searchRequest), any());
+    }
+
+    @Test
+    void testSearchFlights_DeadlineReturnsPartialResults() throws Exception {
+        // Arrange - Air India never answers
+        CompletableFuture<List<FlightSearchResult>> slowSearch = new CompletableFuture<>();
+        when(adapterFactory.getAvailableAdapters())
+            .thenReturn(Arrays.asList(indigoAdapter, airIndiaAdapter));
+        when(indigoAdapter.searchFlights(eq(searchRequest), any()))
+            .thenReturn(CompletableFuture.completedFuture(indigoFlights));
+        when(airIndiaAdapter.searchFlights(eq(searchRequest), any())).thenReturn(slowSearch);
+
+        SearchScope scope = SearchScope.open("search-1", 100);
+
+        // Act
+        List<FlightSearchResult> results = externalAirlineService.searchFlights(searchRequest, scope)
+            .get(2, TimeUnit.SECONDS);
+
+        // Assert - IndiGo results survive, Air India is stopped at the deadline
+        assertEquals(2, results.size());
+        assertTrue(slowSearch.isCompletedExceptionally());
+        assertTrue(scope.getStageTimings().containsKey("airline:6E"));
+        assertTrue(scope.getStageTimings().containsKey("fanout"));
+        // Deadline cut-offs are not blamed on the airline
+        assertEquals(0, latencyTracker.getStats("AI").getCutoffs());
+    }
+
+    @Test
+    void testSearchFlights_SlowAirlineCutOffAtAdaptiveTimeout() throws Exception {
+        // Arrange - Air India normally answers in 20ms, so its timeout is clamped to the 50ms minimum
+        for (int i = 0; i < 10; i++) {
+            latencyTracker.recordSuccess("AI", Duration.ofMillis(20));
+        }
+        CompletableFuture<List<FlightSearchResult>> slowSearch = new CompletableFuture<>();
+        when(adapterFactory.getAvailableAdapters())
+            .thenReturn(Arrays.asList(indigoAdapter, airIndiaAdapter));
+        when(indigoAdapter.searchFlights(eq(searchRequest), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return CompletableFuture.completedFuture(indigoFlights);
+        });
+        when(airIndiaAdapter.searchFlights(eq(searchRequest), any())).thenReturn(slowSearch);
+
+        // Act - the search deadline is far away
+        List<FlightSearchResult> results = externalAirlineService.searchFlights(searchRequest, SearchScope.open("search-1", 5000))
+            .get(1, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(2, results.size());
+        assertTrue(slowSearch.isCompletedExceptionally());
+        assertEquals(1, latencyTracker.getStats("AI").getCutoffs());
+        verify(latencyTracker).recordSuccess(eq("6E"), any(Duration.class));
+    }
+
+    @Test
+    void testSearchFlights_LatencyExcludesTimeQueuedForPermit() throws Exception {
+        // Arrange - IndiGo waits 300ms for a search permit, then answers straight away
+        when(adapterFactory.getAvailableAdapters()).thenReturn(Arrays.asList(indigoAdapter));
+        when(indigoAdapter.searchFlights(eq(searchRequest), any())).thenAnswer(invocation -> {
+            Runnable onStarted = invocation.getArgument(1);
+            return CompletableFuture.supplyAsync(() -> {
+                sleep(300);
+                onStarted.run();
+                return indigoFlights;
+            });
+        });
+
+        // Act
+        externalAirlineService.searchFlights(searchRequest, SearchScope.open("search-1", 5000))
+            .get(2, TimeUnit.SECONDS);
+
+        // Assert
+        ArgumentCaptor<Duration> latency = ArgumentCaptor.forClass(Duration.class);
+        verify(latencyTracker).recordSuccess(eq("6E"), latency.capture());
+        assertTrue(latency.getValue().toMillis() < 200, "latency was " + latency.getValue().toMillis());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     // Helper method to create test flight results
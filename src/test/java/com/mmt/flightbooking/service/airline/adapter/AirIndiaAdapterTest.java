@@ -4,6 +4,7 @@ import com.mmt.flightbooking.dto.CreateBookingRequest;
 import com.mmt.flightbooking.dto.FlightSearchRequest;
 import com.mmt.flightbooking.dto.FlightSearchResult;
 import com.mmt.flightbooking.dto.PassengerRequest;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,6 +31,7 @@ class AirIndiaAdapterTest {
     @BeforeEach
     void setUp() {
         airIndiaAdapter = new AirIndiaAdapter();
+        airIndiaAdapter.setIdGenerator(IdGenerator.standalone());
         ReflectionTestUtils.setField(airIndiaAdapter, "apiBaseUrl", "http://mock-airindia-api:8080");
 
         // Setup search request
@@ -4,6 +4,7 @@ import com.mmt.flightbooking.dto.CreateBookingRequest;
 import com.mmt.flightbooking.dto.FlightSearchRequest;
 import com.mmt.flightbooking.dto.FlightSearchResult;
 import com.mmt.flightbooking.dto.PassengerRequest;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -30,6 +31,7 @@ class IndiGoAdapterTest {
     @BeforeEach
     void setUp() {
         indigoAdapter = new IndiGoAdapter();
+        indigoAdapter.setIdGenerator(IdGenerator.standalone());
         ReflectionTestUtils.setField(indigoAdapter, "apiBaseUrl", "http://mock-indigo-api:8080");
 
         // Setup search request
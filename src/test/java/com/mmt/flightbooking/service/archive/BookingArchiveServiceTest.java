@@ -0,0 +1,199 @@
+package com.mmt.flightbooking.service.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingArchiveServiceTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2023, 9);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Mock
+    private BookingPartitionManager partitions;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @TempDir
+    Path archiveDir;
+
+    private SimpleMeterRegistry registry;
+    private BookingArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        archiveService = new BookingArchiveService(jdbcTemplate, namedJdbcTemplate, partitions, transactionTemplate,
+                                                   new ObjectMapper(), stringRedisTemplate, registry);
+        ReflectionTestUtils.setField(archiveService, "directory", archiveDir.toString());
+    }
+
+    @Test
+    void testArchiveMonth_WritesFileThenDropsPartitions() throws Exception {
+        // Arrange
+        stubMonth();
+        when(jdbcTemplate.queryForObject("SELECT count(*) FROM bookings_p2023_09", Long.class)).thenReturn(2L);
+
+        // Act
+        long archived = archiveService.archiveMonth(MONTH);
+
+        // Assert
+        assertEquals(2, archived);
+        assertTrue(Files.exists(archiveDir.resolve("bookings-2023-09.ndjson.gz")));
+        assertFalse(Files.exists(archiveDir.resolve("bookings-2023-09.ndjson.gz.tmp")));
+        assertEquals(2.0, registry.counter("flightbooking.archive.bookings").count());
+
+        InOrder inOrder = inOrder(jdbcTemplate, partitions);
+        inOrder.verify(jdbcTemplate).batchUpdate(startsWith("UPDATE booking_references"), anyList());
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE FROM booking_status_events"), any(LocalDateTime.class));
+        inOrder.verify(jdbcTemplate).update(startsWith("DELETE FROM booking_segments"));
+        inOrder.verify(partitions).dropPartitions(MONTH);
+    }
+
+    @Test
+    void testArchiveMonth_KeepsPartitionsWhenRowsWereAddedMeanwhile() {
+        // Arrange
+        stubMonth();
+        when(jdbcTemplate.queryForObject("SELECT count(*) FROM bookings_p2023_09", Long.class)).thenReturn(3L);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> archiveService.archiveMonth(MONTH));
+        verify(partitions, never()).dropPartitions(any());
+    }
+
+    @Test
+    void testFindArchivedBooking_ReadsRecordBackFromItsBlock() {
+        // Arrange - one booking per block
+        ReflectionTestUtils.setField(archiveService, "blockSize", 1);
+        stubMonth();
+        when(jdbcTemplate.queryForObject("SELECT count(*) FROM bookings_p2023_09", Long.class)).thenReturn(2L);
+        archiveService.archiveMonth(MONTH);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> locations = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE booking_references"), locations.capture());
+        // file, offset, first booking id, last booking id
+        Object[] second = locations.getValue().get(1);
+        assertEquals(2L, second[2]);
+        assertTrue((Long) second[1] > 0);
+        when(jdbcTemplate.queryForList(anyString(), eq("MMT00000002")))
+            .thenReturn(List.of(row("archive_file", second[0], "archive_offset", second[1])));
+
+        // Act
+        Map<String, Object> archived = archiveService.findArchivedBooking("MMT00000002");
+
+        // Assert
+        assertNotNull(archived);
+        assertEquals("MMT00000002", ((Map<?, ?>) archived.get("booking")).get("booking_reference"));
+        assertEquals(1, ((List<?>) archived.get("segments")).size());
+        assertEquals(List.of(), archived.get("payments"));
+        assertEquals(1, ((List<?>) archived.get("statusEvents")).size());
+    }
+
+    @Test
+    void testFindArchivedBooking_WithoutOffsetScansWholeFile() {
+        // Arrange - archived before offsets were recorded; the scan runs across blocks
+        ReflectionTestUtils.setField(archiveService, "blockSize", 1);
+        stubMonth();
+        when(jdbcTemplate.queryForObject("SELECT count(*) FROM bookings_p2023_09", Long.class)).thenReturn(2L);
+        archiveService.archiveMonth(MONTH);
+        when(jdbcTemplate.queryForList(anyString(), eq("MMT00000002")))
+            .thenReturn(List.of(row("archive_file", "bookings-2023-09.ndjson.gz", "archive_offset", null)));
+
+        // Act
+        Map<String, Object> archived = archiveService.findArchivedBooking("MMT00000002");
+
+        // Assert
+        assertNotNull(archived);
+        assertEquals("MMT00000002", ((Map<?, ?>) archived.get("booking")).get("booking_reference"));
+    }
+
+    @Test
+    void testFindArchivedBooking_UnknownReference() {
+        // Arrange
+        when(jdbcTemplate.queryForList(anyString(), eq("MMTUNKNOWN"))).thenReturn(List.of());
+
+        // Act & Assert
+        assertNull(archiveService.findArchivedBooking("MMTUNKNOWN"));
+    }
+
+    @Test
+    void testArchiveExpired_OnlyMonthsPastRetention() {
+        // Arrange - 24 months kept before October 2025
+        when(partitions.isPartitioned("bookings")).thenReturn(true);
+        when(partitions.partitionMonths("bookings"))
+            .thenReturn(List.of(YearMonth.of(2023, 9), YearMonth.of(2023, 10), YearMonth.of(2023, 11)));
+        when(jdbcTemplate.queryForList(anyString(), anyLong(), anyInt())).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(0L);
+
+        // Act & Assert
+        assertEquals(1, archiveService.archiveExpired(LocalDate.of(2025, 10, 19)));
+        verify(partitions).dropPartitions(YearMonth.of(2023, 9));
+        verify(partitions, never()).dropPartitions(YearMonth.of(2023, 10));
+    }
+
+    @Test
+    void testArchiveExpired_NotPartitioned() {
+        // Arrange
+        when(partitions.isPartitioned("bookings")).thenReturn(false);
+
+        // Act & Assert
+        assertEquals(0, archiveService.archiveExpired(LocalDate.of(2025, 10, 19)));
+        verify(partitions, never()).partitionMonths(anyString());
+    }
+
+    private void stubMonth() {
+        when(jdbcTemplate.queryForList("SELECT * FROM bookings_p2023_09 WHERE id > ? ORDER BY id LIMIT ?", 0L, 1000))
+            .thenReturn(List.of(row("id", 1L, "booking_reference", "MMT00000001"),
+                                row("id", 2L, "booking_reference", "MMT00000002")));
+        when(namedJdbcTemplate.queryForList(startsWith("SELECT * FROM booking_segments"), anyMap()))
+            .thenReturn(List.of(row("booking_id", 2L, "flight_number", "6E-2001")));
+        when(namedJdbcTemplate.queryForList(startsWith("SELECT * FROM passengers"), anyMap()))
+            .thenReturn(List.of(row("booking_id", 1L, "first_name", "Asha")));
+        when(namedJdbcTemplate.queryForList(startsWith("SELECT * FROM payments"), anyMap())).thenReturn(List.of());
+        when(namedJdbcTemplate.queryForList(startsWith("SELECT t.*"), anyMap())).thenReturn(List.of());
+        when(namedJdbcTemplate.queryForList(startsWith("SELECT * FROM booking_status_events"), anyMap()))
+            .thenReturn(List.of(row("booking_id", 2L, "event_type", "CREATED")));
+    }
+
+    private static Map<String, Object> row(String key1, Object value1, String key2, Object value2) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put(key1, value1);
+        row.put(key2, value2);
+        return row;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mmt.flightbooking.service.archive;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPartitionManagerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 10, 19);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private BookingPartitionManager partitionManager;
+
+    @BeforeEach
+    void setUp() {
+        partitionManager = new BookingPartitionManager(jdbcTemplate);
+    }
+
+    @Test
+    void testEnsurePartitions_CreatesMissingUpcomingMonths() {
+        // Arrange - only bookings is partitioned, and already has October and November
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString()))
+            .thenAnswer(invocation -> "bookings".equals(invocation.getArgument(2)));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("bookings")))
+            .thenReturn(List.of("bookings_p2025_10", "bookings_p2025_11"));
+
+        // Act
+        int created = partitionManager.ensurePartitions(TODAY);
+
+        // Assert
+        assertEquals(2, created);
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS bookings_p2025_12 PARTITION OF bookings " +
+                                     "FOR VALUES FROM ('2025-12-01') TO ('2026-01-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS bookings_p2026_01 PARTITION OF bookings " +
+                                     "FOR VALUES FROM ('2026-01-01') TO ('2026-02-01')");
+    }
+
+    @Test
+    void testEnsurePartitions_LeavesUnpartitionedTablesAlone() {
+        // Arrange - schema generated by Hibernate
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString())).thenReturn(false);
+
+        // Act & Assert
+        assertEquals(0, partitionManager.ensurePartitions(TODAY));
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void testEnsurePartitions_PartitionCreatedConcurrentlyIsNotCounted() {
+        // Arrange
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), anyString()))
+            .thenAnswer(invocation -> "payments".equals(invocation.getArgument(2)));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("payments")))
+            .thenReturn(List.of("payments_p2025_10", "payments_p2025_11", "payments_p2025_12"));
+        doThrow(new DataAccessResourceFailureException("relation already exists"))
+            .when(jdbcTemplate).execute(contains("payments_p2026_01"));
+
+        // Act & Assert
+        assertEquals(0, partitionManager.ensurePartitions(TODAY));
+    }
+
+    @Test
+    void testDropPartitions_ChildrenFirst() {
+        // Act
+        partitionManager.dropPartitions(YearMonth.of(2023, 9));
+
+        // Assert
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS booking_status_events_p2023_09");
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS payment_transactions_p2023_09");
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS payments_p2023_09");
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS passengers_p2023_09");
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS bookings_p2023_09");
+    }
+}
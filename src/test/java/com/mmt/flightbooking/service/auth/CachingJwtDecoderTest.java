@@ -0,0 +1,178 @@
+package com.mmt.flightbooking.service.auth;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+
+    private static final String SECRET = "test-secret-at-least-thirty-two-bytes-long";
+    private static final Instant NOW = Instant.now();
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testDecode_ValidTokenVerified() throws Exception {
+        // Arrange
+        JwtDecoder decoder = LocalKeyJwtDecoders.hmac(SECRET);
+
+        // Act
+        Jwt jwt = decoder.decode(sign(JWSAlgorithm.HS256, SECRET, NOW.plusSeconds(600)));
+
+        // Assert
+        assertEquals("jane@example.com", jwt.getSubject());
+    }
+
+    @Test
+    void testDecode_WrongKeyRejected() throws Exception {
+        // Arrange
+        JwtDecoder decoder = LocalKeyJwtDecoders.hmac(SECRET);
+        String token = sign(JWSAlgorithm.HS256, "some-other-secret-also-thirty-two-bytes", NOW.plusSeconds(600));
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> decoder.decode(token));
+    }
+
+    @Test
+    void testDecode_OtherAlgorithmRejected() throws Exception {
+        // Arrange - right key, but not the configured algorithm
+        JwtDecoder decoder = LocalKeyJwtDecoders.hmac(SECRET + "-padded-to-sixty-four-bytes-for-hs512!!");
+        String token = sign(JWSAlgorithm.HS512, SECRET + "-padded-to-sixty-four-bytes-for-hs512!!", NOW.plusSeconds(600));
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> decoder.decode(token));
+    }
+
+    @Test
+    void testDecode_TokenWithoutExpiryRejected() throws Exception {
+        // Arrange
+        JwtDecoder decoder = LocalKeyJwtDecoders.hmac(SECRET);
+
+        // Act & Assert
+        assertThrows(JwtValidationException.class, () -> decoder.decode(sign(JWSAlgorithm.HS256, SECRET, null)));
+    }
+
+    @Test
+    void testHmac_ShortSecretRefused() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> LocalKeyJwtDecoders.hmac("too-short"));
+    }
+
+    @Test
+    void testCache_RepeatedTokenVerifiedOnce() throws Exception {
+        // Arrange
+        JwtDecoder delegate = mock(JwtDecoder.class, delegatesTo(LocalKeyJwtDecoders.hmac(SECRET)));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, registry, 100, clockAt(NOW));
+        String token = sign(JWSAlgorithm.HS256, SECRET, NOW.plusSeconds(600));
+
+        // Act
+        Jwt first = decoder.decode(token);
+        Jwt second = decoder.decode(token);
+
+        // Assert
+        assertSame(first, second);
+        verify(delegate, times(1)).decode(token);
+        assertEquals(1.0, registry.counter("flightbooking.auth.token.cache", "result", "hit").count());
+        assertEquals(1, registry.timer("flightbooking.auth.token.verify").count());
+    }
+
+    @Test
+    void testCache_ExpiredEntryVerifiedAgain() {
+        // Arrange
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("token")).thenReturn(jwt(NOW.plusSeconds(60)));
+        Clock clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(NOW);
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, registry, 100, clock);
+        decoder.decode("token");
+
+        // Act
+        when(clock.instant()).thenReturn(NOW.plusSeconds(61));
+        decoder.decode("token");
+
+        // Assert - verified again, and the expired token is not cached again
+        verify(delegate, times(2)).decode("token");
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void testCache_RejectedTokenNotCached() {
+        // Arrange
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode("forged")).thenThrow(new BadJwtException("Invalid signature"));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, registry, 100, clockAt(NOW));
+
+        // Act & Assert
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        verify(delegate, times(2)).decode("forged");
+        assertEquals(0, decoder.size());
+    }
+
+    @Test
+    void testCache_BoundedByMaxEntries() {
+        // Arrange
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        when(delegate.decode(anyString())).thenReturn(jwt(NOW.plusSeconds(600)));
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, registry, 2, clockAt(NOW));
+
+        // Act
+        decoder.decode("a");
+        decoder.decode("b");
+        decoder.decode("c");
+
+        // Assert
+        assertTrue(decoder.size() <= 2);
+    }
+
+    private static String sign(JWSAlgorithm algorithm, String secret, Instant expiresAt) throws Exception {
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+            .subject("jane@example.com")
+            .issueTime(Date.from(NOW.minusSeconds(5)));
+        if (expiresAt != null) {
+            claims.expirationTime(Date.from(expiresAt));
+        }
+        SignedJWT jwt = new SignedJWT(new JWSHeader(algorithm), claims.build());
+        jwt.sign(new MACSigner(secret.getBytes(StandardCharsets.UTF_8)));
+        return jwt.serialize();
+    }
+
+    private static Jwt jwt(Instant expiresAt) {
+        return Jwt.withTokenValue("token")
+            .header("alg", "HS256")
+            .subject("jane@example.com")
+            .issuedAt(NOW.minus(Duration.ofMinutes(1)))
+            .expiresAt(expiresAt)
+            .build();
+    }
+
+    private static Clock clockAt(Instant instant) {
+        return Clock.fixed(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,264 @@
+package com.mmt.flightbooking.service.cancellation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mmt.flightbooking.dto.BookingSegmentSummary;
+import com.mmt.flightbooking.dto.BookingSummary;
+import com.mmt.flightbooking.dto.BulkCancellationRequest;
+import com.mmt.flightbooking.dto.BulkCancellationStatus;
+import com.mmt.flightbooking.entity.BookingEventType;
+import com.mmt.flightbooking.entity.BookingStatus;
+import com.mmt.flightbooking.entity.BookingStatusEventType;
+import com.mmt.flightbooking.repository.BookingRepository;
+import com.mmt.flightbooking.repository.BookingSegmentRepository;
+import com.mmt.flightbooking.service.airline.AirlineBookingService;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.execution.IoKind;
+import com.mmt.flightbooking.service.history.BookingEventLog;
+import com.mmt.flightbooking.service.id.IdGenerator;
+import com.mmt.flightbooking.service.outbox.OutboxService;
+import com.mmt.flightbooking.service.readmodel.BookingReadModelService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkCancellationServiceTest {
+
+    private static final LocalDate DEPARTURE = LocalDate.of(2025, 12, 20);
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingSegmentRepository segmentRepository;
+
+    @Mock
+    private AirlineBookingService airlineBookingService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private BookingEventLog eventLog;
+
+    @Mock
+    private BookingReadModelService bookingReadModel;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Spy
+    private BlockingIoExecutor ioExecutor = BlockingIoExecutor.commonPool();
+
+    @Spy
+    private IdGenerator idGenerator = IdGenerator.standalone();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private BulkCancellationService bulkCancellationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkCancellationService, "registry", new SimpleMeterRegistry());
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        // Run the job on the test thread so its outcome can be asserted directly
+        lenient().doAnswer(invocation -> CompletableFuture.completedFuture(
+                invocation.<Supplier<?>>getArgument(1).get()))
+            .when(ioExecutor).supplyAsync(eq(IoKind.BACKGROUND), any());
+    }
+
+    @Test
+    void testStartJob_CancelsEveryBookingOnFlight() {
+        // Arrange - booking 1 connects onto another airline, booking 2 is a single segment
+        when(segmentRepository.findConfirmedBookingIdsOnFlight("6E", "6E-2001", DEPARTURE)).thenReturn(List.of(1L, 2L));
+        when(bookingRepository.findConfirmedUnsegmentedIdsOnFlight("6E", "6E-2001", DEPARTURE)).thenReturn(List.of());
+        when(bookingRepository.findSummariesByIds(List.of(1L, 2L)))
+            .thenReturn(List.of(summary(1L, "MMT00000001", BookingStatus.CONFIRMED),
+                                summary(2L, "MMT00000002", BookingStatus.CONFIRMED)));
+        when(segmentRepository.findSegmentSummaries(anyCollection()))
+            .thenReturn(List.of(segment(1L, 0, "6E", "6E-PNR1"), segment(1L, 1, "AI", "AI-PNR2"),
+                                segment(2L, 0, "6E", "6E-PNR3")));
+        when(airlineBookingService.cancelBookingWithAirline(anyString(), anyString())).thenReturn(true);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {1, 1});
+
+        // Act
+        BulkCancellationStatus started = bulkCancellationService.startJob(flightRequest());
+        BulkCancellationStatus finished = bulkCancellationService.getJob(started.getJobId());
+
+        // Assert
+        assertEquals(2, started.getTotalBookings());
+        assertEquals("COMPLETED", finished.getState());
+        assertEquals(2, finished.getProcessed());
+        assertEquals(2, finished.getCancelled());
+        assertEquals(3, finished.getAirlineCalls());
+        assertNotNull(finished.getFinishedAt());
+        verify(airlineBookingService).cancelBookingWithAirline("6E", "6E-PNR1");
+        verify(airlineBookingService).cancelBookingWithAirline("AI", "AI-PNR2");
+        verify(airlineBookingService).cancelBookingWithAirline("6E", "6E-PNR3");
+
+        // Statuses in one JDBC batch, events recorded in bulk
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        verify(outboxService).recordAll(List.of(1L, 2L), BookingEventType.BOOKING_DISRUPTED);
+        verify(eventLog).appendAll(eq(List.of(1L, 2L)), eq(BookingStatusEventType.CANCELLED),
+                                   eq(BookingStatus.CONFIRMED), eq(BookingStatus.CANCELLED), startsWith("bulk cancellation "));
+        verify(bookingReadModel).invalidate(1L);
+        verify(bookingReadModel).invalidate(2L);
+
+        // Progress mirrored to Redis for the other nodes
+        verify(valueOperations, atLeast(2)).set(eq("bulk-cancel:job:" + started.getJobId()),
+                                                any(BulkCancellationStatus.class), any(Duration.class));
+    }
+
+    @Test
+    void testStartJob_BookingWithUncancelledPnrStaysConfirmed() {
+        // Arrange
+        when(segmentRepository.findConfirmedBookingIdsOnFlight("6E", "6E-2001", DEPARTURE)).thenReturn(List.of(1L, 2L));
+        when(bookingRepository.findConfirmedUnsegmentedIdsOnFlight("6E", "6E-2001", DEPARTURE)).thenReturn(List.of());
+        when(bookingRepository.findSummariesByIds(List.of(1L, 2L)))
+            .thenReturn(List.of(summary(1L, "MMT00000001", BookingStatus.CONFIRMED),
+                                summary(2L, "MMT00000002", BookingStatus.CONFIRMED)));
+        when(segmentRepository.findSegmentSummaries(anyCollection()))
+            .thenReturn(List.of(segment(1L, 0, "6E", "6E-PNR1"), segment(1L, 1, "AI", "AI-PNR2"),
+                                segment(2L, 0, "6E", "6E-PNR3")));
+        when(airlineBookingService.cancelBookingWithAirline(anyString(), anyString())).thenReturn(true);
+        when(airlineBookingService.cancelBookingWithAirline("AI", "AI-PNR2")).thenReturn(false);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {1});
+
+        // Act
+        String jobId = bulkCancellationService.startJob(flightRequest()).getJobId();
+        BulkCancellationStatus finished = bulkCancellationService.getJob(jobId);
+
+        // Assert - booking 1 is reported and left for a re-run
+        assertEquals(1, finished.getCancelled());
+        assertEquals(1, finished.getFailed());
+        assertEquals(List.of("MMT00000001"), finished.getFailedBookingReferences());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), rows.capture());
+        assertEquals(1, rows.getValue().size());
+        assertArrayEquals(new Object[] {2L}, rows.getValue().get(0));
+        verify(outboxService).recordAll(List.of(2L), BookingEventType.BOOKING_DISRUPTED);
+    }
+
+    @Test
+    void testStartJob_ByReferencesSkipsUnknownAndNoLongerConfirmed() {
+        // Arrange - one reference is unknown, booking 2 was cancelled by the customer after the job started
+        BulkCancellationRequest request = new BulkCancellationRequest();
+        request.setBookingReferences(List.of("MMT00000001", "MMT00000002", "MMTUNKNOWN"));
+        when(bookingRepository.findConfirmedIdsByReferences(anyCollection())).thenReturn(List.of(1L, 2L));
+        when(bookingRepository.findSummariesByIds(List.of(1L, 2L)))
+            .thenReturn(List.of(summary(1L, "MMT00000001", BookingStatus.CONFIRMED),
+                                summary(2L, "MMT00000002", BookingStatus.CANCELLED)));
+        when(segmentRepository.findSegmentSummaries(anyCollection()))
+            .thenReturn(List.of(segment(1L, 0, "6E", "6E-PNR1")));
+        when(airlineBookingService.cancelBookingWithAirline("6E", "6E-PNR1")).thenReturn(true);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[] {1});
+
+        // Act
+        String jobId = bulkCancellationService.startJob(request).getJobId();
+        BulkCancellationStatus finished = bulkCancellationService.getJob(jobId);
+
+        // Assert
+        assertEquals(1, finished.getCancelled());
+        assertEquals(2, finished.getSkipped());
+        verify(airlineBookingService, times(1)).cancelBookingWithAirline(anyString(), anyString());
+        verify(outboxService).recordAll(List.of(1L), BookingEventType.BOOKING_DISRUPTED);
+    }
+
+    @Test
+    void testStartJob_RequiresFlightOrReferences() {
+        // Arrange - flight number without the date
+        BulkCancellationRequest request = new BulkCancellationRequest();
+        request.setAirlineCode("6E");
+        request.setFlightNumber("6E-2001");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> bulkCancellationService.startJob(request));
+        verifyNoInteractions(bookingRepository, segmentRepository, airlineBookingService);
+    }
+
+    @Test
+    void testGetJob_ReadsJobStartedOnAnotherNode() {
+        // Arrange
+        BulkCancellationStatus remote = new BulkCancellationStatus();
+        remote.setJobId("job-1");
+        remote.setState("RUNNING");
+        remote.setTotalBookings(500);
+        remote.setCancelled(120);
+        remote.setFailedBookingReferences(List.of("MMT00000007"));
+        remote.setStartedAt(Instant.parse("2025-12-19T10:15:30Z"));
+        // Stored as JSON in Redis, read back as a map
+        when(valueOperations.get("bulk-cancel:job:job-1")).thenReturn(objectMapper.convertValue(remote, Object.class));
+        when(valueOperations.get("bulk-cancel:job:job-2")).thenReturn(null);
+
+        // Act
+        BulkCancellationStatus status = bulkCancellationService.getJob("job-1");
+
+        // Assert
+        assertNotNull(status);
+        assertEquals("job-1", status.getJobId());
+        assertEquals("RUNNING", status.getState());
+        assertEquals(500, status.getTotalBookings());
+        assertEquals(120, status.getCancelled());
+        assertEquals(List.of("MMT00000007"), status.getFailedBookingReferences());
+        assertEquals(Instant.parse("2025-12-19T10:15:30Z"), status.getStartedAt());
+        assertNull(bulkCancellationService.getJob("job-2"));
+    }
+
+    private static BulkCancellationRequest flightRequest() {
+        BulkCancellationRequest request = new BulkCancellationRequest();
+        request.setAirlineCode("6E");
+        request.setFlightNumber("6E-2001");
+        request.setDepartureDate(DEPARTURE);
+        request.setReason("Flight cancelled by airline");
+        return request;
+    }
+
+    private static BookingSummary summary(Long id, String reference, BookingStatus status) {
+        return new BookingSummary(id, reference, status, new BigDecimal("5500.00"), "INR", "6E", "6E-PNR",
+                                  "6E-2001", "DEL", "BOM", DEPARTURE, LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    private static BookingSegmentSummary segment(Long bookingId, int index, String airlineCode, String airlinePnr) {
+        return new BookingSegmentSummary(bookingId, index, airlineCode, airlinePnr, airlineCode + "-2001",
+                                         "DEL", "BOM", DEPARTURE, new BigDecimal("5500.00"));
+    }
+}
@@ -0,0 +1,104 @@
+package com.mmt.flightbooking.service.datasource;
+
+import com.mmt.flightbooking.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadYourWritesTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private ReadYourWrites readYourWrites;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReplicaRoutingDataSource(mock(DataSource.class),
+                                                         Map.of("replica-1", mock(DataSource.class)), 1000);
+        routingDataSource.recordLag("replica-1", 0);
+        readYourWrites = new ReadYourWrites(stringRedisTemplate, routingDataSource);
+        user = new User();
+        user.setId(42L);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testRecordWrite_OpensWindowInRedis() {
+        // Arrange
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        // Act
+        readYourWrites.recordWrite(user);
+
+        // Assert
+        verify(valueOperations).set("db:recent-writer:42", "1", Duration.ofMillis(5000));
+    }
+
+    @Test
+    void testRead_RecentWriterReadsFromPrimary() {
+        // Arrange
+        when(stringRedisTemplate.hasKey("db:recent-writer:42")).thenReturn(true);
+
+        // Act & Assert
+        assertEquals("primary", readYourWrites.read(user, () -> routingDataSource.determineCurrentLookupKey()));
+    }
+
+    @Test
+    void testRead_OtherUsersReadFromReplica() {
+        // Arrange
+        when(stringRedisTemplate.hasKey("db:recent-writer:42")).thenReturn(false);
+
+        // Act & Assert
+        assertEquals("replica-1", readYourWrites.read(user, () -> routingDataSource.determineCurrentLookupKey()));
+    }
+
+    @Test
+    void testRead_RedisDownReadsFromPrimary() {
+        // Arrange
+        when(stringRedisTemplate.hasKey(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        // Act & Assert
+        assertEquals("primary", readYourWrites.read(user, () -> routingDataSource.determineCurrentLookupKey()));
+    }
+
+    @Test
+    void testNoReplicas_NothingRecordedOrLookedUp() {
+        // Arrange
+        ReadYourWrites primaryOnly = new ReadYourWrites(stringRedisTemplate,
+            new ReplicaRoutingDataSource(mock(DataSource.class), Map.of(), 1000));
+
+        // Act
+        primaryOnly.recordWrite(user);
+        String result = primaryOnly.read(user, () -> "read");
+
+        // Assert
+        assertEquals("read", result);
+        verifyNoInteractions(stringRedisTemplate);
+    }
+}
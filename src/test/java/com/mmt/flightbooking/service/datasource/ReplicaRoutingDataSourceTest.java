@@ -0,0 +1,154 @@
+package com.mmt.flightbooking.service.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", mock(DataSource.class));
+        replicas.put("replica-2", mock(DataSource.class));
+        routingDataSource = new ReplicaRoutingDataSource(mock(DataSource.class), replicas, 1000);
+        routingDataSource.recordLag("replica-1", 0);
+        routingDataSource.recordLag("replica-2", 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testWritesGoToPrimary() {
+        // Act & Assert - no read-only transaction
+        assertEquals("primary", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testReadOnlyTransactionsAlternateBetweenReplicas() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+        assertEquals("replica-2", routingDataSource.determineCurrentLookupKey());
+        assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testLaggingReplicaSkippedUntilCaughtUp() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.recordLag("replica-2", 5000);
+
+        // Act & Assert
+        assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+        assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+
+        routingDataSource.recordLag("replica-2", 10);
+        assertEquals("replica-2", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testFallsBackToPrimaryWhenNoReplicaIsUsable() {
+        // Arrange - one lagging, one unreachable
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        routingDataSource.recordLag("replica-1", 5000);
+        routingDataSource.recordLag("replica-2", -1);
+
+        // Act & Assert
+        assertEquals("primary", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testOnPrimaryPinsReadsForTheWrappedWorkOnly() {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        Object pinned = ReplicaRoutingDataSource.onPrimary(() -> routingDataSource.determineCurrentLookupKey());
+
+        // Assert
+        assertEquals("primary", pinned);
+        assertEquals("replica-1", routingDataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testWriteAfterReadOnlyCallInSameRequestGoesToPrimary() throws Exception {
+        // Arrange - wired as in DataSourceConfig; without open-in-view every transaction returns its connection
+        DataSource primary = mock(DataSource.class);
+        DataSource replica = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(mock(Connection.class));
+        when(replica.getConnection()).thenReturn(mock(Connection.class));
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica), 1000);
+        routing.recordLag("replica-1", 0);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.setTargetDataSource(routing);
+        dataSource.afterPropertiesSet();
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+
+        // Act - a read-only lookup (say the user on a cache miss), then the cancel write
+        readOnly.executeWithoutResult(status -> touch(dataSource));
+        readWrite.executeWithoutResult(status -> touch(dataSource));
+
+        // Assert
+        verify(replica, times(1)).getConnection();
+        verify(primary, times(1)).getConnection();
+    }
+
+    @Test
+    void testReplicaHitRatioMetric() {
+        // Arrange
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        routingDataSource.bindTo(registry);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act - three replica reads, one read-your-writes read
+        routingDataSource.determineCurrentLookupKey();
+        routingDataSource.determineCurrentLookupKey();
+        routingDataSource.determineCurrentLookupKey();
+        ReplicaRoutingDataSource.onPrimary(() -> routingDataSource.determineCurrentLookupKey());
+
+        // Assert
+        assertEquals(0.75, registry.get("flightbooking.datasource.replica.hit.ratio").gauge().value());
+        assertEquals(1.0, registry.get("flightbooking.datasource.reads")
+            .tag("route", "primary-read-your-writes").functionCounter().count());
+        assertEquals(200.0, registry.get("flightbooking.datasource.replica.lag")
+            .tag("replica", "replica-2").gauge().value());
+    }
+
+    private static void touch(DataSource dataSource) {
+        try {
+            DataSourceUtils.getConnection(dataSource).createStatement();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.mmt.flightbooking.service.execution;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockingIoExecutorTest {
+
+    private BlockingIoExecutor virtualExecutor;
+
+    @BeforeEach
+    void setUp() {
+        // One permit per kind, short permit timeout
+        virtualExecutor = new BlockingIoExecutor(true, 4, 1, 1, 1, 1, 1, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        virtualExecutor.shutdown();
+    }
+
+    @Test
+    void testSupplyAsync_RunsOnVirtualThread() throws Exception {
+        // Act
+        Boolean virtual = virtualExecutor.supplyAsync(IoKind.AIRLINE_SEARCH,
+            () -> Thread.currentThread().isVirtual()).get(1, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(virtual);
+        assertTrue(virtualExecutor.isVirtualThreads());
+    }
+
+    @Test
+    void testCall_RejectsWhenCapReached() throws Exception {
+        // Arrange - hold the only AIRLINE_BOOKING permit
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> holder = virtualExecutor.supplyAsync(IoKind.AIRLINE_BOOKING, () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return "done";
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        // Act & Assert
+        assertEquals(1, virtualExecutor.inFlight(IoKind.AIRLINE_BOOKING));
+        assertThrows(RejectedExecutionException.class,
+            () -> virtualExecutor.call(IoKind.AIRLINE_BOOKING, () -> "second"));
+
+        // Other kinds are not affected
+        assertEquals("payment", virtualExecutor.call(IoKind.PAYMENT, () -> "payment"));
+
+        release.countDown();
+        assertEquals("done", holder.get(1, TimeUnit.SECONDS));
+        assertEquals(0, virtualExecutor.inFlight(IoKind.AIRLINE_BOOKING));
+    }
+
+    @Test
+    void testCall_ReleasesPermitOnFailure() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> virtualExecutor.call(IoKind.PAYMENT, () -> {
+            throw new IllegalStateException("gateway down");
+        }));
+
+        // Assert
+        assertEquals(0, virtualExecutor.inFlight(IoKind.PAYMENT));
+        assertEquals("ok", virtualExecutor.call(IoKind.PAYMENT, () -> "ok"));
+    }
+
+    @Test
+    void testSupplyAsync_CancelInterruptsRunningTaskAndReleasesPermit() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<String> running = virtualExecutor.supplyAsync(IoKind.AIRLINE_SEARCH, () -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return "late";
+        });
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        // Act
+        running.cancel(true);
+
+        // Assert
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        assertEquals("ok", virtualExecutor.supplyAsync(IoKind.AIRLINE_SEARCH, () -> "ok").get(1, TimeUnit.SECONDS));
+        assertEquals(1, virtualExecutor.cancelled(IoKind.AIRLINE_SEARCH));
+    }
+
+    @Test
+    void testSupplyAsync_CancelBeforeStartSkipsTask() throws Exception {
+        // Arrange - single platform worker, kept busy
+        BlockingIoExecutor singleWorker = new BlockingIoExecutor(false, 1, 1, 1, 1, 1, 1, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean queuedRan = new AtomicBoolean();
+        try {
+            CompletableFuture<String> busy = singleWorker.supplyAsync(IoKind.PAYMENT, () -> {
+                awaitQuietly(release);
+                return "busy";
+            });
+            CompletableFuture<String> queued = singleWorker.supplyAsync(IoKind.AIRLINE_SEARCH, () -> {
+                queuedRan.set(true);
+                return "queued";
+            });
+
+            // Act
+            queued.cancel(true);
+            release.countDown();
+            busy.get(1, TimeUnit.SECONDS);
+            singleWorker.supplyAsync(IoKind.AIRLINE_SEARCH, () -> "drain").get(1, TimeUnit.SECONDS);
+
+            // Assert
+            assertFalse(queuedRan.get());
+            assertEquals(1, singleWorker.cancelled(IoKind.AIRLINE_SEARCH));
+        } finally {
+            singleWorker.shutdown();
+        }
+    }
+
+    @Test
+    void testForkJoin_RunsTasksInParallel() {
+        // Arrange
+        List<Supplier<String>> tasks = List.of(
+            () -> sleepAndReturn(300, "outbound"),
+            () -> sleepAndReturn(300, "return"));
+
+        // Act
+        long start = System.nanoTime();
+        List<CompletableFuture<String>> results = virtualExecutor.forkJoin(IoKind.BOOKING_FLOW, tasks);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert - results in task order, as slow as the slowest task
+        assertEquals("outbound", results.get(0).join());
+        assertEquals("return", results.get(1).join());
+        assertTrue(elapsedMs < 550, "Tasks should run in parallel, took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void testForkJoin_CallerRunsWhenPoolIsBusy() throws Exception {
+        // Arrange - the only platform worker is blocked until the fork-join is done
+        BlockingIoExecutor singleWorker = new BlockingIoExecutor(false, 1, 1, 1, 1, 1, 1, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> busy = singleWorker.supplyAsync(IoKind.BOOKING_FLOW, () -> {
+                awaitQuietly(release);
+                return "busy";
+            });
+
+            List<Supplier<String>> tasks = List.of(
+                () -> "first",
+                () -> "second",
+                () -> {
+                    throw new IllegalStateException("airline down");
+                });
+
+            // Act
+            long start = System.nanoTime();
+            List<CompletableFuture<String>> results = singleWorker.forkJoin(IoKind.BOOKING_FLOW, tasks);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            release.countDown();
+
+            // Assert - every task finished on the calling thread without waiting for the worker
+            assertTrue(elapsedMs < 500, "Fork-join waited for the busy worker: " + elapsedMs + " ms");
+            assertEquals("first", results.get(0).join());
+            assertEquals("second", results.get(1).join());
+            assertTrue(results.get(2).isCompletedExceptionally());
+            assertEquals("busy", busy.get(1, TimeUnit.SECONDS));
+        } finally {
+            singleWorker.shutdown();
+        }
+    }
+
+    @Test
+    void testCommonPool_IsUncapped() {
+        // Act & Assert
+        BlockingIoExecutor commonPool = BlockingIoExecutor.commonPool();
+        assertFalse(commonPool.isVirtualThreads());
+        assertEquals(0, commonPool.inFlight(IoKind.AIRLINE_SEARCH));
+        assertEquals("ok", commonPool.call(IoKind.AIRLINE_SEARCH, () -> "ok"));
+    }
+
+    private static String sleepAndReturn(long millis, String value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
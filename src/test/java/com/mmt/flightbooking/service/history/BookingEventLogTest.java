@@ -0,0 +1,110 @@
+package com.mmt.flightbooking.service.history;
+
+import com.mmt.flightbooking.entity.BookingStatus;
+import com.mmt.flightbooking.entity.BookingStatusEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingEventLogTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private BookingEventLog eventLog;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.unbindResourceIfPossible(eventLog);
+    }
+
+    @Test
+    void testAppend_BufferedUntilCommitThenWrittenAsOneBatch() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        eventLog.append(1L, BookingStatusEventType.CREATED, null, BookingStatus.PENDING, "MMT00000001");
+        eventLog.append(1L, BookingStatusEventType.AIRLINE_CONFIRMED, BookingStatus.PENDING,
+                        BookingStatus.CONFIRMED, "PNR 6E-ABC123");
+        verifyNoInteractions(jdbcTemplate);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization ->
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        // Assert
+        List<Object[]> rows = batchRows();
+        assertEquals(2, rows.size());
+        assertArrayEquals(new Object[] {1L, "CREATED", null, "PENDING", "MMT00000001"}, head(rows.get(0)));
+        assertArrayEquals(new Object[] {1L, "AIRLINE_CONFIRMED", "PENDING", "CONFIRMED", "PNR 6E-ABC123"},
+                          head(rows.get(1)));
+        assertNull(TransactionSynchronizationManager.getResource(eventLog));
+    }
+
+    @Test
+    void testAppend_RolledBackTransactionWritesNothing() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        eventLog.append(1L, BookingStatusEventType.CANCELLED, BookingStatus.CONFIRMED, BookingStatus.CANCELLED, null);
+
+        // Act
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+        assertNull(TransactionSynchronizationManager.getResource(eventLog));
+    }
+
+    @Test
+    void testAppendAll_WithoutSynchronizationWritesImmediately() {
+        // Act
+        int appended = eventLog.appendAll(List.of(1L, 2L, 3L), BookingStatusEventType.FAILED, BookingStatus.PENDING,
+                                          BookingStatus.FAILED, "abandoned");
+
+        // Assert
+        assertEquals(3, appended);
+        List<Object[]> rows = batchRows();
+        assertEquals(3, rows.size());
+        // One timestamp for the whole batch
+        assertEquals(rows.get(0)[5], rows.get(2)[5]);
+    }
+
+    @Test
+    void testAppendAll_NothingToAppend() {
+        // Act & Assert
+        assertEquals(0, eventLog.appendAll(List.of(), BookingStatusEventType.CANCELLED, BookingStatus.CONFIRMED,
+                                           BookingStatus.CANCELLED, null));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private List<Object[]> batchRows() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO booking_status_events"), captor.capture());
+        return captor.getValue();
+    }
+
+    private static Object[] head(Object[] row) {
+        return new Object[] {row[0], row[1], row[2], row[3], row[4]};
+    }
+}
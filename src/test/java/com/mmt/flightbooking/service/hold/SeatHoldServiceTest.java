@@ -0,0 +1,316 @@
+package com.mmt.flightbooking.service.hold;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mmt.flightbooking.dto.FlightSearchResult;
+import com.mmt.flightbooking.entity.User;
+import com.mmt.flightbooking.service.FlightSearchCacheService;
+import com.mmt.flightbooking.service.airline.AirlineBookingService;
+import com.mmt.flightbooking.service.airline.adapter.AirlineHoldResponse;
+import com.mmt.flightbooking.service.id.IdGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeatHoldServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private FlightSearchCacheService searchCacheService;
+
+    @Mock
+    private AirlineBookingService airlineBookingService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Spy
+    private IdGenerator idGenerator = IdGenerator.standalone();
+
+    @InjectMocks
+    private SeatHoldService seatHoldService;
+
+    private User testUser;
+    private FlightSearchResult flight;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setEmail("test@example.com");
+
+        flight = new FlightSearchResult();
+        flight.setFlightId("flight-123");
+        flight.setFlightNumber("6E-2001");
+        flight.setAirlineCode("6E");
+        flight.setDate(LocalDate.of(2025, 11, 15));
+        flight.setPrice(new BigDecimal("5500.00"));
+        flight.setCurrency("INR");
+        flight.setAvailableSeats(50);
+
+        lenient().when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        lenient().when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testCreateHold_ReservesSeatsAndHoldsWithAirline() {
+        // Arrange
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(flight);
+        when(stringRedisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(),
+                any(), any(), any(), any(), any())).thenReturn(48L);
+        when(airlineBookingService.holdSeatsWithAirline(anyString(), eq(flight), eq(2), any(Instant.class)))
+            .thenReturn(new AirlineHoldResponse(true, "6E-HOLD-1", "6E", "Seats held"));
+
+        // Act
+        SeatHold hold = seatHoldService.createHold(testUser, "flight-123", 2);
+
+        // Assert
+        assertEquals("flight-123", hold.getFlightId());
+        assertEquals(2, hold.getPassengerCount());
+        assertEquals("6E-HOLD-1", hold.getAirlineHoldReference());
+        assertTrue(hold.isActiveAt(Instant.now()));
+
+        // Seats counted against the flight's capacity, with both flight keys in one cluster slot
+        verify(stringRedisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+            eq(List.of("seat:flight:{6E:6E-2001:2025-11-15}:expiries", "seat:flight:{6E:6E-2001:2025-11-15}:seats")),
+            eq(hold.getHoldId()), eq("2"), eq("50"), any(), any());
+        verify(zSetOperations).add(eq("seat:hold:expiries"), eq(hold.getHoldId()), anyDouble());
+        verify(valueOperations).set(eq("seat:hold:" + hold.getHoldId()), same(hold), any(Duration.class));
+    }
+
+    @Test
+    void testCreateHold_SameFlightFromSeparateSearchesSharesSeats() {
+        // Arrange - another customer's search minted a different id for the same flight
+        FlightSearchResult sameFlight = new FlightSearchResult();
+        sameFlight.setFlightId("flight-789");
+        sameFlight.setFlightNumber("6E-2001");
+        sameFlight.setAirlineCode("6E");
+        sameFlight.setDate(LocalDate.of(2025, 11, 15));
+        sameFlight.setAvailableSeats(50);
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(flight);
+        when(searchCacheService.getFlightFromCache("flight-789")).thenReturn(sameFlight);
+        when(stringRedisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(),
+                any(), any(), any(), any(), any())).thenReturn(48L, 46L);
+        when(airlineBookingService.holdSeatsWithAirline(anyString(), any(), eq(2), any(Instant.class)))
+            .thenReturn(new AirlineHoldResponse(true, "6E-HOLD-1", "6E", "Seats held"));
+
+        // Act
+        SeatHold first = seatHoldService.createHold(testUser, "flight-123", 2);
+        SeatHold second = seatHoldService.createHold(testUser, "flight-789", 2);
+
+        // Assert - both holds count against the same seats
+        assertEquals(first.getFlightKey(), second.getFlightKey());
+        List<String> keys = List.of("seat:flight:{6E:6E-2001:2025-11-15}:expiries",
+                                    "seat:flight:{6E:6E-2001:2025-11-15}:seats");
+        verify(stringRedisTemplate, times(2)).execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(keys),
+            anyString(), eq("2"), eq("50"), any(), any());
+    }
+
+    @Test
+    void testCreateHold_NoSeatsLeft() {
+        // Arrange
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(flight);
+        when(stringRedisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(),
+                any(), any(), any(), any(), any())).thenReturn(-1L);
+
+        // Act & Assert
+        assertThrows(SeatHoldUnavailableException.class,
+            () -> seatHoldService.createHold(testUser, "flight-123", 2));
+        verify(airlineBookingService, never()).holdSeatsWithAirline(any(), any(), anyInt(), any());
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+    }
+
+    @Test
+    void testCreateHold_AirlineRefusalReleasesSeats() {
+        // Arrange
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(flight);
+        when(stringRedisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(),
+                any(), any(), any(), any(), any())).thenReturn(48L);
+        when(airlineBookingService.holdSeatsWithAirline(anyString(), any(), anyInt(), any()))
+            .thenReturn(new AirlineHoldResponse(false, null, "6E", "Inventory closed"));
+
+        // Act
+        SeatHoldUnavailableException e = assertThrows(SeatHoldUnavailableException.class,
+            () -> seatHoldService.createHold(testUser, "flight-123", 2));
+
+        // Assert
+        assertTrue(e.getMessage().contains("Inventory closed"));
+        ArgumentCaptor<Object> holdId = ArgumentCaptor.forClass(Object.class);
+        verify(stringRedisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), holdId.capture());
+        verify(zSetOperations).remove("seat:hold:expiries", holdId.getValue());
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+    }
+
+    @Test
+    void testCreateHold_FlightNotInSearchResults() {
+        // Arrange
+        when(searchCacheService.getFlightFromCache("flight-123")).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+            () -> seatHoldService.createHold(testUser, "flight-123", 2));
+        verifyNoInteractions(stringRedisTemplate, airlineBookingService);
+    }
+
+    @Test
+    void testReleaseExpiredHolds_ReleasesWithAirline() {
+        // Arrange
+        SeatHold expired = hold("hold-1", Instant.now().minusSeconds(5));
+        when(zSetOperations.rangeByScore(eq("seat:hold:expiries"), anyDouble(), anyDouble(), anyLong(), anyLong()))
+            .thenReturn(Set.of("hold-1"));
+        when(zSetOperations.remove("seat:hold:expiries", "hold-1")).thenReturn(1L);
+        // Stored as JSON in Redis, read back as a map
+        when(valueOperations.get("seat:hold:hold-1")).thenReturn(objectMapper.convertValue(expired, Object.class));
+        when(airlineBookingService.releaseHoldWithAirline("6E", "6E-HOLD-1")).thenReturn(true);
+
+        // Act
+        int released = seatHoldService.releaseExpiredHolds();
+
+        // Assert
+        assertEquals(1, released);
+        verify(airlineBookingService).releaseHoldWithAirline("6E", "6E-HOLD-1");
+        verify(redisTemplate).delete("seat:hold:hold-1");
+    }
+
+    @Test
+    void testReleaseExpiredHolds_SkipsHoldsClaimedByAnotherNode() {
+        // Arrange
+        when(zSetOperations.rangeByScore(eq("seat:hold:expiries"), anyDouble(), anyDouble(), anyLong(), anyLong()))
+            .thenReturn(Set.of("hold-1"));
+        when(zSetOperations.remove("seat:hold:expiries", "hold-1")).thenReturn(0L);
+
+        // Act
+        int released = seatHoldService.releaseExpiredHolds();
+
+        // Assert
+        assertEquals(0, released);
+        verify(airlineBookingService, never()).releaseHoldWithAirline(any(), any());
+        verify(redisTemplate, never()).delete(anyString());
+    }
+
+    @Test
+    void testRequireActiveHolds_ExpiredHoldRejected() {
+        // Arrange
+        when(valueOperations.get("seat:hold:hold-1")).thenReturn(hold("hold-1", Instant.now().minusSeconds(1)));
+
+        // Act & Assert
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> seatHoldService.requireActiveHolds(List.of("hold-1"), testUser, List.of("flight-123"), 2));
+        assertTrue(e.getMessage().contains("expired"));
+    }
+
+    @Test
+    void testConsumeHolds_DeactivatesHoldForReconciler() {
+        // Arrange
+        SeatHold active = hold("hold-1", Instant.now().plusSeconds(300));
+
+        // Act
+        seatHoldService.consumeHolds(List.of(active));
+
+        // Assert - seats freed, hold inactive and due for airline release right away
+        assertFalse(active.isActiveAt(Instant.now().plusMillis(1)));
+        verify(stringRedisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), eq("hold-1"));
+        verify(zSetOperations).add("seat:hold:expiries", "hold-1", 0);
+    }
+
+    @Test
+    void testReserveUnheldSeats_OnlyFlightsWithoutHold() {
+        // Arrange
+        FlightSearchResult returnFlight = new FlightSearchResult();
+        returnFlight.setFlightId("flight-456");
+        returnFlight.setFlightNumber("6E-2002");
+        returnFlight.setAirlineCode("6E");
+        returnFlight.setDate(LocalDate.of(2025, 11, 15));
+        returnFlight.setAvailableSeats(30);
+        when(stringRedisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                eq(List.of("seat:flight:{6E:6E-2002:2025-11-15}:expiries", "seat:flight:{6E:6E-2002:2025-11-15}:seats")),
+                any(), any(), any(), any(), any())).thenReturn(28L);
+
+        // Act - the outbound flight is held, the return flight is not
+        List<SeatHold> reservations = seatHoldService.reserveUnheldSeats(List.of("flight-123", "flight-456"),
+            List.of(flight, returnFlight), List.of(hold("hold-1", Instant.now().plusSeconds(300))), 2);
+
+        // Assert - counted like a hold, but nothing held with the airline
+        assertEquals(1, reservations.size());
+        assertEquals("flight-456", reservations.get(0).getFlightId());
+        verify(stringRedisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(),
+            eq(List.of("seat:flight:{6E:6E-2002:2025-11-15}:expiries", "seat:flight:{6E:6E-2002:2025-11-15}:seats")),
+            eq(reservations.get(0).getHoldId()), eq("2"), eq("30"), any(), any());
+        verifyNoInteractions(airlineBookingService, redisTemplate);
+    }
+
+    @Test
+    void testReserveUnheldSeats_NoSeatsLeftReleasesEarlierReservations() {
+        // Arrange
+        FlightSearchResult returnFlight = new FlightSearchResult();
+        returnFlight.setFlightId("flight-456");
+        returnFlight.setFlightNumber("6E-2002");
+        returnFlight.setAirlineCode("6E");
+        returnFlight.setDate(LocalDate.of(2025, 11, 15));
+        returnFlight.setAvailableSeats(1);
+        List<String> outboundKeys = List.of("seat:flight:{6E:6E-2001:2025-11-15}:expiries", "seat:flight:{6E:6E-2001:2025-11-15}:seats");
+        when(stringRedisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(outboundKeys),
+                any(), any(), any(), any(), any())).thenReturn(48L);
+        when(stringRedisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(),
+                eq(List.of("seat:flight:{6E:6E-2002:2025-11-15}:expiries", "seat:flight:{6E:6E-2002:2025-11-15}:seats")),
+                any(), any(), any(), any(), any())).thenReturn(-1L);
+
+        // Act
+        SeatHoldUnavailableException e = assertThrows(SeatHoldUnavailableException.class,
+            () -> seatHoldService.reserveUnheldSeats(List.of("flight-123", "flight-456"),
+                List.of(flight, returnFlight), List.of(), 2));
+
+        // Assert - the outbound seats are not left counted
+        assertTrue(e.getMessage().contains("6E-2002"));
+        verify(stringRedisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(outboundKeys), anyString());
+    }
+
+    private SeatHold hold(String holdId, Instant expiresAt) {
+        SeatHold hold = new SeatHold();
+        hold.setHoldId(holdId);
+        hold.setUserId(1L);
+        hold.setFlightId("flight-123");
+        hold.setFlightKey("6E:6E-2001:2025-11-15");
+        hold.setAirlineCode("6E");
+        hold.setFlightNumber("6E-2001");
+        hold.setPassengerCount(2);
+        hold.setAirlineHoldReference("6E-HOLD-1");
+        hold.setCreatedAt(expiresAt.minusSeconds(600));
+        hold.setExpiresAt(expiresAt);
+        return hold;
+    }
+}
@@ -0,0 +1,154 @@
+package com.mmt.flightbooking.service.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdGeneratorTest {
+
+    private static final long NOW = Instant.parse("2025-10-19T10:00:00Z").toEpochMilli();
+
+    @Test
+    void testNextId_EncodesTimeAndNode() {
+        // Arrange
+        IdGenerator generator = new IdGenerator(42, () -> NOW);
+
+        // Act
+        long id = generator.nextId();
+
+        // Assert
+        assertTrue(id > 0);
+        assertEquals(Instant.ofEpochMilli(NOW), IdGenerator.timestampOf(id));
+        assertEquals(42, IdGenerator.nodeOf(id));
+    }
+
+    @Test
+    void testNextId_SequenceOverflowBorrowsNextMillisecond() {
+        // Arrange - frozen clock
+        IdGenerator generator = new IdGenerator(1, () -> NOW);
+
+        // Act - one more than the sequence holds
+        long previous = 0;
+        long last = 0;
+        for (int i = 0; i <= 4096; i++) {
+            last = generator.nextId();
+            assertTrue(last > previous);
+            previous = last;
+        }
+
+        // Assert
+        assertEquals(Instant.ofEpochMilli(NOW + 1), IdGenerator.timestampOf(last));
+    }
+
+    @Test
+    void testNextId_ClockSteppingBackStaysIncreasing() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(NOW);
+        IdGenerator generator = new IdGenerator(1, clock::get);
+        long before = generator.nextId();
+
+        // Act
+        clock.set(NOW - 5000);
+        long after = generator.nextId();
+
+        // Assert
+        assertTrue(after > before);
+    }
+
+    @Test
+    void testNextId_UniqueAcrossThreads() throws Exception {
+        // Arrange
+        IdGenerator generator = new IdGenerator(7, System::currentTimeMillis);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        ids.add(generator.nextId());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(80_000, ids.size());
+    }
+
+    @Test
+    void testNextKey_FixedWidthAndSortsLikeIds() {
+        // Arrange
+        IdGenerator generator = new IdGenerator(3, () -> NOW);
+
+        // Act
+        String first = generator.nextKey();
+        String second = generator.nextKey();
+
+        // Assert
+        assertEquals(13, first.length());
+        assertTrue(first.matches("[0-9A-HJKMNP-TV-Z]{13}"));
+        assertTrue(first.compareTo(second) < 0);
+        assertEquals("0000000000001", IdGenerator.encodeKey(1));
+        assertEquals("7ZZZZZZZZZZZZ", IdGenerator.encodeKey(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testNextReference_Prefixed() {
+        // Act
+        String reference = new IdGenerator(3, () -> NOW).nextReference("MMT");
+
+        // Assert
+        assertTrue(reference.startsWith("MMT"));
+        assertEquals(16, reference.length());
+    }
+
+    @Test
+    void testNextPnr_AirlineFormat() {
+        // Arrange
+        IdGenerator generator = new IdGenerator(3, () -> NOW);
+        Set<String> pnrs = new HashSet<>();
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            pnrs.add(generator.nextPnr("6E"));
+        }
+
+        // Assert
+        assertEquals(1000, pnrs.size());
+        assertTrue(pnrs.stream().allMatch(pnr -> pnr.matches("6E[A-Z0-9]{6}")));
+    }
+
+    @Test
+    void testNodeIdOutOfRangeRejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new IdGenerator(1024, System::currentTimeMillis));
+    }
+
+    @Test
+    void testMissingNodeIdRejectedUnlessRandomAllowed() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new IdGenerator(-1, false));
+        int nodeId = IdGenerator.nodeOf(new IdGenerator(-1, true).nextId());
+        assertTrue(nodeId >= 0 && nodeId <= IdGenerator.MAX_NODE_ID);
+        assertEquals(5, IdGenerator.nodeOf(new IdGenerator(5, false).nextId()));
+    }
+}
@@ -1,8 +1,10 @@
 package com.mmt.flightbooking.service.notification;
 
 import com.mmt.flightbooking.entity.Booking;
+import com.mmt.flightbooking.entity.BookingEventType;
 import com.mmt.flightbooking.entity.BookingStatus;
 import com.mmt.flightbooking.entity.User;
+import com.mmt.flightbooking.service.outbox.OutboxService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -20,7 +22,7 @@ import static org.mockito.Mockito.*;
 class NotificationServiceTest {
 
     @Mock
-    private BookingEventPublisher eventPublisher;
+    private OutboxService outboxService;
 
     @InjectMocks
     private NotificationService notificationService;
@@ -58,7 +60,7 @@ class NotificationServiceTest {
         notificationService.sendBookingConfirmation(testBooking);
 
         // Assert
-        verify(eventPublisher, times(1)).publishBookingConfirmed(testBooking);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.BOOKING_CONFIRMED);
     }
 
     @Test
@@ -74,10 +76,10 @@ class NotificationServiceTest {
         notificationService.sendBookingConfirmation(booking3);
 
         // Assert
-        verify(eventPublisher, times(1)).publishBookingConfirmed(booking1);
-        verify(eventPublisher, times(1)).publishBookingConfirmed(booking2);
-        verify(eventPublisher, times(1)).publishBookingConfirmed(booking3);
-        verify(eventPublisher, times(3)).publishBookingConfirmed(any(Booking.class));
+        verify(outboxService, times(1)).record(booking1, BookingEventType.BOOKING_CONFIRMED);
+        verify(outboxService, times(1)).record(booking2, BookingEventType.BOOKING_CONFIRMED);
+        verify(outboxService, times(1)).record(booking3, BookingEventType.BOOKING_CONFIRMED);
+        verify(outboxService, times(3)).record(any(Booking.class), eq(BookingEventType.BOOKING_CONFIRMED));
     }
 
     @Test
@@ -86,7 +88,7 @@ class NotificationServiceTest {
         notificationService.sendPaymentConfirmation(testBooking);
 
         // Assert
-        verify(eventPublisher, times(1)).publishPaymentConfirmed(testBooking);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.PAYMENT_CONFIRMED);
     }
 
     @Test
@@ -100,9 +102,9 @@ class NotificationServiceTest {
         notificationService.sendPaymentConfirmation(booking2);
 
         // Assert
-        verify(eventPublisher, times(1)).publishPaymentConfirmed(booking1);
-        verify(eventPublisher, times(1)).publishPaymentConfirmed(booking2);
-        verify(eventPublisher, times(2)).publishPaymentConfirmed(any(Booking.class));
+        verify(outboxService, times(1)).record(booking1, BookingEventType.PAYMENT_CONFIRMED);
+        verify(outboxService, times(1)).record(booking2, BookingEventType.PAYMENT_CONFIRMED);
+        verify(outboxService, times(2)).record(any(Booking.class), eq(BookingEventType.PAYMENT_CONFIRMED));
     }
 
     @Test
@@ -114,7 +116,7 @@ class NotificationServiceTest {
         notificationService.sendBookingCancellation(testBooking);
 
         // Assert
-        verify(eventPublisher, times(1)).publishBookingCancelled(testBooking);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.BOOKING_CANCELLED);
     }
 
     @Test
@@ -131,9 +133,9 @@ class NotificationServiceTest {
         notificationService.sendBookingCancellation(booking2);
 
         // Assert
-        verify(eventPublisher, times(1)).publishBookingCancelled(booking1);
-        verify(eventPublisher, times(1)).publishBookingCancelled(booking2);
-        verify(eventPublisher, times(2)).publishBookingCancelled(any(Booking.class));
+        verify(outboxService, times(1)).record(booking1, BookingEventType.BOOKING_CANCELLED);
+        verify(outboxService, times(1)).record(booking2, BookingEventType.BOOKING_CANCELLED);
+        verify(outboxService, times(2)).record(any(Booking.class), eq(BookingEventType.BOOKING_CANCELLED));
     }
 
     @Test
@@ -143,9 +145,9 @@ class NotificationServiceTest {
         notificationService.sendPaymentConfirmation(testBooking);
 
         // Assert
-        verify(eventPublisher, times(1)).publishBookingConfirmed(testBooking);
-        verify(eventPublisher, times(1)).publishPaymentConfirmed(testBooking);
-        verify(eventPublisher, never()).publishBookingCancelled(any());
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.BOOKING_CONFIRMED);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.PAYMENT_CONFIRMED);
+        verify(outboxService, never()).record(any(), eq(BookingEventType.BOOKING_CANCELLED));
     }
 
     @Test
@@ -162,9 +164,9 @@ class NotificationServiceTest {
         notificationService.sendBookingCancellation(cancelledBooking);
 
         // Assert
-        verify(eventPublisher, times(1)).publishBookingConfirmed(confirmedBooking);
-        verify(eventPublisher, times(1)).publishPaymentConfirmed(paidBooking);
-        verify(eventPublisher, times(1)).publishBookingCancelled(cancelledBooking);
+        verify(outboxService, times(1)).record(confirmedBooking, BookingEventType.BOOKING_CONFIRMED);
+        verify(outboxService, times(1)).record(paidBooking, BookingEventType.PAYMENT_CONFIRMED);
+        verify(outboxService, times(1)).record(cancelledBooking, BookingEventType.BOOKING_CANCELLED);
     }
 
     @Test
@@ -192,19 +194,19 @@ class NotificationServiceTest {
     }
 
     @Test
-    void testNotificationService_DoesNotCatchPublisherExceptions() {
+    void testNotificationService_DoesNotCatchOutboxExceptions() {
         // Arrange
-        doThrow(new RuntimeException("Publisher failed"))
-            .when(eventPublisher).publishBookingConfirmed(any());
+        doThrow(new RuntimeException("Outbox write failed"))
+            .when(outboxService).record(any(), eq(BookingEventType.BOOKING_CONFIRMED));
 
         // Act & Assert - exception should propagate
         try {
             notificationService.sendBookingConfirmation(testBooking);
         } catch (RuntimeException e) {
-            org.junit.jupiter.api.Assertions.assertEquals("Publisher failed", e.getMessage());
+            org.junit.jupiter.api.Assertions.assertEquals("Outbox write failed", e.getMessage());
         }
 
-        verify(eventPublisher, times(1)).publishBookingConfirmed(testBooking);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.BOOKING_CONFIRMED);
     }
 
     @Test
@@ -216,7 +218,7 @@ class NotificationServiceTest {
         notificationService.sendBookingConfirmation(testBooking);
 
         // Assert - should still send notification regardless of status
-        verify(eventPublisher, times(1)).publishBookingConfirmed(testBooking);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.BOOKING_CONFIRMED);
     }
 
     @Test
@@ -228,7 +230,7 @@ class NotificationServiceTest {
         notificationService.sendBookingConfirmation(testBooking);
 
         // Assert - should still send notification regardless of status
-        verify(eventPublisher, times(1)).publishBookingConfirmed(testBooking);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.BOOKING_CONFIRMED);
     }
 
     @Test
@@ -241,8 +243,8 @@ class NotificationServiceTest {
         notificationService.sendPaymentConfirmation(testBooking);
 
         // Verify sequence
-        verify(eventPublisher, times(1)).publishBookingConfirmed(testBooking);
-        verify(eventPublisher, times(1)).publishPaymentConfirmed(testBooking);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.BOOKING_CONFIRMED);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.PAYMENT_CONFIRMED);
     }
 
     @Test
@@ -259,9 +261,9 @@ class NotificationServiceTest {
         notificationService.sendBookingCancellation(testBooking);
 
         // Verify all notifications were sent
-        verify(eventPublisher, times(1)).publishBookingConfirmed(testBooking);
-        verify(eventPublisher, times(1)).publishPaymentConfirmed(testBooking);
-        verify(eventPublisher, times(1)).publishBookingCancelled(testBooking);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.BOOKING_CONFIRMED);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.PAYMENT_CONFIRMED);
+        verify(outboxService, times(1)).record(testBooking, BookingEventType.BOOKING_CANCELLED);
     }
 
     @Test
@@ -273,8 +275,8 @@ class NotificationServiceTest {
         notificationService.sendBookingCancellation(testBooking);
         notificationService.sendBookingCancellation(testBooking);
 
-        // Assert - should publish twice
-        verify(eventPublisher, times(2)).publishBookingCancelled(testBooking);
+        // Assert - should record twice
+        verify(outboxService, times(2)).record(testBooking, BookingEventType.BOOKING_CANCELLED);
     }
 
     @Test
@@ -295,9 +297,9 @@ class NotificationServiceTest {
         notificationService.sendBookingConfirmation(spiceJetBooking);
 
         // Assert
-        verify(eventPublisher, times(1)).publishBookingConfirmed(indigoBooking);
-        verify(eventPublisher, times(1)).publishBookingConfirmed(airIndiaBooking);
-        verify(eventPublisher, times(1)).publishBookingConfirmed(spiceJetBooking);
+        verify(outboxService, times(1)).record(indigoBooking, BookingEventType.BOOKING_CONFIRMED);
+        verify(outboxService, times(1)).record(airIndiaBooking, BookingEventType.BOOKING_CONFIRMED);
+        verify(outboxService, times(1)).record(spiceJetBooking, BookingEventType.BOOKING_CONFIRMED);
     }
 
     // Helper method to create test bookings
@@ -0,0 +1,175 @@
+package com.mmt.flightbooking.service.outbox;
+
+import com.mmt.flightbooking.entity.Booking;
+import com.mmt.flightbooking.entity.BookingEventType;
+import com.mmt.flightbooking.entity.OutboxEvent;
+import com.mmt.flightbooking.entity.OutboxStatus;
+import com.mmt.flightbooking.repository.BookingRepository;
+import com.mmt.flightbooking.repository.OutboxEventRepository;
+import com.mmt.flightbooking.service.notification.BookingEventPublisher;
+import com.mmt.flightbooking.service.notification.NotificationListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry registry;
+    private OutboxRelay relay;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        relay = new OutboxRelay(outboxRepository, bookingRepository, eventPublisher, transactionTemplate, registry);
+
+        booking = new Booking();
+        booking.setId(1L);
+        booking.setBookingReference("MMT12345678");
+    }
+
+    @Test
+    void testRelayBatch_DispatchesAndMarksPublished() {
+        // Arrange
+        OutboxEvent event = event(BookingEventType.BOOKING_CONFIRMED);
+        when(outboxRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(event));
+        when(bookingRepository.findWithUserById(1L)).thenReturn(Optional.of(booking));
+        when(eventPublisher.dispatch(eq(BookingEventType.BOOKING_CONFIRMED), eq(booking), anySet()))
+            .thenReturn(Collections.emptyList());
+
+        // Act
+        int relayed = relay.relayBatch();
+
+        // Assert
+        assertEquals(1, relayed);
+        assertEquals(OutboxStatus.PUBLISHED, event.getStatus());
+        assertNotNull(event.getPublishedAt());
+        verify(outboxRepository).claim(eq(List.of(10L)), any(LocalDateTime.class));
+        verify(outboxRepository).save(event);
+        assertEquals(1, registry.get("flightbooking.outbox.lag").tag("type", "BOOKING_CONFIRMED").timer().count());
+    }
+
+    @Test
+    void testRelayBatch_ListenerFailureSchedulesRetry() {
+        // Arrange
+        OutboxEvent event = event(BookingEventType.BOOKING_CANCELLED);
+        when(outboxRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(event));
+        when(bookingRepository.findWithUserById(1L)).thenReturn(Optional.of(booking));
+        when(eventPublisher.dispatch(eq(BookingEventType.BOOKING_CANCELLED), eq(booking), anySet()))
+            .thenReturn(List.of("AIRLINE_CANCELLATION"));
+
+        // Act
+        relay.relayBatch();
+
+        // Assert
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertTrue(event.getLastError().contains("AIRLINE_CANCELLATION"));
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        verify(outboxRepository).save(event);
+        assertEquals(1.0, registry.get("flightbooking.outbox.failures").tag("type", "BOOKING_CANCELLED").counter().count());
+    }
+
+    @Test
+    void testRelayBatch_GivesUpAfterMaxAttempts() {
+        // Arrange
+        OutboxEvent event = event(BookingEventType.PAYMENT_CONFIRMED);
+        event.setAttempts(9);
+        when(outboxRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(event));
+        when(bookingRepository.findWithUserById(1L)).thenReturn(Optional.empty());
+
+        // Act
+        relay.relayBatch();
+
+        // Assert
+        assertEquals(OutboxStatus.FAILED, event.getStatus());
+        assertEquals(10, event.getAttempts());
+        verify(eventPublisher, never()).dispatch(any(), any(), any());
+    }
+
+    @Test
+    void testRelayBatch_PartialFailureRetriesOnlyFailedListener() {
+        // Arrange - real publisher: the airline refuses the first cancel, the notifications succeed
+        NotificationListener email = listener("EMAIL_NOTIFICATION");
+        NotificationListener sms = listener("SMS_NOTIFICATION");
+        NotificationListener airline = listener("AIRLINE_CANCELLATION");
+        doThrow(new IllegalStateException("Airline refused cancel")).doNothing()
+            .when(airline).onBookingCancelled(booking);
+        BookingEventPublisher publisher = new BookingEventPublisher(new ArrayList<>(List.of(email, sms, airline)));
+        OutboxRelay realRelay = new OutboxRelay(outboxRepository, bookingRepository, publisher,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), registry);
+
+        OutboxEvent event = event(BookingEventType.BOOKING_CANCELLED);
+        when(outboxRepository.lockDueBatch(any(), anyInt())).thenReturn(List.of(event));
+        when(bookingRepository.findWithUserById(1L)).thenReturn(Optional.of(booking));
+
+        // Act
+        realRelay.relayBatch();
+        OutboxStatus afterFirst = event.getStatus();
+        String deliveredAfterFirst = event.getDeliveredListeners();
+        realRelay.relayBatch();
+
+        // Assert - the customer is notified once, the airline cancel is retried
+        assertEquals(OutboxStatus.PENDING, afterFirst);
+        assertEquals("EMAIL_NOTIFICATION,SMS_NOTIFICATION", deliveredAfterFirst);
+        assertEquals(OutboxStatus.PUBLISHED, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        verify(email, times(1)).onBookingCancelled(booking);
+        verify(sms, times(1)).onBookingCancelled(booking);
+        verify(airline, times(2)).onBookingCancelled(booking);
+    }
+
+    @Test
+    void testRelayBatch_NothingDue() {
+        // Arrange
+        when(outboxRepository.lockDueBatch(any(), anyInt())).thenReturn(Collections.emptyList());
+
+        // Act
+        int relayed = relay.relayBatch();
+
+        // Assert
+        assertEquals(0, relayed);
+        verify(outboxRepository, never()).claim(any(), any());
+        verify(outboxRepository, never()).save(any());
+    }
+
+    private NotificationListener listener(String name) {
+        NotificationListener listener = mock(NotificationListener.class);
+        when(listener.getListenerName()).thenReturn(name);
+        when(listener.isEnabled()).thenReturn(true);
+        return listener;
+    }
+
+    private OutboxEvent event(BookingEventType type) {
+        OutboxEvent event = new OutboxEvent(1L, type);
+        event.setId(10L);
+        event.setCreatedAt(LocalDateTime.now().minusSeconds(2));
+        return event;
+    }
+}
@@ -4,10 +4,12 @@ import com.mmt.flightbooking.dto.PaymentRequest;
 import com.mmt.flightbooking.entity.Booking;
 import com.mmt.flightbooking.entity.Payment;
 import com.mmt.flightbooking.entity.PaymentMethod;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -17,6 +19,9 @@ import static org.junit.jupiter.api.Assertions.*;
 @ExtendWith(MockitoExtension.class)
 class NetBankingPaymentStrategyTest {
 
+    @Spy
+    private IdGenerator idGenerator = IdGenerator.standalone();
+
     @InjectMocks
     private NetBankingPaymentStrategy netBankingPaymentStrategy;
 
@@ -161,7 +166,7 @@ class NetBankingPaymentStrategyTest {
         // Assert
         if (response != null && response.isSuccess()) {
             assertTrue(response.getTransactionId().startsWith("NB_"));
-            assertEquals(11, response.getTransactionId().length()); // NB_ + 8 chars
+            assertEquals(16, response.getTransactionId().length()); // NB_ + 13-char key
         }
     }
 
@@ -4,11 +4,14 @@ import com.mmt.flightbooking.dto.PaymentRequest;
 import com.mmt.flightbooking.entity.Booking;
 import com.mmt.flightbooking.entity.Payment;
 import com.mmt.flightbooking.entity.PaymentMethod;
+import com.mmt.flightbooking.service.execution.BlockingIoExecutor;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -26,6 +29,9 @@ class PaymentGatewayServiceTest {
     @Mock
     private PaymentStrategy mockStrategy;
 
+    @Spy
+    private BlockingIoExecutor ioExecutor = BlockingIoExecutor.commonPool();
+
     @InjectMocks
     private PaymentGatewayService paymentGatewayService;
 
@@ -79,6 +85,21 @@ class PaymentGatewayServiceTest {
         verify(mockStrategy, times(1)).processPayment(paymentRequest);
     }
 
+    @Test
+    void testRefundPayment_RoutedToChargingStrategy() {
+        // Arrange - strategies refund through the interface default
+        testPayment.setTransactionId("TXN_123");
+        when(strategyFactory.isSupported(PaymentMethod.CREDIT_CARD)).thenReturn(true);
+        when(strategyFactory.getStrategy(PaymentMethod.CREDIT_CARD)).thenReturn(new CardPaymentStrategy(IdGenerator.standalone()));
+
+        // Act
+        PaymentGatewayResponse response = paymentGatewayService.refundPayment(testPayment);
+
+        // Assert
+        assertTrue(response.isSuccess());
+        assertEquals("TXN_123", response.getTransactionId());
+    }
+
     @Test
     void testProcessPayment_UnsupportedMethod() {
         // Arrange
@@ -4,13 +4,17 @@ import com.mmt.flightbooking.dto.PaymentRequest;
 import com.mmt.flightbooking.dto.PaymentResult;
 import com.mmt.flightbooking.entity.*;
 import com.mmt.flightbooking.repository.PaymentRepository;
+import com.mmt.flightbooking.service.id.IdGenerator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -29,6 +33,12 @@ class PaymentServiceTest {
     @Mock
     private PaymentGatewayService paymentGatewayService;
 
+    @Spy
+    private IdGenerator idGenerator = IdGenerator.standalone();
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -76,6 +86,10 @@ class PaymentServiceTest {
         paymentRequest.setExpiryMonth("12");
         paymentRequest.setExpiryYear("2025");
         paymentRequest.setCvv("123");
+
+        // The payment is claimed, then re-read to record the outcome
+        lenient().when(paymentRepository.claimForCharge(1L)).thenReturn(1);
+        lenient().when(paymentRepository.findById(1L)).thenReturn(Optional.of(testPayment));
     }
 
     @Test
@@ -114,6 +128,20 @@ class PaymentServiceTest {
         assertEquals(PaymentStatus.PENDING, capturedPayment.getStatus());
     }
 
+    @Test
+    void testNewPendingPayment_NotSaved() {
+        // Act
+        Payment payment = paymentService.newPendingPayment(testBooking, PaymentMethod.WALLET);
+
+        // Assert - persisted later together with the booking
+        assertNull(payment.getId());
+        assertEquals(testBooking, payment.getBooking());
+        assertEquals(testBooking.getTotalAmount(), payment.getAmount());
+        assertEquals(PaymentMethod.WALLET, payment.getMethod());
+        assertEquals(PaymentStatus.PENDING, payment.getStatus());
+        verify(paymentRepository, never()).save(any());
+    }
+
     @Test
     void testCreatePayment_DifferentPaymentMethods() {
         // Arrange - Return the argument itself so payment method is preserved
@@ -159,8 +187,9 @@ class PaymentServiceTest {
         assertEquals("TXN123456", result.getTransactionId());
         assertEquals("SUCCESS", result.getGatewayResponse());
 
-        // Verify payment status updates
-        verify(paymentRepository, times(2)).save(testPayment);
+        // Verify the payment was claimed before it was charged, and the outcome saved once
+        verify(paymentRepository).claimForCharge(1L);
+        verify(paymentRepository, times(1)).save(testPayment);
         verify(paymentGatewayService, times(1)).processPayment(paymentRequest);
     }
 
@@ -185,7 +214,7 @@ class PaymentServiceTest {
         assertEquals("Insufficient funds", result.getMessage());
 
         // Verify payment status was updated to failed
-        verify(paymentRepository, times(2)).save(testPayment);
+        verify(paymentRepository, times(1)).save(testPayment);
         assertEquals(PaymentStatus.FAILED, testPayment.getStatus());
     }
 
@@ -203,11 +232,10 @@ class PaymentServiceTest {
         // Act
         paymentService.processPayment(paymentRequest);
 
-        // Assert
-        // Verify the payment object was set to PROCESSING (it will be COMPLETED after the second save)
-        verify(paymentRepository, times(2)).save(paymentCaptor.capture());
-        // The request payment should have been set to PROCESSING initially
-        // But we can't easily verify this as it gets changed to COMPLETED later
+        // Assert - PROCESSING is set by the claim; only the outcome is saved
+        verify(paymentRepository).claimForCharge(1L);
+        verify(paymentRepository, times(1)).save(paymentCaptor.capture());
+        assertEquals(PaymentStatus.COMPLETED, paymentCaptor.getValue().getStatus());
     }
 
     @Test
@@ -290,7 +318,63 @@ class PaymentServiceTest {
 
         // Verify payment status was set to FAILED
         assertEquals(PaymentStatus.FAILED, testPayment.getStatus());
-        verify(paymentRepository, times(2)).save(testPayment); // Once for processing, once for failed
+        verify(paymentRepository, times(1)).save(testPayment);
+    }
+
+    @Test
+    void testProcessPayment_AlreadyPaidNotChargedAgain() {
+        // Arrange - the claim finds the payment COMPLETED (or being charged by another request)
+        testPayment.setStatus(PaymentStatus.COMPLETED);
+        when(paymentRepository.claimForCharge(1L)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> paymentService.processPayment(paymentRequest));
+        verifyNoInteractions(paymentGatewayService);
+        verify(paymentRepository, never()).save(any());
+        assertEquals(PaymentStatus.COMPLETED, testPayment.getStatus());
+    }
+
+    @Test
+    void testProcessPayment_UnrecordedChargeRefunded() {
+        // Arrange
+        PaymentGatewayResponse gatewayResponse = new PaymentGatewayResponse(true, "Card payment successful", "TXN123", "Razorpay");
+        when(paymentGatewayService.processPayment(paymentRequest)).thenReturn(gatewayResponse);
+        when(paymentRepository.save(any(Payment.class))).thenThrow(new RuntimeException("Connection lost"));
+        when(paymentGatewayService.refundPayment(testPayment)).thenReturn(
+            new PaymentGatewayResponse(true, "Refunded", "TXN123", "Razorpay"));
+
+        // Act
+        PaymentResult result = paymentService.processPayment(paymentRequest);
+
+        // Assert
+        assertFalse(result.isSuccess());
+        assertTrue(result.getMessage().contains("refunded"));
+        verify(paymentGatewayService).refundPayment(testPayment);
+    }
+
+    @Test
+    void testRefundPayment_CompletedPaymentRefunded() {
+        // Arrange
+        testPayment.setStatus(PaymentStatus.COMPLETED);
+        testPayment.setTransactionId("TXN123");
+        when(paymentGatewayService.refundPayment(testPayment)).thenReturn(
+            new PaymentGatewayResponse(true, "Refunded", "TXN123", "Razorpay"));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(testPayment);
+
+        // Act
+        boolean refunded = paymentService.refundPayment(1L, "booking cancelled");
+
+        // Assert
+        assertTrue(refunded);
+        assertEquals(PaymentStatus.REFUNDED, testPayment.getStatus());
+        assertEquals(TransactionStatus.REFUNDED, testPayment.getTransactions().get(0).getStatus());
+    }
+
+    @Test
+    void testRefundPayment_UnpaidPaymentNotRefunded() {
+        // Act & Assert - PENDING: nothing was charged
+        assertFalse(paymentService.refundPayment(1L, "booking cancelled"));
+        verifyNoInteractions(paymentGatewayService);
     }
 
     @Test
@@ -0,0 +1,119 @@
+package com.mmt.flightbooking.service.readmodel;
+
+import com.mmt.flightbooking.repository.BookingRepository;
+import com.mmt.flightbooking.repository.BookingSegmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingLookupServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingSegmentRepository segmentRepository;
+
+    @InjectMocks
+    private BookingLookupService lookupService;
+
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(lookupService, "registry", registry);
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testFindIdByReference_MissLoadsAndIndexes() {
+        // Arrange
+        when(bookingRepository.findIdByBookingReference("MMT00000001")).thenReturn(Optional.of(7L));
+
+        // Act & Assert
+        assertEquals(7L, lookupService.findIdByReference("MMT00000001"));
+        verify(valueOperations).set("booking:ref:MMT00000001", "7", Duration.ofHours(168));
+    }
+
+    @Test
+    void testFindIdByReference_RedisHitSkipsDatabase() {
+        // Arrange
+        when(valueOperations.get("booking:ref:MMT00000001")).thenReturn("7");
+
+        // Act & Assert
+        assertEquals(7L, lookupService.findIdByReference("MMT00000001"));
+        verifyNoInteractions(bookingRepository);
+        assertEquals(1.0, registry.counter("flightbooking.booking.lookup", "key", "reference", "source", "redis").count());
+    }
+
+    @Test
+    void testFindIdByReference_RepeatedLookupServedFromNearCache() {
+        // Arrange
+        when(valueOperations.get("booking:ref:MMT00000001")).thenReturn("7");
+
+        // Act
+        lookupService.findIdByReference("MMT00000001");
+        Long id = lookupService.findIdByReference("MMT00000001");
+
+        // Assert - Redis read once
+        assertEquals(7L, id);
+        verify(valueOperations, times(1)).get("booking:ref:MMT00000001");
+    }
+
+    @Test
+    void testFindIdByReference_UnknownReferenceNotCached() {
+        // Arrange
+        when(bookingRepository.findIdByBookingReference("MMTUNKNOWN")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertNull(lookupService.findIdByReference("MMTUNKNOWN"));
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void testFindIdByAirlinePnr_FallsBackToLaterSegments() {
+        // Arrange - PNR of the return flight, not on the booking row
+        when(bookingRepository.findIdsByAirlinePnr("AI-XYZ789")).thenReturn(List.of());
+        when(segmentRepository.findBookingIdsByAirlinePnr("AI-XYZ789")).thenReturn(List.of(9L));
+
+        // Act & Assert
+        assertEquals(9L, lookupService.findIdByAirlinePnr("AI-XYZ789"));
+        verify(valueOperations).set("booking:pnr:AI-XYZ789", "9", Duration.ofHours(168));
+    }
+
+    @Test
+    void testFindIdByAirlinePnr_RedisDownReadsDatabase() {
+        // Arrange
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        when(bookingRepository.findIdsByAirlinePnr("6E-ABC123")).thenReturn(List.of(3L));
+
+        // Act & Assert
+        assertEquals(3L, lookupService.findIdByAirlinePnr("6E-ABC123"));
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+        verifyNoInteractions(segmentRepository);
+    }
+}
@@ -0,0 +1,171 @@
+package com.mmt.flightbooking.service.readmodel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mmt.flightbooking.entity.Booking;
+import com.mmt.flightbooking.entity.BookingStatus;
+import com.mmt.flightbooking.entity.User;
+import com.mmt.flightbooking.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingReadModelServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @InjectMocks
+    private BookingReadModelService readModelService;
+
+    private User testUser;
+    private Booking testBooking;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User();
+        testUser.setId(1L);
+        testUser.setEmail("test@example.com");
+
+        testBooking = new Booking();
+        testBooking.setId(7L);
+        testBooking.setUser(testUser);
+        testBooking.setBookingReference("MMT12345678");
+        testBooking.setStatus(BookingStatus.CONFIRMED);
+        testBooking.setTotalAmount(new BigDecimal("5500.00"));
+        testBooking.setCurrency("INR");
+        testBooking.setAirlineCode("6E");
+        testBooking.setAirlinePnr("6E-ABC123");
+        testBooking.setFlightNumber("6E-2001");
+        testBooking.setOriginAirport("DEL");
+        testBooking.setDestinationAirport("BOM");
+        testBooking.setDepartureDate(LocalDate.of(2025, 11, 15));
+
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testGetBookingView_MissBuildsAndCachesView() throws Exception {
+        // Arrange
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(null, "3"));
+        when(bookingRepository.findWithUserById(7L)).thenReturn(Optional.of(testBooking));
+
+        // Act
+        BookingView view = readModelService.getBookingView(7L, testUser);
+
+        // Assert - cached at the current generation
+        assertEquals("MMT12345678", view.getDetails().getBookingReference());
+        assertEquals("CONFIRMED", view.getDetails().getStatus());
+        assertTrue(view.getEtag().startsWith("\""));
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq("booking:view:7"), json.capture(), any(Duration.class));
+        BookingView cached = objectMapper.readValue(json.getValue(), BookingView.class);
+        assertEquals(3L, cached.getGeneration());
+        assertEquals(view.getEtag(), cached.getEtag());
+    }
+
+    @Test
+    void testGetBookingView_HitSkipsDatabase() throws Exception {
+        // Arrange
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(null, null));
+        when(bookingRepository.findWithUserById(7L)).thenReturn(Optional.of(testBooking));
+        BookingView built = readModelService.getBookingView(7L, testUser);
+        String json = objectMapper.writeValueAsString(built);
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(json, null));
+        clearInvocations(bookingRepository);
+
+        // Act
+        BookingView view = readModelService.getBookingView(7L, testUser);
+
+        // Assert - same version of the booking, no database access
+        assertEquals(built.getEtag(), view.getEtag());
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void testGetBookingView_StaleGenerationRebuilt() throws Exception {
+        // Arrange - view cached before the booking was cancelled
+        BookingView stale = new BookingView("\"old\"", 1L, 0, BookingDetailsAssembler.fromBooking(testBooking));
+        testBooking.setStatus(BookingStatus.CANCELLED);
+        when(valueOperations.multiGet(anyList()))
+            .thenReturn(Arrays.asList(objectMapper.writeValueAsString(stale), "1"));
+        when(bookingRepository.findWithUserById(7L)).thenReturn(Optional.of(testBooking));
+
+        // Act
+        BookingView view = readModelService.getBookingView(7L, testUser);
+
+        // Assert
+        assertEquals("CANCELLED", view.getDetails().getStatus());
+        assertNotEquals("\"old\"", view.getEtag());
+        assertEquals(1L, view.getGeneration());
+    }
+
+    @Test
+    void testGetBookingView_OtherUsersBookingNotFound() {
+        // Arrange
+        User otherUser = new User();
+        otherUser.setId(2L);
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(null, null));
+        when(bookingRepository.findWithUserById(7L)).thenReturn(Optional.of(testBooking));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> readModelService.getBookingView(7L, otherUser));
+    }
+
+    @Test
+    void testGetBookingView_RedisDownReadsDatabase() {
+        // Arrange
+        when(valueOperations.multiGet(anyList())).thenThrow(new RedisConnectionFailureException("Connection refused"));
+        when(bookingRepository.findWithUserById(7L)).thenReturn(Optional.of(testBooking));
+
+        // Act
+        BookingView view = readModelService.getBookingView(7L, testUser);
+
+        // Assert - served, but not cached
+        assertEquals("MMT12345678", view.getDetails().getBookingReference());
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void testInvalidate_BumpsGeneration() {
+        // Act - no transaction active, so the bump is immediate
+        readModelService.invalidate(7L);
+
+        // Assert
+        verify(valueOperations).increment("booking:view:gen:7");
+        verify(stringRedisTemplate).expire(eq("booking:view:gen:7"), any(Duration.class));
+    }
+}
@@ -0,0 +1,70 @@
+package com.mmt.flightbooking.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchScopeTest {
+
+    @Test
+    void testCancel_CancelsRunningChildren() {
+        // Arrange
+        SearchScope scope = SearchScope.open("search-1", 1000);
+        CompletableFuture<String> running = scope.fork("airline:6E", CompletableFuture::new);
+        CompletableFuture<String> finished = scope.fork("airline:AI", () -> CompletableFuture.completedFuture("AI"));
+
+        // Act
+        boolean cancelled = scope.cancel("client-disconnect");
+
+        // Assert
+        assertTrue(cancelled);
+        assertTrue(running.isCancelled());
+        assertFalse(finished.isCancelled());
+        assertEquals("client-disconnect", scope.getCancelReason());
+        assertFalse(scope.cancel("deadline"));
+    }
+
+    @Test
+    void testFork_AfterCancelDoesNotStartChild() {
+        // Arrange
+        SearchScope scope = SearchScope.open("search-1", 1000);
+        scope.cancel("deadline");
+
+        // Act
+        CompletableFuture<String> child = scope.fork("airline:6E", () -> {
+            throw new AssertionError("child must not start");
+        });
+
+        // Assert
+        assertTrue(child.isCompletedExceptionally());
+        assertEquals(0, scope.getChildCount());
+    }
+
+    @Test
+    void testTimeStage_RecordsDuration() {
+        // Arrange
+        SearchScope scope = SearchScope.open("search-1", 1000);
+
+        // Act
+        String result = scope.timeStage("rank", () -> "ranked");
+
+        // Assert
+        assertEquals("ranked", result);
+        assertTrue(scope.getStageTimings().containsKey("rank"));
+    }
+
+    @Test
+    void testOpen_NonPositiveTimeoutUsesDefault() {
+        // Act
+        SearchScope scope = SearchScope.open("search-1", 0);
+
+        // Assert
+        assertFalse(scope.isExpired());
+        assertTrue(scope.remaining().compareTo(SearchScope.DEFAULT_TIMEOUT) <= 0);
+        assertTrue(scope.remaining().compareTo(Duration.ofSeconds(20)) > 0);
+        assertNotNull(scope.getSearchId());
+    }
+}
@@ -0,0 +1,129 @@
+package com.mmt.flightbooking.service.user;
+
+import com.mmt.flightbooking.entity.User;
+import com.mmt.flightbooking.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CurrentUserResolverTest {
+
+    @Mock
+    private UserService userService;
+
+    private SimpleMeterRegistry registry;
+    private UserCache userCache;
+    private CurrentUserResolver resolver;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        userCache = new UserCache(registry);
+        resolver = new CurrentUserResolver(userService, userCache);
+        user = new User();
+        user.setId(7L);
+        user.setEmail("jane@example.com");
+    }
+
+    @Test
+    void testResolve_RepeatedRequestsQueryOnce() {
+        // Arrange
+        when(userService.getUserByEmail("jane@example.com")).thenReturn(user);
+
+        // Act
+        User first = resolver.resolve(authenticated("jane@example.com"));
+        User second = resolver.resolve(authenticated("jane@example.com"));
+
+        // Assert
+        assertSame(user, first);
+        assertSame(user, second);
+        verify(userService, times(1)).getUserByEmail("jane@example.com");
+        assertEquals(1.0, registry.counter("flightbooking.user.cache", "result", "hit").count());
+    }
+
+    @Test
+    void testResolve_WithoutPrincipalUsesDemoUser() {
+        // Arrange
+        User demo = new User();
+        demo.setEmail(CurrentUserResolver.DEMO_SUBJECT);
+        when(userService.getOrCreateTestUser()).thenReturn(demo);
+        AnonymousAuthenticationToken anonymous = new AnonymousAuthenticationToken(
+            "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        // Act & Assert
+        assertSame(demo, resolver.resolve(null));
+        assertSame(demo, resolver.resolve(anonymous));
+        verify(userService, times(1)).getOrCreateTestUser();
+        verify(userService, never()).getUserByEmail(anyString());
+    }
+
+    @Test
+    void testResolve_ExpiredEntryReloaded() {
+        // Arrange
+        ReflectionTestUtils.setField(userCache, "ttlSeconds", 0L);
+        when(userService.getUserByEmail("jane@example.com")).thenReturn(user);
+
+        // Act
+        resolver.resolve(authenticated("jane@example.com"));
+        resolver.resolve(authenticated("jane@example.com"));
+
+        // Assert
+        verify(userService, times(2)).getUserByEmail("jane@example.com");
+    }
+
+    @Test
+    void testResolve_UnknownUserNotCached() {
+        // Arrange
+        when(userService.getUserByEmail("ghost@example.com")).thenThrow(new RuntimeException("User not found"));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> resolver.resolve(authenticated("ghost@example.com")));
+        assertEquals(0, userCache.size());
+    }
+
+    @Test
+    void testUserUpdate_EvictsCachedUser() {
+        // Arrange
+        when(userService.getUserByEmail("jane@example.com")).thenReturn(user);
+        resolver.resolve(authenticated("jane@example.com"));
+
+        // Act - listener fires on flush of the changed row
+        new UserCacheInvalidator(userCache).userChanged(user);
+        resolver.resolve(authenticated("jane@example.com"));
+
+        // Assert
+        verify(userService, times(2)).getUserByEmail("jane@example.com");
+    }
+
+    @Test
+    void testUserUpdate_EvictsUnderPreviousEmail() {
+        // Arrange - cached under the old email, then the email changes
+        when(userService.getUserByEmail("jane@example.com")).thenReturn(user);
+        resolver.resolve(authenticated("jane@example.com"));
+        User renamed = new User();
+        renamed.setId(7L);
+        renamed.setEmail("jane.doe@example.com");
+
+        // Act
+        userCache.evict(renamed);
+
+        // Assert
+        assertEquals(0, userCache.size());
+    }
+
+    private static UsernamePasswordAuthenticationToken authenticated(String email) {
+        return new UsernamePasswordAuthenticationToken(email, null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+    }
+}